@@ -0,0 +1,102 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+/**
+ * A {@link BaseImageLoader} implementation used by benchmarks to load {@link BenchmarkTask BenchmarkTasks}.
+ *
+ * @author Martin Albedinsky
+ */
+final class BenchmarkLoader extends BaseImageLoader<Object> {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "BenchmarkLoader";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of BenchmarkLoader.
+	 */
+	BenchmarkLoader() {
+		super(new Object());
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 */
+	@Override
+	public void start() {
+		// Ignored.
+	}
+
+	/**
+	 */
+	@Override
+	public void resume() {
+		// Ignored.
+	}
+
+	/**
+	 */
+	@Override
+	public void pause() {
+		// Ignored.
+	}
+
+	/**
+	 */
+	@Override
+	public void stop() {
+		// Ignored.
+	}
+
+	/**
+	 */
+	@Override
+	public void destroy() {
+		// Ignored.
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
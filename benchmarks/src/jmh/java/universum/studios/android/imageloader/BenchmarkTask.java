@@ -0,0 +1,126 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * A {@link BaseImageTask} implementation used by benchmarks that does not load anything but only
+ * holds the callback passed to {@link #onLoad(Object, ImageLoader.Callback)}, so the load may be
+ * finished via {@link #finish()} without involving any framework classes.
+ *
+ * @author Martin Albedinsky
+ */
+final class BenchmarkTask extends BaseImageTask<Object, String, Object> {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "BenchmarkTask";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Callback of the current load. May be {@code null}.
+	 */
+	private ImageLoader.Callback mCallback;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 */
+	@Override
+	protected boolean onLoad(@NonNull Object loader, @Nullable ImageLoader.Callback callback) {
+		this.mCallback = callback;
+		return true;
+	}
+
+	/**
+	 * Finishes the current load of this task by notifying its callback.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	void finish() {
+		final ImageLoader.Callback callback = mCallback;
+		this.mCallback = null;
+		// Bitmaps cannot be created on the host JVM.
+		if (callback != null) callback.onImageLoadFinished(this, null);
+	}
+
+	/**
+	 */
+	@Nullable
+	@Override
+	protected Bitmap onLoad(@NonNull Object loader) {
+		return null;
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onPreload(@NonNull Object loader, @ImageLoader.CacheLevel int cacheLevel) {
+		return false;
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onCancelPreload(@NonNull Object loader) {
+		return false;
+	}
+
+	/**
+	 */
+	@Override
+	protected void onCancelLoad(@NonNull Object loader) {
+		this.mCallback = null;
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onRemove(@NonNull Object loader) {
+		return false;
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,122 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the bookkeeping performed by {@link BitmapPool} whenever a bitmap is pooled, reused
+ * for decoding or evicted, that is of its {@link SizeBuckets}.
+ * <p>
+ * Bitmaps cannot be created on the host JVM, so the buckets hold plain objects with byte sizes of
+ * typical list item bitmaps.
+ *
+ * @author Martin Albedinsky
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BitmapPoolBenchmark {
+
+	/**
+	 * Byte sizes of the pooled entries, like of 320x240, 480x360, 640x480 and 1280x720 ARGB_8888 bitmaps.
+	 */
+	private static final int[] BYTE_COUNTS = {
+			320 * 240 * 4,
+			480 * 360 * 4,
+			640 * 480 * 4,
+			1280 * 720 * 4
+	};
+
+	/**
+	 * Count of entries kept in the buckets.
+	 */
+	private static final int ENTRY_COUNT = 64;
+
+	/**
+	 * Maximum ratio between byte size of a reused entry and the requested byte size, the same as
+	 * used by {@link BitmapPool}.
+	 */
+	private static final int MAX_REUSE_SIZE_RATIO = 4;
+
+	/**
+	 * Buckets filled with entries of all benchmarked sizes.
+	 */
+	private SizeBuckets<Object> buckets;
+
+	/**
+	 * Index of the next benchmarked byte size.
+	 */
+	private int index;
+
+	/**
+	 * Fills the buckets with entries.
+	 */
+	@Setup
+	public void setUp() {
+		this.buckets = new SizeBuckets<>();
+		for (int i = 0; i < ENTRY_COUNT; i++) {
+			buckets.add(new Object(), BYTE_COUNTS[i % BYTE_COUNTS.length]);
+		}
+	}
+
+	/**
+	 * Obtains an entry for reuse and pools it back, like when a bitmap is reused for decoding and
+	 * released once it is evicted from the memory cache.
+	 *
+	 * @return The reused entry.
+	 */
+	@Benchmark
+	public Object obtainAndPut() {
+		final int byteCount = nextByteCount();
+		final Object entry = buckets.remove(byteCount, byteCount * MAX_REUSE_SIZE_RATIO, null);
+		buckets.add(entry, byteCount);
+		return entry;
+	}
+
+	/**
+	 * Pools a new entry and evicts the least recently pooled one, like when the pool is full.
+	 *
+	 * @return The evicted entry.
+	 */
+	@Benchmark
+	public Object putAndEvict() {
+		buckets.add(new Object(), nextByteCount());
+		return buckets.removeEldest();
+	}
+
+	/**
+	 * Returns the next benchmarked byte size.
+	 *
+	 * @return Byte size of an entry.
+	 */
+	private int nextByteCount() {
+		final int byteCount = BYTE_COUNTS[index];
+		this.index = (index + 1) % BYTE_COUNTS.length;
+		return byteCount;
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of dispatching of tasks through {@link TaskCoalescer} and delivering of theirs results
+ * to callbacks, including tracking of in-flight loads, coalescing of equal tasks and recording of
+ * metrics. Contended variants are run by multiple threads sharing a single coalescer.
+ * <p>
+ * Tasks are loaded via the coalescer directly and without image views, so no framework classes,
+ * which are only stubs on the host JVM, are involved.
+ *
+ * @author Martin Albedinsky
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CoalescerBenchmark {
+
+	/**
+	 * Count of tasks joining a single coalesced load.
+	 */
+	private static final int JOINED_TASK_COUNT = 4;
+
+	/**
+	 * Coalescer shared by all benchmark threads.
+	 */
+	private TaskCoalescer coalescer;
+
+	/**
+	 * Prepares the shared coalescer.
+	 */
+	@Setup
+	public void setUp() {
+		this.coalescer = new TaskCoalescer(new BenchmarkLoader());
+	}
+
+	/**
+	 * Loads a single task and finishes its load.
+	 */
+	@Benchmark
+	public void loadAndFinish(ThreadTasks tasks, Blackhole blackhole) {
+		final BenchmarkTask task = tasks.next();
+		blackhole.consume(coalescer.load(task, tasks.callback));
+		task.finish();
+	}
+
+	/**
+	 * Loads a single task and finishes its load while other threads use the same coalescer.
+	 */
+	@Benchmark
+	@Threads(4)
+	public void loadAndFinishContended(ThreadTasks tasks, Blackhole blackhole) {
+		loadAndFinish(tasks, blackhole);
+	}
+
+	/**
+	 * Loads tasks with the same cache key, so all but the first one join its load, and finishes
+	 * the load which delivers its result to all of them.
+	 */
+	@Benchmark
+	public void loadCoalescedAndFinish(ThreadTasks tasks, Blackhole blackhole) {
+		final BenchmarkTask[] joined = tasks.joined;
+		for (final BenchmarkTask task : joined) {
+			blackhole.consume(coalescer.load(task, tasks.callback));
+		}
+		joined[0].finish();
+	}
+
+	/**
+	 * Set of tasks owned by a single benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadTasks {
+
+		/**
+		 * Count of tasks with distinct targets cycled by each thread.
+		 */
+		private static final int TASK_COUNT = 64;
+
+		/**
+		 * Tasks with distinct targets.
+		 */
+		BenchmarkTask[] tasks;
+
+		/**
+		 * Tasks with the same target.
+		 */
+		BenchmarkTask[] joined;
+
+		/**
+		 * Callback receiving results of the loaded tasks.
+		 */
+		ImageLoader.Callback callback;
+
+		/**
+		 * Index of the next task to be loaded.
+		 */
+		private int index;
+
+		/**
+		 * Prepares tasks with targets unique for the current thread.
+		 */
+		@Setup
+		public void setUp(final Blackhole blackhole) {
+			final String prefix = "https://images.example.com/" + Thread.currentThread().getId() + "/";
+			this.tasks = new BenchmarkTask[TASK_COUNT];
+			for (int i = 0; i < TASK_COUNT; i++) {
+				tasks[i] = new BenchmarkTask();
+				tasks[i].target(prefix + i + ".jpg");
+			}
+			this.joined = new BenchmarkTask[JOINED_TASK_COUNT];
+			for (int i = 0; i < JOINED_TASK_COUNT; i++) {
+				joined[i] = new BenchmarkTask();
+				joined[i].target(prefix + "joined.jpg");
+			}
+			this.callback = new ImageLoader.Callback() {
+
+				/**
+				 */
+				@Override
+				public void onImageLoadFinished(@NonNull ImageLoader.Task task, @NonNull Bitmap bitmap) {
+					blackhole.consume(task);
+				}
+
+				/**
+				 */
+				@Override
+				public void onImageLoadFailed(@NonNull ImageLoader.Task task, @NonNull ImageLoader.Error error) {
+					blackhole.consume(error);
+				}
+			};
+		}
+
+		/**
+		 * Returns the next task to be loaded.
+		 *
+		 * @return Task with a target not being loaded at this time.
+		 */
+		BenchmarkTask next() {
+			final BenchmarkTask task = tasks[index];
+			this.index = (index + 1) % TASK_COUNT;
+			return task;
+		}
+	}
+}
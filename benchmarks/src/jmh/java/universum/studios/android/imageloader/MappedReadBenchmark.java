@@ -0,0 +1,191 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of reading of encoded image data from a file via {@link MappedInputStream} compared
+ * to reading via a buffered file stream.
+ * <p>
+ * Android's decoder is not available on the host JVM, so the data are only read the same way the
+ * decoder reads them, that is in chunks into a temporary buffer of {@link #DECODER_BUFFER_SIZE}.
+ * The two pass variants read at first only the header, like when decoding bounds of an image, and
+ * then the whole file.
+ *
+ * @author Martin Albedinsky
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappedReadBenchmark {
+
+	/**
+	 * Size of the temporary buffer into which the decoder reads the data.
+	 */
+	private static final int DECODER_BUFFER_SIZE = 16 * 1024;
+
+	/**
+	 * Length of the sample file in bytes.
+	 */
+	@Param({"16384", "262144", "4194304"})
+	public int length;
+
+	/**
+	 * Sample file with random data.
+	 */
+	private File file;
+
+	/**
+	 * Temporary buffer into which are the data read.
+	 */
+	private final byte[] buffer = new byte[DECODER_BUFFER_SIZE];
+
+	/**
+	 * Creates the sample file.
+	 *
+	 * @throws IOException If writing of the file fails.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		final byte[] data = new byte[length];
+		new Random(length).nextBytes(data);
+		this.file = File.createTempFile("benchmark", ".img");
+		final FileOutputStream output = new FileOutputStream(file);
+		try {
+			output.write(data);
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Deletes the sample file.
+	 */
+	@TearDown
+	public void tearDown() {
+		if (!file.delete()) file.deleteOnExit();
+	}
+
+	/**
+	 * Reads the whole file via a buffered file stream.
+	 *
+	 * @return Count of the read bytes.
+	 * @throws IOException If reading fails.
+	 */
+	@Benchmark
+	public long readStream() throws IOException {
+		final InputStream stream = new BufferedInputStream(new FileInputStream(file), DECODER_BUFFER_SIZE);
+		try {
+			return readFully(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Reads the whole file via a memory mapping.
+	 *
+	 * @return Count of the read bytes.
+	 * @throws IOException If mapping fails.
+	 */
+	@Benchmark
+	public long readMapped() throws IOException {
+		final InputStream stream = MappedInputStream.open(file);
+		try {
+			return readFully(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Reads the header and then the whole file, each time via a newly opened buffered file stream.
+	 *
+	 * @return Count of the read bytes.
+	 * @throws IOException If reading fails.
+	 */
+	@Benchmark
+	public long readStreamTwoPass() throws IOException {
+		InputStream stream = new BufferedInputStream(new FileInputStream(file), DECODER_BUFFER_SIZE);
+		long count;
+		try {
+			count = stream.read(buffer, 0, buffer.length);
+		} finally {
+			stream.close();
+		}
+		stream = new BufferedInputStream(new FileInputStream(file), DECODER_BUFFER_SIZE);
+		try {
+			return count + readFully(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Reads the header and then the whole file via a single memory mapping.
+	 *
+	 * @return Count of the read bytes.
+	 * @throws IOException If mapping fails.
+	 */
+	@Benchmark
+	public long readMappedTwoPass() throws IOException {
+		final MappedInputStream stream = MappedInputStream.open(file);
+		try {
+			final long count = stream.read(buffer, 0, buffer.length);
+			stream.rewind();
+			return count + readFully(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Reads all remaining data of the specified <var>stream</var> into the temporary buffer.
+	 *
+	 * @param stream The stream to be read.
+	 * @return Count of the read bytes.
+	 * @throws IOException If reading fails.
+	 */
+	private long readFully(InputStream stream) throws IOException {
+		long count = 0;
+		int read;
+		while ((read = stream.read(buffer, 0, buffer.length)) != -1) {
+			count += read;
+		}
+		return count;
+	}
+}
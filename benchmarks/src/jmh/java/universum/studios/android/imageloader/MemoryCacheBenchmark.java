@@ -0,0 +1,216 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of lookups and insertions of {@link TaskKey TaskKeys} into a memory cache shared by
+ * multiple threads, like the fetch and decode threads of {@link CoreLoader} along with the main
+ * thread share its {@link MemoryCache}.
+ * <p>
+ * {@link MemoryCache} holds bitmaps, which cannot be created on the host JVM, and it is backed
+ * by {@code LruCache} from the support library. The benchmark therefore uses {@link LruMap} that
+ * locks and orders entries the same way as {@code LruCache} does and sizes them by byte counts
+ * of typical list item bitmaps, so it measures cost of the keys and of the cache lock.
+ *
+ * @author Martin Albedinsky
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemoryCacheBenchmark {
+
+	/**
+	 * Byte size of a single cached entry, like of a 320x240 ARGB_8888 bitmap.
+	 */
+	private static final int BYTE_COUNT = 320 * 240 * 4;
+
+	/**
+	 * Count of distinct keys used by each thread. Only half of them fits into the cache, so some
+	 * of the lookups miss and some of the insertions evict.
+	 */
+	private static final int KEY_COUNT = 128;
+
+	/**
+	 * Cache shared by all benchmark threads.
+	 */
+	private LruMap cache;
+
+	/**
+	 * Prepares the shared cache.
+	 */
+	@Setup
+	public void setUp() {
+		this.cache = new LruMap(KEY_COUNT / 2 * BYTE_COUNT);
+	}
+
+	/**
+	 * Looks up an entry and inserts it if it is missing, like when a task is loaded.
+	 *
+	 * @return The cached entry.
+	 */
+	@Benchmark
+	public Object getOrPut(ThreadKeys keys) {
+		final int index = keys.next();
+		Object entry = cache.get(keys.lookups[index]);
+		if (entry == null) cache.put(keys.keys[index], entry = new Object());
+		return entry;
+	}
+
+	/**
+	 * Looks up an entry and inserts it if it is missing while other threads use the same cache.
+	 *
+	 * @return The cached entry.
+	 */
+	@Benchmark
+	@Threads(4)
+	public Object getOrPutContended(ThreadKeys keys) {
+		return getOrPut(keys);
+	}
+
+	/**
+	 * Set of keys owned by a single benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadKeys {
+
+		/**
+		 * Keys with distinct targets under which are the entries put.
+		 */
+		TaskKey[] keys;
+
+		/**
+		 * Keys equal to {@link #keys} but being distinct instances, so lookups compare the keys
+		 * as the cache does for keys of distinct tasks.
+		 */
+		TaskKey[] lookups;
+
+		/**
+		 * Index of the next key.
+		 */
+		private int index;
+
+		/**
+		 * Prepares keys with targets unique for the current thread, computed the same way as keys
+		 * of resized tasks.
+		 */
+		@Setup
+		public void setUp() {
+			final String prefix = "https://images.example.com/" + Thread.currentThread().getId() + "/";
+			this.keys = new TaskKey[KEY_COUNT];
+			this.lookups = new TaskKey[KEY_COUNT];
+			for (int i = 0; i < KEY_COUNT; i++) {
+				keys[i] = createKey(prefix + i + ".jpg");
+				lookups[i] = createKey(prefix + i + ".jpg");
+			}
+		}
+
+		/**
+		 * Creates a key for the specified <var>target</var> resized to a list item.
+		 *
+		 * @param target The target of the key.
+		 * @return The created key.
+		 */
+		private static TaskKey createKey(String target) {
+			return new TaskKey(target, 320, 240, TaskKey.SCALE_CENTER_CROP, TaskKey.CONFIG_DEFAULT, null, null);
+		}
+
+		/**
+		 * Returns index of the next key.
+		 *
+		 * @return Index into {@link #keys} and {@link #lookups}.
+		 */
+		int next() {
+			final int next = index;
+			this.index = (index + 1) % KEY_COUNT;
+			return next;
+		}
+	}
+
+	/**
+	 * Map bounded by a total byte size of its entries that evicts the least recently used ones,
+	 * synchronized and ordered the same way as {@code LruCache}.
+	 */
+	static final class LruMap {
+
+		/**
+		 * Entries in the access order.
+		 */
+		private final LinkedHashMap<TaskKey, Object> map = new LinkedHashMap<>(0, 0.75f, true);
+
+		/**
+		 * Maximum size in bytes.
+		 */
+		private final int maxSize;
+
+		/**
+		 * Current size in bytes.
+		 */
+		private int size;
+
+		/**
+		 * Creates a new instance of LruMap with the specified maximum <var>maxSize</var>.
+		 *
+		 * @param maxSize The maximum size in bytes.
+		 */
+		LruMap(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		/**
+		 * Returns the entry for the specified <var>key</var> and marks it as the most recently used.
+		 *
+		 * @param key The key of the entry.
+		 * @return The entry or {@code null} if there is none.
+		 */
+		synchronized Object get(TaskKey key) {
+			return map.get(key);
+		}
+
+		/**
+		 * Puts the specified <var>entry</var> for the given <var>key</var> and evicts the least
+		 * recently used entries if the maximum size is exceeded.
+		 *
+		 * @param key   The key of the entry.
+		 * @param entry The entry to be put.
+		 */
+		synchronized void put(TaskKey key, Object entry) {
+			if (map.put(key, entry) == null) this.size += BYTE_COUNT;
+			final Iterator<Map.Entry<TaskKey, Object>> iterator = map.entrySet().iterator();
+			while (size > maxSize && iterator.hasNext()) {
+				iterator.next();
+				iterator.remove();
+				this.size -= BYTE_COUNT;
+			}
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of recording of measurements into {@link MetricsRegistry} which is performed several
+ * times for each loaded task, possibly from multiple threads at once.
+ *
+ * @author Martin Albedinsky
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsBenchmark {
+
+	/**
+	 * Registry shared by all benchmark threads.
+	 */
+	private final MetricsRegistry registry = new MetricsRegistry();
+
+	/**
+	 * Records measurements of a single successful load.
+	 */
+	@Benchmark
+	public void recordLoad() {
+		registry.onCacheLookup(ImageLoader.Metrics.CACHE_MEMORY, false);
+		registry.onStageTime(ImageLoader.Metrics.STAGE_QUEUE, 150000L);
+		registry.onStageTime(ImageLoader.Metrics.STAGE_FETCH, 12000000L);
+		registry.onStageTime(ImageLoader.Metrics.STAGE_DECODE, 4000000L);
+		registry.onBitmapDecoded(320 * 240 * 4);
+		registry.onStageTime(ImageLoader.Metrics.STAGE_TOTAL, 17000000L);
+	}
+
+	/**
+	 * Records measurements of a single successful load while other threads record into the same
+	 * registry.
+	 */
+	@Benchmark
+	@Threads(4)
+	public void recordLoadContended() {
+		recordLoad();
+	}
+
+	/**
+	 * Captures snapshot of the registry.
+	 *
+	 * @return The captured snapshot.
+	 */
+	@Benchmark
+	public MetricsRegistry.Snapshot snapshot() {
+		return registry.snapshot();
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of construction of tasks and computation of theirs keys, which are performed
+ * on the main thread for each bound image view.
+ *
+ * @author Martin Albedinsky
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskBenchmark {
+
+	/**
+	 * Target of the benchmarked tasks.
+	 */
+	private static final String TARGET = "https://images.example.com/photos/2017/03/landscape_1920x1080.jpg";
+
+	/**
+	 * Transformation of the benchmarked tasks.
+	 */
+	private final Object transformation = new Object();
+
+	/**
+	 * Fully configured task of which cache key is computed.
+	 */
+	private BenchmarkTask task;
+
+	/**
+	 * Task configured equally as {@link #task} of which key is compared.
+	 */
+	private BenchmarkTask other;
+
+	/**
+	 * Prepares the task for computation of its cache key.
+	 */
+	@Setup
+	public void setUp() {
+		this.task = createTask();
+		task.transform(transformation);
+		this.other = createTask();
+		other.transform(transformation);
+	}
+
+	/**
+	 * Creates a new task configured as for binding into a list item.
+	 *
+	 * @return The created task.
+	 */
+	@Benchmark
+	public BenchmarkTask createTask() {
+		final BenchmarkTask task = new BenchmarkTask();
+		task.target(TARGET);
+		task.placeholder(1);
+		task.error(2);
+		task.resize(320, 240);
+		task.centerCrop();
+		task.priority(ImageLoader.Task.PRIORITY_HIGH);
+		return task;
+	}
+
+	/**
+	 * Computes key of a task with size and transformation after its target has been changed.
+	 *
+	 * @return The computed key.
+	 */
+	@Benchmark
+	public TaskKey computeKey() {
+		task.target(TARGET);
+		return task.key();
+	}
+
+	/**
+	 * Returns the already computed key of a task with size and transformation.
+	 *
+	 * @return The cached key.
+	 */
+	@Benchmark
+	public TaskKey cachedKey() {
+		return task.key();
+	}
+
+	/**
+	 * Compares keys of two equally configured tasks.
+	 *
+	 * @return {@code True} if the keys are equal.
+	 */
+	@Benchmark
+	public boolean compareKeys() {
+		return task.key().equals(other.key());
+	}
+}
@@ -0,0 +1,315 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.widget.ImageView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class BaseImageLoaderTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "BaseImageLoaderTest";
+
+	private static final String TARGET = "http://www.example.com/image.png";
+
+	@Test
+	public void testPreloadDoesNotChangeTaskPriority() {
+		final Backend backend = new Backend();
+		final TestLoader loader = new TestLoader(backend);
+		final TestTask task = new TestTask();
+		task.target(TARGET);
+		assertThat(loader.preload(task, ImageLoader.CACHE_LEVEL_MEMORY), is(true));
+		assertThat(task.priority(), is(ImageLoader.Task.PRIORITY_NORMAL));
+		assertThat(backend.preloaded.size(), is(1));
+		final TestTask preloaded = backend.preloaded.get(0);
+		assertThat(preloaded, is(not(sameInstance(task))));
+		assertThat(preloaded.target(), is(TARGET));
+		assertThat(preloaded.priority(), is(ImageLoader.Task.PRIORITY_PREFETCH));
+	}
+
+	@Test
+	public void testPreloadKeepsExplicitPriority() {
+		final Backend backend = new Backend();
+		final TestTask task = new TestTask();
+		task.target(TARGET).priority(ImageLoader.Task.PRIORITY_HIGH);
+		new TestLoader(backend).preload(task, ImageLoader.CACHE_LEVEL_MEMORY);
+		assertThat(backend.preloaded, contains(task));
+	}
+
+	@Test
+	public void testCancelCancelsPreloadedCopy() {
+		final Backend backend = new Backend();
+		final TestLoader loader = new TestLoader(backend);
+		final TestTask task = new TestTask();
+		task.target(TARGET);
+		loader.preload(task, ImageLoader.CACHE_LEVEL_MEMORY);
+		assertThat(loader.cancel(task), is(true));
+		assertThat(backend.cancelled, contains(backend.preloaded.get(0)));
+	}
+
+	@Test
+	public void testInvalidateTrackedTargets() throws Exception {
+		final Backend backend = new Backend();
+		final TestLoader loader = new TestLoader(backend);
+		final TestTask task = new TestTask();
+		task.target(TARGET);
+		loader.preload(task, ImageLoader.CACHE_LEVEL_MEMORY);
+		assertThat(loader.invalidate("http://www.example.com/").get(), is(1));
+		assertThat(backend.removed, contains(TARGET));
+	}
+
+	@Test
+	public void testInvalidateCachedTargets() throws Exception {
+		final Backend backend = new Backend();
+		final TestLoader loader = new TestLoader(backend);
+		final TestTask task = new TestTask();
+		task.target(TARGET);
+		loader.preload(task, ImageLoader.CACHE_LEVEL_MEMORY);
+		backend.cached.add(TARGET);
+		backend.cached.add("http://www.example.com/cached.png");
+		backend.cached.add("http://www.example.org/other.png");
+		assertThat(loader.invalidate("http://www.example.com/").get(), is(2));
+		assertThat(backend.removed, containsInAnyOrder(TARGET, "http://www.example.com/cached.png"));
+	}
+
+	@Test
+	public void testThumbnailTaskDoesNotDetachViewOfClientTask() {
+		final ImageView view = new ImageView(InstrumentationRegistry.getTargetContext());
+		final TestTask thumbnail = new TestTask();
+		thumbnail.target(TARGET).view(view);
+		final TestTask task = new TestTask();
+		task.target(TARGET).thumbnail(thumbnail);
+		final BaseImageTask thumbnailTask = task.thumbnailTask();
+		assertThat(thumbnailTask, is(not(sameInstance((BaseImageTask) thumbnail))));
+		assertThat(thumbnailTask.view(), is(nullValue()));
+		assertThat(thumbnailTask.target(), is((Object) TARGET));
+		assertThat(thumbnail.view(), is(view));
+	}
+
+	@Test
+	public void testThumbnailTaskWithoutView() {
+		final TestTask thumbnail = new TestTask();
+		thumbnail.target(TARGET);
+		final TestTask task = new TestTask();
+		task.target(TARGET).thumbnail(thumbnail);
+		assertThat(task.thumbnailTask(), is(sameInstance((BaseImageTask) thumbnail)));
+	}
+
+	@Test
+	public void testBatchFinishesWhenTaskIsCancelled() throws Exception {
+		final Backend backend = new Backend();
+		final TestLoader loader = new TestLoader(backend);
+		final TestTask loaded = new TestTask();
+		loaded.target(TARGET);
+		final TestTask cancelled = new TestTask();
+		cancelled.target("http://www.example.com/cancelled.png");
+		final BatchStatsCallback callback = new BatchStatsCallback();
+		assertThat(loader.load(Arrays.asList(loaded, cancelled), callback), is(true));
+		backend.loading.get(loaded).onImageLoadFinished(loaded, Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888));
+		assertThat(loader.cancel(cancelled), is(true));
+		assertThat(callback.latch.await(5, TimeUnit.SECONDS), is(true));
+		assertThat(callback.stats.taskCount, is(2));
+		assertThat(callback.stats.failedCount, is(1));
+	}
+
+	@Test
+	public void testCancelledFutureCancelsLoad() {
+		final Backend backend = new Backend();
+		final TestLoader loader = new TestLoader(backend);
+		final TestTask task = new TestTask();
+		task.target(TARGET);
+		final Future<Bitmap> future = loader.loadAsync(task);
+		InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+		assertThat(backend.loading.containsKey(task), is(true));
+		assertThat(future.cancel(true), is(true));
+		InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+		assertThat(future.isCancelled(), is(true));
+		assertThat(backend.cancelledLoads, contains(task));
+	}
+
+	@Test
+	public void testFutureCancelledBeforeStartDoesNotLoad() throws Exception {
+		final Backend backend = new Backend();
+		final TestLoader loader = new TestLoader(backend);
+		final TestTask task = new TestTask();
+		task.target(TARGET);
+		// Block the main thread, so the load cannot start before the future is cancelled.
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		new Handler(Looper.getMainLooper()).post(new Runnable() {
+
+			@Override
+			public void run() {
+				blocked.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		blocked.await();
+		final Future<Bitmap> future = loader.loadAsync(task);
+		assertThat(future.cancel(true), is(true));
+		release.countDown();
+		InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+		assertThat(backend.loading.containsKey(task), is(false));
+	}
+
+	private static final class BatchStatsCallback implements ImageLoader.BatchCallback {
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		volatile ImageLoader.BatchStats stats;
+
+		@Override
+		public void onBatchItemsFinished(@NonNull List<ImageLoader.BatchItem> items) {
+		}
+
+		@Override
+		public void onBatchFinished(@NonNull ImageLoader.BatchStats stats) {
+			this.stats = stats;
+			latch.countDown();
+		}
+	}
+
+	private static final class Backend {
+
+		final Map<TestTask, ImageLoader.Callback> loading = new IdentityHashMap<>();
+		final List<TestTask> preloaded = new ArrayList<>();
+		final List<TestTask> cancelled = new ArrayList<>();
+		final List<TestTask> cancelledLoads = new ArrayList<>();
+		final List<String> cached = new ArrayList<>();
+		final List<String> removed = new ArrayList<>();
+	}
+
+	private static final class TestLoader extends BaseImageLoader<Backend> {
+
+		TestLoader(Backend backend) {
+			super(backend);
+		}
+
+		@Override
+		public void start() {
+		}
+
+		@Override
+		public void resume() {
+		}
+
+		@Override
+		public void pause() {
+		}
+
+		@Override
+		public void stop() {
+		}
+
+		@Override
+		public void destroy() {
+		}
+
+		@Override
+		protected void onCollectCachedTargets(@NonNull Collection<Object> targets) {
+			targets.addAll(mLoader.cached);
+		}
+
+		@Override
+		protected TestTask onObtainTask() {
+			return new TestTask();
+		}
+	}
+
+	private static final class TestTask extends BaseImageTask<Backend, String, Void> {
+
+		@Nullable
+		@Override
+		protected TestTask onCreateTask() {
+			return new TestTask();
+		}
+
+		@Override
+		protected boolean onLoad(@NonNull Backend backend, @Nullable ImageLoader.Callback callback) {
+			backend.loading.put(this, callback);
+			return true;
+		}
+
+		@Nullable
+		@Override
+		protected Bitmap onLoad(@NonNull Backend backend) {
+			return null;
+		}
+
+		@Override
+		protected boolean onPreload(@NonNull Backend backend, @ImageLoader.CacheLevel int cacheLevel) {
+			backend.preloaded.add(this);
+			return true;
+		}
+
+		@Override
+		protected boolean onCancelPreload(@NonNull Backend backend) {
+			backend.cancelled.add(this);
+			return true;
+		}
+
+		@Override
+		protected void onCancelLoad(@NonNull Backend backend) {
+			backend.cancelledLoads.add(this);
+		}
+
+		@Override
+		protected boolean onRemove(@NonNull Backend backend) {
+			backend.removed.add(target());
+			return true;
+		}
+	}
+}
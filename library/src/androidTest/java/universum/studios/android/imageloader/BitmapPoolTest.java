@@ -0,0 +1,149 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.widget.ImageView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class BitmapPoolTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "BitmapPoolTest";
+
+	private static final int MAX_SIZE = 1024 * 1024;
+
+	private BitmapPool mPool;
+
+	@Before
+	public void beforeTest() {
+		assumeTrue(BitmapPool.isSupported());
+		this.mPool = new BitmapPool(MAX_SIZE);
+	}
+
+	@Test
+	public void testPutRejectsImmutableBitmap() {
+		final Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888).copy(Bitmap.Config.ARGB_8888, false);
+		assertThat(mPool.put(bitmap), is(false));
+		assertThat(mPool.size(), is(0));
+	}
+
+	@Test
+	public void testPutRejectsBitmapLargerThanPool() {
+		final BitmapPool pool = new BitmapPool(100);
+		assertThat(pool.put(Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888)), is(false));
+	}
+
+	@Test
+	public void testPutAccumulatesSize() {
+		mPool.put(Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+		mPool.put(Bitmap.createBitmap(10, 10, Bitmap.Config.RGB_565));
+		assertThat(mPool.size(), is(400 + 200));
+	}
+
+	@Test
+	public void testGetReusesBitmapFromLargerBucket() {
+		assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT);
+		final Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+		mPool.put(bitmap);
+		final Bitmap reused = mPool.get(50, 50, Bitmap.Config.ARGB_8888);
+		assertThat(reused, sameInstance(bitmap));
+		assertThat(reused.getWidth(), is(50));
+		assertThat(reused.getHeight(), is(50));
+		assertThat(mPool.size(), is(0));
+	}
+
+	@Test
+	public void testGetDoesNotReuseTooLargeBitmap() {
+		assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT);
+		mPool.put(Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+		assertThat(mPool.get(40, 40, Bitmap.Config.ARGB_8888), is(nullValue()));
+		assertThat(mPool.get(200, 200, Bitmap.Config.ARGB_8888), is(nullValue()));
+	}
+
+	@Test
+	public void testGetOrCreateCreatesBitmapForEmptyPool() {
+		assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT);
+		final Bitmap bitmap = mPool.getOrCreate(20, 10, Bitmap.Config.ARGB_8888);
+		assertThat(bitmap.isMutable(), is(true));
+		assertThat(bitmap.getWidth(), is(20));
+		assertThat(bitmap.getHeight(), is(10));
+	}
+
+	@Test
+	public void testTrimToSizeRemovesLeastRecentlyPooledBitmaps() {
+		final Bitmap first = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+		final Bitmap second = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+		mPool.put(first);
+		mPool.put(second);
+		assertThat(mPool.trimToSize(400), is(400));
+		assertThat(mPool.size(), is(400));
+		assertThat(first.isRecycled(), is(true));
+		assertThat(second.isRecycled(), is(false));
+	}
+
+	@Test
+	public void testOnTrimMemoryModerateClearsPool() {
+		mPool.put(Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+		assertThat(mPool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_MODERATE), is(400));
+		assertThat(mPool.size(), is(0));
+	}
+
+	@Test
+	public void testOnTrimMemoryKeepsMaxSize() {
+		mPool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+		assertThat(mPool.maxSize(), is(MAX_SIZE));
+		final Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+		assertThat(mPool.put(bitmap), is(true));
+		assertThat(mPool.size(), is(400));
+	}
+
+	@Test
+	public void testReleaseRefusesBitmapsInUse() {
+		final ImageView view = new ImageView(InstrumentationRegistry.getContext());
+		final Bitmap attached = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+		final Bitmap retained = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+		mPool.attach(view, attached);
+		mPool.retain(retained);
+		assertThat(mPool.release(attached), is(false));
+		assertThat(mPool.release(retained), is(false));
+		mPool.detach(view);
+		assertThat(mPool.release(attached), is(true));
+	}
+}
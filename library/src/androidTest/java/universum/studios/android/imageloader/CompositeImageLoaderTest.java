@@ -0,0 +1,159 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class CompositeImageLoaderTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "CompositeImageLoaderTest";
+
+	@Test
+	public void testSchemeOfUrl() {
+		assertThat(CompositeImageLoader.schemeOf("http://www.example.com/image.png"), is("http"));
+		assertThat(CompositeImageLoader.schemeOf("https://www.example.com/image.png"), is("https"));
+		assertThat(CompositeImageLoader.schemeOf("content://media/external/images/1"), is("content"));
+		assertThat(CompositeImageLoader.schemeOf("svn+ssh-1.0://host/image.png"), is("svn+ssh-1.0"));
+	}
+
+	@Test
+	public void testSchemeOfFile() {
+		assertThat(CompositeImageLoader.schemeOf("/sdcard/image.png"), is(CompositeImageLoader.SCHEME_FILE));
+		assertThat(CompositeImageLoader.schemeOf(new File("image.png")), is(CompositeImageLoader.SCHEME_FILE));
+		assertThat(CompositeImageLoader.schemeOf("file:///sdcard/image.png"), is(CompositeImageLoader.SCHEME_FILE));
+	}
+
+	@Test
+	public void testSchemeOfUri() {
+		assertThat(CompositeImageLoader.schemeOf(Uri.parse("https://www.example.com/image.png")), is("https"));
+		assertThat(CompositeImageLoader.schemeOf(Uri.parse("image.png")), is(nullValue()));
+	}
+
+	@Test
+	public void testSchemeOfTargetWithoutScheme() {
+		assertThat(CompositeImageLoader.schemeOf(""), is(nullValue()));
+		assertThat(CompositeImageLoader.schemeOf("image.png"), is(nullValue()));
+		assertThat(CompositeImageLoader.schemeOf(":image.png"), is(nullValue()));
+		assertThat(CompositeImageLoader.schemeOf("1http://www.example.com"), is(nullValue()));
+		assertThat(CompositeImageLoader.schemeOf("images/a:b.png"), is(nullValue()));
+		assertThat(CompositeImageLoader.schemeOf(42), is(nullValue()));
+	}
+
+	@Test
+	public void testDelegateFor() {
+		final TestLoader fallback = new TestLoader();
+		final TestLoader files = new TestLoader();
+		final TestLoader secure = new TestLoader();
+		final CompositeImageLoader loader = new CompositeImageLoader(fallback)
+				.addRoute(CompositeImageLoader.SCHEME_FILE, files)
+				.addRoute("HTTPS", secure);
+		assertThat(loader.delegateFor(task("/sdcard/image.png")), sameInstance((ImageLoader) files));
+		assertThat(loader.delegateFor(task("https://www.example.com/image.png")), sameInstance((ImageLoader) secure));
+		assertThat(loader.delegateFor(task("http://www.example.com/image.png")), sameInstance((ImageLoader) fallback));
+		assertThat(loader.delegateFor(new TestTask()), sameInstance((ImageLoader) fallback));
+	}
+
+	private static TestTask task(String target) {
+		final TestTask task = new TestTask();
+		task.target(target);
+		return task;
+	}
+
+	private static final class TestLoader extends BaseImageLoader<Object> {
+
+		TestLoader() {
+			super(new Object());
+		}
+
+		@Override
+		public void start() {
+		}
+
+		@Override
+		public void resume() {
+		}
+
+		@Override
+		public void pause() {
+		}
+
+		@Override
+		public void stop() {
+		}
+
+		@Override
+		public void destroy() {
+		}
+	}
+
+	private static final class TestTask extends BaseImageTask<Object, String, Void> {
+
+		@Override
+		protected boolean onLoad(@NonNull Object loader, @Nullable ImageLoader.Callback callback) {
+			return false;
+		}
+
+		@Nullable
+		@Override
+		protected Bitmap onLoad(@NonNull Object loader) {
+			return null;
+		}
+
+		@Override
+		protected boolean onPreload(@NonNull Object loader, @ImageLoader.CacheLevel int cacheLevel) {
+			return false;
+		}
+
+		@Override
+		protected boolean onCancelPreload(@NonNull Object loader) {
+			return false;
+		}
+
+		@Override
+		protected void onCancelLoad(@NonNull Object loader) {
+		}
+
+		@Override
+		protected boolean onRemove(@NonNull Object loader) {
+			return false;
+		}
+	}
+}
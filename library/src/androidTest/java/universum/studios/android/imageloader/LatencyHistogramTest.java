@@ -0,0 +1,117 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class LatencyHistogramTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "LatencyHistogramTest";
+
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	@Test
+	public void testBucketOf() {
+		assertThat(LatencyHistogram.bucketOf(-5), is(0));
+		assertThat(LatencyHistogram.bucketOf(0), is(0));
+		assertThat(LatencyHistogram.bucketOf(1), is(1));
+		assertThat(LatencyHistogram.bucketOf(2), is(2));
+		assertThat(LatencyHistogram.bucketOf(3), is(2));
+		assertThat(LatencyHistogram.bucketOf(4), is(3));
+		assertThat(LatencyHistogram.bucketOf(1023), is(10));
+		assertThat(LatencyHistogram.bucketOf(1024), is(11));
+		assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE), is(LatencyHistogram.BUCKET_COUNT - 1));
+	}
+
+	@Test
+	public void testBucketUpperBound() {
+		assertThat(LatencyHistogram.bucketUpperBound(0), is(1L));
+		assertThat(LatencyHistogram.bucketUpperBound(10), is(1024L));
+		assertThat(LatencyHistogram.bucketUpperBound(LatencyHistogram.BUCKET_COUNT - 1), is(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testBucketOfIsBelowUpperBound() {
+		for (long millis = 0; millis < 100000; millis += 7) {
+			final int bucket = LatencyHistogram.bucketOf(millis);
+			assertThat(millis < LatencyHistogram.bucketUpperBound(bucket), is(true));
+			if (bucket > 0) assertThat(millis >= LatencyHistogram.bucketUpperBound(bucket - 1), is(true));
+		}
+	}
+
+	@Test
+	public void testRecordIgnoresNegativeLatency() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-1);
+		assertThat(histogram.snapshot().count, is(0L));
+	}
+
+	@Test
+	public void testSnapshot() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(2 * NANOS_PER_MILLI);
+		histogram.record(6 * NANOS_PER_MILLI);
+		final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertThat(snapshot.count, is(2L));
+		assertThat(snapshot.bucketCount(2), is(1L));
+		assertThat(snapshot.bucketCount(3), is(1L));
+		assertThat(snapshot.averageNanos(), is(4 * NANOS_PER_MILLI));
+		assertThat(snapshot.maxNanos, is(6 * NANOS_PER_MILLI));
+		histogram.reset();
+		assertThat(histogram.snapshot().count, is(0L));
+	}
+
+	@Test
+	public void testPercentileMillisOfEmptyHistogram() {
+		assertThat(new LatencyHistogram().snapshot().percentileMillis(50), is(0L));
+	}
+
+	@Test
+	public void testPercentileMillis() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 90; i++) {
+			histogram.record(NANOS_PER_MILLI + NANOS_PER_MILLI / 2);
+		}
+		for (int i = 0; i < 10; i++) {
+			histogram.record(100 * NANOS_PER_MILLI);
+		}
+		final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertThat(snapshot.percentileMillis(0), is(2L));
+		assertThat(snapshot.percentileMillis(50), is(2L));
+		assertThat(snapshot.percentileMillis(90), is(2L));
+		// Upper bound of the bucket (128 ms) is limited by the longest latency.
+		assertThat(snapshot.percentileMillis(91), is(100L));
+		assertThat(snapshot.percentileMillis(100), is(100L));
+		assertThat(snapshot.percentileMillis(150), is(100L));
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.annotation.NonNull;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class MemoryBudgetTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "MemoryBudgetTest";
+
+	private final List<Cache> mCaches = new ArrayList<>();
+	private long mMaxSize;
+	private long mInitialSize;
+
+	@Before
+	public void beforeTest() {
+		this.mMaxSize = MemoryBudget.getInstance().getMaxSize();
+		this.mInitialSize = MemoryBudget.getInstance().getSize();
+	}
+
+	@After
+	public void afterTest() {
+		// Loaders of this test remain registered until garbage collected.
+		for (final Cache cache : mCaches) {
+			cache.size = 0;
+		}
+		MemoryBudget.getInstance().setMaxSize(mMaxSize);
+	}
+
+	@Test
+	public void testSharedCacheIsMeasuredOnce() {
+		final Cache cache = cache(1000);
+		final TestLoader first = new TestLoader(cache);
+		final TestLoader second = new TestLoader(cache);
+		assertThat(MemoryBudget.getInstance().getSize(), is(mInitialSize + 1000));
+		assertThat(first.trimmed + second.trimmed, is(0));
+	}
+
+	@Test
+	public void testSeparateCachesAreMeasuredEach() {
+		final TestLoader first = new TestLoader(cache(1000));
+		final TestLoader second = new TestLoader(cache(500));
+		assertThat(MemoryBudget.getInstance().getSize(), is(mInitialSize + 1500));
+		assertThat(first.trimmed + second.trimmed, is(0));
+	}
+
+	@Test
+	public void testEnforceTrimsSharedCacheOnce() {
+		final Cache cache = cache(1000);
+		final TestLoader first = new TestLoader(cache);
+		final TestLoader second = new TestLoader(cache);
+		final MemoryBudget budget = MemoryBudget.getInstance();
+		budget.setMaxSize(mInitialSize + 600);
+		budget.enforce();
+		assertThat(cache.size, is(600L));
+		assertThat(first.trimmed + second.trimmed, is(1));
+	}
+
+	private Cache cache(long size) {
+		final Cache cache = new Cache(size);
+		mCaches.add(cache);
+		return cache;
+	}
+
+	private static final class Cache {
+
+		volatile long size;
+
+		Cache(long size) {
+			this.size = size;
+		}
+	}
+
+	private static final class TestLoader extends BaseImageLoader<Cache> {
+
+		volatile int trimmed;
+
+		TestLoader(Cache cache) {
+			super(cache);
+		}
+
+		@Override
+		public void start() {
+		}
+
+		@Override
+		public void resume() {
+		}
+
+		@Override
+		public void pause() {
+		}
+
+		@Override
+		public void stop() {
+		}
+
+		@Override
+		public void destroy() {
+		}
+
+		@Override
+		protected long onMeasureMemoryCache() {
+			return mLoader.size;
+		}
+
+		@Override
+		protected long onTrimMemoryCache(float fraction) {
+			this.trimmed++;
+			final long size = mLoader.size;
+			mLoader.size = Math.round(size * (double) fraction);
+			return size - mLoader.size;
+		}
+
+		@NonNull
+		@Override
+		protected Object onIdentifyMemoryCache() {
+			return mLoader;
+		}
+	}
+}
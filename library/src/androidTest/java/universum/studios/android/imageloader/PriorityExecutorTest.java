@@ -0,0 +1,150 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.annotation.NonNull;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class PriorityExecutorTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "PriorityExecutorTest";
+
+	private PriorityExecutor mExecutor;
+	private final List<String> mExecuted = Collections.synchronizedList(new ArrayList<String>());
+
+	@Before
+	public void beforeTest() {
+		this.mExecutor = new PriorityExecutor(1, Executors.defaultThreadFactory());
+	}
+
+	@After
+	public void afterTest() {
+		mExecutor.shutdownNow();
+	}
+
+	@Test
+	public void testPausedExecutorDoesNotStartRunnables() throws Exception {
+		mExecutor.pause();
+		mExecutor.execute(new Job("normal", ImageLoader.Task.PRIORITY_NORMAL));
+		Thread.sleep(100);
+		assertThat(mExecuted.isEmpty(), is(true));
+		assertThat(mExecutor.getQueue().size(), is(1));
+	}
+
+	@Test
+	public void testResumedExecutorRunsHigherPriorityFirst() throws Exception {
+		mExecutor.pause();
+		mExecutor.execute(new Job("normal", ImageLoader.Task.PRIORITY_NORMAL));
+		Thread.sleep(100);
+		mExecutor.execute(new Job("high", ImageLoader.Task.PRIORITY_HIGH));
+		final CountDownLatch latch = await();
+		mExecutor.resume();
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertThat(mExecuted, contains("high", "normal"));
+	}
+
+	@Test
+	public void testResumedExecutorRunsNewestFirstInLifoMode() throws Exception {
+		mExecutor.setSchedulingMode(PriorityExecutor.SCHEDULING_LIFO);
+		mExecutor.pause();
+		mExecutor.execute(new Job("first", ImageLoader.Task.PRIORITY_NORMAL));
+		Thread.sleep(100);
+		mExecutor.execute(new Job("second", ImageLoader.Task.PRIORITY_NORMAL));
+		final CountDownLatch latch = await();
+		mExecutor.resume();
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertThat(mExecuted, contains("second", "first"));
+	}
+
+	@Test
+	public void testRemoveQueuedRunnable() throws Exception {
+		mExecutor.pause();
+		final Job job = new Job("removed", ImageLoader.Task.PRIORITY_NORMAL);
+		mExecutor.execute(job);
+		assertThat(mExecutor.remove(job), is(true));
+		assertThat(mExecutor.remove(job), is(false));
+		final CountDownLatch latch = await();
+		mExecutor.resume();
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertThat(mExecuted.isEmpty(), is(true));
+	}
+
+	private CountDownLatch await() {
+		final CountDownLatch latch = new CountDownLatch(1);
+		mExecutor.execute(new PriorityExecutor.Prioritized() {
+
+			@Override
+			public int priority() {
+				return ImageLoader.Task.PRIORITY_PREFETCH;
+			}
+
+			@Override
+			public void run() {
+				latch.countDown();
+			}
+		});
+		return latch;
+	}
+
+	private final class Job implements PriorityExecutor.Prioritized {
+
+		final String name;
+		final int priority;
+
+		Job(@NonNull String name, int priority) {
+			this.name = name;
+			this.priority = priority;
+		}
+
+		@Override
+		public int priority() {
+			return priority;
+		}
+
+		@Override
+		public void run() {
+			mExecuted.add(name);
+		}
+	}
+}
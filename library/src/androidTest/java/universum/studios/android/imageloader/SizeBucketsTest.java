@@ -0,0 +1,83 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class SizeBucketsTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "SizeBucketsTest";
+
+	@Test
+	public void testRemoveSmallestSufficientEntry() {
+		final SizeBuckets<String> buckets = new SizeBuckets<>();
+		buckets.add("small", 100);
+		buckets.add("large", 400);
+		buckets.add("medium", 200);
+		assertThat(buckets.size(), is(700));
+		assertThat(buckets.remove(150, 600, null), is("medium"));
+		assertThat(buckets.remove(150, 300, null), is(nullValue()));
+		assertThat(buckets.size(), is(500));
+		assertThat(buckets.contains("medium"), is(false));
+	}
+
+	@Test
+	public void testRemoveMatchingEntry() {
+		final SizeBuckets<String> buckets = new SizeBuckets<>();
+		buckets.add("first", 100);
+		buckets.add("second", 100);
+		assertThat(buckets.remove(100, 100, new SizeBuckets.Matcher<String>() {
+
+			@Override
+			public boolean matches(String entry) {
+				return entry.equals("first");
+			}
+		}), is("first"));
+		assertThat(buckets.remove(100, 100, null), is("second"));
+		assertThat(buckets.isEmpty(), is(true));
+	}
+
+	@Test
+	public void testRemoveEldest() {
+		final SizeBuckets<String> buckets = new SizeBuckets<>();
+		buckets.add("first", 100);
+		buckets.add("second", 200);
+		assertThat(buckets.removeEldest(), is("first"));
+		assertThat(buckets.size(), is(200));
+		assertThat(buckets.remove(100, 100, null), is(nullValue()));
+		assertThat(buckets.removeEldest(), is("second"));
+		assertThat(buckets.removeEldest(), is(nullValue()));
+		assertThat(buckets.size(), is(0));
+	}
+}
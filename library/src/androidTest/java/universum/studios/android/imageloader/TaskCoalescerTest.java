@@ -0,0 +1,277 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.widget.ImageView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class TaskCoalescerTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "TaskCoalescerTest";
+
+	private static final String TARGET_A = "http://www.example.com/a.png";
+	private static final String TARGET_B = "http://www.example.com/b.png";
+
+	private Backend mBackend;
+	private TaskCoalescer mCoalescer;
+	private Bitmap mBitmap;
+
+	@Before
+	public void beforeTest() {
+		this.mBackend = new Backend();
+		this.mCoalescer = new TaskCoalescer(new TestLoader(mBackend));
+		this.mBitmap = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888);
+	}
+
+	@Test
+	public void testJoin() {
+		final TestTask first = task(TARGET_A, null);
+		final TestTask second = task(TARGET_A, null);
+		final TestCallback firstCallback = new TestCallback();
+		final TestCallback secondCallback = new TestCallback();
+		mCoalescer.load(first, firstCallback);
+		mCoalescer.load(second, secondCallback);
+		assertThat(mBackend.dispatched, contains(first));
+		assertThat(mCoalescer.getCoalescedCount(), is(1L));
+		mBackend.finish(first, mBitmap);
+		assertThat(firstCallback.finished, contains((ImageLoader.Task) first));
+		assertThat(secondCallback.finished, contains((ImageLoader.Task) second));
+	}
+
+	@Test
+	public void testRebindToSameKey() {
+		final ImageView view = view();
+		final TestTask first = task(TARGET_A, view);
+		final TestTask second = task(TARGET_A, view);
+		final TestCallback firstCallback = new TestCallback();
+		final TestCallback secondCallback = new TestCallback();
+		mCoalescer.load(first, firstCallback);
+		mCoalescer.load(second, secondCallback);
+		assertThat(mBackend.dispatched, contains(first));
+		assertThat(mBackend.cancelled, is(empty()));
+		mBackend.finish(first, mBitmap);
+		assertThat(firstCallback.finished, is(empty()));
+		assertThat(secondCallback.finished, contains((ImageLoader.Task) second));
+	}
+
+	@Test
+	public void testRebindToNewKey() {
+		final ImageView view = view();
+		final TestTask first = task(TARGET_A, view);
+		final TestTask second = task(TARGET_B, view);
+		mCoalescer.load(first, new TestCallback());
+		mCoalescer.load(second, new TestCallback());
+		// The new task is dispatched into the same view, so the backend replaces the previous request.
+		assertThat(mBackend.dispatched, contains(first, second));
+		assertThat(mBackend.cancelled, is(empty()));
+	}
+
+	@Test
+	public void testRebindToJoinedKey() {
+		final ImageView view = view();
+		final TestTask first = task(TARGET_A, view);
+		final TestTask other = task(TARGET_B, null);
+		final TestTask second = task(TARGET_B, view);
+		final TestCallback firstCallback = new TestCallback();
+		final TestCallback secondCallback = new TestCallback();
+		mCoalescer.load(first, firstCallback);
+		mCoalescer.load(other, new TestCallback());
+		mCoalescer.load(second, secondCallback);
+		assertThat(mBackend.dispatched, contains(first, other));
+		assertThat(mBackend.cancelled, contains(first));
+		mBackend.finish(first, mBitmap);
+		mBackend.finish(other, mBitmap);
+		assertThat(firstCallback.finished, is(empty()));
+		assertThat(secondCallback.finished, contains((ImageLoader.Task) second));
+	}
+
+	@Test
+	public void testRebindLeaderWithJoinedTasks() {
+		final ImageView view = view();
+		final TestTask first = task(TARGET_A, view);
+		final TestTask joined = task(TARGET_A, null);
+		final TestTask other = task(TARGET_B, null);
+		final TestTask second = task(TARGET_B, view);
+		final TestCallback joinedCallback = new TestCallback();
+		mCoalescer.load(first, new TestCallback());
+		mCoalescer.load(joined, joinedCallback);
+		mCoalescer.load(other, new TestCallback());
+		mCoalescer.load(second, new TestCallback());
+		// The previous request is cancelled before the joined task is dispatched instead of it.
+		assertThat(mBackend.cancelled, contains(first));
+		assertThat(mBackend.dispatched, contains(first, other, joined));
+		mBackend.finish(joined, mBitmap);
+		assertThat(joinedCallback.finished, contains((ImageLoader.Task) joined));
+	}
+
+	@Test
+	public void testCancelLeaderPromotesJoinedTask() {
+		final TestTask first = task(TARGET_A, null);
+		final TestTask second = task(TARGET_A, null);
+		final TestCallback firstCallback = new TestCallback();
+		final TestCallback secondCallback = new TestCallback();
+		mCoalescer.load(first, firstCallback);
+		mCoalescer.load(second, secondCallback);
+		assertThat(mCoalescer.cancel(first), is(true));
+		assertThat(mBackend.cancelled, contains(first));
+		assertThat(mBackend.dispatched, contains(first, second));
+		mBackend.finish(first, mBitmap);
+		mBackend.finish(second, mBitmap);
+		assertThat(firstCallback.finished, is(empty()));
+		assertThat(secondCallback.finished, contains((ImageLoader.Task) second));
+	}
+
+	@Test
+	public void testStaleLoadIsNotJoined() throws InterruptedException {
+		mCoalescer.setStaleTimeout(0);
+		final TestTask first = task(TARGET_A, null);
+		final TestTask second = task(TARGET_A, null);
+		mCoalescer.load(first, new TestCallback());
+		Thread.sleep(5);
+		mCoalescer.load(second, new TestCallback());
+		assertThat(mBackend.dispatched, contains(first, second));
+		assertThat(mCoalescer.getCoalescedCount(), is(0L));
+	}
+
+	private static TestTask task(String target, ImageView view) {
+		final TestTask task = new TestTask();
+		task.target(target);
+		if (view != null) task.view(view);
+		return task;
+	}
+
+	private static ImageView view() {
+		return new ImageView(InstrumentationRegistry.getContext());
+	}
+
+	private static final class Backend {
+
+		final List<TestTask> dispatched = new ArrayList<>();
+		final List<TestTask> cancelled = new ArrayList<>();
+		final Map<TestTask, ImageLoader.Callback> callbacks = new HashMap<>();
+
+		void finish(TestTask task, Bitmap bitmap) {
+			final ImageLoader.Callback callback = callbacks.remove(task);
+			if (callback != null) callback.onImageLoadFinished(task, bitmap);
+		}
+	}
+
+	private static final class TestLoader extends BaseImageLoader<Backend> {
+
+		TestLoader(Backend backend) {
+			super(backend);
+		}
+
+		@Override
+		public void start() {
+		}
+
+		@Override
+		public void resume() {
+		}
+
+		@Override
+		public void pause() {
+		}
+
+		@Override
+		public void stop() {
+		}
+
+		@Override
+		public void destroy() {
+		}
+	}
+
+	private static final class TestTask extends BaseImageTask<Backend, String, Void> {
+
+		@Override
+		protected boolean onLoad(@NonNull Backend backend, @Nullable ImageLoader.Callback callback) {
+			backend.dispatched.add(this);
+			backend.callbacks.put(this, callback);
+			return true;
+		}
+
+		@Nullable
+		@Override
+		protected Bitmap onLoad(@NonNull Backend backend) {
+			return null;
+		}
+
+		@Override
+		protected boolean onPreload(@NonNull Backend backend, @ImageLoader.CacheLevel int cacheLevel) {
+			return false;
+		}
+
+		@Override
+		protected boolean onCancelPreload(@NonNull Backend backend) {
+			return false;
+		}
+
+		@Override
+		protected void onCancelLoad(@NonNull Backend backend) {
+			backend.cancelled.add(this);
+		}
+
+		@Override
+		protected boolean onRemove(@NonNull Backend backend) {
+			return false;
+		}
+	}
+
+	private static final class TestCallback implements ImageLoader.Callback {
+
+		final List<ImageLoader.Task> finished = new ArrayList<>();
+
+		@Override
+		public void onImageLoadFinished(@NonNull ImageLoader.Task task, @NonNull Bitmap bitmap) {
+			finished.add(task);
+		}
+
+		@Override
+		public void onImageLoadFailed(@NonNull ImageLoader.Task task, @NonNull ImageLoader.Error error) {
+		}
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class TaskKeyTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "TaskKeyTest";
+
+	private static final String TARGET = "http://www.example.com/image.png";
+
+	@Test
+	public void testEqualTasksHaveEqualKeys() {
+		final TestTask first = task();
+		first.resize(100, 50).centerCrop().bitmapConfig(Bitmap.Config.RGB_565).transform("blur").bitmapTransform(new TestTransformation("round"));
+		final TestTask second = task();
+		second.resize(100, 50).centerCrop().bitmapConfig(Bitmap.Config.RGB_565).transform("blur").bitmapTransform(new TestTransformation("round"));
+		assertThat(first.key(), is(second.key()));
+		assertThat(first.key().hashCode(), is(second.key().hashCode()));
+	}
+
+	@Test
+	public void testKeyIsCached() {
+		final TestTask task = task();
+		assertThat(task.key(), sameInstance(task.key()));
+	}
+
+	@Test
+	public void testKeyIsRecomputedWhenTaskChanges() {
+		final TestTask task = task();
+		final TaskKey key = task.key();
+		task.resize(100, 100);
+		assertThat(task.key(), is(not(key)));
+	}
+
+	@Test
+	public void testKeyDiffersByTarget() {
+		final TestTask other = new TestTask();
+		other.target(TARGET + "?other");
+		assertThat(task().key(), is(not(other.key())));
+	}
+
+	@Test
+	public void testKeyIgnoresSizeScaleWithoutSize() {
+		final TestTask task = task();
+		task.centerCrop();
+		assertThat(task.key(), is(task().key()));
+	}
+
+	@Test
+	public void testKeyDiffersBySize() {
+		final TestTask first = task();
+		first.resize(100, 50);
+		final TestTask second = task();
+		second.resize(50, 100);
+		assertThat(first.key(), is(not(second.key())));
+		assertThat(first.key(), is(not(task().key())));
+	}
+
+	@Test
+	public void testKeyDiffersByScale() {
+		final TestTask first = task();
+		first.resize(100, 100).centerCrop();
+		final TestTask second = task();
+		second.resize(100, 100).centerInside();
+		assertThat(first.key(), is(not(second.key())));
+	}
+
+	@Test
+	public void testKeyDiffersByConfig() {
+		final TestTask rgb565 = task();
+		rgb565.bitmapConfig(Bitmap.Config.RGB_565);
+		final TestTask argb8888 = task();
+		argb8888.bitmapConfig(Bitmap.Config.ARGB_8888);
+		final TestTask preferRgb565 = task();
+		preferRgb565.preferRgb565(true);
+		final TaskKey defaultKey = task().key();
+		assertThat(rgb565.key(), is(not(argb8888.key())));
+		assertThat(rgb565.key(), is(not(preferRgb565.key())));
+		assertThat(rgb565.key(), is(not(defaultKey)));
+		assertThat(argb8888.key(), is(not(defaultKey)));
+		assertThat(preferRgb565.key(), is(not(defaultKey)));
+	}
+
+	@Test
+	public void testKeyDiffersByTransformation() {
+		final TestTask blur = task();
+		blur.transform("blur");
+		final TestTask sharpen = task();
+		sharpen.transform("sharpen");
+		assertThat(blur.key(), is(not(sharpen.key())));
+		assertThat(blur.key(), is(not(task().key())));
+		assertThat(blur.key().transformation(), is((Object) "blur"));
+	}
+
+	@Test
+	public void testKeyDiffersByImageTransformation() {
+		final TestTask round = task();
+		round.bitmapTransform(new TestTransformation("round"));
+		final TestTask square = task();
+		square.bitmapTransform(new TestTransformation("square"));
+		assertThat(round.key(), is(not(square.key())));
+		assertThat(round.key(), is(not(task().key())));
+		assertThat(round.key().imageTransformation(), is("round"));
+	}
+
+	@Test
+	public void testHash64OfCharSequence() {
+		assertThat(TaskKey.hash64(new StringBuilder(TARGET)), is(TaskKey.hash64(TARGET)));
+		assertThat(TaskKey.hash64(TARGET), is(not(TaskKey.hash64(TARGET + "?other"))));
+		assertThat(TaskKey.hash64(null), is(0L));
+	}
+
+	private static TestTask task() {
+		final TestTask task = new TestTask();
+		task.target(TARGET);
+		return task;
+	}
+
+	private static final class TestTransformation implements ImageTransformation {
+
+		private final String key;
+
+		TestTransformation(String key) {
+			this.key = key;
+		}
+
+		@NonNull
+		@Override
+		public String getKey() {
+			return key;
+		}
+
+		@NonNull
+		@Override
+		public Bitmap transform(@NonNull Bitmap source, @NonNull BitmapPool pool) {
+			return source;
+		}
+	}
+
+	private static final class TestTask extends BaseImageTask<Object, String, String> {
+
+		@Override
+		protected boolean onLoad(@NonNull Object loader, @Nullable ImageLoader.Callback callback) {
+			return false;
+		}
+
+		@Nullable
+		@Override
+		protected Bitmap onLoad(@NonNull Object loader) {
+			return null;
+		}
+
+		@Override
+		protected boolean onPreload(@NonNull Object loader, @ImageLoader.CacheLevel int cacheLevel) {
+			return false;
+		}
+
+		@Override
+		protected boolean onCancelPreload(@NonNull Object loader) {
+			return false;
+		}
+
+		@Override
+		protected void onCancelLoad(@NonNull Object loader) {
+		}
+
+		@Override
+		protected boolean onRemove(@NonNull Object loader) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.os.Debug;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.widget.ImageView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class TaskPoolTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "TaskPoolTest";
+
+	private static final String TARGET = "http://www.example.com/image.png";
+
+	@Test
+	public void testObtainReusesRecycledTask() {
+		final TestPool pool = new TestPool(1);
+		final TestTask task = pool.obtain();
+		task.recycle();
+		assertThat(pool.size(), is(1));
+		assertThat(pool.obtain(), sameInstance(task));
+		assertThat(pool.size(), is(0));
+	}
+
+	@Test
+	public void testRecycleResetsTask() {
+		final TestPool pool = new TestPool(1);
+		final TestTask task = pool.obtain();
+		task.target(TARGET).resize(100, 100).priority(ImageLoader.Task.PRIORITY_HIGH);
+		task.recycle();
+		final TestTask obtained = pool.obtain();
+		assertThat(obtained.target(), is(nullValue()));
+		assertThat(obtained.priority(), is(ImageLoader.Task.PRIORITY_NORMAL));
+		assertThat(obtained.mWidth, is(0));
+		assertThat(obtained.mHeight, is(0));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testRecycleTwice() {
+		final TestTask task = new TestPool(1).obtain();
+		task.recycle();
+		task.recycle();
+	}
+
+	@Test
+	public void testLoaderRecyclesFinishedTask() {
+		final Backend backend = new Backend();
+		final TestPool pool = new TestPool(1);
+		final TestTask task = pool.obtain();
+		task.target(TARGET);
+		assertThat(new TestLoader(backend).load(task, null), is(true));
+		assertThat(pool.size(), is(0));
+		backend.finish(task);
+		assertThat(pool.size(), is(1));
+		assertThat(pool.obtain(), sameInstance(task));
+	}
+
+	@Test
+	public void testLoaderRecyclesCancelledTask() {
+		final Backend backend = new Backend();
+		final TestLoader loader = new TestLoader(backend);
+		final TestPool pool = new TestPool(1);
+		final TestTask task = pool.obtain();
+		task.target(TARGET);
+		loader.load(task, null);
+		assertThat(loader.cancel(task), is(true));
+		assertThat(pool.size(), is(1));
+	}
+
+	@Test
+	public void testLoaderRecyclesReboundTask() {
+		final Backend backend = new Backend();
+		final TestLoader loader = new TestLoader(backend);
+		final TestPool pool = new TestPool(2);
+		final ImageView view = new ImageView(InstrumentationRegistry.getContext());
+		final TestTask first = pool.obtain();
+		first.target(TARGET).view(view);
+		loader.load(first, null);
+		final TestTask second = pool.obtain();
+		second.target(TARGET + "?rebound").view(view);
+		loader.load(second, null);
+		assertThat(pool.size(), is(1));
+		assertThat(pool.obtain(), sameInstance(first));
+		backend.finish(second);
+		assertThat(pool.size(), is(1));
+	}
+
+	@Test
+	public void testLoaderDoesNotRecycleTaskWithCallback() {
+		final Backend backend = new Backend();
+		final TestPool pool = new TestPool(1);
+		final TestTask task = pool.obtain();
+		task.target(TARGET);
+		new TestLoader(backend).load(task, new ImageLoader.Callback() {
+
+			@Override
+			public void onImageLoadFinished(@NonNull ImageLoader.Task task, @NonNull Bitmap bitmap) {
+			}
+
+			@Override
+			public void onImageLoadFailed(@NonNull ImageLoader.Task task, @NonNull ImageLoader.Error error) {
+			}
+		});
+		backend.finish(task);
+		assertThat(pool.size(), is(0));
+		task.recycle();
+		assertThat(pool.size(), is(1));
+	}
+
+	/**
+	 * Covers only the pool itself, loading of a task allocates its in-flight bookkeeping.
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testObtainRecycleDoesNotAllocate() {
+		final TestPool pool = new TestPool(TaskPool.DEFAULT_MAX_SIZE);
+		// Warm up the pool so it holds a recycled task.
+		pool.obtain().recycle();
+		Debug.resetThreadAllocCount();
+		Debug.startAllocCounting();
+		for (int i = 0; i < 1000; i++) {
+			final TestTask task = pool.obtain();
+			task.target(TARGET).resize(100, 100).priority(ImageLoader.Task.PRIORITY_HIGH);
+			task.recycle();
+		}
+		Debug.stopAllocCounting();
+		assertThat(Debug.getThreadAllocCount(), is(0));
+	}
+
+	private static final class TestPool extends TaskPool<TestTask> {
+
+		TestPool(int maxSize) {
+			super(maxSize);
+		}
+
+		@NonNull
+		@Override
+		protected TestTask onCreateTask() {
+			return new TestTask();
+		}
+	}
+
+	private static final class Backend {
+
+		final Map<TestTask, ImageLoader.Callback> callbacks = new HashMap<>();
+
+		void finish(TestTask task) {
+			final ImageLoader.Callback callback = callbacks.remove(task);
+			if (callback != null) callback.onImageLoadFinished(task, Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888));
+		}
+	}
+
+	private static final class TestLoader extends BaseImageLoader<Backend> {
+
+		TestLoader(Backend backend) {
+			super(backend);
+		}
+
+		@Override
+		public void start() {
+		}
+
+		@Override
+		public void resume() {
+		}
+
+		@Override
+		public void pause() {
+		}
+
+		@Override
+		public void stop() {
+		}
+
+		@Override
+		public void destroy() {
+		}
+	}
+
+	private static final class TestTask extends BaseImageTask<Backend, String, Void> {
+
+		@Override
+		protected boolean onLoad(@NonNull Backend backend, @Nullable ImageLoader.Callback callback) {
+			backend.callbacks.put(this, callback);
+			return true;
+		}
+
+		@Nullable
+		@Override
+		protected Bitmap onLoad(@NonNull Backend backend) {
+			return null;
+		}
+
+		@Override
+		protected boolean onPreload(@NonNull Backend backend, @ImageLoader.CacheLevel int cacheLevel) {
+			return false;
+		}
+
+		@Override
+		protected boolean onCancelPreload(@NonNull Backend backend) {
+			return false;
+		}
+
+		@Override
+		protected void onCancelLoad(@NonNull Backend backend) {
+		}
+
+		@Override
+		protected boolean onRemove(@NonNull Backend backend) {
+			return false;
+		}
+	}
+}
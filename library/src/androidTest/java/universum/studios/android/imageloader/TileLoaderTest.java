@@ -0,0 +1,80 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class TileLoaderTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "TileLoaderTest";
+
+	@Test
+	public void testSampleSizeForFullScale() {
+		assertThat(TileLoader.sampleSizeFor(1f), is(1));
+	}
+
+	@Test
+	public void testSampleSizeForEnlargedScale() {
+		assertThat(TileLoader.sampleSizeFor(2f), is(1));
+		assertThat(TileLoader.sampleSizeFor(10f), is(1));
+	}
+
+	@Test
+	public void testSampleSizeForInvalidScale() {
+		assertThat(TileLoader.sampleSizeFor(0f), is(1));
+		assertThat(TileLoader.sampleSizeFor(-0.5f), is(1));
+	}
+
+	@Test
+	public void testSampleSizeForReducedScale() {
+		assertThat(TileLoader.sampleSizeFor(0.6f), is(1));
+		assertThat(TileLoader.sampleSizeFor(0.5f), is(2));
+		assertThat(TileLoader.sampleSizeFor(0.3f), is(2));
+		assertThat(TileLoader.sampleSizeFor(0.25f), is(4));
+		assertThat(TileLoader.sampleSizeFor(0.125f), is(8));
+		assertThat(TileLoader.sampleSizeFor(0.1f), is(8));
+		assertThat(TileLoader.sampleSizeFor(0.01f), is(64));
+	}
+
+	@Test
+	public void testSampleSizeDoesNotMakeTilesSmallerThanDisplayed() {
+		for (float scale = 0.01f; scale <= 1f; scale += 0.01f) {
+			final int sampleSize = TileLoader.sampleSizeFor(scale);
+			assertThat(Integer.bitCount(sampleSize), is(1));
+			assertThat(sampleSize * scale, is(lessThanOrEqualTo(1f)));
+			assertThat(sampleSize * 2 * scale, is(greaterThan(1f)));
+		}
+	}
+}
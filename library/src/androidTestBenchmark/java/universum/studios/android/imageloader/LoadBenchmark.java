@@ -0,0 +1,251 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.app.Instrumentation;
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.test.InstrumentationRegistry;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Harness measuring latency of image loads performed by a backend {@link ImageLoader} against images
+ * served by a local HTTP server. Each backend module runs the same harness from its own instrumented
+ * test, so results logged under {@link #TAG} may be compared between modules.
+ *
+ * @author Martin Albedinsky
+ */
+final class LoadBenchmark {
+
+	/**
+	 * Log TAG.
+	 */
+	private static final String TAG = "LoadBenchmark";
+
+	/**
+	 * Count of distinct images loaded by a single benchmark run.
+	 */
+	static final int IMAGE_COUNT = 50;
+
+	/**
+	 * Dimension of images served by the local server.
+	 */
+	static final int IMAGE_SIZE = 1024;
+
+	/**
+	 * Dimension to which are the served images requested to be resized.
+	 */
+	static final int TARGET_SIZE = 256;
+
+	/**
+	 * Time in seconds to wait for a single load to finish.
+	 */
+	private static final long LOAD_TIMEOUT = 30;
+
+	private LoadBenchmark() {
+		// Not allowed to be instantiated.
+	}
+
+	/**
+	 * Loads {@link #IMAGE_COUNT} images via the specified <var>loader</var> twice. The first pass
+	 * measures cold loads that go to the network, the second one warm loads that should be served
+	 * from the memory cache of the loader. Both results are logged for the specified backend <var>name</var>.
+	 *
+	 * @param name   Name of the benchmarked backend.
+	 * @param loader The loader to be benchmarked.
+	 */
+	static void run(@NonNull String name, @NonNull ImageLoader loader) throws Exception {
+		final ImageServer server = new ImageServer(createJpeg(IMAGE_SIZE));
+		server.start();
+		try {
+			final LatencyHistogram cold = new LatencyHistogram();
+			final LatencyHistogram warm = new LatencyHistogram();
+			for (int i = 0; i < IMAGE_COUNT; i++) {
+				cold.record(load(loader, server.urlOf(i)));
+			}
+			for (int i = 0; i < IMAGE_COUNT; i++) {
+				warm.record(load(loader, server.urlOf(i)));
+			}
+			Log.i(TAG, name + " cold: " + cold.snapshot());
+			Log.i(TAG, name + " warm: " + warm.snapshot());
+			// Warm loads must not have reached the network.
+			assertThat(server.requestCount(), is(IMAGE_COUNT));
+		} finally {
+			server.stop();
+		}
+	}
+
+	/**
+	 * Loads image with the specified <var>url</var> via the given <var>loader</var> and waits until
+	 * the load finishes.
+	 *
+	 * @return Time in nanoseconds the load has taken.
+	 */
+	private static long load(final ImageLoader loader, String url) throws InterruptedException {
+		final ImageTask task = ImageTask.obtain();
+		task.target(url).resize(TARGET_SIZE, TARGET_SIZE);
+		final ResultCallback callback = new ResultCallback();
+		final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+		final long startNanos = System.nanoTime();
+		instrumentation.runOnMainSync(new Runnable() {
+
+			@Override
+			public void run() {
+				loader.load(task, callback);
+			}
+		});
+		assertTrue("Load of " + url + " has timed out.", callback.latch.await(LOAD_TIMEOUT, TimeUnit.SECONDS));
+		final long timeNanos = callback.finishNanos - startNanos;
+		assertThat(callback.error, is(nullValue()));
+		return timeNanos;
+	}
+
+	/**
+	 * Creates JPEG encoded image with the specified <var>size</var>.
+	 */
+	private static byte[] createJpeg(int size) {
+		final Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				bitmap.setPixel(x, y, 0xff000000 | (x << 16) | (y << 8) | ((x ^ y) & 0xff));
+			}
+		}
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		bitmap.compress(Bitmap.CompressFormat.JPEG, 90, output);
+		bitmap.recycle();
+		return output.toByteArray();
+	}
+
+	private static final class ResultCallback implements ImageLoader.Callback {
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		volatile long finishNanos;
+		volatile ImageLoader.Error error;
+
+		@Override
+		public void onImageLoadFinished(@NonNull ImageLoader.Task task, @NonNull Bitmap bitmap) {
+			this.finishNanos = System.nanoTime();
+			latch.countDown();
+		}
+
+		@Override
+		public void onImageLoadFailed(@NonNull ImageLoader.Task task, @NonNull ImageLoader.Error error) {
+			this.finishNanos = System.nanoTime();
+			this.error = error;
+			latch.countDown();
+		}
+	}
+
+	/**
+	 * Minimal HTTP server responding to every request with the same JPEG body.
+	 */
+	private static final class ImageServer implements Runnable {
+
+		private final byte[] mBody;
+		private final ServerSocket mSocket;
+		private final ExecutorService mExecutor = Executors.newCachedThreadPool();
+		private final AtomicInteger mRequestCount = new AtomicInteger();
+
+		ImageServer(byte[] body) throws IOException {
+			this.mBody = body;
+			this.mSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+		}
+
+		void start() {
+			mExecutor.execute(this);
+		}
+
+		String urlOf(int index) {
+			return "http://127.0.0.1:" + mSocket.getLocalPort() + "/image/" + index + ".jpg";
+		}
+
+		int requestCount() {
+			return mRequestCount.get();
+		}
+
+		void stop() throws IOException {
+			mSocket.close();
+			mExecutor.shutdownNow();
+		}
+
+		@Override
+		public void run() {
+			while (!mSocket.isClosed()) {
+				final Socket socket;
+				try {
+					socket = mSocket.accept();
+				} catch (IOException e) {
+					return;
+				}
+				mExecutor.execute(new Runnable() {
+
+					@Override
+					public void run() {
+						respond(socket);
+					}
+				});
+			}
+		}
+
+		private void respond(Socket socket) {
+			try {
+				final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+				String line;
+				do {
+					line = reader.readLine();
+				} while (line != null && line.length() > 0);
+				mRequestCount.incrementAndGet();
+				final OutputStream output = socket.getOutputStream();
+				output.write(("HTTP/1.1 200 OK\r\n" +
+						"Content-Type: image/jpeg\r\n" +
+						"Content-Length: " + mBody.length + "\r\n" +
+						"Connection: close\r\n\r\n").getBytes("US-ASCII"));
+				output.write(mBody);
+				output.flush();
+			} catch (IOException e) {
+				Log.w(TAG, "Failed to respond to request.", e);
+			} finally {
+				try {
+					socket.close();
+				} catch (IOException ignored) {
+					// Socket is being discarded anyway.
+				}
+			}
+		}
+	}
+}
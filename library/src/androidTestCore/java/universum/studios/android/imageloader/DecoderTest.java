@@ -0,0 +1,87 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class DecoderTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "DecoderTest";
+
+	@Test
+	public void testComputeSampleSizeForRequestedSize() {
+		assertThat(Decoder.computeSampleSize(100, 100, 100, 100, false), is(1));
+		assertThat(Decoder.computeSampleSize(100, 100, 100, 100, true), is(1));
+	}
+
+	@Test
+	public void testComputeSampleSizeForSmallerSource() {
+		assertThat(Decoder.computeSampleSize(50, 80, 100, 100, false), is(1));
+		assertThat(Decoder.computeSampleSize(50, 80, 100, 100, true), is(1));
+	}
+
+	@Test
+	public void testComputeSampleSizeForSquareSource() {
+		assertThat(Decoder.computeSampleSize(1000, 1000, 100, 100, false), is(8));
+		assertThat(Decoder.computeSampleSize(1000, 1000, 100, 100, true), is(8));
+		assertThat(Decoder.computeSampleSize(1024, 1024, 256, 256, true), is(4));
+	}
+
+	@Test
+	public void testComputeSampleSizeToFitInside() {
+		assertThat(Decoder.computeSampleSize(1000, 500, 100, 100, false), is(8));
+		assertThat(Decoder.computeSampleSize(500, 1000, 100, 100, false), is(8));
+	}
+
+	@Test
+	public void testComputeSampleSizeToCenterCrop() {
+		assertThat(Decoder.computeSampleSize(1000, 500, 100, 100, true), is(4));
+		assertThat(Decoder.computeSampleSize(500, 1000, 100, 100, true), is(4));
+	}
+
+	@Test
+	public void testComputeSampleSizePreservesRequestedSize() {
+		for (int sourceWidth = 100; sourceWidth <= 4000; sourceWidth += 130) {
+			for (int sourceHeight = 100; sourceHeight <= 4000; sourceHeight += 170) {
+				final int cropSampleSize = Decoder.computeSampleSize(sourceWidth, sourceHeight, 100, 100, true);
+				assertThat(sourceWidth / cropSampleSize, is(greaterThanOrEqualTo(100)));
+				assertThat(sourceHeight / cropSampleSize, is(greaterThanOrEqualTo(100)));
+				final int fitSampleSize = Decoder.computeSampleSize(sourceWidth, sourceHeight, 100, 100, false);
+				assertThat(Math.max(sourceWidth, sourceHeight) / fitSampleSize, is(greaterThanOrEqualTo(100)));
+				assertThat(Math.max(sourceWidth, sourceHeight) / (fitSampleSize * 2), is(lessThan(100)));
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class DiskCacheTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "DiskCacheTest";
+
+	private static final String KEY_A = "http://www.example.com/a.png";
+	private static final String KEY_B = "http://www.example.com/b.png";
+
+	private File mDirectory;
+
+	@Before
+	public void beforeTest() {
+		this.mDirectory = new File(InstrumentationRegistry.getTargetContext().getCacheDir(), TAG);
+		delete(mDirectory);
+	}
+
+	@After
+	public void afterTest() {
+		delete(mDirectory);
+	}
+
+	@Test
+	public void testKeys() throws IOException {
+		final DiskCache cache = new DiskCache(mDirectory, 1024);
+		put(cache, KEY_A, 10);
+		put(cache, KEY_B, 10);
+		assertThat(cache.keys(), containsInAnyOrder(KEY_A, KEY_B));
+		cache.remove(KEY_A);
+		assertThat(cache.keys(), containsInAnyOrder(KEY_B));
+	}
+
+	@Test
+	public void testKeysSurviveRestart() throws IOException {
+		final DiskCache cache = new DiskCache(mDirectory, 1024);
+		put(cache, KEY_A, 10);
+		put(cache, KEY_B, 10);
+		cache.remove(KEY_A);
+		final DiskCache restored = new DiskCache(mDirectory, 1024);
+		assertThat(restored.keys(), containsInAnyOrder(KEY_B));
+		assertThat(restored.get(KEY_B), is(notNullValue()));
+		assertThat(restored.size(), is(10L));
+	}
+
+	@Test
+	public void testEvictedKeysAreNotListed() throws IOException {
+		final DiskCache cache = new DiskCache(mDirectory, 15);
+		put(cache, KEY_A, 10);
+		put(cache, KEY_B, 10);
+		assertThat(cache.keys(), containsInAnyOrder(KEY_B));
+		cache.clear();
+		assertThat(cache.keys(), is(empty()));
+		assertThat(new DiskCache(mDirectory, 15).keys(), is(empty()));
+	}
+
+	private static void put(DiskCache cache, String key, int length) throws IOException {
+		cache.put(key, new ByteArrayInputStream(new byte[length]));
+	}
+
+	private static void delete(File file) {
+		final File[] files = file.listFiles();
+		if (files != null) {
+			for (final File child : files) {
+				child.delete();
+			}
+		}
+		file.delete();
+	}
+}
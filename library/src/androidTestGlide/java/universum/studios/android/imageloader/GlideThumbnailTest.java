@@ -0,0 +1,134 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class GlideThumbnailTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "GlideThumbnailTest";
+
+	private static final int IMAGE_SIZE = 512;
+	private static final int TARGET_SIZE = 128;
+
+	private File mFile;
+
+	@Before
+	public void beforeTest() throws Exception {
+		final Context context = InstrumentationRegistry.getTargetContext();
+		// Unique file name so the image cannot be served from caches of previous runs.
+		this.mFile = new File(context.getCacheDir(), "thumbnail-" + System.nanoTime() + ".png");
+		final Bitmap bitmap = Bitmap.createBitmap(IMAGE_SIZE, IMAGE_SIZE, Bitmap.Config.ARGB_8888);
+		bitmap.eraseColor(0xff336699);
+		final OutputStream output = new FileOutputStream(mFile);
+		try {
+			bitmap.compress(Bitmap.CompressFormat.PNG, 100, output);
+		} finally {
+			output.close();
+			bitmap.recycle();
+		}
+	}
+
+	@After
+	public void afterTest() {
+		assertTrue(mFile.delete());
+	}
+
+	@Test
+	public void testCallbackReceivesFullImageForMultipliedThumbnail() throws Exception {
+		final ImageTask task = ImageTask.obtain();
+		task.target(mFile.getAbsolutePath()).resize(TARGET_SIZE, TARGET_SIZE).thumbnail(0.1f);
+		assertFullImageDelivered(task);
+	}
+
+	@Test
+	public void testCallbackReceivesFullImageForThumbnailTask() throws Exception {
+		final ImageTask thumbnail = ImageTask.obtain();
+		thumbnail.target(mFile.getAbsolutePath()).resize(TARGET_SIZE / 10, TARGET_SIZE / 10);
+		final ImageTask task = ImageTask.obtain();
+		task.target(mFile.getAbsolutePath()).resize(TARGET_SIZE, TARGET_SIZE).thumbnail(thumbnail);
+		assertFullImageDelivered(task);
+	}
+
+	private static void assertFullImageDelivered(final ImageTask task) throws InterruptedException {
+		final Context context = InstrumentationRegistry.getTargetContext();
+		final ImageLoader loader = ImageLoaderFactory.createLoader(context.getApplicationContext());
+		final ResultCallback callback = new ResultCallback();
+		InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+
+			@Override
+			public void run() {
+				loader.load(task, callback);
+			}
+		});
+		assertTrue(callback.latch.await(30, TimeUnit.SECONDS));
+		assertThat(callback.error, is(nullValue()));
+		assertThat(callback.bitmap, is(notNullValue()));
+		assertThat(callback.bitmap.getWidth(), is(greaterThanOrEqualTo(TARGET_SIZE)));
+	}
+
+	private static final class ResultCallback implements ImageLoader.Callback {
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		volatile Bitmap bitmap;
+		volatile ImageLoader.Error error;
+
+		@Override
+		public void onImageLoadFinished(@NonNull ImageLoader.Task task, @NonNull Bitmap bitmap) {
+			this.bitmap = bitmap;
+			latch.countDown();
+		}
+
+		@Override
+		public void onImageLoadFailed(@NonNull ImageLoader.Task task, @NonNull ImageLoader.Error error) {
+			this.error = error;
+			latch.countDown();
+		}
+	}
+}
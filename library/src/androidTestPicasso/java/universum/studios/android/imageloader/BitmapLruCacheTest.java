@@ -0,0 +1,57 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class BitmapLruCacheTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "BitmapLruCacheTest";
+
+	private static final String URI = "http://www.example.com/image.png";
+
+	@Test
+	public void testRemoveKeyUri() {
+		final BitmapLruCache cache = new BitmapLruCache(1024 * 1024);
+		cache.set(URI + "\nresize:100x100", Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+		cache.set(URI + "\n", Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+		cache.set(URI + "2\n", Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+		assertThat(cache.removeKeyUri(URI), is(true));
+		assertThat(cache.get(URI + "\nresize:100x100"), is(nullValue()));
+		assertThat(cache.get(URI + "\n"), is(nullValue()));
+		assertThat(cache.get(URI + "2\n") != null, is(true));
+		assertThat(cache.removeKeyUri(URI), is(false));
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.android.volley.Network;
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.NoCache;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Martin Albedinsky
+ */
+@RunWith(AndroidJUnit4.class)
+public final class VolleyImageLoaderTest {
+
+	/**
+	 * Log TAG.
+	 */
+	@SuppressWarnings("unused")
+	private static final String TAG = "VolleyImageLoaderTest";
+
+	private static final String URL = "http://www.example.com/image.png";
+
+	@Test
+	public void testCacheUrlForDefaultConfig() {
+		assertThat(VolleyImageLoader.cacheUrl(URL, null), is(URL));
+		assertThat(VolleyImageLoader.cacheUrl(URL, VolleyImageLoader.DEFAULT_BITMAP_CONFIG), is(URL));
+	}
+
+	@Test
+	public void testCacheUrlForOtherConfig() {
+		final String cacheUrl = VolleyImageLoader.cacheUrl(URL, Bitmap.Config.RGB_565);
+		assertThat(cacheUrl, is(not(URL)));
+		assertThat(cacheUrl, endsWith(URL));
+		assertThat(cacheUrl, is(not(VolleyImageLoader.cacheUrl(URL, Bitmap.Config.ALPHA_8))));
+	}
+
+	@Test
+	public void testRemoveBitmapsForAllConfigs() {
+		final BitmapLruCache cache = new BitmapLruCache(1024 * 1024);
+		final String defaultKey = "#W10#H10" + VolleyImageLoader.cacheUrl(URL, null);
+		final String rgbKey = "#W10#H10" + VolleyImageLoader.cacheUrl(URL, Bitmap.Config.RGB_565);
+		cache.putBitmap(defaultKey, Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+		cache.putBitmap(rgbKey, Bitmap.createBitmap(10, 10, Bitmap.Config.RGB_565));
+		assertThat(cache.removeBitmaps(URL), is(true));
+		assertThat(cache.getBitmap(defaultKey), is(nullValue()));
+		assertThat(cache.getBitmap(rgbKey), is(nullValue()));
+	}
+
+	@Test
+	public void testPausedQueueHoldsRequests() {
+		final RecordingQueue queue = new RecordingQueue();
+		final VolleyImageLoader.PausableRequestQueue pausableQueue = new VolleyImageLoader.PausableRequestQueue(queue);
+		pausableQueue.setPaused(true);
+		final Request<?> held = new VolleyImageLoader.PrefetchRequest(URL, Request.Priority.LOW);
+		final Request<?> cancelled = new VolleyImageLoader.PrefetchRequest(URL + "?cancelled", Request.Priority.LOW);
+		pausableQueue.add(held);
+		pausableQueue.add(cancelled);
+		cancelled.cancel();
+		assertThat(queue.added, is(empty()));
+		pausableQueue.setPaused(false);
+		assertThat(queue.added, contains((Object) held));
+		final Request<?> direct = new VolleyImageLoader.PrefetchRequest(URL + "?direct", Request.Priority.LOW);
+		pausableQueue.add(direct);
+		assertThat(queue.added, contains((Object) held, direct));
+	}
+
+	private static final class RecordingQueue extends RequestQueue {
+
+		final List<Object> added = new ArrayList<>();
+
+		RecordingQueue() {
+			super(new NoCache(), new Network() {
+
+				@Override
+				public NetworkResponse performRequest(Request<?> request) throws VolleyError {
+					throw new VolleyError();
+				}
+			});
+		}
+
+		@Override
+		public <T> Request<T> add(Request<T> request) {
+			added.add(request);
+			return request;
+		}
+	}
+}
@@ -18,9 +18,41 @@
  */
 package universum.studios.android.imageloader;
 
+import android.content.ComponentCallbacks2;
 import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.LayerDrawable;
+import android.os.Looper;
+import android.support.annotation.CallSuper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Base implementation of {@link ImageLoader} that accepts implementations of{@link BaseImageTask}
@@ -44,6 +76,21 @@ public abstract class BaseImageLoader<L> implements ImageLoader {
 	 */
 	// private static final String TAG = "BaseImageLoader";
 
+	/**
+	 * Maximum count of recently loaded targets tracked for invalidation.
+	 */
+	private static final int MAX_TRACKED_TARGETS = 2048;
+
+	/**
+	 * Time in seconds for which is the invalidation thread kept alive while idle.
+	 */
+	private static final long INVALIDATION_KEEP_ALIVE_TIME = 30;
+
+	/**
+	 * Maximum count of region decoders kept open at a time.
+	 */
+	private static final int MAX_REGION_DECODERS = 2;
+
 	/**
 	 * Interface ===================================================================================
 	 */
@@ -61,6 +108,87 @@ public abstract class BaseImageLoader<L> implements ImageLoader {
 	 */
 	protected final L mLoader;
 
+	/**
+	 * Pool of bitmaps that may be reused by the wrapped loader. May be {@code null}.
+	 */
+	private BitmapPool mBitmapPool;
+
+	/**
+	 * Coalescer used to track in-flight loads and to de-duplicate loads of equal tasks.
+	 */
+	private final TaskCoalescer mCoalescer;
+
+	/**
+	 * Map of tasks that have been preloaded via this image loader, so theirs preloading may be
+	 * cancelled via {@link #cancelAll()}. Tasks are mapped to the tasks actually preloaded, which
+	 * may be theirs copies with adjusted priority.
+	 */
+	private final Map<BaseImageTask, BaseImageTask> mPreloadTasks = new WeakHashMap<>();
+
+	/**
+	 * Set of views into which have been loaded images via this image loader, so bitmaps displayed
+	 * by them are not evicted via {@link #trimMemory(int)} when UI becomes hidden.
+	 */
+	private final Set<ImageView> mViews = Collections.newSetFromMap(new WeakHashMap<ImageView, Boolean>());
+
+	/**
+	 * Count of tasks of which loading or preloading has been cancelled.
+	 */
+	private final AtomicLong mCancelledCount = new AtomicLong();
+
+	/**
+	 * Metrics to which are reported measurements of loading of tasks.
+	 */
+	private volatile Metrics mMetrics = new MetricsRegistry();
+
+	/**
+	 * Timeout in nanoseconds for synchronous loads. {@code 0} if synchronous loads should not time out.
+	 */
+	private volatile long mLoadTimeout;
+
+	/**
+	 * Access ordered set of targets recently loaded or preloaded via this image loader that are
+	 * matched against predicates passed to {@link #invalidate(TargetPredicate)}.
+	 */
+	private final Map<Object, Boolean> mTargets = new LinkedHashMap<Object, Boolean>(16, 0.75f, true) {
+
+		/**
+		 */
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, Boolean> eldest) {
+			return size() > MAX_TRACKED_TARGETS;
+		}
+	};
+
+	/**
+	 * Access ordered map of region decoders of images recently decoded via {@link #loadRegion(Task, Rect, int)}
+	 * keyed by targets of the images.
+	 */
+	private final Map<Object, RegionDecoder> mRegionDecoders = new LinkedHashMap<Object, RegionDecoder>(4, 0.75f, true) {
+
+		/**
+		 */
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, RegionDecoder> eldest) {
+			if (size() > MAX_REGION_DECODERS) {
+				eldest.getValue().recycle();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	/**
+	 * Executor used to perform invalidation off the main thread. Created lazily.
+	 */
+	private ExecutorService mInvalidationExecutor;
+
+	/**
+	 * Time in nanoseconds at which has been this image loader asked to load or preload an image
+	 * for the last time.
+	 */
+	private volatile long mLastActiveTime = System.nanoTime();
+
 	/**
 	 * Constructors ================================================================================
 	 */
@@ -72,6 +200,8 @@ public abstract class BaseImageLoader<L> implements ImageLoader {
 	 */
 	protected BaseImageLoader(@NonNull L loader) {
 		this.mLoader = loader;
+		this.mCoalescer = new TaskCoalescer(this);
+		MemoryBudget.getInstance().register(this);
 	}
 
 	/**
@@ -79,24 +209,502 @@ public abstract class BaseImageLoader<L> implements ImageLoader {
 	 */
 
 	/**
+	 * Specifies a pool of bitmaps that is used by the wrapped loader to reuse bitmaps. The pool is
+	 * trimmed by this image loader whenever {@link #trimMemory(int)} is called.
+	 *
+	 * @param pool The desired bitmap pool. May be {@code null} to not trim any.
+	 * @see #getBitmapPool()
+	 */
+	protected void setBitmapPool(@Nullable BitmapPool pool) {
+		this.mBitmapPool = pool;
+	}
+
+	/**
+	 * Returns the pool of bitmaps used by the wrapped loader.
+	 *
+	 * @return Bitmap pool or {@code null} if the wrapped loader does not reuse bitmaps.
+	 * @see #setBitmapPool(BitmapPool)
+	 */
+	@Nullable
+	public BitmapPool getBitmapPool() {
+		return mBitmapPool;
+	}
+
+	/**
+	 * Sets a flag indicating whether this image loader should coalesce asynchronous loads of tasks
+	 * with the same target, size and transformation into a single load performed by the wrapped loader.
+	 * When enabled, a task loaded while an equal task is still in flight only receives result of
+	 * that load instead of being dispatched to the wrapped loader.
+	 * <p>
+	 * Coalescing is by default <b>enabled</b>.
+	 *
+	 * @param enabled {@code True} to enable coalescing, {@code false} to disable it.
+	 * @see #isTaskCoalescingEnabled()
+	 * @see #getCoalescedTaskCount()
+	 */
+	public void setTaskCoalescingEnabled(boolean enabled) {
+		mCoalescer.setCoalescingEnabled(enabled);
+	}
+
+	/**
+	 * Returns a flag indicating whether coalescing of equal tasks is enabled or not.
+	 *
+	 * @return {@code True} if enabled, {@code false} otherwise.
+	 * @see #setTaskCoalescingEnabled(boolean)
+	 */
+	public boolean isTaskCoalescingEnabled() {
+		return mCoalescer.isCoalescingEnabled();
+	}
+
+	/**
+	 * Returns the count of tasks that have been coalesced into an already in-flight load of an equal
+	 * task.
+	 *
+	 * @return Count of coalesced tasks.
+	 * @see #setTaskCoalescingEnabled(boolean)
+	 */
+	public long getCoalescedTaskCount() {
+		return mCoalescer.getCoalescedCount();
+	}
+
+	/**
+	 * Returns the count of tasks of which loading or preloading has been cancelled via one of
+	 * {@link #cancel(Task)}, {@link #cancel(ImageView)} or {@link #cancelAll()} before it has finished.
+	 *
+	 * @return Count of cancelled tasks.
+	 */
+	public long getCancelledTaskCount() {
+		return mCancelledCount.get();
+	}
+
+	/**
+	 * Specifies metrics to which should this image loader, its wrapped loader and loaded tasks report
+	 * measurements of loading processes like latencies of theirs stages, cache hits or failures.
+	 * <p>
+	 * By default, a new instance of {@link MetricsRegistry} is used.
+	 *
+	 * @param metrics The desired metrics.
+	 * @see #getMetrics()
+	 */
+	public void setMetrics(@NonNull Metrics metrics) {
+		this.mMetrics = metrics;
+	}
+
+	/**
+	 * Returns the metrics to which are reported measurements of loading processes.
+	 *
+	 * @return Metrics of this image loader.
+	 * @see #setMetrics(Metrics)
+	 */
+	@NonNull
+	public Metrics getMetrics() {
+		return mMetrics;
+	}
+
+	/**
+	 * Specifies a timeout for <b>synchronous</b> loads performed via {@link #load(Task)}. If a load
+	 * does not finish within the timeout, it is cancelled and {@link Error} with
+	 * {@link Error#REASON_TIMEOUT} is thrown.
+	 * <p>
+	 * Loads with a timeout are performed via {@link #loadAsync(Task)}, so the wrapped loader never
+	 * pins the calling thread for longer than the timeout.
+	 * <p>
+	 * By default, synchronous loads do not time out.
+	 *
+	 * @param timeout The desired timeout. May be {@code 0} to not time out.
+	 * @param unit    Unit of the timeout.
+	 * @throws IllegalArgumentException If the timeout is negative.
+	 * @see #getLoadTimeout(TimeUnit)
+	 */
+	public void setLoadTimeout(long timeout, @NonNull TimeUnit unit) {
+		if (timeout < 0) {
+			throw new IllegalArgumentException("Timeout(" + timeout + ") must not be negative.");
+		}
+		this.mLoadTimeout = unit.toNanos(timeout);
+	}
+
+	/**
+	 * Returns the timeout for synchronous loads.
+	 *
+	 * @param unit The unit in which to return the timeout.
+	 * @return Timeout in the requested unit or {@code 0} if synchronous loads do not time out.
+	 * @see #setLoadTimeout(long, TimeUnit)
+	 */
+	public long getLoadTimeout(@NonNull TimeUnit unit) {
+		return unit.convert(mLoadTimeout, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * <p>
+	 * If the task has a thumbnail specified that it does not load on its own, the thumbnail is
+	 * loaded as a separate task right after the task is dispatched.
+	 *
+	 * @see BaseImageTask#loadsThumbnail()
 	 */
 	@Override
-	@SuppressWarnings("unchecked")
 	public boolean load(@NonNull Task task, @Nullable Callback callback) {
 		if (task instanceof BaseImageTask) {
-			((BaseImageTask) task).onLoad(mLoader, callback);
-			return true;
+			track(task);
+			final ImageView view = task.view();
+			if (view != null) {
+				synchronized (mViews) {
+					mViews.add(view);
+				}
+			}
+			final BaseImageTask imageTask = (BaseImageTask) task;
+			final BaseImageTask thumbnail = view != null && !imageTask.loadsThumbnail() ? imageTask.thumbnailTask() : null;
+			return thumbnail == null ?
+					mCoalescer.load(imageTask, callback) :
+					new ThumbnailLoad(mCoalescer, imageTask, thumbnail, callback).start();
 		}
 		return false;
 	}
 
 	/**
+	 * Tracks target of the specified <var>task</var> as recently loaded, so it may be invalidated
+	 * via {@link #invalidate(TargetPredicate)}, and marks this image loader as active for the
+	 * {@link MemoryBudget}.
+	 *
+	 * @param task The task of which target to track.
+	 */
+	private void track(Task task) {
+		final long time = System.nanoTime();
+		this.mLastActiveTime = time;
+		MemoryBudget.getInstance().onLoaderActive(time);
+		final Object target = task.target();
+		if (target != null) {
+			synchronized (mTargets) {
+				mTargets.put(target, Boolean.TRUE);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * This implementation dispatches all the tasks via {@link #load(Task, Callback)} in a single
+	 * pass using one shared callback for all of them.
 	 */
-	@Nullable
 	@Override
+	public boolean load(@NonNull Collection<? extends Task> tasks, @NonNull BatchCallback callback) {
+		if (tasks.isEmpty()) {
+			callback.onBatchFinished(new BatchStats(0, 0, 0, 0, 0));
+			return true;
+		}
+		final BatchLoad batch = new BatchLoad(tasks.size(), callback);
+		boolean initiated = true;
+		for (final Task task : tasks) {
+			batch.onTaskStarted(task);
+			if (!load(task, batch)) {
+				batch.onTaskFinished(task, null, new Error(Error.REASON_UNKNOWN, "Unsupported task(" + task + ")."));
+				initiated = false;
+			}
+		}
+		return initiated;
+	}
+
+	/**
+	 * Dispatches the specified <var>task</var> to be loaded by the wrapped loader.
+	 *
+	 * @param task     The task to be loaded.
+	 * @param callback The callback to be invoked once the load finishes. May be {@code null}.
+	 * @return {@code True} if loading has been started, {@code false} otherwise.
+	 */
 	@SuppressWarnings("unchecked")
+	boolean dispatch(@NonNull BaseImageTask task, @Nullable Callback callback) {
+		task.mMetrics = mMetrics;
+		return task.onLoad(mLoader, callback);
+	}
+
+	/**
+	 * Cancels loading of the specified <var>task</var> previously dispatched via {@link #dispatch(BaseImageTask, Callback)}.
+	 *
+	 * @param task The task of which loading to cancel.
+	 */
+	@SuppressWarnings("unchecked")
+	void cancelDispatched(@NonNull BaseImageTask task) {
+		task.onCancelLoad(mLoader);
+	}
+
+	/**
+	 * <p>
+	 * If a timeout has been specified via {@link #setLoadTimeout(long, TimeUnit)}, the loading is
+	 * performed asynchronously via {@link #loadAsync(Task)} and awaited at most for that timeout.
+	 *
+	 * @throws IllegalStateException If called on the main thread while a timeout is specified.
+	 */
+	@Nullable
+	@Override
 	public Bitmap load(@NonNull Task task) {
-		return task instanceof BaseImageTask ? ((BaseImageTask) task).onLoad(mLoader) : null;
+		if (!(task instanceof BaseImageTask)) {
+			return null;
+		}
+		track(task);
+		final long timeout = mLoadTimeout;
+		return timeout > 0 ? loadWithTimeout((BaseImageTask) task, timeout) : loadBlocking((BaseImageTask) task);
+	}
+
+	/**
+	 * Loads the specified <var>task</var> synchronously via the wrapped loader.
+	 *
+	 * @param task The task to be loaded.
+	 * @return Loaded bitmap or {@code null} if loading has failed.
+	 * @throws Error If some loader related error occurs during the loading.
+	 */
+	@SuppressWarnings("unchecked")
+	private Bitmap loadBlocking(BaseImageTask task) {
+		final Metrics metrics = mMetrics;
+		task.mMetrics = metrics;
+		final long startTime = System.nanoTime();
+		final Bitmap bitmap;
+		try {
+			bitmap = task.onLoad(mLoader);
+		} catch (Error error) {
+			metrics.onTaskFailed(error.reason);
+			throw error;
+		}
+		if (bitmap == null) metrics.onTaskFailed(Error.REASON_UNKNOWN);
+		else metrics.onStageTime(Metrics.STAGE_TOTAL, System.nanoTime() - startTime);
+		return bitmap;
+	}
+
+	/**
+	 * Loads the specified <var>task</var> asynchronously and awaits its result at most for the
+	 * specified <var>timeout</var>.
+	 *
+	 * @param task    The task to be loaded.
+	 * @param timeout Timeout in nanoseconds.
+	 * @return Loaded bitmap.
+	 * @throws Error If some loader related error occurs during the loading or if the loading does
+	 *               not finish within the timeout.
+	 */
+	private Bitmap loadWithTimeout(BaseImageTask task, long timeout) {
+		if (Looper.myLooper() == Looper.getMainLooper()) {
+			throw new IllegalStateException("Synchronous loading cannot be performed on the main thread.");
+		}
+		final Metrics metrics = mMetrics;
+		final long startTime = System.nanoTime();
+		final Future<Bitmap> future = loadAsync(task);
+		// Loads delivered to own future are measured by the coalescer, so only timeouts are recorded.
+		final boolean measured = !(future instanceof LoadFuture);
+		try {
+			final Bitmap bitmap = future.get(timeout, TimeUnit.NANOSECONDS);
+			if (measured) metrics.onStageTime(Metrics.STAGE_TOTAL, System.nanoTime() - startTime);
+			return bitmap;
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			metrics.onTaskFailed(Error.REASON_TIMEOUT);
+			throw new Error(
+					Error.REASON_TIMEOUT,
+					"Loading has not finished within " + TimeUnit.NANOSECONDS.toMillis(timeout) + " ms.",
+					e
+			);
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new Error(Error.REASON_UNKNOWN, "Loading has been interrupted.", e);
+		} catch (CancellationException e) {
+			throw new Error(Error.REASON_UNKNOWN, "Loading has been cancelled.", e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			final Error error = cause instanceof Error ?
+					(Error) cause :
+					new Error(Error.REASON_UNKNOWN, "Failed to load image.", cause);
+			if (measured) metrics.onTaskFailed(error.reason);
+			throw error;
+		}
+	}
+
+	/**
+	 * <p>
+	 * This implementation obtains file with the image data via {@link BaseImageTask#onLoadFile(Object)}
+	 * and decodes the region via {@link android.graphics.BitmapRegionDecoder BitmapRegionDecoder}
+	 * that is kept open for subsequent regions of the same image. If a bitmap pool has been specified,
+	 * its bitmaps are reused for the decoding.
+	 */
+	@Nullable
+	@Override
+	public Bitmap loadRegion(@NonNull Task task, @NonNull Rect region, int sampleSize) {
+		return loadRegion(task, region, sampleSize, mBitmapPool);
+	}
+
+	/**
+	 * Same as {@link #loadRegion(Task, Rect, int)} with the specified bitmap <var>pool</var> from
+	 * which to reuse bitmaps.
+	 *
+	 * @param pool The pool from which to obtain bitmap to be reused. May be {@code null}.
+	 */
+	@Nullable
+	Bitmap loadRegion(@NonNull Task task, @NonNull Rect region, int sampleSize, @Nullable BitmapPool pool) {
+		if (!(task instanceof BaseImageTask)) {
+			throw new Error(Error.REASON_UNKNOWN, "Unsupported task(" + task + ").");
+		}
+		track(task);
+		try {
+			return obtainRegionDecoder((BaseImageTask) task).decode(region, sampleSize, pool);
+		} catch (IllegalStateException e) {
+			// The decoder has been recycled meanwhile, so the image is decoded via a new one.
+			return obtainRegionDecoder((BaseImageTask) task).decode(region, sampleSize, pool);
+		}
+	}
+
+	/**
+	 * Returns region decoder for image of the specified <var>task</var>, opening a new one if there
+	 * is no decoder for the task's target open yet.
+	 *
+	 * @param task The task of which image to decode.
+	 * @return Region decoder ready to be used.
+	 * @throws Error If region decoding is not supported for the task or the image cannot be opened.
+	 */
+	@SuppressWarnings("unchecked")
+	private RegionDecoder obtainRegionDecoder(BaseImageTask task) {
+		final Object target = task.target();
+		synchronized (mRegionDecoders) {
+			final RegionDecoder decoder = mRegionDecoders.get(target);
+			if (decoder != null && !decoder.isRecycled()) return decoder;
+		}
+		final File file = task.onLoadFile(mLoader);
+		if (file == null) {
+			throw new Error(Error.REASON_UNKNOWN, "Region decoding is not supported for target(" + target + ").");
+		}
+		final RegionDecoder decoder = RegionDecoder.open(file);
+		synchronized (mRegionDecoders) {
+			final RegionDecoder current = mRegionDecoders.get(target);
+			if (current != null && !current.isRecycled()) {
+				decoder.recycle();
+				return current;
+			}
+			mRegionDecoders.put(target, decoder);
+		}
+		return decoder;
+	}
+
+	/**
+	 * Recycles region decoders of all images or only of the specified <var>target</var>.
+	 *
+	 * @param target The target of which decoder to recycle. May be {@code null} to recycle all decoders.
+	 */
+	private void recycleRegionDecoders(Object target) {
+		synchronized (mRegionDecoders) {
+			final Iterator<Map.Entry<Object, RegionDecoder>> iterator = mRegionDecoders.entrySet().iterator();
+			while (iterator.hasNext()) {
+				final Map.Entry<Object, RegionDecoder> entry = iterator.next();
+				if (target == null || target.equals(entry.getKey())) {
+					entry.getValue().recycle();
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * This implementation uses future provided by the wrapped loader, if any, otherwise loads the
+	 * task via {@link #load(Task, Callback)} on the main thread and delivers its result to a future
+	 * of its own.
+	 *
+	 * @see BaseImageTask#onLoadAsync(Object)
+	 */
+	@NonNull
+	@Override
+	@SuppressWarnings("unchecked")
+	public Future<Bitmap> loadAsync(@NonNull Task task) {
+		if (!(task instanceof BaseImageTask)) {
+			return LoadFuture.failed(new Error(Error.REASON_UNKNOWN, "Unsupported task(" + task + ")."));
+		}
+		final BaseImageTask imageTask = (BaseImageTask) task;
+		track(task);
+		imageTask.mMetrics = mMetrics;
+		final Future<Bitmap> future = imageTask.onLoadAsync(mLoader);
+		return future == null ? new LoadFuture(this, task).start() : future;
+	}
+
+	/**
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean preload(@NonNull Task task, @CacheLevel int cacheLevel) {
+		if (task instanceof BaseImageTask) {
+			BaseImageTask preloadTask = (BaseImageTask) task;
+			if (task.priority() == Task.PRIORITY_NORMAL) {
+				// The task is owned by the client, so only its copy is preloaded with prefetch priority.
+				final BaseImageTask copy = preloadTask.copy();
+				if (copy != null) {
+					copy.mPriority = Task.PRIORITY_PREFETCH;
+					preloadTask = copy;
+				}
+			}
+			track(task);
+			final BaseImageTask previous;
+			synchronized (mPreloadTasks) {
+				previous = mPreloadTasks.put((BaseImageTask) task, preloadTask);
+			}
+			if (previous != null && previous != preloadTask) previous.onCancelPreload(mLoader);
+			preloadTask.mMetrics = mMetrics;
+			return preloadTask.onPreload(mLoader, cacheLevel);
+		}
+		return false;
+	}
+
+	/**
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean cancel(@NonNull Task task) {
+		if (task instanceof BaseImageTask) {
+			final boolean cancelled = mCoalescer.cancel((BaseImageTask) task) | cancelPreload((BaseImageTask) task);
+			if (cancelled) onTasksCancelled(1);
+			return cancelled;
+		}
+		return false;
+	}
+
+	/**
+	 */
+	@Override
+	public boolean cancel(@NonNull ImageView view) {
+		final boolean cancelled = mCoalescer.cancel(view);
+		if (cancelled) onTasksCancelled(1);
+		return cancelled;
+	}
+
+	/**
+	 */
+	@Override
+	public void cancelAll() {
+		int count = mCoalescer.cancelAll();
+		final List<BaseImageTask> preloadTasks;
+		synchronized (mPreloadTasks) {
+			preloadTasks = new ArrayList<>(mPreloadTasks.keySet());
+		}
+		for (final BaseImageTask task : preloadTasks) {
+			if (cancelPreload(task)) count++;
+		}
+		if (count > 0) onTasksCancelled(count);
+	}
+
+	/**
+	 * Records the specified <var>count</var> of cancelled tasks.
+	 *
+	 * @param count Count of the cancelled tasks.
+	 */
+	private void onTasksCancelled(int count) {
+		mCancelledCount.addAndGet(count);
+		mMetrics.onTasksCancelled(count);
+	}
+
+	/**
+	 * Cancels preloading of the specified <var>task</var>, if it is still running.
+	 *
+	 * @param task The task of which preloading to cancel.
+	 * @return {@code True} if preloading has been cancelled, {@code false} otherwise.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean cancelPreload(BaseImageTask task) {
+		final BaseImageTask preloadTask;
+		synchronized (mPreloadTasks) {
+			preloadTask = mPreloadTasks.remove(task);
+		}
+		return preloadTask != null && preloadTask.onCancelPreload(mLoader);
 	}
 
 	/**
@@ -104,7 +712,330 @@ public abstract class BaseImageLoader<L> implements ImageLoader {
 	@Override
 	@SuppressWarnings("unchecked")
 	public boolean remove(@NonNull Task task) {
-		return task instanceof BaseImageTask && ((BaseImageTask) task).onRemove(mLoader);
+		if (!(task instanceof BaseImageTask)) {
+			return false;
+		}
+		recycleRegionDecoders(task.target());
+		return ((BaseImageTask) task).onRemove(mLoader);
+	}
+
+	/**
+	 * <p>
+	 * This implementation matches the prefix against {@link Object#toString()} of the targets.
+	 */
+	@NonNull
+	@Override
+	public Future<Integer> invalidate(@NonNull final String prefix) {
+		return invalidate(new TargetPredicate() {
+
+			/**
+			 */
+			@Override
+			public boolean test(@NonNull Object target) {
+				return target.toString().startsWith(prefix);
+			}
+		});
+	}
+
+	/**
+	 * <p>
+	 * This implementation matches the predicate against targets recently loaded or preloaded via
+	 * this image loader, at most {@code 2048} of them, and against targets collected
+	 * from caches of the wrapped loader via {@link #onCollectCachedTargets(Collection)}. Images of
+	 * the matching targets are removed via {@link #onInvalidate(Object)} on a background thread.
+	 * Images of targets that are neither tracked nor collected, like ones loaded only long time ago
+	 * by a loader that cannot list its caches, remain cached.
+	 */
+	@NonNull
+	@Override
+	public Future<Integer> invalidate(@NonNull final TargetPredicate predicate) {
+		final Set<Object> targets = new LinkedHashSet<>();
+		synchronized (mTargets) {
+			final Iterator<Object> iterator = mTargets.keySet().iterator();
+			while (iterator.hasNext()) {
+				final Object target = iterator.next();
+				if (predicate.test(target)) {
+					targets.add(target);
+					iterator.remove();
+				}
+			}
+		}
+		return invalidationExecutor().submit(new Callable<Integer>() {
+
+			/**
+			 */
+			@Override
+			public Integer call() {
+				final List<Object> cachedTargets = new ArrayList<>();
+				onCollectCachedTargets(cachedTargets);
+				for (final Object target : cachedTargets) {
+					if (predicate.test(target)) targets.add(target);
+				}
+				int count = 0;
+				for (final Object target : targets) {
+					recycleRegionDecoders(target);
+					if (onInvalidate(target)) count++;
+				}
+				return count;
+			}
+		});
+	}
+
+	/**
+	 * Returns the executor used to perform invalidation, creating it if needed. The executor runs
+	 * a single thread that terminates when idle.
+	 *
+	 * @return Invalidation executor.
+	 */
+	private synchronized ExecutorService invalidationExecutor() {
+		if (mInvalidationExecutor == null) {
+			this.mInvalidationExecutor = new ThreadPoolExecutor(
+					0,
+					1,
+					INVALIDATION_KEEP_ALIVE_TIME,
+					TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactory() {
+
+						/**
+						 */
+						@Override
+						public Thread newThread(@NonNull Runnable runnable) {
+							final Thread thread = new Thread(runnable, "ImageLoader-Invalidate");
+							thread.setPriority(Thread.MIN_PRIORITY);
+							return thread;
+						}
+					}
+			);
+		}
+		return mInvalidationExecutor;
+	}
+
+	/**
+	 * Invoked on a background thread to collect targets of images stored in memory and disk caches
+	 * of the wrapped loader, so also images of targets that are not tracked by this image loader
+	 * may be invalidated via {@link #invalidate(TargetPredicate)}.
+	 * <p>
+	 * Default implementation collects nothing. Subclasses that wrap a loader able to list its cache
+	 * entries should add targets of all of them.
+	 *
+	 * @param targets The collection into which to add the cached targets.
+	 */
+	protected void onCollectCachedTargets(@NonNull Collection<Object> targets) {
+	}
+
+	/**
+	 * Invoked on a background thread to remove images of the specified <var>target</var> from
+	 * memory and disk caches of the wrapped loader.
+	 * <p>
+	 * Default implementation removes the images via {@link BaseImageTask#onRemove(Object)} of a task
+	 * obtained via {@link #onObtainTask()}, which is recycled afterwards if it has been obtained from
+	 * a {@link TaskPool}. If there is no task, nothing is removed and {@code false} is returned.
+	 *
+	 * @param target The target of which images to remove.
+	 * @return {@code True} if some image has been removed, {@code false} otherwise.
+	 * @see #invalidate(TargetPredicate)
+	 */
+	@SuppressWarnings("unchecked")
+	protected boolean onInvalidate(@NonNull Object target) {
+		final BaseImageTask task = onObtainTask();
+		if (task == null) {
+			return false;
+		}
+		task.target(target);
+		try {
+			return task.onRemove(mLoader);
+		} finally {
+			task.recycleIfPooled();
+		}
+	}
+
+	/**
+	 * Invoked to obtain a task that may be used to remove images of a target via {@link #onInvalidate(Object)}.
+	 * <p>
+	 * Default implementation returns {@code null}. Subclasses should return a new or a pooled task
+	 * of the type they load.
+	 *
+	 * @return Task with default parameters or {@code null} if this image loader does not support
+	 * removing of images.
+	 */
+	@Nullable
+	protected BaseImageTask<L, ?, ?> onObtainTask() {
+		return null;
+	}
+
+	/**
+	 * <p>
+	 * This implementation delegates to {@link #trimMemory(int)}.
+	 */
+	@Override
+	@CallSuper
+	public void onTrimMemory(int level) {
+		trimMemory(level);
+	}
+
+	/**
+	 * <p>
+	 * This implementation delegates to {@link #trimMemory(int)} with {@link ComponentCallbacks2#TRIM_MEMORY_COMPLETE TRIM_MEMORY_COMPLETE}.
+	 */
+	@Override
+	@CallSuper
+	public void onLowMemory() {
+		trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+	}
+
+	/**
+	 * Trims memory used by the wrapped loader and by the bitmap pool according to the specified
+	 * <var>level</var>:
+	 * <ul>
+	 * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_MODERATE RUNNING_MODERATE}: memory cache
+	 * is trimmed to <b>75 %</b> of its size,</li>
+	 * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW RUNNING_LOW}: to <b>50 %</b>,</li>
+	 * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_CRITICAL RUNNING_CRITICAL}: to <b>25 %</b>,</li>
+	 * <li>{@link ComponentCallbacks2#TRIM_MEMORY_UI_HIDDEN UI_HIDDEN}: all bitmaps that are not
+	 * displayed by some of views into which have been loaded images via this loader are evicted,</li>
+	 * <li>{@link ComponentCallbacks2#TRIM_MEMORY_BACKGROUND BACKGROUND}: to <b>50 %</b>,</li>
+	 * <li>{@link ComponentCallbacks2#TRIM_MEMORY_MODERATE MODERATE}: to <b>25 %</b>,</li>
+	 * <li>{@link ComponentCallbacks2#TRIM_MEMORY_COMPLETE COMPLETE}: memory cache is cleared.</li>
+	 * </ul>
+	 * Region decoders opened via {@link #loadRegion(Task, Rect, int)} are recycled from {@link ComponentCallbacks2#TRIM_MEMORY_UI_HIDDEN UI_HIDDEN}
+	 * level. The bitmap pool, if any, along with the pool used by image transformations is trimmed via
+	 * {@link BitmapPool#onTrimMemory(int)}. Count of the freed bytes is reported to the current metrics
+	 * via {@link Metrics#onMemoryTrimmed(int, long)}.
+	 *
+	 * @param level The level for which to trim the memory. One of levels specified by {@link ComponentCallbacks2}.
+	 * @return Count of bytes freed by the trim.
+	 * @see #onTrimMemoryCache(float)
+	 * @see #onEvictDetachedBitmaps(Set)
+	 */
+	public long trimMemory(int level) {
+		long byteCount;
+		if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) {
+			byteCount = onTrimMemoryCache(0f);
+		} else if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+			byteCount = onTrimMemoryCache(0.25f);
+		} else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+			byteCount = onTrimMemoryCache(0.5f);
+		} else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+			byteCount = onEvictDetachedBitmaps(attachedBitmaps());
+		} else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+			byteCount = onTrimMemoryCache(0.25f);
+		} else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+			byteCount = onTrimMemoryCache(0.5f);
+		} else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+			byteCount = onTrimMemoryCache(0.75f);
+		} else {
+			byteCount = 0;
+		}
+		if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) recycleRegionDecoders(null);
+		if (mBitmapPool != null) byteCount += mBitmapPool.onTrimMemory(level);
+		byteCount += BaseImageTask.trimTransformationPool(level);
+		mMetrics.onMemoryTrimmed(level, byteCount);
+		return byteCount;
+	}
+
+	/**
+	 * Invoked to trim memory cache of the wrapped loader to the specified <var>fraction</var> of
+	 * its current size.
+	 * <p>
+	 * Default implementation does nothing and returns {@code 0}.
+	 *
+	 * @param fraction The fraction of the current size to which to trim the cache. {@code 0} to
+	 *                 clear the cache entirely.
+	 * @return Count of bytes freed by the trim.
+	 * @see #trimMemory(int)
+	 */
+	protected long onTrimMemoryCache(float fraction) {
+		return 0;
+	}
+
+	/**
+	 * Invoked to evict from memory cache of the wrapped loader all bitmaps that are not contained
+	 * in the specified set of <var>attachedBitmaps</var>.
+	 * <p>
+	 * Default implementation does nothing and returns {@code 0}.
+	 *
+	 * @param attachedBitmaps Identity set of bitmaps currently displayed by views into which have
+	 *                        been loaded images via this image loader.
+	 * @return Count of bytes freed by the eviction.
+	 * @see #trimMemory(int)
+	 */
+	protected long onEvictDetachedBitmaps(@NonNull Set<Bitmap> attachedBitmaps) {
+		return 0;
+	}
+
+	/**
+	 * Invoked by the {@link MemoryBudget} to measure count of bytes currently held by memory cache
+	 * of the wrapped loader. When the budget is exceeded, memory caches of the least recently active
+	 * loaders are trimmed via {@link #onTrimMemoryCache(float)}. Both methods are invoked on a
+	 * background thread, so the measuring should be cheap and thread-safe.
+	 * <p>
+	 * Default implementation returns {@code 0}, so this image loader is not accounted by the budget.
+	 *
+	 * @return Size of the memory cache in bytes.
+	 */
+	protected long onMeasureMemoryCache() {
+		return 0;
+	}
+
+	/**
+	 * Invoked by the {@link MemoryBudget} to identify memory cache of the wrapped loader, so a cache
+	 * shared by multiple image loaders, like cache of a singleton loader, is measured and trimmed
+	 * only once.
+	 * <p>
+	 * Default implementation returns {@code null}, so the memory cache is treated as not shared.
+	 *
+	 * @return The memory cache instance or {@code null} if it is not shared.
+	 * @see #onMeasureMemoryCache()
+	 */
+	@Nullable
+	protected Object onIdentifyMemoryCache() {
+		return null;
+	}
+
+	/**
+	 * Returns the time at which has been this image loader asked to load or preload an image for
+	 * the last time.
+	 *
+	 * @return Time in nanoseconds.
+	 */
+	final long lastActiveTime() {
+		return mLastActiveTime;
+	}
+
+	/**
+	 * Collects bitmaps currently displayed by views into which have been loaded images via this
+	 * image loader.
+	 *
+	 * @return Identity set of the displayed bitmaps.
+	 */
+	private Set<Bitmap> attachedBitmaps() {
+		final Set<Bitmap> bitmaps = Collections.newSetFromMap(new IdentityHashMap<Bitmap, Boolean>());
+		synchronized (mViews) {
+			for (final ImageView view : mViews) {
+				if (view != null) collectBitmaps(view.getDrawable(), bitmaps);
+			}
+		}
+		return bitmaps;
+	}
+
+	/**
+	 * Collects bitmaps of the specified <var>drawable</var> including all its layers into the
+	 * given set of <var>bitmaps</var>.
+	 *
+	 * @param drawable The drawable of which bitmaps to collect. May be {@code null}.
+	 * @param bitmaps  The set into which to collect the bitmaps.
+	 */
+	private static void collectBitmaps(Drawable drawable, Set<Bitmap> bitmaps) {
+		if (drawable instanceof BitmapDrawable) {
+			final Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+			if (bitmap != null) bitmaps.add(bitmap);
+		} else if (drawable instanceof LayerDrawable) {
+			final LayerDrawable layers = (LayerDrawable) drawable;
+			for (int i = 0; i < layers.getNumberOfLayers(); i++) {
+				collectBitmaps(layers.getDrawable(i), bitmaps);
+			}
+		}
 	}
 
 	/**
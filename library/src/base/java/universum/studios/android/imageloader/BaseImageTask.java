@@ -19,15 +19,21 @@
 package universum.studios.android.imageloader;
 
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.support.annotation.CallSuper;
 import android.support.annotation.DrawableRes;
 import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.annotation.Px;
 import android.widget.ImageView;
 
+import java.io.File;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.Future;
 
 /**
  * Base implementation of {@link ImageLoader.Task} that implements setters for all task parameters.
@@ -54,6 +60,11 @@ public abstract class BaseImageTask<Loader, Target, Transformation> implements I
 	 */
 	// private static final String TAG = "BaseImageTask";
 
+	/**
+	 * Divider used to compute size of {@link #sTransformationPool} from the default size of bitmap pool.
+	 */
+	private static final int TRANSFORMATION_POOL_SIZE_DIVIDER = 4;
+
 	/**
 	 * Interface ===================================================================================
 	 */
@@ -72,16 +83,69 @@ public abstract class BaseImageTask<Loader, Target, Transformation> implements I
 	 */
 	protected static final int REQUEST_DO_NOT_ANIMATE = 0x00000001;
 
+	/**
+	 * Request flag indicating that a loaded image should be scaled to fill the requested size and
+	 * then cropped.
+	 * <p>
+	 * <b>Request method:</b> {@link #centerCrop()}
+	 *
+	 * @see #hasRequest(int)
+	 */
+	protected static final int REQUEST_CENTER_CROP = 0x00000002;
+
+	/**
+	 * Request flag indicating that a loaded image should be scaled to fit inside the requested size.
+	 * <p>
+	 * <b>Request method:</b> {@link #centerInside()}
+	 *
+	 * @see #hasRequest(int)
+	 */
+	protected static final int REQUEST_CENTER_INSIDE = 0x00000004;
+
+	/**
+	 * Request flag indicating that an image should be decoded progressively while its data are
+	 * being received.
+	 * <p>
+	 * <b>Request method:</b> {@link #progressive(boolean)}
+	 *
+	 * @see #hasRequest(int)
+	 */
+	protected static final int REQUEST_PROGRESSIVE = 0x00000008;
+
+	/**
+	 * Request flag indicating that an opaque image should be decoded in {@link Bitmap.Config#RGB_565}.
+	 * <p>
+	 * <b>Request method:</b> {@link #preferRgb565(boolean)}
+	 *
+	 * @see #hasRequest(int)
+	 */
+	protected static final int REQUEST_PREFER_RGB_565 = 0x00000010;
+
+	/**
+	 * Mime type of the image format that cannot contain transparency.
+	 */
+	private static final String OPAQUE_MIME_TYPE = "image/jpeg";
+
 	/**
 	 *
 	 */
 	@IntDef({
-			REQUEST_DO_NOT_ANIMATE
+			REQUEST_DO_NOT_ANIMATE,
+			REQUEST_CENTER_CROP,
+			REQUEST_CENTER_INSIDE,
+			REQUEST_PROGRESSIVE,
+			REQUEST_PREFER_RGB_565
 	})
 	@Retention(RetentionPolicy.SOURCE)
 	protected @interface Request {
 	}
 
+	/**
+	 * Pool of bitmaps used by image transformations of tasks of which loader does not provide its
+	 * own bitmap pool. Created lazily.
+	 */
+	private static BitmapPool sTransformationPool;
+
 	/**
 	 * Members =====================================================================================
 	 */
@@ -116,6 +180,32 @@ public abstract class BaseImageTask<Loader, Target, Transformation> implements I
 	 */
 	protected Transformation mTransformation;
 
+	/**
+	 * Loader independent transformation to be applied to the loaded bitmap after {@link #mTransformation}.
+	 * May be {@code null}.
+	 */
+	protected ImageTransformation mImageTransformation;
+
+	/**
+	 * Width in pixels to which should be the loaded image resized. {@code 0} if not specified.
+	 */
+	protected int mWidth;
+
+	/**
+	 * Height in pixels to which should be the loaded image resized. {@code 0} if not specified.
+	 */
+	protected int mHeight;
+
+	/**
+	 * Config in which should be the loaded image decoded. May be {@code null} to use the default one.
+	 */
+	protected Bitmap.Config mBitmapConfig;
+
+	/**
+	 * Priority with which should be this task loaded.
+	 */
+	protected int mPriority = PRIORITY_NORMAL;
+
 	/**
 	 * Set of requests for this task.
 	 */
@@ -126,6 +216,41 @@ public abstract class BaseImageTask<Loader, Target, Transformation> implements I
 	 */
 	protected ImageView mView;
 
+	/**
+	 * Task loading a thumbnail to be shown in {@link #mView} until image of this task is loaded.
+	 * May be {@code null}.
+	 */
+	protected ImageLoader.Task<Target, Transformation> mThumbnail;
+
+	/**
+	 * Multiplier of the size of this task for a thumbnail loading the same image. {@code 0} if not
+	 * specified.
+	 */
+	protected float mThumbnailMultiplier;
+
+	/**
+	 * Key of this task computed for its current target, size and transformations. Cleared whenever
+	 * one of these parameters changes. May be {@code null} if not computed yet.
+	 */
+	private TaskKey mKey;
+
+	/**
+	 * Metrics to which should be reported measurements of loading of this task. Specified by
+	 * {@link BaseImageLoader} whenever this task is loaded. May be {@code null}.
+	 */
+	volatile ImageLoader.Metrics mMetrics;
+
+	/**
+	 * Pool from which has been this task obtained. May be {@code null} if this task has been created
+	 * directly.
+	 */
+	TaskPool mPool;
+
+	/**
+	 * Flag indicating whether this task has been recycled and should not be used anymore.
+	 */
+	boolean mRecycled;
+
 	/**
 	 * Constructors ================================================================================
 	 */
@@ -139,6 +264,7 @@ public abstract class BaseImageTask<Loader, Target, Transformation> implements I
 	@Override
 	public ImageLoader.Task<Target, Transformation> target(@NonNull Target target) {
 		this.mTarget = target;
+		this.mKey = null;
 		return this;
 	}
 
@@ -191,9 +317,89 @@ public abstract class BaseImageTask<Loader, Target, Transformation> implements I
 	@Override
 	public ImageLoader.Task<Target, Transformation> transform(@Nullable Transformation transformation) {
 		this.mTransformation = transformation;
+		this.mKey = null;
+		return this;
+	}
+
+	/**
+	 */
+	@Override
+	public ImageLoader.Task<Target, Transformation> bitmapTransform(@Nullable ImageTransformation transformation) {
+		this.mImageTransformation = transformation;
+		this.mKey = null;
 		return this;
 	}
 
+	/**
+	 * Returns the pool of bitmaps that should be used by image transformations of tasks of which
+	 * loader does not provide its own bitmap pool.
+	 *
+	 * @return Shared transformation pool.
+	 * @see #trimTransformationPool(int)
+	 */
+	@NonNull
+	static synchronized BitmapPool transformationPool() {
+		if (sTransformationPool == null) {
+			sTransformationPool = new BitmapPool(BitmapPool.defaultSize() / TRANSFORMATION_POOL_SIZE_DIVIDER);
+		}
+		return sTransformationPool;
+	}
+
+	/**
+	 * Trims the pool returned by {@link #transformationPool()}, if created, according to the specified
+	 * memory trim <var>level</var>.
+	 *
+	 * @param level The level for which to trim the pool.
+	 * @return Count of bytes freed by the trim.
+	 */
+	static synchronized int trimTransformationPool(int level) {
+		return sTransformationPool == null ? 0 : sTransformationPool.onTrimMemory(level);
+	}
+
+	/**
+	 */
+	@Override
+	public ImageLoader.Task<Target, Transformation> resize(@Px int width, @Px int height) {
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException("Size(" + width + ", " + height + ") must not be negative.");
+		}
+		this.mWidth = width;
+		this.mHeight = height;
+		this.mKey = null;
+		return this;
+	}
+
+	/**
+	 */
+	@Override
+	public ImageLoader.Task<Target, Transformation> centerCrop() {
+		this.updateRequests(REQUEST_CENTER_INSIDE, false);
+		this.updateRequests(REQUEST_CENTER_CROP, true);
+		this.mKey = null;
+		return this;
+	}
+
+	/**
+	 */
+	@Override
+	public ImageLoader.Task<Target, Transformation> centerInside() {
+		this.updateRequests(REQUEST_CENTER_CROP, false);
+		this.updateRequests(REQUEST_CENTER_INSIDE, true);
+		this.mKey = null;
+		return this;
+	}
+
+	/**
+	 * Returns a boolean flag indicating whether a size to which should be the loaded image resized
+	 * has been specified for this task.
+	 *
+	 * @return {@code True} if both width and height has been specified, {@code false} otherwise.
+	 * @see #resize(int, int)
+	 */
+	protected final boolean hasSize() {
+		return mWidth > 0 && mHeight > 0;
+	}
+
 	/**
 	 */
 	@Override
@@ -202,6 +408,218 @@ public abstract class BaseImageTask<Loader, Target, Transformation> implements I
 		return this;
 	}
 
+	/**
+	 */
+	@Override
+	public ImageLoader.Task<Target, Transformation> bitmapConfig(@Nullable Bitmap.Config config) {
+		this.mBitmapConfig = config;
+		this.mKey = null;
+		return this;
+	}
+
+	/**
+	 */
+	@Override
+	public ImageLoader.Task<Target, Transformation> preferRgb565(boolean prefer) {
+		this.updateRequests(REQUEST_PREFER_RGB_565, prefer);
+		this.mKey = null;
+		return this;
+	}
+
+	/**
+	 * Resolves the config in which should be the image of this task decoded.
+	 * <p>
+	 * The config specified via {@link #bitmapConfig(Bitmap.Config)} is always preferred. Otherwise,
+	 * if {@link #REQUEST_PREFER_RGB_565} is requested and the image is a JPEG, {@link Bitmap.Config#RGB_565}
+	 * is resolved. Loaders that cannot inspect the image before decoding it may pass {@code null}
+	 * <var>mimeType</var>, in which case the format is resolved from extension of the target.
+	 *
+	 * @param mimeType Mime type of the image to be decoded. May be {@code null} if not known.
+	 * @return Resolved config or {@code null} to decode the image in the default config of the loader.
+	 */
+	@Nullable
+	protected final Bitmap.Config resolveBitmapConfig(@Nullable String mimeType) {
+		if (mBitmapConfig != null) {
+			return mBitmapConfig;
+		}
+		if (!hasRequest(REQUEST_PREFER_RGB_565)) {
+			return null;
+		}
+		final boolean opaque = mimeType == null ? hasOpaqueExtension(mTarget) : OPAQUE_MIME_TYPE.equals(mimeType);
+		return opaque ? Bitmap.Config.RGB_565 : null;
+	}
+
+	/**
+	 * Checks whether the specified <var>target</var> ends with extension of an image format that
+	 * cannot contain transparency. Query and fragment of the target are ignored.
+	 *
+	 * @param target The target to check. May be {@code null}.
+	 * @return {@code True} if the target refers to a JPEG image, {@code false} otherwise.
+	 */
+	static boolean hasOpaqueExtension(@Nullable Object target) {
+		if (target == null) {
+			return false;
+		}
+		String path = target.toString();
+		final int queryIndex = path.indexOf('?');
+		if (queryIndex >= 0) path = path.substring(0, queryIndex);
+		final int fragmentIndex = path.indexOf('#');
+		if (fragmentIndex >= 0) path = path.substring(0, fragmentIndex);
+		return path.regionMatches(true, path.length() - 4, ".jpg", 0, 4) ||
+				path.regionMatches(true, path.length() - 5, ".jpeg", 0, 5);
+	}
+
+	/**
+	 */
+	@Override
+	public ImageLoader.Task<Target, Transformation> progressive(boolean progressive) {
+		this.updateRequests(REQUEST_PROGRESSIVE, progressive);
+		return this;
+	}
+
+	/**
+	 */
+	@Override
+	public ImageLoader.Task<Target, Transformation> thumbnail(@Nullable ImageLoader.Task<Target, Transformation> thumbnail) {
+		this.mThumbnail = thumbnail;
+		this.mThumbnailMultiplier = 0;
+		return this;
+	}
+
+	/**
+	 */
+	@Override
+	public ImageLoader.Task<Target, Transformation> thumbnail(float sizeMultiplier) {
+		if (sizeMultiplier < 0 || sizeMultiplier > 1) {
+			throw new IllegalArgumentException("Size multiplier(" + sizeMultiplier + ") must be from the range [0, 1].");
+		}
+		this.mThumbnailMultiplier = sizeMultiplier;
+		this.mThumbnail = null;
+		return this;
+	}
+
+	/**
+	 * Returns a boolean flag indicating whether {@link #onLoad(Object, ImageLoader.Callback)} loads
+	 * the thumbnail specified for this task on its own via the underlying library.
+	 * <p>
+	 * Default implementation returns {@code false}, so {@link BaseImageLoader} loads the thumbnail
+	 * as a separate task obtained via {@link #thumbnailTask()}.
+	 *
+	 * @return {@code True} if the thumbnail is loaded by this task, {@code false} otherwise.
+	 * @see #thumbnail(ImageLoader.Task)
+	 * @see #thumbnail(float)
+	 */
+	protected boolean loadsThumbnail() {
+		return false;
+	}
+
+	/**
+	 * Returns the task loading thumbnail of this task. For a thumbnail specified via {@link #thumbnail(float)}
+	 * a new task is created via {@link #onCreateTask()} and configured to load the target of
+	 * this task with the multiplied size. A thumbnail task specified via {@link #thumbnail(ImageLoader.Task)}
+	 * is owned by a client, so if it has an image view attached, its copy without the view is returned
+	 * instead of the task itself.
+	 *
+	 * @return Thumbnail task without image view or {@code null} if there is no thumbnail to load.
+	 */
+	@Nullable
+	final BaseImageTask thumbnailTask() {
+		if (mThumbnail instanceof BaseImageTask) {
+			final BaseImageTask thumbnail = (BaseImageTask) mThumbnail;
+			if (thumbnail.mView == null) {
+				return thumbnail;
+			}
+			final BaseImageTask copy = thumbnail.copy();
+			if (copy != null) copy.mView = null;
+			return copy;
+		}
+		if (mThumbnailMultiplier <= 0) {
+			return null;
+		}
+		int width = mWidth, height = mHeight;
+		if (!hasSize()) {
+			if (mView == null) return null;
+			width = mView.getWidth();
+			height = mView.getHeight();
+		}
+		width = Math.round(width * mThumbnailMultiplier);
+		height = Math.round(height * mThumbnailMultiplier);
+		if (width <= 0 || height <= 0) {
+			return null;
+		}
+		final BaseImageTask<Loader, Target, Transformation> thumbnail = onCreateTask();
+		if (thumbnail != null) {
+			thumbnail.mTarget = mTarget;
+			thumbnail.mTransformation = mTransformation;
+			thumbnail.mImageTransformation = mImageTransformation;
+			thumbnail.mWidth = width;
+			thumbnail.mHeight = height;
+			thumbnail.mPriority = mPriority;
+			thumbnail.mBitmapConfig = mBitmapConfig;
+			thumbnail.mRequests = mRequests & (REQUEST_CENTER_CROP | REQUEST_CENTER_INSIDE | REQUEST_DO_NOT_ANIMATE | REQUEST_PREFER_RGB_565);
+		}
+		return thumbnail;
+	}
+
+	/**
+	 * Creates a copy of this task with all its parameters via {@link #onCreateTask()}, so the copy
+	 * may be loaded with adjusted parameters without modifying this task that is owned by a client.
+	 *
+	 * @return Copy of this task or {@code null} if this task does not support copying.
+	 */
+	@Nullable
+	final BaseImageTask<Loader, Target, Transformation> copy() {
+		final BaseImageTask<Loader, Target, Transformation> copy = onCreateTask();
+		if (copy != null) {
+			copy.mTarget = mTarget;
+			copy.mPlaceholder = mPlaceholder;
+			copy.mPlaceholderRes = mPlaceholderRes;
+			copy.mError = mError;
+			copy.mErrorRes = mErrorRes;
+			copy.mTransformation = mTransformation;
+			copy.mImageTransformation = mImageTransformation;
+			copy.mWidth = mWidth;
+			copy.mHeight = mHeight;
+			copy.mBitmapConfig = mBitmapConfig;
+			copy.mPriority = mPriority;
+			copy.mRequests = mRequests;
+			copy.mView = mView;
+			copy.mThumbnail = mThumbnail;
+			copy.mThumbnailMultiplier = mThumbnailMultiplier;
+		}
+		return copy;
+	}
+
+	/**
+	 * Called to create a new task of the same type as this task to be used to load a thumbnail
+	 * specified via {@link #thumbnail(float)} or a {@link #copy()} of this task.
+	 * <p>
+	 * Default implementation returns {@code null}, so size multiplied thumbnails are not loaded and
+	 * parameters of this task are never adjusted by the loader.
+	 *
+	 * @return New task or {@code null} if not supported.
+	 */
+	@Nullable
+	protected BaseImageTask<Loader, Target, Transformation> onCreateTask() {
+		return null;
+	}
+
+	/**
+	 */
+	@Override
+	public ImageLoader.Task<Target, Transformation> priority(@Priority int priority) {
+		this.mPriority = priority;
+		return this;
+	}
+
+	/**
+	 */
+	@Priority
+	@Override
+	public int priority() {
+		return mPriority;
+	}
+
 	/**
 	 */
 	@Override
@@ -218,6 +636,181 @@ public abstract class BaseImageTask<Loader, Target, Transformation> implements I
 		return mView;
 	}
 
+	/**
+	 * Returns the key identifying image loaded by this task. Tasks with equal keys load the same
+	 * image with the same size, bitmap config and transformations, so {@link BaseImageLoader} may
+	 * satisfy all of them by a single load.
+	 * <p>
+	 * The key is computed only once for the current target, size, bitmap config and transformations
+	 * of this task and is reused until one of these parameters is changed via its setter.
+	 *
+	 * @return This task's key composed of target, size, bitmap config and transformations.
+	 * @see #transformationKey(Object)
+	 */
+	@NonNull
+	public final TaskKey key() {
+		TaskKey key = mKey;
+		if (key == null) {
+			final boolean hasSize = hasSize();
+			this.mKey = key = new TaskKey(
+					mTarget,
+					hasSize ? mWidth : 0,
+					hasSize ? mHeight : 0,
+					hasSize ? (hasRequest(REQUEST_CENTER_CROP) ? TaskKey.SCALE_CENTER_CROP : TaskKey.SCALE_CENTER_INSIDE) : TaskKey.SCALE_NONE,
+					mBitmapConfig != null ?
+							mBitmapConfig.ordinal() + 1 :
+							(hasRequest(REQUEST_PREFER_RGB_565) ? TaskKey.CONFIG_PREFER_RGB_565 : TaskKey.CONFIG_DEFAULT),
+					mTransformation == null ? null : transformationKey(mTransformation),
+					mImageTransformation == null ? null : mImageTransformation.getKey()
+			);
+		}
+		return key;
+	}
+
+	/**
+	 * Returns the key identifying the specified <var>transformation</var> that is used as part of
+	 * {@link #key()}. The returned key is compared via {@link Object#equals(Object)}.
+	 * <p>
+	 * Default implementation returns the transformation itself, so it is identified by its instance
+	 * unless it overrides {@link Object#equals(Object)}. Subclasses should return key identifying
+	 * the transformation by its parameters if the underlying library supports it.
+	 *
+	 * @param transformation The transformation for which to return its key.
+	 * @return Transformation key.
+	 */
+	@NonNull
+	protected Object transformationKey(@NonNull Transformation transformation) {
+		return transformation;
+	}
+
+	/**
+	 * Attaches the specified <var>bitmap</var> to the image view of this task, if specified.
+	 * <p>
+	 * Called by {@link BaseImageLoader} for tasks that have not been loaded by the wrapped loader
+	 * directly but have joined another in-flight task with the same {@link #key()}.
+	 *
+	 * @param bitmap The bitmap to be attached.
+	 */
+	protected void attachBitmap(@NonNull Bitmap bitmap) {
+		if (mView != null) mView.setImageBitmap(bitmap);
+	}
+
+	/**
+	 * Attaches the placeholder drawable to the image view of this task, if both are specified.
+	 *
+	 * @see #attachBitmap(Bitmap)
+	 */
+	protected void attachPlaceholder() {
+		if (mView == null) return;
+		if (mPlaceholderRes != NO_RESOURCE_ID) mView.setImageResource(mPlaceholderRes);
+		else mView.setImageDrawable(mPlaceholder);
+	}
+
+	/**
+	 * Attaches the error drawable to the image view of this task, if both are specified.
+	 *
+	 * @see #attachBitmap(Bitmap)
+	 */
+	protected void attachError() {
+		if (mView == null) return;
+		if (mErrorRes != NO_RESOURCE_ID) mView.setImageResource(mErrorRes);
+		else if (mError != null) mView.setImageDrawable(mError);
+	}
+
+	/**
+	 * Reports time of the specified loading <var>stage</var> of this task to the metrics of the
+	 * loader that loads this task, if any.
+	 *
+	 * @param stage     The finished stage. One of stages defined by {@link ImageLoader.Metrics}.
+	 * @param timeNanos Time in nanoseconds the stage has taken.
+	 */
+	protected final void recordStageTime(@ImageLoader.Metrics.Stage int stage, long timeNanos) {
+		final ImageLoader.Metrics metrics = mMetrics;
+		if (metrics != null) metrics.onStageTime(stage, timeNanos);
+	}
+
+	/**
+	 * Reports result of lookup of image of this task in the specified <var>cache</var> to the
+	 * metrics of the loader that loads this task, if any.
+	 *
+	 * @param cache The cache in which has been the image looked up. One of caches defined by
+	 *              {@link ImageLoader.Metrics}.
+	 * @param hit   {@code True} if the image has been found in the cache, {@code false} otherwise.
+	 */
+	protected final void recordCacheLookup(@ImageLoader.Metrics.Cache int cache, boolean hit) {
+		final ImageLoader.Metrics metrics = mMetrics;
+		if (metrics != null) metrics.onCacheLookup(cache, hit);
+	}
+
+	/**
+	 * Reports that the specified <var>bitmap</var> has been decoded for this task to the metrics
+	 * of the loader that loads this task, if any.
+	 *
+	 * @param bitmap The decoded bitmap.
+	 */
+	protected final void recordBitmapDecoded(@NonNull Bitmap bitmap) {
+		final ImageLoader.Metrics metrics = mMetrics;
+		if (metrics != null) metrics.onBitmapDecoded(BitmapPool.byteCountOf(bitmap));
+	}
+
+	/**
+	 * Recycles this task, so its instance may be reused for another image load. All parameters of
+	 * this task are reset to defaults and, if this task has been obtained from a {@link TaskPool},
+	 * it is returned back to that pool.
+	 * <p>
+	 * A task must not be used after it has been recycled. Pooled tasks that are loaded via
+	 * {@link BaseImageLoader#load(ImageLoader.Task, ImageLoader.Callback)} without a callback are
+	 * recycled automatically by the loader once theirs load finishes or is cancelled, so such tasks
+	 * should not be recycled manually.
+	 *
+	 * @throws IllegalStateException If this task has been already recycled.
+	 * @see #onRecycle()
+	 */
+	public final void recycle() {
+		if (mRecycled) {
+			throw new IllegalStateException("Task(" + this + ") is already recycled.");
+		}
+		onRecycle();
+		this.mRecycled = true;
+		final TaskPool pool = mPool;
+		this.mPool = null;
+		if (pool != null) pool.release(this);
+	}
+
+	/**
+	 * Recycles this task via {@link #recycle()} if it has been obtained from a {@link TaskPool} and
+	 * has not been recycled yet.
+	 */
+	final void recycleIfPooled() {
+		if (mPool != null && !mRecycled) recycle();
+	}
+
+	/**
+	 * Invoked whenever this task is being recycled in order to reset all its parameters to defaults.
+	 * Subclasses that declare additional members should reset them here.
+	 */
+	@CallSuper
+	protected void onRecycle() {
+		this.mTarget = null;
+		this.mPlaceholder = null;
+		this.mPlaceholderRes = NO_RESOURCE_ID;
+		this.mError = null;
+		this.mErrorRes = NO_RESOURCE_ID;
+		this.mTransformation = null;
+		this.mImageTransformation = null;
+		this.mWidth = 0;
+		this.mHeight = 0;
+		this.mBitmapConfig = null;
+		this.mPriority = PRIORITY_NORMAL;
+		this.mRequests = 0;
+		this.mView = null;
+		if (mThumbnail instanceof BaseImageTask) ((BaseImageTask) mThumbnail).recycleIfPooled();
+		this.mThumbnail = null;
+		this.mThumbnailMultiplier = 0;
+		this.mKey = null;
+		this.mMetrics = null;
+	}
+
 	/**
 	 * Updates the current request flags.
 	 *
@@ -233,7 +826,9 @@ public abstract class BaseImageTask<Loader, Target, Transformation> implements I
 	/**
 	 * Checks whether the specified <var>request</var> flag is registered for this task or not.
 	 *
-	 * @param request The desired request flag to check. One of {@link #REQUEST_DO_NOT_ANIMATE}.
+	 * @param request The desired request flag to check. One of {@link #REQUEST_DO_NOT_ANIMATE},
+	 *                {@link #REQUEST_CENTER_CROP}, {@link #REQUEST_CENTER_INSIDE}, {@link #REQUEST_PROGRESSIVE},
+	 *                {@link #REQUEST_PREFER_RGB_565}.
 	 * @return {@code True} if request has been registered, {@code false} otherwise.
 	 */
 	protected final boolean hasRequest(@Request int request) {
@@ -263,6 +858,84 @@ public abstract class BaseImageTask<Loader, Target, Transformation> implements I
 	@Nullable
 	protected abstract Bitmap onLoad(@NonNull Loader loader);
 
+	/**
+	 * Called to start image loading process <b>asynchronously</b> via the given <var>loader</var>
+	 * that is tracked by the returned future, if the loader provides such a future on its own.
+	 * <p>
+	 * Default implementation returns {@code null}, so {@link BaseImageLoader} loads this task via
+	 * {@link #onLoad(Object, ImageLoader.Callback)} and delivers its result to a future of its own.
+	 *
+	 * @param loader The loader to be used to perform image loading.
+	 * @return Future of the started loading process that supports cancelling, or {@code null} if
+	 * the loader does not provide any.
+	 * @see BaseImageLoader#loadAsync(ImageLoader.Task)
+	 */
+	@Nullable
+	protected Future<Bitmap> onLoadAsync(@NonNull Loader loader) {
+		return null;
+	}
+
+	/**
+	 * Called to obtain a local file with the encoded image data of this task's target, so regions
+	 * of the image may be decoded via {@link BaseImageLoader#loadRegion(ImageLoader.Task, Rect, int)}.
+	 * Implementations that download remote images should download the image into theirs disk cache
+	 * first. This is always called on a background thread.
+	 * <p>
+	 * Default implementation returns the target itself if it refers to a local file, {@code null}
+	 * otherwise.
+	 *
+	 * @param loader The loader to be used to obtain the file.
+	 * @return File with the image data or {@code null} if the target is not available as a file.
+	 * @throws ImageLoader.Error If some loader related error occurs while obtaining the file.
+	 */
+	@Nullable
+	protected File onLoadFile(@NonNull Loader loader) {
+		ensureHasTargetOrThrow();
+		if (mTarget instanceof File) {
+			return (File) mTarget;
+		}
+		if (!CompositeImageLoader.SCHEME_FILE.equals(CompositeImageLoader.schemeOf(mTarget))) {
+			return null;
+		}
+		final Uri uri = mTarget instanceof Uri ? (Uri) mTarget : Uri.parse(mTarget.toString());
+		return new File(uri.getScheme() == null ? mTarget.toString() : uri.getPath());
+	}
+
+	/**
+	 * Called to perform image preloading process <b>asynchronously</b> via the given <var>loader</var>
+	 * based on the parameters specified for this task. The associated image view, if any, is ignored.
+	 * <p>
+	 * Implementations should keep a reference to the preloading request, so it may be cancelled
+	 * via {@link #onCancelPreload(Object)}.
+	 *
+	 * @param loader     The loader to be used to perform image preloading.
+	 * @param cacheLevel The level up to which to preload the image. One of
+	 *                   {@link ImageLoader#CACHE_LEVEL_DISK_ONLY} or {@link ImageLoader#CACHE_LEVEL_MEMORY}.
+	 * @return {@code True} if preloading process has been initiated, {@code false} if some error has
+	 * occurred.
+	 */
+	protected abstract boolean onPreload(@NonNull Loader loader, @ImageLoader.CacheLevel int cacheLevel);
+
+	/**
+	 * Called to cancel image preloading process previously initiated via {@link #onPreload(Object, int)}.
+	 *
+	 * @param loader The loader used to perform image preloading.
+	 * @return {@code True} if there has been a running preloading process that has been cancelled,
+	 * {@code false} otherwise.
+	 */
+	protected abstract boolean onCancelPreload(@NonNull Loader loader);
+
+	/**
+	 * Called to cancel image loading process previously initiated via {@link #onLoad(Object, ImageLoader.Callback)}.
+	 * <p>
+	 * This is called by {@link BaseImageLoader} only while the loading process is still in flight
+	 * and the associated image view, if any, has not been rebound to another task, so
+	 * implementations may cancel any request bound to the view.
+	 *
+	 * @param loader The loader used to perform image loading.
+	 */
+	protected abstract void onCancelLoad(@NonNull Loader loader);
+
 	/**
 	 * Called to perform image removing process via the given <var>loader</var> based on the parameters
 	 * specified for this task.
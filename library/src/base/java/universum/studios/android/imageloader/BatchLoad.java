@@ -0,0 +1,286 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch of tasks loaded via {@link BaseImageLoader#load(java.util.Collection, ImageLoader.BatchCallback)}.
+ * <p>
+ * A single instance of BatchLoad serves as callback for all tasks from the batch. Results of the
+ * finished tasks are collected and delivered to the batch callback at most once per display frame.
+ *
+ * @author Martin Albedinsky
+ */
+final class BatchLoad implements ImageLoader.Callback, Runnable {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "BatchLoad";
+
+	/**
+	 * Delay in milliseconds used to align delivery of results with display frames on platforms
+	 * without {@link Choreographer}.
+	 */
+	private static final long FRAME_DELAY = 16;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Callback to which to deliver results of the batch.
+	 */
+	private final ImageLoader.BatchCallback mCallback;
+
+	/**
+	 * Count of tasks in the batch.
+	 */
+	private final int mTaskCount;
+
+	/**
+	 * Time when the batch has been started.
+	 */
+	private final long mStartTime = SystemClock.uptimeMillis();
+
+	/**
+	 * Handler used to deliver results on the main thread.
+	 */
+	private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+	/**
+	 * Times when the loading of the individual tasks has been started.
+	 */
+	private final Map<ImageLoader.Task, Long> mStartTimes;
+
+	/**
+	 * Results of the finished tasks waiting to be delivered.
+	 */
+	private List<ImageLoader.BatchItem> mPendingItems = new ArrayList<>();
+
+	/**
+	 * Flag indicating whether delivery of the pending results has been already scheduled.
+	 */
+	private boolean mDeliveryScheduled;
+
+	/**
+	 * Count of tasks that have already finished.
+	 */
+	private int mFinishedCount;
+
+	/**
+	 * Count of tasks that have failed.
+	 */
+	private int mFailedCount;
+
+	/**
+	 * Sum of load times of all finished tasks.
+	 */
+	private long mTotalLoadTime;
+
+	/**
+	 * The longest load time of a single task.
+	 */
+	private long mMaxLoadTime;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of BatchLoad for the specified count of tasks.
+	 *
+	 * @param taskCount The count of tasks in the batch.
+	 * @param callback  The callback to which to deliver results.
+	 */
+	BatchLoad(int taskCount, @NonNull ImageLoader.BatchCallback callback) {
+		this.mTaskCount = taskCount;
+		this.mCallback = callback;
+		this.mStartTimes = new IdentityHashMap<>(taskCount);
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Marks the specified <var>task</var> as started. Should be called just before the task is
+	 * dispatched for loading.
+	 *
+	 * @param task The started task.
+	 */
+	synchronized void onTaskStarted(@NonNull ImageLoader.Task task) {
+		mStartTimes.put(task, SystemClock.uptimeMillis());
+	}
+
+	/**
+	 */
+	@Override
+	public void onImageLoadFinished(@NonNull ImageLoader.Task task, @NonNull Bitmap bitmap) {
+		onTaskFinished(task, bitmap, null);
+	}
+
+	/**
+	 */
+	@Override
+	public void onImageLoadFailed(@NonNull ImageLoader.Task task, @NonNull ImageLoader.Error error) {
+		onTaskFinished(task, null, error);
+	}
+
+	/**
+	 * Records result of the specified finished <var>task</var> and schedules its delivery.
+	 *
+	 * @param task   The finished task.
+	 * @param bitmap The loaded bitmap. May be {@code null} if loading has failed.
+	 * @param error  The loading error. May be {@code null} if loading has been successful.
+	 */
+	synchronized void onTaskFinished(@NonNull ImageLoader.Task task, @Nullable Bitmap bitmap, @Nullable ImageLoader.Error error) {
+		final Long startTime = mStartTimes.remove(task);
+		final long loadTime = startTime == null ? 0 : SystemClock.uptimeMillis() - startTime;
+		mPendingItems.add(new ImageLoader.BatchItem(task, bitmap, error, loadTime));
+		this.mFinishedCount++;
+		if (bitmap == null) this.mFailedCount++;
+		this.mTotalLoadTime += loadTime;
+		this.mMaxLoadTime = Math.max(mMaxLoadTime, loadTime);
+		if (!mDeliveryScheduled) {
+			this.mDeliveryScheduled = true;
+			scheduleDelivery();
+		}
+	}
+
+	/**
+	 * Invoked by {@link TaskCoalescer} whenever the specified <var>task</var> loaded with this
+	 * callback no longer participates in any load. If the task has not finished yet, it has been
+	 * cancelled or its image view has been bound to another task, so it is recorded as failed with
+	 * {@link ImageLoader.Error#REASON_CANCELLED} and the batch may still finish.
+	 *
+	 * @param task The retired task.
+	 */
+	synchronized void retire(@NonNull ImageLoader.Task task) {
+		if (mStartTimes.containsKey(task)) {
+			onTaskFinished(task, null, new ImageLoader.Error(ImageLoader.Error.REASON_CANCELLED, "Task(" + task + ") has been cancelled."));
+		}
+	}
+
+	/**
+	 * Schedules delivery of the pending results to the next display frame.
+	 */
+	private void scheduleDelivery() {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN && Looper.myLooper() == Looper.getMainLooper()) {
+			FrameCallback.post(this);
+		} else {
+			mMainHandler.postDelayed(this, FRAME_DELAY);
+		}
+	}
+
+	/**
+	 * Delivers the pending results to the batch callback.
+	 */
+	@Override
+	public void run() {
+		final List<ImageLoader.BatchItem> items;
+		final ImageLoader.BatchStats stats;
+		synchronized (this) {
+			items = mPendingItems;
+			this.mPendingItems = new ArrayList<>();
+			this.mDeliveryScheduled = false;
+			stats = mFinishedCount == mTaskCount ? new ImageLoader.BatchStats(
+					mTaskCount,
+					mFailedCount,
+					SystemClock.uptimeMillis() - mStartTime,
+					mTaskCount == 0 ? 0 : mTotalLoadTime / mTaskCount,
+					mMaxLoadTime
+			) : null;
+		}
+		if (!items.isEmpty()) {
+			mCallback.onBatchItemsFinished(items);
+		}
+		if (stats != null) {
+			mCallback.onBatchFinished(stats);
+		}
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+
+	/**
+	 * Frame callback used to run a runnable on the next display frame.
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private static final class FrameCallback implements Choreographer.FrameCallback {
+
+		/**
+		 * Runnable to be run on the next frame.
+		 */
+		final Runnable runnable;
+
+		/**
+		 * Creates a new instance of FrameCallback for the specified <var>runnable</var>.
+		 *
+		 * @param runnable The runnable to be run.
+		 */
+		private FrameCallback(Runnable runnable) {
+			this.runnable = runnable;
+		}
+
+		/**
+		 * Posts the specified <var>runnable</var> to be run on the next display frame. Must be called
+		 * on the main thread.
+		 *
+		 * @param runnable The runnable to be posted.
+		 */
+		static void post(Runnable runnable) {
+			Choreographer.getInstance().postFrameCallback(new FrameCallback(runnable));
+		}
+
+		/**
+		 */
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			runnable.run();
+		}
+	}
+}
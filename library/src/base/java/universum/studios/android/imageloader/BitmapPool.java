@@ -0,0 +1,457 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of mutable bitmaps bucketed by theirs allocation byte size that may be reused by decoders via
+ * {@link BitmapFactory.Options#inBitmap} in order to avoid allocation of a new bitmap for each decode.
+ * <p>
+ * The pool is bounded by a total <b>byte</b> size of the stored bitmaps and evicts the least recently
+ * added bitmaps first. Its contents are trimmed according to the level passed to {@link #onTrimMemory(int)},
+ * while its byte budget remains the same, so the pool may be filled again once the memory pressure clears.
+ * <p>
+ * Bitmaps should be returned into the pool only if they are not used anywhere else. For this purpose
+ * the pool tracks bitmaps attached to image views via {@link #attach(ImageView, Bitmap)} and bitmaps
+ * retained by clients via {@link #retain(Bitmap)}, so {@link #release(Bitmap)} may safely refuse
+ * bitmaps that are still in use.
+ * <p>
+ * Bitmap reuse is supported only on {@link Build.VERSION_CODES#HONEYCOMB HONEYCOMB} and above. Prior
+ * to {@link Build.VERSION_CODES#KITKAT KITKAT} a bitmap may be reused only for decoding of an image
+ * with the same dimensions and without sub-sampling.
+ *
+ * @author Martin Albedinsky
+ */
+public final class BitmapPool {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "BitmapPool";
+
+	/**
+	 * Divider used to compute the default size of the pool from the maximum memory available to
+	 * the current process.
+	 */
+	private static final int DEFAULT_SIZE_DIVIDER = 16;
+
+	/**
+	 * Maximum ratio between byte size of a pooled bitmap and byte size requested for reuse, so the
+	 * memory is not wasted by reusing of too large bitmaps.
+	 */
+	private static final int MAX_REUSE_SIZE_RATIO = 4;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Maximum size of this pool in bytes.
+	 */
+	private final int mMaxSize;
+
+	/**
+	 * Pooled bitmaps grouped by theirs allocation byte size in the order in which they has been
+	 * added into the pool.
+	 */
+	private final SizeBuckets<Bitmap> mBitmaps = new SizeBuckets<>();
+
+	/**
+	 * Map of bitmaps that are currently attached to image views.
+	 */
+	private final Map<ImageView, Bitmap> mAttachedBitmaps = new WeakHashMap<>();
+
+	/**
+	 * Set of bitmaps that are retained outside of the loader.
+	 */
+	private final Map<Bitmap, Boolean> mRetainedBitmaps = new WeakHashMap<>();
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Same as {@link #BitmapPool(int)} with size computed via {@link #defaultSize()}.
+	 */
+	public BitmapPool() {
+		this(defaultSize());
+	}
+
+	/**
+	 * Creates a new instance of BitmapPool with the specified maximum <var>size</var>.
+	 *
+	 * @param maxSize The maximum size of the pool in bytes.
+	 */
+	public BitmapPool(int maxSize) {
+		if (maxSize < 0) throw new IllegalArgumentException("Max size must not be negative.");
+		this.mMaxSize = maxSize;
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the default size for the bitmap pool computed as <b>1/16</b> of the maximum memory
+	 * available to the current process.
+	 *
+	 * @return Default pool size in bytes.
+	 */
+	public static int defaultSize() {
+		return (int) (Runtime.getRuntime().maxMemory() / DEFAULT_SIZE_DIVIDER);
+	}
+
+	/**
+	 * Returns a boolean flag indicating whether reusing of bitmaps is supported on the current
+	 * Android version.
+	 *
+	 * @return {@code True} if bitmaps may be reused, {@code false} otherwise.
+	 */
+	public static boolean isSupported() {
+		return Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB;
+	}
+
+	/**
+	 * Returns count of bytes allocated for pixels of the specified <var>bitmap</var>.
+	 *
+	 * @param bitmap The bitmap of which byte count to return.
+	 * @return Bitmap's allocation byte count.
+	 */
+	@TargetApi(Build.VERSION_CODES.KITKAT)
+	public static int byteCountOf(@NonNull Bitmap bitmap) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+			return bitmap.getAllocationByteCount();
+		}
+		return bitmap.getRowBytes() * bitmap.getHeight();
+	}
+
+	/**
+	 * Returns count of bytes occupied by a single pixel in the specified bitmap <var>config</var>.
+	 *
+	 * @param config The config of which pixel byte count to return. May be {@code null} in which
+	 *               case {@link Bitmap.Config#ARGB_8888} is assumed.
+	 * @return Count of bytes per pixel.
+	 */
+	public static int bytesPerPixel(@Nullable Bitmap.Config config) {
+		if (config == null) {
+			return 4;
+		}
+		switch (config) {
+			case ALPHA_8:
+				return 1;
+			case RGB_565:
+			case ARGB_4444:
+				return 2;
+			case ARGB_8888:
+			default:
+				return 4;
+		}
+	}
+
+	/**
+	 * Returns the maximum size of this pool.
+	 *
+	 * @return Maximum size in bytes.
+	 */
+	public synchronized int maxSize() {
+		return mMaxSize;
+	}
+
+	/**
+	 * Returns the current size of this pool.
+	 *
+	 * @return Current size in bytes.
+	 */
+	public synchronized int size() {
+		return mBitmaps.size();
+	}
+
+	/**
+	 * Puts the specified <var>bitmap</var> into this pool so it may be later reused.
+	 * <p>
+	 * Only mutable, not recycled bitmaps that fit into the current budget are accepted.
+	 *
+	 * @param bitmap The bitmap to be pooled.
+	 * @return {@code True} if the bitmap has been accepted, {@code false} otherwise in which case
+	 * the caller remains responsible for the bitmap.
+	 * @see #release(Bitmap)
+	 */
+	public synchronized boolean put(@NonNull Bitmap bitmap) {
+		if (!isSupported() || !bitmap.isMutable() || bitmap.isRecycled() || mBitmaps.contains(bitmap)) {
+			return false;
+		}
+		final int byteCount = byteCountOf(bitmap);
+		if (byteCount > mMaxSize) {
+			return false;
+		}
+		mBitmaps.add(bitmap, byteCount);
+		trimToSize(mMaxSize);
+		return true;
+	}
+
+	/**
+	 * Same as {@link #put(Bitmap)} but the bitmap is accepted only if it is not attached to any
+	 * image view nor retained by a client.
+	 *
+	 * @param bitmap The bitmap that is no longer used by the loader.
+	 * @return {@code True} if the bitmap has been accepted, {@code false} otherwise.
+	 * @see #attach(ImageView, Bitmap)
+	 * @see #retain(Bitmap)
+	 */
+	public synchronized boolean release(@NonNull Bitmap bitmap) {
+		return !mRetainedBitmaps.containsKey(bitmap) && !mAttachedBitmaps.containsValue(bitmap) && put(bitmap);
+	}
+
+	/**
+	 * Records that the specified <var>bitmap</var> is attached to the given image <var>view</var>,
+	 * so it will not be accepted by {@link #release(Bitmap)} until the view is attached to another
+	 * bitmap or detached.
+	 *
+	 * @param view   The view to which is the bitmap attached.
+	 * @param bitmap The attached bitmap.
+	 * @see #detach(ImageView)
+	 */
+	public synchronized void attach(@NonNull ImageView view, @NonNull Bitmap bitmap) {
+		mAttachedBitmaps.put(view, bitmap);
+	}
+
+	/**
+	 * Records that the specified image <var>view</var> no longer displays bitmap attached to it
+	 * via {@link #attach(ImageView, Bitmap)}.
+	 *
+	 * @param view The view to be detached.
+	 */
+	public synchronized void detach(@NonNull ImageView view) {
+		mAttachedBitmaps.remove(view);
+	}
+
+	/**
+	 * Records that the specified <var>bitmap</var> has been handed out to a client, so it will never
+	 * be accepted by {@link #release(Bitmap)}.
+	 *
+	 * @param bitmap The retained bitmap.
+	 */
+	public synchronized void retain(@NonNull Bitmap bitmap) {
+		mRetainedBitmaps.put(bitmap, Boolean.TRUE);
+	}
+
+	/**
+	 * Returns a pooled bitmap with the requested dimensions and <var>config</var> with all its
+	 * pixels cleared.
+	 *
+	 * @param width  The requested width.
+	 * @param height The requested height.
+	 * @param config The requested config.
+	 * @return Reusable bitmap or {@code null} if there is no suitable bitmap in the pool.
+	 */
+	@Nullable
+	@TargetApi(Build.VERSION_CODES.KITKAT)
+	public Bitmap get(int width, int height, @NonNull Bitmap.Config config) {
+		final Bitmap bitmap;
+		synchronized (this) {
+			bitmap = obtain(width, height, config, Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT);
+		}
+		if (bitmap != null) {
+			if (bitmap.getWidth() != width || bitmap.getHeight() != height || bitmap.getConfig() != config) {
+				bitmap.reconfigure(width, height, config);
+			}
+			bitmap.eraseColor(Color.TRANSPARENT);
+		}
+		return bitmap;
+	}
+
+	/**
+	 * Same as {@link #get(int, int, Bitmap.Config)} but a new bitmap is created if there is no
+	 * suitable bitmap in the pool.
+	 *
+	 * @param width  The requested width.
+	 * @param height The requested height.
+	 * @param config The requested config.
+	 * @return Mutable bitmap with the requested dimensions and config.
+	 */
+	@NonNull
+	public Bitmap getOrCreate(int width, int height, @NonNull Bitmap.Config config) {
+		final Bitmap bitmap = get(width, height, config);
+		return bitmap == null ? Bitmap.createBitmap(width, height, config) : bitmap;
+	}
+
+	/**
+	 * Specifies a pooled bitmap as {@link BitmapFactory.Options#inBitmap} for the given decoding
+	 * <var>options</var> if there is one suitable for the decoding.
+	 * <p>
+	 * The options are expected to contain bounds of the image to be decoded ({@link BitmapFactory.Options#outWidth},
+	 * {@link BitmapFactory.Options#outHeight}) along with already specified {@link BitmapFactory.Options#inSampleSize}
+	 * and {@link BitmapFactory.Options#inPreferredConfig}.
+	 * <p>
+	 * <b>Note</b>, that decoding with a reused bitmap may still fail with {@link IllegalArgumentException}
+	 * in which case the decoding should be repeated without {@link BitmapFactory.Options#inBitmap}.
+	 *
+	 * @param options The options for which to specify the reusable bitmap.
+	 * @return {@code True} if reusable bitmap has been specified, {@code false} otherwise.
+	 */
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	public boolean applyInBitmap(@NonNull BitmapFactory.Options options) {
+		if (!isSupported() || options.outWidth <= 0 || options.outHeight <= 0) {
+			return false;
+		}
+		final int sampleSize = Math.max(1, options.inSampleSize);
+		final boolean exact = Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT;
+		if (exact && (sampleSize != 1 || !isReusableMimeType(options.outMimeType))) {
+			return false;
+		}
+		final Bitmap bitmap;
+		synchronized (this) {
+			bitmap = obtain(
+					(options.outWidth + sampleSize - 1) / sampleSize,
+					(options.outHeight + sampleSize - 1) / sampleSize,
+					options.inPreferredConfig,
+					exact
+			);
+		}
+		if (bitmap == null) {
+			return false;
+		}
+		options.inBitmap = bitmap;
+		options.inMutable = true;
+		return true;
+	}
+
+	/**
+	 * Checks whether an image with the specified <var>mimeType</var> may be decoded into a reused
+	 * bitmap prior to {@link Build.VERSION_CODES#KITKAT KITKAT}.
+	 *
+	 * @param mimeType The mime type of image to be decoded.
+	 * @return {@code True} if reuse is supported for the mime type, {@code false} otherwise.
+	 */
+	private static boolean isReusableMimeType(String mimeType) {
+		return "image/jpeg".equals(mimeType) || "image/png".equals(mimeType);
+	}
+
+	/**
+	 * Removes from this pool a bitmap suitable for the requested dimensions and <var>config</var>.
+	 *
+	 * @param width  The requested width.
+	 * @param height The requested height.
+	 * @param config The requested config. May be {@code null} for the default one.
+	 * @param exact  {@code True} if dimensions and config of the bitmap should match exactly the
+	 *               requested ones, {@code false} if allocation byte size is sufficient.
+	 * @return Pooled bitmap or {@code null} if there is no suitable bitmap.
+	 */
+	private Bitmap obtain(final int width, final int height, final Bitmap.Config config, boolean exact) {
+		if (mBitmaps.isEmpty()) {
+			return null;
+		}
+		final int byteCount = width * height * bytesPerPixel(config);
+		final int maxByteCount = byteCount * MAX_REUSE_SIZE_RATIO;
+		if (exact) {
+			return mBitmaps.remove(byteCount, maxByteCount, new SizeBuckets.Matcher<Bitmap>() {
+
+				/**
+				 */
+				@Override
+				public boolean matches(Bitmap bitmap) {
+					return bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config;
+				}
+			});
+		}
+		return mBitmaps.remove(byteCount, maxByteCount, null);
+	}
+
+	/**
+	 * Removes the least recently pooled bitmaps from this pool until its size is not greater than
+	 * the requested one. Removed bitmaps are recycled.
+	 *
+	 * @param maxSize The requested maximum size in bytes.
+	 * @return Count of bytes freed by the trim.
+	 */
+	public synchronized int trimToSize(int maxSize) {
+		final int initialSize = mBitmaps.size();
+		while (mBitmaps.size() > maxSize) {
+			final Bitmap bitmap = mBitmaps.removeEldest();
+			if (bitmap == null) {
+				break;
+			}
+			bitmap.recycle();
+		}
+		return initialSize - mBitmaps.size();
+	}
+
+	/**
+	 * Removes and recycles all bitmaps stored in this pool.
+	 */
+	public synchronized void clear() {
+		trimToSize(0);
+	}
+
+	/**
+	 * Trims this pool to a fraction of its maximum size according to the specified memory trim
+	 * <var>level</var>. The maximum size itself is not changed, as the system does not report when
+	 * the memory pressure clears.
+	 *
+	 * @param level The level for which to trim the pool. One of levels specified by {@link ComponentCallbacks2}.
+	 * @return Count of bytes freed by the trim.
+	 */
+	public synchronized int onTrimMemory(int level) {
+		final float multiplier;
+		if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+			multiplier = 0f;
+		} else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+			multiplier = 0.25f;
+		} else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+			multiplier = 0.5f;
+		} else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+			multiplier = 0.25f;
+		} else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+			multiplier = 0.5f;
+		} else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+			multiplier = 0.75f;
+		} else {
+			multiplier = 1f;
+		}
+		return trimToSize(Math.round(mMaxSize * multiplier));
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,517 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An {@link ImageLoader} implementation that dispatches each task to one of registered delegate
+ * loaders according to the task's target. This allows, for example, to load local files via a
+ * loader without any network stack while remote images are loaded via a network oriented loader.
+ * <p>
+ * Delegates are registered either for a {@link #addRoute(String, ImageLoader) scheme} of targets
+ * or for a {@link #addRoute(TargetPredicate, ImageLoader) predicate} matching targets. Routes are
+ * matched in the order in which they have been added and tasks that do not match any route are
+ * dispatched to the fallback loader specified when creating the composite loader.
+ * <p>
+ * Lifecycle, cancel-all, invalidation and memory trim calls are dispatched to all delegates.
+ * <p>
+ * <b>Note</b>, that a single build of this library contains only one backend module (see
+ * {@code library.module.name}), so only one of the delegates may be a loader created via
+ * {@code ImageLoaderFactory}. The other delegates must be custom {@link ImageLoader} implementations,
+ * like a loader decoding local files or a {@link BaseImageLoader} wrapping another loading library
+ * included by the application.
+ *
+ * @author Martin Albedinsky
+ */
+public final class CompositeImageLoader implements ImageLoader {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "CompositeImageLoader";
+
+	/**
+	 * Scheme of targets referring to local files.
+	 */
+	static final String SCHEME_FILE = "file";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Loader to which are dispatched tasks that do not match any route.
+	 */
+	private final ImageLoader mFallback;
+
+	/**
+	 * List of registered routes.
+	 */
+	private final List<Route> mRoutes = new CopyOnWriteArrayList<>();
+
+	/**
+	 * List of all distinct delegate loaders including the fallback one.
+	 */
+	private final List<ImageLoader> mDelegates = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Map of views to delegate loaders via which have been loaded theirs current tasks.
+	 */
+	private final Map<ImageView, ImageLoader> mViewDelegates = new WeakHashMap<>();
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of CompositeImageLoader with the specified <var>fallback</var> loader.
+	 *
+	 * @param fallback The loader to which to dispatch tasks that do not match any route.
+	 */
+	public CompositeImageLoader(@NonNull ImageLoader fallback) {
+		this.mFallback = fallback;
+		this.mDelegates.add(fallback);
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Registers the specified <var>delegate</var> loader for targets with the specified <var>scheme</var>,
+	 * like {@code content}, {@code file} or {@code https}. Targets are matched regardless case of
+	 * theirs scheme. Absolute paths and {@link File Files} are matched as {@code file} targets.
+	 *
+	 * @param scheme   The scheme of targets to be dispatched to the delegate.
+	 * @param delegate The loader to which to dispatch the matching tasks.
+	 * @return This composite loader to allow methods chaining.
+	 * @see #addRoute(TargetPredicate, ImageLoader)
+	 */
+	@NonNull
+	public CompositeImageLoader addRoute(@NonNull String scheme, @NonNull ImageLoader delegate) {
+		return addRoute(new SchemePredicate(scheme), delegate);
+	}
+
+	/**
+	 * Registers the specified <var>delegate</var> loader for targets matching the specified <var>predicate</var>.
+	 *
+	 * @param predicate The predicate matching targets to be dispatched to the delegate.
+	 * @param delegate  The loader to which to dispatch the matching tasks.
+	 * @return This composite loader to allow methods chaining.
+	 * @see #addRoute(String, ImageLoader)
+	 */
+	@NonNull
+	public CompositeImageLoader addRoute(@NonNull TargetPredicate predicate, @NonNull ImageLoader delegate) {
+		mRoutes.add(new Route(predicate, delegate));
+		if (!mDelegates.contains(delegate)) mDelegates.add(delegate);
+		return this;
+	}
+
+	/**
+	 * Returns the delegate loader to which is dispatched the specified <var>task</var>.
+	 *
+	 * @param task The task for which to resolve its loader.
+	 * @return Loader of the first route matching target of the task or the fallback loader.
+	 */
+	@NonNull
+	public ImageLoader delegateFor(@NonNull Task task) {
+		final Object target = task.target();
+		if (target != null) {
+			for (final Route route : mRoutes) {
+				if (route.predicate.test(target)) return route.loader;
+			}
+		}
+		return mFallback;
+	}
+
+	/**
+	 * Returns the scheme of the specified <var>target</var>.
+	 *
+	 * @param target The target of which scheme to return.
+	 * @return Scheme of the target or {@code null} if the target does not have any.
+	 */
+	@Nullable
+	static String schemeOf(@NonNull Object target) {
+		if (target instanceof Uri) {
+			return ((Uri) target).getScheme();
+		}
+		if (target instanceof File) {
+			return SCHEME_FILE;
+		}
+		if (!(target instanceof CharSequence)) {
+			return null;
+		}
+		final CharSequence text = (CharSequence) target;
+		final int length = text.length();
+		if (length > 0 && text.charAt(0) == File.separatorChar) {
+			return SCHEME_FILE;
+		}
+		for (int i = 0; i < length; i++) {
+			final char c = text.charAt(i);
+			if (c == ':') {
+				return i > 0 ? text.subSequence(0, i).toString() : null;
+			}
+			final boolean valid = Character.isLetter(c) || (i > 0 && (Character.isDigit(c) || c == '+' || c == '-' || c == '.'));
+			if (!valid) return null;
+		}
+		return null;
+	}
+
+	/**
+	 */
+	@Override
+	public void start() {
+		for (final ImageLoader delegate : mDelegates) delegate.start();
+	}
+
+	/**
+	 */
+	@Override
+	public void resume() {
+		for (final ImageLoader delegate : mDelegates) delegate.resume();
+	}
+
+	/**
+	 */
+	@Override
+	public void pause() {
+		for (final ImageLoader delegate : mDelegates) delegate.pause();
+	}
+
+	/**
+	 */
+	@Override
+	public void stop() {
+		for (final ImageLoader delegate : mDelegates) delegate.stop();
+	}
+
+	/**
+	 */
+	@Override
+	public void destroy() {
+		synchronized (mViewDelegates) {
+			mViewDelegates.clear();
+		}
+		for (final ImageLoader delegate : mDelegates) delegate.destroy();
+	}
+
+	/**
+	 * <p>
+	 * If the task's view has been previously used by a task dispatched to a different delegate,
+	 * loading of such task is cancelled, so two delegates never load into the same view.
+	 */
+	@Override
+	public boolean load(@NonNull Task task, @Nullable Callback callback) {
+		final ImageLoader delegate = delegateFor(task);
+		final ImageView view = task.view();
+		if (view != null) {
+			final ImageLoader previous;
+			synchronized (mViewDelegates) {
+				previous = mViewDelegates.put(view, delegate);
+			}
+			if (previous != null && previous != delegate) previous.cancel(view);
+		}
+		return delegate.load(task, callback);
+	}
+
+	/**
+	 * <p>
+	 * This implementation dispatches each of the tasks via {@link #load(Task, Callback)} using one
+	 * shared callback for all of them.
+	 */
+	@Override
+	public boolean load(@NonNull Collection<? extends Task> tasks, @NonNull BatchCallback callback) {
+		if (tasks.isEmpty()) {
+			callback.onBatchFinished(new BatchStats(0, 0, 0, 0, 0));
+			return true;
+		}
+		final BatchLoad batch = new BatchLoad(tasks.size(), callback);
+		boolean initiated = true;
+		for (final Task task : tasks) {
+			batch.onTaskStarted(task);
+			if (!load(task, batch)) {
+				batch.onTaskFinished(task, null, new Error(Error.REASON_UNKNOWN, "Unsupported task(" + task + ")."));
+				initiated = false;
+			}
+		}
+		return initiated;
+	}
+
+	/**
+	 */
+	@Nullable
+	@Override
+	public Bitmap load(@NonNull Task task) {
+		return delegateFor(task).load(task);
+	}
+
+	/**
+	 */
+	@Nullable
+	@Override
+	public Bitmap loadRegion(@NonNull Task task, @NonNull Rect region, int sampleSize) {
+		return delegateFor(task).loadRegion(task, region, sampleSize);
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	public Future<Bitmap> loadAsync(@NonNull Task task) {
+		return delegateFor(task).loadAsync(task);
+	}
+
+	/**
+	 */
+	@Override
+	public boolean preload(@NonNull Task task, @CacheLevel int cacheLevel) {
+		return delegateFor(task).preload(task, cacheLevel);
+	}
+
+	/**
+	 */
+	@Override
+	public boolean cancel(@NonNull Task task) {
+		return delegateFor(task).cancel(task);
+	}
+
+	/**
+	 */
+	@Override
+	public boolean cancel(@NonNull ImageView view) {
+		final ImageLoader delegate;
+		synchronized (mViewDelegates) {
+			delegate = mViewDelegates.remove(view);
+		}
+		return delegate != null && delegate.cancel(view);
+	}
+
+	/**
+	 */
+	@Override
+	public void cancelAll() {
+		synchronized (mViewDelegates) {
+			mViewDelegates.clear();
+		}
+		for (final ImageLoader delegate : mDelegates) delegate.cancelAll();
+	}
+
+	/**
+	 */
+	@Override
+	public boolean remove(@NonNull Task task) {
+		return delegateFor(task).remove(task);
+	}
+
+	/**
+	 * <p>
+	 * This implementation invalidates the matching targets in all delegates.
+	 */
+	@NonNull
+	@Override
+	public Future<Integer> invalidate(@NonNull String prefix) {
+		final List<Future<Integer>> futures = new ArrayList<>(mDelegates.size());
+		for (final ImageLoader delegate : mDelegates) futures.add(delegate.invalidate(prefix));
+		return new CountFuture(futures);
+	}
+
+	/**
+	 * <p>
+	 * This implementation invalidates the matching targets in all delegates.
+	 */
+	@NonNull
+	@Override
+	public Future<Integer> invalidate(@NonNull TargetPredicate predicate) {
+		final List<Future<Integer>> futures = new ArrayList<>(mDelegates.size());
+		for (final ImageLoader delegate : mDelegates) futures.add(delegate.invalidate(predicate));
+		return new CountFuture(futures);
+	}
+
+	/**
+	 */
+	@Override
+	public void onLowMemory() {
+		for (final ImageLoader delegate : mDelegates) delegate.onLowMemory();
+	}
+
+	/**
+	 */
+	@Override
+	public void onTrimMemory(int level) {
+		for (final ImageLoader delegate : mDelegates) delegate.onTrimMemory(level);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+
+	/**
+	 * Route of tasks with targets matching a predicate to a delegate loader.
+	 */
+	private static final class Route {
+
+		/**
+		 * Predicate matching targets of the routed tasks.
+		 */
+		final TargetPredicate predicate;
+
+		/**
+		 * Loader to which are the matching tasks dispatched.
+		 */
+		final ImageLoader loader;
+
+		/**
+		 * Creates a new instance of Route for the specified <var>predicate</var> and <var>loader</var>.
+		 *
+		 * @param predicate The predicate matching targets of the routed tasks.
+		 * @param loader    The loader to which to dispatch the matching tasks.
+		 */
+		Route(TargetPredicate predicate, ImageLoader loader) {
+			this.predicate = predicate;
+			this.loader = loader;
+		}
+	}
+
+	/**
+	 * A {@link TargetPredicate} implementation matching targets with a specific scheme.
+	 */
+	private static final class SchemePredicate implements TargetPredicate {
+
+		/**
+		 * Scheme of the matching targets.
+		 */
+		private final String scheme;
+
+		/**
+		 * Creates a new instance of SchemePredicate for the specified <var>scheme</var>.
+		 *
+		 * @param scheme The scheme of the matching targets.
+		 */
+		SchemePredicate(String scheme) {
+			this.scheme = scheme;
+		}
+
+		/**
+		 */
+		@Override
+		public boolean test(@NonNull Object target) {
+			return scheme.equalsIgnoreCase(schemeOf(target));
+		}
+	}
+
+	/**
+	 * A {@link Future} implementation that resolves to a sum of counts of the wrapped futures.
+	 */
+	private static final class CountFuture implements Future<Integer> {
+
+		/**
+		 * Wrapped futures of which counts to sum.
+		 */
+		private final List<Future<Integer>> futures;
+
+		/**
+		 * Creates a new instance of CountFuture for the specified <var>futures</var>.
+		 *
+		 * @param futures The futures of which counts to sum.
+		 */
+		CountFuture(List<Future<Integer>> futures) {
+			this.futures = futures;
+		}
+
+		/**
+		 */
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = false;
+			for (final Future<Integer> future : futures) cancelled |= future.cancel(mayInterruptIfRunning);
+			return cancelled;
+		}
+
+		/**
+		 */
+		@Override
+		public boolean isCancelled() {
+			for (final Future<Integer> future : futures) {
+				if (future.isCancelled()) return true;
+			}
+			return false;
+		}
+
+		/**
+		 */
+		@Override
+		public boolean isDone() {
+			for (final Future<Integer> future : futures) {
+				if (!future.isDone()) return false;
+			}
+			return true;
+		}
+
+		/**
+		 */
+		@Override
+		public Integer get() throws InterruptedException, ExecutionException {
+			int count = 0;
+			for (final Future<Integer> future : futures) count += future.get();
+			return count;
+		}
+
+		/**
+		 */
+		@Override
+		public Integer get(long timeout, @NonNull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			final long deadline = System.nanoTime() + unit.toNanos(timeout);
+			int count = 0;
+			for (final Future<Integer> future : futures) {
+				count += future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+			}
+			return count;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+/**
+ * Interface for transformations that may be applied to bitmaps loaded via any {@link BaseImageTask}
+ * regardless of the underlying loader. Such a transformation is written only once and each task
+ * implementation adapts it to transformations supported by its loader.
+ * <p>
+ * Transformed bitmaps are cached by the underlying loader under a key composed of the key of the
+ * loaded image and key of the transformation, so transformation of an image that is already cached
+ * in its transformed form is skipped. Multiple transformations may be chained via {@link TransformationChain}.
+ *
+ * @author Martin Albedinsky
+ * @see ImageLoader.Task#bitmapTransform(ImageTransformation)
+ */
+public interface ImageTransformation {
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the key that uniquely identifies this transformation along with all its parameters.
+	 * The key is used as part of the cache key under which are transformed bitmaps stored, so it
+	 * should remain the same across application runs.
+	 *
+	 * @return This transformation's key.
+	 */
+	@NonNull
+	String getKey();
+
+	/**
+	 * Transforms the specified <var>source</var> bitmap.
+	 * <p>
+	 * Implementations should draw the transformed image into a bitmap obtained via
+	 * {@link BitmapPool#getOrCreate(int, int, Bitmap.Config)} from the given <var>pool</var> rather
+	 * than allocating a new bitmap. The source bitmap must not be recycled by the transformation.
+	 * If the returned bitmap is not the same as the source one, the source bitmap is no longer used
+	 * by the loader.
+	 *
+	 * @param source The bitmap to be transformed.
+	 * @param pool   The pool from which to obtain the output bitmap.
+	 * @return Transformed bitmap. May be the same as the source one if it has been transformed in place.
+	 */
+	@NonNull
+	Bitmap transform(@NonNull Bitmap source, @NonNull BitmapPool pool);
+}
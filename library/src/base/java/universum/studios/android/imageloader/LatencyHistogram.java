@@ -0,0 +1,260 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies with fixed exponential buckets that may be safely updated from multiple
+ * threads without any locking or allocations.
+ * <p>
+ * Recorded latencies are grouped into {@link #BUCKET_COUNT} buckets by milliseconds where the first
+ * bucket contains latencies shorter than <b>1 ms</b> and each next bucket contains latencies up to
+ * twice as long as the previous one. The last bucket contains all longer latencies. Current state
+ * of the histogram may be captured via {@link #snapshot()}.
+ *
+ * @author Martin Albedinsky
+ * @see MetricsRegistry
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "LatencyHistogram";
+
+	/**
+	 * Count of buckets of each histogram.
+	 */
+	public static final int BUCKET_COUNT = 20;
+
+	/**
+	 * Count of nanoseconds in one millisecond.
+	 */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Counts of latencies recorded into each of buckets.
+	 */
+	private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+
+	/**
+	 * Sum of all recorded latencies in nanoseconds.
+	 */
+	private final AtomicLong mTotalNanos = new AtomicLong();
+
+	/**
+	 * The longest recorded latency in nanoseconds.
+	 */
+	private final AtomicLong mMaxNanos = new AtomicLong();
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Records the specified latency into this histogram. Negative latencies are ignored.
+	 *
+	 * @param timeNanos The latency to be recorded in nanoseconds.
+	 */
+	public void record(long timeNanos) {
+		if (timeNanos < 0) {
+			return;
+		}
+		mBuckets.incrementAndGet(bucketOf(timeNanos / NANOS_PER_MILLI));
+		mTotalNanos.addAndGet(timeNanos);
+		long max;
+		while (timeNanos > (max = mMaxNanos.get())) {
+			if (mMaxNanos.compareAndSet(max, timeNanos)) break;
+		}
+	}
+
+	/**
+	 * Returns index of the bucket into which belongs the specified latency.
+	 *
+	 * @param timeMillis The latency in milliseconds.
+	 * @return Bucket index from the range {@code [0, BUCKET_COUNT)}.
+	 */
+	static int bucketOf(long timeMillis) {
+		return timeMillis <= 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(timeMillis), BUCKET_COUNT - 1);
+	}
+
+	/**
+	 * Returns the upper bound of the specified bucket.
+	 *
+	 * @param bucket Index of the desired bucket.
+	 * @return Exclusive upper bound of latencies in the bucket in milliseconds or {@link Long#MAX_VALUE}
+	 * for the last bucket.
+	 */
+	public static long bucketUpperBound(int bucket) {
+		return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+	}
+
+	/**
+	 * Resets all data recorded by this histogram.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			mBuckets.set(i, 0);
+		}
+		mTotalNanos.set(0);
+		mMaxNanos.set(0);
+	}
+
+	/**
+	 * Captures the current state of this histogram.
+	 * <p>
+	 * <b>Note</b>, that latencies recorded concurrently with this call may or may not be included
+	 * in the snapshot.
+	 *
+	 * @return Snapshot with copy of the current data.
+	 */
+	@NonNull
+	public Snapshot snapshot() {
+		final long[] buckets = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			count += buckets[i] = mBuckets.get(i);
+		}
+		return new Snapshot(buckets, count, mTotalNanos.get(), mMaxNanos.get());
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+
+	/**
+	 * Immutable snapshot of data recorded by {@link LatencyHistogram}.
+	 */
+	public static final class Snapshot {
+
+		/**
+		 * Counts of latencies in each of buckets.
+		 */
+		private final long[] buckets;
+
+		/**
+		 * Count of all recorded latencies.
+		 */
+		public final long count;
+
+		/**
+		 * Sum of all recorded latencies in nanoseconds.
+		 */
+		public final long totalNanos;
+
+		/**
+		 * The longest recorded latency in nanoseconds.
+		 */
+		public final long maxNanos;
+
+		/**
+		 * Creates a new instance of Snapshot with the specified data.
+		 *
+		 * @param buckets    Counts of latencies in each of buckets.
+		 * @param count      Count of all latencies.
+		 * @param totalNanos Sum of all latencies.
+		 * @param maxNanos   The longest latency.
+		 */
+		Snapshot(long[] buckets, long count, long totalNanos, long maxNanos) {
+			this.buckets = buckets;
+			this.count = count;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+		}
+
+		/**
+		 * Returns the count of latencies recorded into the specified bucket.
+		 *
+		 * @param bucket Index of the desired bucket from the range {@code [0, BUCKET_COUNT)}.
+		 * @return Count of latencies in the bucket.
+		 * @see LatencyHistogram#bucketUpperBound(int)
+		 */
+		public long bucketCount(int bucket) {
+			return buckets[bucket];
+		}
+
+		/**
+		 * Returns the average of all recorded latencies.
+		 *
+		 * @return Average latency in nanoseconds or {@code 0} if there are no latencies recorded.
+		 */
+		public long averageNanos() {
+			return count == 0 ? 0 : totalNanos / count;
+		}
+
+		/**
+		 * Returns an estimate of the specified percentile of the recorded latencies. The estimate
+		 * is the upper bound of the bucket containing the percentile, limited by the longest
+		 * recorded latency.
+		 *
+		 * @param percentile The desired percentile from the range {@code [0, 100]}.
+		 * @return Estimated percentile in milliseconds or {@code 0} if there are no latencies recorded.
+		 */
+		public long percentileMillis(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			final long threshold = (long) Math.ceil(count * Math.max(0, Math.min(percentile, 100)) / 100d);
+			long accumulated = 0;
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				accumulated += buckets[i];
+				if (accumulated >= threshold && accumulated > 0) {
+					return Math.min(bucketUpperBound(i), (long) Math.ceil(maxNanos / (double) NANOS_PER_MILLI));
+				}
+			}
+			return maxNanos / NANOS_PER_MILLI;
+		}
+
+		/**
+		 */
+		@Override
+		public String toString() {
+			return "Snapshot{count: " + count +
+					", average: " + (averageNanos() / NANOS_PER_MILLI) + "ms" +
+					", p50: " + percentileMillis(50) + "ms" +
+					", p90: " + percentileMillis(90) + "ms" +
+					", p99: " + percentileMillis(99) + "ms" +
+					", max: " + (maxNanos / NANOS_PER_MILLI) + "ms}";
+		}
+	}
+}
@@ -0,0 +1,329 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link Future} implementation used by {@link BaseImageLoader#loadAsync(ImageLoader.Task)} for
+ * tasks of which wrapped loader does not provide its own future. Such a task is loaded via
+ * {@link BaseImageLoader#load(ImageLoader.Task, ImageLoader.Callback)} with this future as its
+ * callback, so the result is delivered to the future once the asynchronous load finishes.
+ * <p>
+ * Both, the loading and its cancelling, are performed on the main thread, as most of the wrapped
+ * loaders require, while the result may be awaited from any thread other than the main one.
+ *
+ * @author Martin Albedinsky
+ */
+final class LoadFuture implements Future<Bitmap>, ImageLoader.Callback, Runnable {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "LoadFuture";
+
+	/**
+	 * State indicating that the load has not finished yet.
+	 */
+	private static final int STATE_PENDING = 0;
+
+	/**
+	 * State indicating that the load has finished successfully.
+	 */
+	private static final int STATE_FINISHED = 1;
+
+	/**
+	 * State indicating that the load has failed.
+	 */
+	private static final int STATE_FAILED = 2;
+
+	/**
+	 * State indicating that the load has been cancelled.
+	 */
+	private static final int STATE_CANCELLED = 3;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Handler used to start and cancel loads on the main thread.
+	 */
+	private static Handler sMainHandler;
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Image loader used to load the task. May be {@code null} for already finished future.
+	 */
+	private final BaseImageLoader<?> mLoader;
+
+	/**
+	 * Task of which result is delivered to this future. May be {@code null} for already finished future.
+	 */
+	private final ImageLoader.Task mTask;
+
+	/**
+	 * Latch released once the load finishes, fails or is cancelled.
+	 */
+	private final CountDownLatch mDone = new CountDownLatch(1);
+
+	/**
+	 * Current state of this future.
+	 */
+	private int mState = STATE_PENDING;
+
+	/**
+	 * Loaded bitmap. Valid only in {@link #STATE_FINISHED}.
+	 */
+	private Bitmap mBitmap;
+
+	/**
+	 * Error of the failed load. Valid only in {@link #STATE_FAILED}.
+	 */
+	private ImageLoader.Error mError;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of LoadFuture for the specified <var>task</var>.
+	 *
+	 * @param loader The loader used to load the task.
+	 * @param task   The task of which result to deliver.
+	 * @see #start()
+	 */
+	LoadFuture(@Nullable BaseImageLoader<?> loader, @Nullable ImageLoader.Task task) {
+		this.mLoader = loader;
+		this.mTask = task;
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Creates a new future that has already finished with the specified <var>bitmap</var>.
+	 *
+	 * @param bitmap The result of the future.
+	 * @return Finished future.
+	 */
+	@NonNull
+	static LoadFuture finished(@NonNull Bitmap bitmap) {
+		final LoadFuture future = new LoadFuture(null, null);
+		future.finish(STATE_FINISHED, bitmap, null);
+		return future;
+	}
+
+	/**
+	 * Creates a new future that has already failed with the specified <var>error</var>.
+	 *
+	 * @param error The error of the future.
+	 * @return Failed future.
+	 */
+	@NonNull
+	static LoadFuture failed(@NonNull ImageLoader.Error error) {
+		final LoadFuture future = new LoadFuture(null, null);
+		future.finish(STATE_FAILED, null, error);
+		return future;
+	}
+
+	/**
+	 * Starts loading of the task of this future on the main thread.
+	 *
+	 * @return This future to allow methods chaining.
+	 */
+	@NonNull
+	LoadFuture start() {
+		if (Looper.myLooper() == Looper.getMainLooper()) run();
+		else mainHandler().post(this);
+		return this;
+	}
+
+	/**
+	 * Returns the handler associated with the main thread.
+	 *
+	 * @return Main thread handler.
+	 */
+	private static synchronized Handler mainHandler() {
+		if (sMainHandler == null) sMainHandler = new Handler(Looper.getMainLooper());
+		return sMainHandler;
+	}
+
+	/**
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void run() {
+		synchronized (this) {
+			if (mState != STATE_PENDING) {
+				return;
+			}
+		}
+		if (!mLoader.load(mTask, this)) {
+			onImageLoadFailed(mTask, new ImageLoader.Error(
+					ImageLoader.Error.REASON_UNKNOWN,
+					"Failed to initiate loading of task(" + mTask + ")."
+			));
+		}
+	}
+
+	/**
+	 */
+	@Override
+	public void onImageLoadFinished(@NonNull ImageLoader.Task task, @NonNull Bitmap bitmap) {
+		finish(STATE_FINISHED, bitmap, null);
+	}
+
+	/**
+	 */
+	@Override
+	public void onImageLoadFailed(@NonNull ImageLoader.Task task, @NonNull ImageLoader.Error error) {
+		finish(STATE_FAILED, null, error);
+	}
+
+	/**
+	 * Finishes this future in the specified <var>state</var>, if it has not finished yet.
+	 *
+	 * @param state  The final state.
+	 * @param bitmap The loaded bitmap. May be {@code null}.
+	 * @param error  The loading error. May be {@code null}.
+	 * @return {@code True} if this future has been finished, {@code false} if it has been already
+	 * finished before.
+	 */
+	private boolean finish(int state, Bitmap bitmap, ImageLoader.Error error) {
+		synchronized (this) {
+			if (mState != STATE_PENDING) {
+				return false;
+			}
+			this.mState = state;
+			this.mBitmap = bitmap;
+			this.mError = error;
+		}
+		mDone.countDown();
+		return true;
+	}
+
+	/**
+	 * Cancelling of the load is routed to {@link BaseImageLoader#cancel(ImageLoader.Task)} on the
+	 * main thread, so the request of the wrapped loader is dropped. If the load has not been started
+	 * yet, it is not started at all. The <var>mayInterruptIfRunning</var> flag is ignored as the load
+	 * does not run on any thread that could be interrupted.
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		if (!finish(STATE_CANCELLED, null, null)) {
+			return false;
+		}
+		if (mLoader != null) {
+			if (Looper.myLooper() == Looper.getMainLooper()) {
+				mLoader.cancel(mTask);
+			} else {
+				final Handler handler = mainHandler();
+				handler.removeCallbacks(this);
+				handler.post(new Runnable() {
+
+					/**
+					 */
+					@Override
+					public void run() {
+						mLoader.cancel(mTask);
+					}
+				});
+			}
+		}
+		return true;
+	}
+
+	/**
+	 */
+	@Override
+	public synchronized boolean isCancelled() {
+		return mState == STATE_CANCELLED;
+	}
+
+	/**
+	 */
+	@Override
+	public synchronized boolean isDone() {
+		return mState != STATE_PENDING;
+	}
+
+	/**
+	 */
+	@Override
+	public Bitmap get() throws InterruptedException, ExecutionException {
+		mDone.await();
+		return result();
+	}
+
+	/**
+	 */
+	@Override
+	public Bitmap get(long timeout, @NonNull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if (!mDone.await(timeout, unit)) {
+			throw new TimeoutException("Loading of task(" + mTask + ") has not finished within " + unit.toMillis(timeout) + " ms.");
+		}
+		return result();
+	}
+
+	/**
+	 * Returns result of this already finished future.
+	 *
+	 * @return The loaded bitmap.
+	 * @throws ExecutionException    If the load has failed. Its cause is the {@link ImageLoader.Error}.
+	 * @throws CancellationException If the load has been cancelled.
+	 */
+	private synchronized Bitmap result() throws ExecutionException {
+		switch (mState) {
+			case STATE_FAILED:
+				throw new ExecutionException(mError);
+			case STATE_CANCELLED:
+				throw new CancellationException("Loading of task(" + mTask + ") has been cancelled.");
+			default:
+				return mBitmap;
+		}
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
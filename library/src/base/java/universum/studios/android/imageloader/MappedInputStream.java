@@ -0,0 +1,220 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An {@link InputStream} implementation that reads data of a file directly from its memory mapping
+ * created via {@link FileChannel#map(FileChannel.MapMode, long, long)}. Data are served from the
+ * page cache without any system call per read and without being copied into intermediate heap
+ * buffers, like when reading through a {@link java.io.BufferedInputStream}.
+ * <p>
+ * The stream supports {@link #mark(int)} and {@link #reset()} for the whole length of the file,
+ * so it may be decoded multiple times, for example to first obtain only bounds of the image,
+ * while the file is mapped only once. The raw mapped data may be also accessed via {@link #buffer()}.
+ * <p>
+ * <b>Note</b>, that the mapping is released only when the stream is garbage collected.
+ *
+ * @author Martin Albedinsky
+ */
+public final class MappedInputStream extends InputStream {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "MappedInputStream";
+
+	/**
+	 * Minimum length of a file in bytes for which should be its data read from a memory mapping
+	 * instead of being read via a file stream. Mapping of smaller files costs more than it saves.
+	 */
+	public static final long MIN_LENGTH = 64 * 1024;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Buffer with the mapped data of the file.
+	 */
+	private final ByteBuffer mBuffer;
+
+	/**
+	 * Position in the buffer to which to return on {@link #reset()}.
+	 */
+	private int mMark;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of MappedInputStream for the specified mapped <var>buffer</var>.
+	 *
+	 * @param buffer The buffer with mapped data.
+	 */
+	private MappedInputStream(ByteBuffer buffer) {
+		this.mBuffer = buffer;
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Maps the whole content of the specified <var>file</var> into memory and creates a new stream
+	 * reading from the mapping.
+	 *
+	 * @param file The file to be mapped.
+	 * @return New stream positioned at the start of the file.
+	 * @throws IOException If the file cannot be opened or mapped.
+	 */
+	@NonNull
+	public static MappedInputStream open(@NonNull File file) throws IOException {
+		final RandomAccessFile accessFile = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = accessFile.getChannel();
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new MappedInputStream(buffer);
+		} finally {
+			// Mapping remains valid after the channel is closed.
+			accessFile.close();
+		}
+	}
+
+	/**
+	 * Returns a read-only view of the mapped data. Position of the returned buffer is independent
+	 * of position of this stream.
+	 *
+	 * @return The mapped data of the whole file.
+	 */
+	@NonNull
+	public ByteBuffer buffer() {
+		final ByteBuffer buffer = mBuffer.asReadOnlyBuffer();
+		buffer.clear();
+		return buffer;
+	}
+
+	/**
+	 * Returns the length of the mapped file.
+	 *
+	 * @return Length in bytes.
+	 */
+	public int length() {
+		return mBuffer.capacity();
+	}
+
+	/**
+	 * Moves this stream back to the start of the mapped file and clears its mark.
+	 */
+	public void rewind() {
+		mBuffer.rewind();
+		this.mMark = 0;
+	}
+
+	/**
+	 */
+	@Override
+	public int read() {
+		return mBuffer.hasRemaining() ? mBuffer.get() & 0xFF : -1;
+	}
+
+	/**
+	 */
+	@Override
+	public int read(@NonNull byte[] buffer, int offset, int length) {
+		if (length == 0) {
+			return 0;
+		}
+		final int remaining = mBuffer.remaining();
+		if (remaining == 0) {
+			return -1;
+		}
+		final int count = Math.min(length, remaining);
+		mBuffer.get(buffer, offset, count);
+		return count;
+	}
+
+	/**
+	 */
+	@Override
+	public long skip(long count) {
+		if (count <= 0) {
+			return 0;
+		}
+		final int skipped = (int) Math.min(count, mBuffer.remaining());
+		mBuffer.position(mBuffer.position() + skipped);
+		return skipped;
+	}
+
+	/**
+	 */
+	@Override
+	public int available() {
+		return mBuffer.remaining();
+	}
+
+	/**
+	 */
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * The <var>readLimit</var> is ignored as the whole file is always available.
+	 */
+	@Override
+	public void mark(int readLimit) {
+		this.mMark = mBuffer.position();
+	}
+
+	/**
+	 */
+	@Override
+	public void reset() {
+		mBuffer.position(mMark);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,387 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide coordinator that enforces a single byte ceiling upon memory caches of all
+ * {@link BaseImageLoader BaseImageLoaders} that exist in the current process. Each image loader
+ * registers itself with this budget when it is created and is kept registered until it is garbage
+ * collected.
+ * <p>
+ * Whenever the loaders together hold more bytes than allowed by the {@link #getMaxSize() ceiling},
+ * the budget trims memory caches of the loaders starting with the least recently active one,
+ * until the ceiling is satisfied. Loaders that share a single memory cache, like loaders wrapping
+ * the same singleton loader, are accounted only once (see {@link BaseImageLoader#onIdentifyMemoryCache()}).
+ * The budget is checked on a background thread at most once per {@link #ENFORCE_INTERVAL} whenever
+ * some of the loaders starts to load an image, or may be enforced explicitly via {@link #enforce()}.
+ * <p>
+ * The ceiling is by default <b>1/4</b> of the maximum memory available to the current process
+ * and may be derived from {@link ActivityManager#getMemoryClass()} via {@link #initialize(Context)}.
+ *
+ * @author Martin Albedinsky
+ * @see BaseImageLoader#onMeasureMemoryCache()
+ */
+public final class MemoryBudget {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "MemoryBudget";
+
+	/**
+	 * Minimum interval in milliseconds between two automatic checks of the budget.
+	 */
+	public static final long ENFORCE_INTERVAL = 500;
+
+	/**
+	 * Divider used to compute the ceiling from the memory available to the current process.
+	 */
+	private static final int SIZE_DIVIDER = 4;
+
+	/**
+	 * Time in seconds for which is the thread enforcing the budget kept alive when idle.
+	 */
+	private static final long EXECUTOR_KEEP_ALIVE_TIME = 10;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Budget shared by all image loaders.
+	 */
+	private static final MemoryBudget INSTANCE = new MemoryBudget();
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Set of registered image loaders.
+	 */
+	private final Set<BaseImageLoader> mLoaders = Collections.newSetFromMap(new WeakHashMap<BaseImageLoader, Boolean>());
+
+	/**
+	 * Maximum count of bytes that may be held by memory caches of all registered loaders.
+	 */
+	private volatile long mMaxSize = Runtime.getRuntime().maxMemory() / SIZE_DIVIDER;
+
+	/**
+	 * Flag indicating whether the ceiling has been already specified either via {@link #initialize(Context)}
+	 * or via {@link #setMaxSize(long)}.
+	 */
+	private boolean mConfigured;
+
+	/**
+	 * Time in nanoseconds before which should not be the budget automatically checked again.
+	 */
+	private volatile long mNextEnforceTime;
+
+	/**
+	 * Executor used to enforce the budget off the main thread. Created lazily.
+	 */
+	private ExecutorService mExecutor;
+
+	/**
+	 * Task enforcing the budget via {@link #enforce()}.
+	 */
+	private final Runnable mEnforceTask = new Runnable() {
+
+		/**
+		 */
+		@Override
+		public void run() {
+			enforce();
+		}
+	};
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of MemoryBudget.
+	 */
+	private MemoryBudget() {
+		// Single instance is shared by all image loaders.
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the memory budget shared by all image loaders in the current process.
+	 *
+	 * @return The shared budget.
+	 */
+	@NonNull
+	public static MemoryBudget getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Derives the ceiling of this budget from the {@link ActivityManager#getMemoryClass() memory class}
+	 * of the current device as its <b>1/4</b>. Does nothing if the ceiling has been already specified.
+	 *
+	 * @param context Context used to access the activity manager.
+	 * @see #setMaxSize(long)
+	 */
+	public synchronized void initialize(@NonNull Context context) {
+		if (mConfigured) return;
+		final ActivityManager manager = (ActivityManager) context.getApplicationContext().getSystemService(Context.ACTIVITY_SERVICE);
+		if (manager != null) {
+			this.mMaxSize = manager.getMemoryClass() * 1024L * 1024L / SIZE_DIVIDER;
+			this.mConfigured = true;
+		}
+	}
+
+	/**
+	 * Specifies the maximum count of bytes that may be held by memory caches of all image loaders
+	 * together. The budget is enforced immediately on a background thread.
+	 *
+	 * @param maxSize The desired ceiling in bytes.
+	 * @see #getMaxSize()
+	 */
+	public void setMaxSize(long maxSize) {
+		synchronized (this) {
+			this.mMaxSize = maxSize;
+			this.mConfigured = true;
+		}
+		executor().execute(mEnforceTask);
+	}
+
+	/**
+	 * Returns the maximum count of bytes that may be held by memory caches of all image loaders together.
+	 *
+	 * @return The ceiling in bytes.
+	 * @see #setMaxSize(long)
+	 */
+	public long getMaxSize() {
+		return mMaxSize;
+	}
+
+	/**
+	 * Returns the count of bytes currently held by memory caches of all registered image loaders.
+	 *
+	 * @return Size of this budget in bytes.
+	 */
+	public long getSize() {
+		long size = 0;
+		for (final Candidate candidate : candidates()) {
+			size += candidate.size;
+		}
+		return size;
+	}
+
+	/**
+	 * Registers the specified <var>loader</var> with this budget.
+	 *
+	 * @param loader The loader to be registered.
+	 */
+	void register(@NonNull BaseImageLoader loader) {
+		synchronized (mLoaders) {
+			mLoaders.add(loader);
+		}
+	}
+
+	/**
+	 * Takes a snapshot of memory caches of the currently registered loaders. Loaders that share
+	 * a single memory cache are represented by a single candidate that holds the most recently
+	 * active of them.
+	 *
+	 * @return Collection of candidates, one for each memory cache.
+	 */
+	private Collection<Candidate> candidates() {
+		final List<BaseImageLoader> loaders;
+		synchronized (mLoaders) {
+			loaders = new ArrayList<>(mLoaders);
+		}
+		final Map<Object, Candidate> candidates = new IdentityHashMap<>(loaders.size());
+		for (final BaseImageLoader loader : loaders) {
+			final Object cache = loader.onIdentifyMemoryCache();
+			final Object identity = cache == null ? loader : cache;
+			final Candidate candidate = candidates.get(identity);
+			if (candidate == null) {
+				candidates.put(identity, new Candidate(loader));
+			} else if (loader.lastActiveTime() - candidate.lastActiveTime > 0) {
+				candidates.put(identity, new Candidate(loader, candidate.size));
+			}
+		}
+		return candidates.values();
+	}
+
+	/**
+	 * Invoked by a registered loader whenever it has become active at the specified <var>time</var>.
+	 * Enforces this budget on a background thread if it has not been checked for at least
+	 * {@link #ENFORCE_INTERVAL}.
+	 *
+	 * @param time The time in nanoseconds at which has been the loader active.
+	 */
+	void onLoaderActive(long time) {
+		if (time - mNextEnforceTime >= 0) {
+			this.mNextEnforceTime = time + TimeUnit.MILLISECONDS.toNanos(ENFORCE_INTERVAL);
+			executor().execute(mEnforceTask);
+		}
+	}
+
+	/**
+	 * Returns the executor used to enforce this budget off the main thread, creating it if needed.
+	 * The executor runs a single thread that terminates when idle.
+	 *
+	 * @return Budget executor.
+	 */
+	private synchronized ExecutorService executor() {
+		if (mExecutor == null) {
+			this.mExecutor = new ThreadPoolExecutor(
+					0,
+					1,
+					EXECUTOR_KEEP_ALIVE_TIME,
+					TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactory() {
+
+						/**
+						 */
+						@Override
+						public Thread newThread(@NonNull Runnable runnable) {
+							final Thread thread = new Thread(runnable, "ImageLoader-MemoryBudget");
+							thread.setPriority(Thread.MIN_PRIORITY);
+							return thread;
+						}
+					}
+			);
+		}
+		return mExecutor;
+	}
+
+	/**
+	 * Trims memory caches of the registered loaders, starting with the least recently active one,
+	 * until all loaders together hold no more bytes than allowed by the ceiling of this budget.
+	 * <p>
+	 * This method measures and trims the caches on the calling thread, so it should not be called
+	 * on the main thread.
+	 *
+	 * @return Count of bytes freed.
+	 */
+	public synchronized long enforce() {
+		final List<Candidate> candidates = new ArrayList<>(candidates());
+		long size = 0;
+		for (final Candidate candidate : candidates) {
+			size += candidate.size;
+		}
+		long excess = size - mMaxSize;
+		if (excess <= 0) {
+			return 0;
+		}
+		Collections.sort(candidates);
+		long byteCount = 0;
+		for (int i = 0; i < candidates.size() && excess > 0; i++) {
+			final Candidate candidate = candidates.get(i);
+			if (candidate.size <= 0) continue;
+			final float fraction = candidate.size <= excess ? 0f : (float) (candidate.size - excess) / candidate.size;
+			final long freed = candidate.loader.onTrimMemoryCache(fraction);
+			excess -= freed;
+			byteCount += freed;
+		}
+		return byteCount;
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+
+	/**
+	 * Snapshot of a memory cache of a registered loader taken at the time when is the budget being
+	 * enforced.
+	 */
+	private static final class Candidate implements Comparable<Candidate> {
+
+		/**
+		 * The most recently active loader using the memory cache that may be trimmed.
+		 */
+		final BaseImageLoader loader;
+
+		/**
+		 * Time in nanoseconds at which has been the loader active for the last time.
+		 */
+		final long lastActiveTime;
+
+		/**
+		 * Count of bytes held by memory cache of the loader.
+		 */
+		final long size;
+
+		/**
+		 * Creates a new instance of Candidate for the specified <var>loader</var>.
+		 *
+		 * @param loader The loader of which snapshot to take.
+		 */
+		Candidate(BaseImageLoader loader) {
+			this(loader, loader.onMeasureMemoryCache());
+		}
+
+		/**
+		 * Creates a new instance of Candidate for the specified <var>loader</var> with already
+		 * measured <var>size</var> of its memory cache.
+		 *
+		 * @param loader The loader of which snapshot to take.
+		 * @param size   The size of the loader's memory cache.
+		 */
+		Candidate(BaseImageLoader loader, long size) {
+			this.loader = loader;
+			this.lastActiveTime = loader.lastActiveTime();
+			this.size = size;
+		}
+
+		/**
+		 */
+		@Override
+		public int compareTo(@NonNull Candidate other) {
+			final long difference = lastActiveTime - other.lastActiveTime;
+			return difference < 0 ? -1 : (difference == 0 ? 0 : 1);
+		}
+	}
+}
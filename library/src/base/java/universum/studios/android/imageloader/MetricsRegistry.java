@@ -0,0 +1,416 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An {@link ImageLoader.Metrics} implementation that aggregates all received measurements in memory.
+ * Latencies of each stage are aggregated by {@link LatencyHistogram LatencyHistograms} and all other
+ * measurements by simple counters, so recording of measurements does not allocate any objects.
+ * <p>
+ * Aggregated data may be captured via {@link #snapshot()}, for example to be periodically sent to
+ * a custom telemetry, and cleared via {@link #reset()}.
+ * <p>
+ * Instance of this registry is by default used by each {@link BaseImageLoader}.
+ *
+ * @author Martin Albedinsky
+ * @see BaseImageLoader#getMetrics()
+ */
+public final class MetricsRegistry implements ImageLoader.Metrics {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "MetricsRegistry";
+
+	/**
+	 * Count of failure reasons tracked by the registry. Failures with reason out of this range are
+	 * counted as failures with {@link ImageLoader.Error#REASON_UNKNOWN}.
+	 */
+	public static final int REASON_COUNT = 16;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Histograms of latencies for each of stages.
+	 */
+	private final LatencyHistogram[] mStageHistograms = new LatencyHistogram[STAGE_COUNT];
+
+	/**
+	 * Counts of hits for each of caches.
+	 */
+	private final AtomicLongArray mCacheHits = new AtomicLongArray(CACHE_COUNT);
+
+	/**
+	 * Counts of misses for each of caches.
+	 */
+	private final AtomicLongArray mCacheMisses = new AtomicLongArray(CACHE_COUNT);
+
+	/**
+	 * Counts of failures for each of reasons.
+	 */
+	private final AtomicLongArray mFailures = new AtomicLongArray(REASON_COUNT);
+
+	/**
+	 * Count of decoded bitmaps.
+	 */
+	private final AtomicLong mDecodedCount = new AtomicLong();
+
+	/**
+	 * Count of bytes occupied by all decoded bitmaps.
+	 */
+	private final AtomicLong mDecodedBytes = new AtomicLong();
+
+	/**
+	 * Count of cancelled tasks.
+	 */
+	private final AtomicLong mCancelledCount = new AtomicLong();
+
+	/**
+	 * Count of coalesced tasks.
+	 */
+	private final AtomicLong mCoalescedCount = new AtomicLong();
+
+	/**
+	 * Count of memory trims.
+	 */
+	private final AtomicLong mTrimCount = new AtomicLong();
+
+	/**
+	 * Count of bytes freed by all memory trims.
+	 */
+	private final AtomicLong mTrimmedBytes = new AtomicLong();
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of empty MetricsRegistry.
+	 */
+	public MetricsRegistry() {
+		for (int i = 0; i < STAGE_COUNT; i++) {
+			mStageHistograms[i] = new LatencyHistogram();
+		}
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 */
+	@Override
+	public void onStageTime(@Stage int stage, long timeNanos) {
+		if (stage >= 0 && stage < STAGE_COUNT) mStageHistograms[stage].record(timeNanos);
+	}
+
+	/**
+	 */
+	@Override
+	public void onCacheLookup(@Cache int cache, boolean hit) {
+		if (cache >= 0 && cache < CACHE_COUNT) (hit ? mCacheHits : mCacheMisses).incrementAndGet(cache);
+	}
+
+	/**
+	 */
+	@Override
+	public void onBitmapDecoded(long byteCount) {
+		mDecodedCount.incrementAndGet();
+		mDecodedBytes.addAndGet(byteCount);
+	}
+
+	/**
+	 */
+	@Override
+	public void onTaskFailed(int reason) {
+		mFailures.incrementAndGet(reason >= 0 && reason < REASON_COUNT ? reason : ImageLoader.Error.REASON_UNKNOWN);
+	}
+
+	/**
+	 */
+	@Override
+	public void onTasksCancelled(int count) {
+		mCancelledCount.addAndGet(count);
+	}
+
+	/**
+	 */
+	@Override
+	public void onTaskCoalesced() {
+		mCoalescedCount.incrementAndGet();
+	}
+
+	/**
+	 */
+	@Override
+	public void onMemoryTrimmed(int level, long byteCount) {
+		mTrimCount.incrementAndGet();
+		mTrimmedBytes.addAndGet(byteCount);
+	}
+
+	/**
+	 * Captures the current state of this registry.
+	 * <p>
+	 * <b>Note</b>, that measurements recorded concurrently with this call may or may not be included
+	 * in the snapshot.
+	 *
+	 * @return Snapshot with copy of the current data.
+	 */
+	@NonNull
+	public Snapshot snapshot() {
+		final LatencyHistogram.Snapshot[] stages = new LatencyHistogram.Snapshot[STAGE_COUNT];
+		for (int i = 0; i < STAGE_COUNT; i++) {
+			stages[i] = mStageHistograms[i].snapshot();
+		}
+		final long[] hits = new long[CACHE_COUNT];
+		final long[] misses = new long[CACHE_COUNT];
+		for (int i = 0; i < CACHE_COUNT; i++) {
+			hits[i] = mCacheHits.get(i);
+			misses[i] = mCacheMisses.get(i);
+		}
+		final long[] failures = new long[REASON_COUNT];
+		for (int i = 0; i < REASON_COUNT; i++) {
+			failures[i] = mFailures.get(i);
+		}
+		return new Snapshot(
+				stages,
+				hits,
+				misses,
+				failures,
+				mDecodedCount.get(),
+				mDecodedBytes.get(),
+				mCancelledCount.get(),
+				mCoalescedCount.get(),
+				mTrimCount.get(),
+				mTrimmedBytes.get()
+		);
+	}
+
+	/**
+	 * Clears all data recorded by this registry.
+	 */
+	public void reset() {
+		for (final LatencyHistogram histogram : mStageHistograms) {
+			histogram.reset();
+		}
+		for (int i = 0; i < CACHE_COUNT; i++) {
+			mCacheHits.set(i, 0);
+			mCacheMisses.set(i, 0);
+		}
+		for (int i = 0; i < REASON_COUNT; i++) {
+			mFailures.set(i, 0);
+		}
+		mDecodedCount.set(0);
+		mDecodedBytes.set(0);
+		mCancelledCount.set(0);
+		mCoalescedCount.set(0);
+		mTrimCount.set(0);
+		mTrimmedBytes.set(0);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+
+	/**
+	 * Immutable snapshot of data recorded by {@link MetricsRegistry}.
+	 */
+	public static final class Snapshot {
+
+		/**
+		 * Snapshots of latency histograms for each of stages.
+		 */
+		private final LatencyHistogram.Snapshot[] stages;
+
+		/**
+		 * Counts of hits for each of caches.
+		 */
+		private final long[] cacheHits;
+
+		/**
+		 * Counts of misses for each of caches.
+		 */
+		private final long[] cacheMisses;
+
+		/**
+		 * Counts of failures for each of reasons.
+		 */
+		private final long[] failures;
+
+		/**
+		 * Count of decoded bitmaps.
+		 */
+		public final long decodedCount;
+
+		/**
+		 * Count of bytes occupied by all decoded bitmaps.
+		 */
+		public final long decodedBytes;
+
+		/**
+		 * Count of cancelled tasks.
+		 */
+		public final long cancelledCount;
+
+		/**
+		 * Count of coalesced tasks.
+		 */
+		public final long coalescedCount;
+
+		/**
+		 * Count of memory trims.
+		 */
+		public final long trimCount;
+
+		/**
+		 * Count of bytes freed by all memory trims.
+		 */
+		public final long trimmedBytes;
+
+		/**
+		 * Creates a new instance of Snapshot with the specified data.
+		 */
+		Snapshot(
+				LatencyHistogram.Snapshot[] stages,
+				long[] cacheHits,
+				long[] cacheMisses,
+				long[] failures,
+				long decodedCount,
+				long decodedBytes,
+				long cancelledCount,
+				long coalescedCount,
+				long trimCount,
+				long trimmedBytes
+		) {
+			this.stages = stages;
+			this.cacheHits = cacheHits;
+			this.cacheMisses = cacheMisses;
+			this.failures = failures;
+			this.decodedCount = decodedCount;
+			this.decodedBytes = decodedBytes;
+			this.cancelledCount = cancelledCount;
+			this.coalescedCount = coalescedCount;
+			this.trimCount = trimCount;
+			this.trimmedBytes = trimmedBytes;
+		}
+
+		/**
+		 * Returns snapshot of latencies recorded for the specified <var>stage</var>.
+		 *
+		 * @param stage The desired stage. One of stages defined by {@link ImageLoader.Metrics}.
+		 * @return Latency histogram snapshot.
+		 */
+		@NonNull
+		public LatencyHistogram.Snapshot stage(@Stage int stage) {
+			return stages[stage];
+		}
+
+		/**
+		 * Returns the count of hits of the specified <var>cache</var>.
+		 *
+		 * @param cache The desired cache. One of caches defined by {@link ImageLoader.Metrics}.
+		 * @return Count of hits.
+		 */
+		public long cacheHits(@Cache int cache) {
+			return cacheHits[cache];
+		}
+
+		/**
+		 * Returns the count of misses of the specified <var>cache</var>.
+		 *
+		 * @param cache The desired cache. One of caches defined by {@link ImageLoader.Metrics}.
+		 * @return Count of misses.
+		 */
+		public long cacheMisses(@Cache int cache) {
+			return cacheMisses[cache];
+		}
+
+		/**
+		 * Returns the ratio of hits of the specified <var>cache</var> to all its lookups.
+		 *
+		 * @param cache The desired cache. One of caches defined by {@link ImageLoader.Metrics}.
+		 * @return Hit ratio from the range {@code [0, 1]} or {@code 0} if there were no lookups.
+		 */
+		public float cacheHitRatio(@Cache int cache) {
+			final long lookups = cacheHits[cache] + cacheMisses[cache];
+			return lookups == 0 ? 0 : cacheHits[cache] / (float) lookups;
+		}
+
+		/**
+		 * Returns the count of failures with the specified <var>reason</var>.
+		 *
+		 * @param reason The desired reason. One of reasons defined by {@link ImageLoader.Error}.
+		 * @return Count of failures.
+		 */
+		public long failures(int reason) {
+			return reason >= 0 && reason < REASON_COUNT ? failures[reason] : 0;
+		}
+
+		/**
+		 * Returns the count of all failures regardless theirs reasons.
+		 *
+		 * @return Total count of failures.
+		 */
+		public long totalFailures() {
+			long total = 0;
+			for (final long count : failures) {
+				total += count;
+			}
+			return total;
+		}
+
+		/**
+		 */
+		@Override
+		public String toString() {
+			return "Snapshot{total: " + stages[STAGE_TOTAL] +
+					", queue: " + stages[STAGE_QUEUE] +
+					", fetch: " + stages[STAGE_FETCH] +
+					", decode: " + stages[STAGE_DECODE] +
+					", deliver: " + stages[STAGE_DELIVER] +
+					", memoryHitRatio: " + cacheHitRatio(CACHE_MEMORY) +
+					", diskHitRatio: " + cacheHitRatio(CACHE_DISK) +
+					", decodedCount: " + decodedCount +
+					", decodedBytes: " + decodedBytes +
+					", failures: " + totalFailures() +
+					", cancelled: " + cancelledCount +
+					", coalesced: " + coalescedCount +
+					", trimmedBytes: " + trimmedBytes + "}";
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.widget.AbsListView;
+
+/**
+ * An {@link AbsListView.OnScrollListener} implementation that pauses an {@link ImageLoader} while
+ * the list view is being scrolled and resumes it whenever the list view becomes idle. While paused,
+ * the image loader does not fetch or decode any images, so the scrolling is not slowed down by images
+ * that would be scrolled off the screen before they are loaded. Images stored in the memory cache
+ * are still delivered by the Picasso, Universal, Volley and core loaders, but <b>Glide</b> pauses
+ * all its requests, so it delivers even those images only after it is resumed. See {@link ImageLoader#pause()}.
+ * <p>
+ * By default, the loader is paused only while the list view is being flung. Use
+ * {@link RecyclerPauseOnScrollListener} for {@link android.support.v7.widget.RecyclerView RecyclerView}.
+ *
+ * @author Martin Albedinsky
+ */
+public class PauseOnScrollListener implements AbsListView.OnScrollListener {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "PauseOnScrollListener";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Image loader to be paused and resumed.
+	 */
+	private final ImageLoader mLoader;
+
+	/**
+	 * Flag indicating whether the loader should be paused while the view is being scrolled by touch.
+	 */
+	private final boolean mPauseOnTouchScroll;
+
+	/**
+	 * Flag indicating whether the loader should be paused while the view is being flung.
+	 */
+	private final boolean mPauseOnFling;
+
+	/**
+	 * Listener to which are delegated all scroll events. May be {@code null}.
+	 */
+	private final AbsListView.OnScrollListener mDelegate;
+
+	/**
+	 * Flag indicating whether the loader has been paused by this listener.
+	 */
+	private boolean mPaused;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Same as {@link #PauseOnScrollListener(ImageLoader, boolean, boolean, AbsListView.OnScrollListener)}
+	 * where the loader is paused only while the list view is being flung and no delegate is specified.
+	 */
+	public PauseOnScrollListener(@NonNull ImageLoader loader) {
+		this(loader, false, true, null);
+	}
+
+	/**
+	 * Creates a new instance of PauseOnScrollListener for the given image <var>loader</var>.
+	 *
+	 * @param loader             The image loader to be paused and resumed.
+	 * @param pauseOnTouchScroll {@code True} to pause the loader while the view is being scrolled
+	 *                           by touch, {@code false} otherwise.
+	 * @param pauseOnFling       {@code True} to pause the loader while the view is being flung,
+	 *                           {@code false} otherwise.
+	 * @param delegate           Listener to which to delegate all scroll events. May be {@code null}.
+	 */
+	public PauseOnScrollListener(@NonNull ImageLoader loader, boolean pauseOnTouchScroll, boolean pauseOnFling, @Nullable AbsListView.OnScrollListener delegate) {
+		this.mLoader = loader;
+		this.mPauseOnTouchScroll = pauseOnTouchScroll;
+		this.mPauseOnFling = pauseOnFling;
+		this.mDelegate = delegate;
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 */
+	@Override
+	public void onScrollStateChanged(AbsListView view, int scrollState) {
+		onScrollStateChanged(scrollState);
+		if (mDelegate != null) mDelegate.onScrollStateChanged(view, scrollState);
+	}
+
+	/**
+	 * Pauses or resumes the image loader according to the specified <var>scrollState</var>.
+	 * <p>
+	 * Values of the scroll states of {@link AbsListView} and {@link android.support.v7.widget.RecyclerView RecyclerView}
+	 * are the same, so this method may be used for both.
+	 *
+	 * @param scrollState The new scroll state. One of {@link #SCROLL_STATE_IDLE}, {@link #SCROLL_STATE_TOUCH_SCROLL}
+	 *                    or {@link #SCROLL_STATE_FLING}.
+	 */
+	void onScrollStateChanged(int scrollState) {
+		final boolean pause;
+		switch (scrollState) {
+			case SCROLL_STATE_TOUCH_SCROLL:
+				pause = mPauseOnTouchScroll;
+				break;
+			case SCROLL_STATE_FLING:
+				pause = mPauseOnFling;
+				break;
+			default:
+				pause = false;
+				break;
+		}
+		if (pause != mPaused) {
+			this.mPaused = pause;
+			if (pause) mLoader.pause();
+			else mLoader.resume();
+		}
+	}
+
+	/**
+	 */
+	@Override
+	public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+		if (mDelegate != null) mDelegate.onScroll(view, firstVisibleItem, visibleItemCount, totalItemCount);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,411 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.annotation.IntDef;
+import android.support.annotation.NonNull;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link ThreadPoolExecutor} implementation that executes submitted runnables ordered by theirs
+ * {@link ImageLoader.Task#priority() priorities}. Runnables with the same priority are executed
+ * either in the order in which they have been submitted or in the reversed order, depending on
+ * the {@link #setSchedulingMode(int) scheduling mode}.
+ * <p>
+ * This executor may be used by image loader implementations of which underlying library does not
+ * support prioritizing of its requests. Execution of queued runnables may be temporarily suspended
+ * via {@link #pause()}, for example while a list of images is being flung. Paused threads do not
+ * take runnables from the queue, so runnables submitted during the pause are ordered along with
+ * the earlier ones once the executor is {@link #resume() resumed}.
+ * <p>
+ * Submitted runnables are queued wrapped along with theirs priority, so the runnables may be removed
+ * from the queue only via {@link #remove(Runnable)} and not via the queue returned by {@link #getQueue()}.
+ *
+ * @author Martin Albedinsky
+ * @see Prioritized
+ */
+public final class PriorityExecutor extends ThreadPoolExecutor {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "PriorityExecutor";
+
+	/**
+	 * Scheduling mode in which are runnables with the same priority executed in the order in which
+	 * they have been submitted.
+	 *
+	 * @see #setSchedulingMode(int)
+	 */
+	public static final int SCHEDULING_FIFO = 0x00;
+
+	/**
+	 * Scheduling mode in which are the most recently submitted runnables executed first within the
+	 * same priority. Suitable for scrollable content where images that have been requested earlier
+	 * are likely to be already scrolled off the screen.
+	 *
+	 * @see #setSchedulingMode(int)
+	 */
+	public static final int SCHEDULING_LIFO = 0x01;
+
+	/**
+	 * Defines an annotation for determining set of allowed scheduling modes for {@link #setSchedulingMode(int)}.
+	 */
+	@IntDef({SCHEDULING_FIFO, SCHEDULING_LIFO})
+	@Retention(RetentionPolicy.SOURCE)
+	public @interface SchedulingMode {
+	}
+
+	/**
+	 * Time in seconds for which are idle threads kept alive.
+	 */
+	private static final long KEEP_ALIVE_TIME = 30;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Interface for runnables that may be executed with a specific priority. Runnables that do not
+	 * implement this interface are executed with {@link ImageLoader.Task#PRIORITY_NORMAL}.
+	 *
+	 * @author Martin Albedinsky
+	 */
+	public interface Prioritized extends Runnable {
+
+		/**
+		 * Returns the priority with which should be this runnable executed.
+		 *
+		 * @return One of priorities defined by {@link ImageLoader.Task}.
+		 */
+		@ImageLoader.Task.Priority
+		int priority();
+	}
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Sequence used to order runnables with the same priority.
+	 */
+	private final AtomicLong mSequence = new AtomicLong();
+
+	/**
+	 * Current scheduling mode.
+	 */
+	private volatile int mSchedulingMode = SCHEDULING_FIFO;
+
+	/**
+	 * Queue of the submitted runnables that may be paused.
+	 */
+	private final PausableQueue mQueue;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of PriorityExecutor with the specified fixed count of threads.
+	 *
+	 * @param threadCount   The count of threads used to execute submitted runnables.
+	 * @param threadFactory The factory used to create the threads.
+	 */
+	public PriorityExecutor(int threadCount, @NonNull ThreadFactory threadFactory) {
+		this(threadCount, threadFactory, new PausableQueue());
+	}
+
+	/**
+	 * Creates a new instance of PriorityExecutor with the specified fixed count of threads that take
+	 * runnables from the given <var>queue</var>.
+	 *
+	 * @param threadCount   The count of threads used to execute submitted runnables.
+	 * @param threadFactory The factory used to create the threads.
+	 * @param queue         The queue for the submitted runnables.
+	 */
+	private PriorityExecutor(int threadCount, ThreadFactory threadFactory, PausableQueue queue) {
+		super(threadCount, threadCount, KEEP_ALIVE_TIME, TimeUnit.SECONDS, queue, threadFactory);
+		this.mQueue = queue;
+		allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Specifies a mode determining in which order should be executed runnables with the same priority.
+	 * The mode is applied to runnables submitted after this call.
+	 * <p>
+	 * Default mode is {@link #SCHEDULING_FIFO}.
+	 *
+	 * @param mode The desired mode. One of {@link #SCHEDULING_FIFO} or {@link #SCHEDULING_LIFO}.
+	 * @see #getSchedulingMode()
+	 */
+	public void setSchedulingMode(@SchedulingMode int mode) {
+		this.mSchedulingMode = mode;
+	}
+
+	/**
+	 * Returns the current scheduling mode of this executor.
+	 *
+	 * @return Scheduling mode. One of {@link #SCHEDULING_FIFO} or {@link #SCHEDULING_LIFO}.
+	 * @see #setSchedulingMode(int)
+	 */
+	@SchedulingMode
+	public int getSchedulingMode() {
+		return mSchedulingMode;
+	}
+
+	/**
+	 * Pauses execution of runnables submitted to this executor. Runnables that are already running
+	 * are finished, but no other runnable is started until {@link #resume()} is called.
+	 *
+	 * @see #isPaused()
+	 */
+	public void pause() {
+		mQueue.setPaused(true);
+	}
+
+	/**
+	 * Resumes execution of runnables paused via {@link #pause()}.
+	 *
+	 * @see #isPaused()
+	 */
+	public void resume() {
+		mQueue.setPaused(false);
+	}
+
+	/**
+	 * Checks whether execution of runnables submitted to this executor is paused.
+	 *
+	 * @return {@code True} if paused, {@code false} otherwise.
+	 * @see #pause()
+	 */
+	public boolean isPaused() {
+		return mQueue.isPaused();
+	}
+
+	/**
+	 * <p>
+	 * The runnable is always queued, so it is not started by a newly created thread while this
+	 * executor is paused.
+	 */
+	@Override
+	public void execute(@NonNull Runnable command) {
+		if (isShutdown()) {
+			getRejectedExecutionHandler().rejectedExecution(command, this);
+			return;
+		}
+		final int priority = command instanceof Prioritized ? ((Prioritized) command).priority() : ImageLoader.Task.PRIORITY_NORMAL;
+		final long sequence = mSequence.getAndIncrement();
+		mQueue.offer(new Entry(command, priority, mSchedulingMode == SCHEDULING_LIFO ? -sequence : sequence));
+		prestartCoreThread();
+	}
+
+	/**
+	 * <p>
+	 * Runnables submitted via {@link #execute(Runnable)} are unwrapped, so the specified <var>task</var>
+	 * is removed if it has not been started yet.
+	 */
+	@Override
+	public boolean remove(Runnable task) {
+		for (final Runnable runnable : mQueue) {
+			if (runnable instanceof Entry && ((Entry) runnable).command == task) {
+				return super.remove(runnable);
+			}
+		}
+		return super.remove(task);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+
+	/**
+	 * A {@link PriorityBlockingQueue} of which runnables are not taken by threads of the executor
+	 * while the queue is paused.
+	 */
+	private static final class PausableQueue extends PriorityBlockingQueue<Runnable> {
+
+		/**
+		 * Lock guarding {@link #paused} flag.
+		 */
+		final ReentrantLock pauseLock = new ReentrantLock();
+
+		/**
+		 * Condition signalled whenever a runnable is added into this queue or this queue is resumed.
+		 */
+		final Condition changed = pauseLock.newCondition();
+
+		/**
+		 * Flag indicating whether taking of runnables from this queue is paused.
+		 */
+		boolean paused;
+
+		/**
+		 * Pauses or resumes taking of runnables from this queue.
+		 *
+		 * @param paused {@code True} to pause, {@code false} to resume.
+		 */
+		void setPaused(boolean paused) {
+			pauseLock.lock();
+			try {
+				this.paused = paused;
+				if (!paused) changed.signalAll();
+			} finally {
+				pauseLock.unlock();
+			}
+		}
+
+		/**
+		 * Checks whether taking of runnables from this queue is paused.
+		 *
+		 * @return {@code True} if paused, {@code false} otherwise.
+		 */
+		boolean isPaused() {
+			pauseLock.lock();
+			try {
+				return paused;
+			} finally {
+				pauseLock.unlock();
+			}
+		}
+
+		/**
+		 */
+		@Override
+		public boolean offer(Runnable runnable) {
+			final boolean added = super.offer(runnable);
+			pauseLock.lock();
+			try {
+				changed.signal();
+			} finally {
+				pauseLock.unlock();
+			}
+			return added;
+		}
+
+		/**
+		 */
+		@NonNull
+		@Override
+		public Runnable take() throws InterruptedException {
+			pauseLock.lockInterruptibly();
+			try {
+				while (true) {
+					final Runnable runnable = paused ? null : super.poll();
+					if (runnable != null) {
+						return runnable;
+					}
+					changed.await();
+				}
+			} finally {
+				pauseLock.unlock();
+			}
+		}
+
+		/**
+		 */
+		@Override
+		public Runnable poll(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+			long nanos = unit.toNanos(timeout);
+			pauseLock.lockInterruptibly();
+			try {
+				while (true) {
+					final Runnable runnable = paused ? null : super.poll();
+					if (runnable != null || nanos <= 0) {
+						return runnable;
+					}
+					nanos = changed.awaitNanos(nanos);
+				}
+			} finally {
+				pauseLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Queue entry wrapping a submitted runnable along with its priority and order.
+	 */
+	private static final class Entry implements Runnable, Comparable<Entry> {
+
+		/**
+		 * Wrapped runnable to be executed.
+		 */
+		final Runnable command;
+
+		/**
+		 * Priority of the wrapped runnable.
+		 */
+		final int priority;
+
+		/**
+		 * Order of the wrapped runnable within its priority. Lower order is executed first.
+		 */
+		final long order;
+
+		/**
+		 * Creates a new instance of Entry for the specified <var>command</var>.
+		 *
+		 * @param command  The runnable to be wrapped.
+		 * @param priority The priority of the runnable.
+		 * @param order    The order of the runnable within its priority.
+		 */
+		Entry(Runnable command, int priority, long order) {
+			this.command = command;
+			this.priority = priority;
+			this.order = order;
+		}
+
+		/**
+		 */
+		@Override
+		public void run() {
+			command.run();
+		}
+
+		/**
+		 */
+		@Override
+		public int compareTo(@NonNull Entry other) {
+			if (priority != other.priority) {
+				return priority > other.priority ? -1 : 1;
+			}
+			return order < other.order ? -1 : (order == other.order ? 0 : 1);
+		}
+	}
+}
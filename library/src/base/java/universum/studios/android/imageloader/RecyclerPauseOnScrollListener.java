@@ -0,0 +1,102 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * A {@link RecyclerView.OnScrollListener} implementation that pauses an {@link ImageLoader} while
+ * the recycler view is being scrolled and resumes it whenever the recycler view becomes idle, the
+ * same way as {@link PauseOnScrollListener} does for list views.
+ * <p>
+ * <b>Note</b>, that this listener requires the {@code com.android.support:recyclerview-v7} library
+ * to be added as dependency.
+ *
+ * @author Martin Albedinsky
+ */
+public class RecyclerPauseOnScrollListener extends RecyclerView.OnScrollListener {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "RecyclerPauseOnScrollListener";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Listener used to pause and resume the image loader according to the scroll state.
+	 */
+	private final PauseOnScrollListener mListener;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Same as {@link #RecyclerPauseOnScrollListener(ImageLoader, boolean, boolean)} where the loader
+	 * is paused only while the recycler view is being flung.
+	 */
+	public RecyclerPauseOnScrollListener(@NonNull ImageLoader loader) {
+		this(loader, false, true);
+	}
+
+	/**
+	 * Creates a new instance of RecyclerPauseOnScrollListener for the given image <var>loader</var>.
+	 *
+	 * @param loader        The image loader to be paused and resumed.
+	 * @param pauseOnDrag   {@code True} to pause the loader while the view is being dragged,
+	 *                      {@code false} otherwise.
+	 * @param pauseOnSettle {@code True} to pause the loader while the view is settling after fling,
+	 *                      {@code false} otherwise.
+	 */
+	public RecyclerPauseOnScrollListener(@NonNull ImageLoader loader, boolean pauseOnDrag, boolean pauseOnSettle) {
+		this.mListener = new PauseOnScrollListener(loader, pauseOnDrag, pauseOnSettle, null);
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 */
+	@Override
+	public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+		super.onScrollStateChanged(recyclerView, newState);
+		mListener.onScrollStateChanged(newState);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,240 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Decoder used by {@link BaseImageLoader} to decode regions of a single image file via {@link BitmapRegionDecoder}.
+ * <p>
+ * The decoder is opened once per image and may be used to decode multiple regions, also from
+ * multiple threads, as the wrapped region decoder synchronizes its decoding internally.
+ *
+ * @author Martin Albedinsky
+ * @see ImageLoader#loadRegion(ImageLoader.Task, Rect, int)
+ */
+@TargetApi(Build.VERSION_CODES.GINGERBREAD_MR1)
+final class RegionDecoder {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "RegionDecoder";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Wrapped region decoder.
+	 */
+	private final BitmapRegionDecoder mDecoder;
+
+	/**
+	 * Width of the decoded image.
+	 */
+	private final int mWidth;
+
+	/**
+	 * Height of the decoded image.
+	 */
+	private final int mHeight;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of RegionDecoder wrapping the given <var>decoder</var>.
+	 *
+	 * @param decoder The region decoder to be wrapped.
+	 */
+	private RegionDecoder(BitmapRegionDecoder decoder) {
+		this.mDecoder = decoder;
+		this.mWidth = decoder.getWidth();
+		this.mHeight = decoder.getHeight();
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns a boolean flag indicating whether decoding of image regions is supported on the
+	 * current Android version.
+	 *
+	 * @return {@code True} if regions may be decoded, {@code false} otherwise.
+	 */
+	static boolean isSupported() {
+		return Build.VERSION.SDK_INT >= Build.VERSION_CODES.GINGERBREAD_MR1;
+	}
+
+	/**
+	 * Opens a new region decoder for the image stored in the specified <var>file</var>.
+	 *
+	 * @param file The file with the image data. Only JPEG and PNG images are supported.
+	 * @return Region decoder ready to decode regions of the image.
+	 * @throws ImageLoader.Error If region decoding is not supported or the file cannot be decoded.
+	 */
+	@NonNull
+	static RegionDecoder open(@NonNull File file) {
+		if (!isSupported()) {
+			throw new ImageLoader.Error(
+					ImageLoader.Error.REASON_UNKNOWN,
+					"Region decoding requires API level " + Build.VERSION_CODES.GINGERBREAD_MR1 + "."
+			);
+		}
+		try {
+			return new RegionDecoder(BitmapRegionDecoder.newInstance(file.getPath(), false));
+		} catch (IOException e) {
+			throw new ImageLoader.Error(ImageLoader.Error.REASON_DECODING, "Failed to open image(" + file + ") for region decoding.", e);
+		}
+	}
+
+	/**
+	 * Returns the width of the decoded image.
+	 *
+	 * @return Image width in pixels.
+	 */
+	int width() {
+		return mWidth;
+	}
+
+	/**
+	 * Returns the height of the decoded image.
+	 *
+	 * @return Image height in pixels.
+	 */
+	int height() {
+		return mHeight;
+	}
+
+	/**
+	 * Decodes the specified <var>region</var> of the image. If the given <var>pool</var> contains
+	 * a suitable bitmap, it is reused for the decoding.
+	 *
+	 * @param region     The region to decode. Parts outside of the image are ignored.
+	 * @param sampleSize The sample size with which to decode the region.
+	 * @param pool       The pool from which to obtain bitmap to be reused. May be {@code null}.
+	 * @return Decoded bitmap or {@code null} if the region is outside of the image.
+	 * @throws ImageLoader.Error     If decoding fails.
+	 * @throws IllegalStateException If this decoder has been already recycled.
+	 */
+	@Nullable
+	Bitmap decode(@NonNull Rect region, int sampleSize, @Nullable BitmapPool pool) {
+		final Rect rect = new Rect(region);
+		if (!rect.intersect(0, 0, mWidth, mHeight)) {
+			return null;
+		}
+		final BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inSampleSize = Math.max(1, sampleSize);
+		Bitmap bitmap;
+		try {
+			if (pool != null && applyInBitmap(options, rect, pool)) {
+				try {
+					bitmap = mDecoder.decodeRegion(rect, options);
+				} catch (IllegalArgumentException e) {
+					// Pooled bitmap could not be reused for this region.
+					pool.put(options.inBitmap);
+					options.inBitmap = null;
+					bitmap = mDecoder.decodeRegion(rect, options);
+				}
+			} else {
+				bitmap = mDecoder.decodeRegion(rect, options);
+			}
+		} catch (OutOfMemoryError e) {
+			throw new ImageLoader.Error(ImageLoader.Error.REASON_MEMORY, "Failed to decode region(" + rect + ").", e);
+		}
+		if (bitmap == null) {
+			throw new ImageLoader.Error(ImageLoader.Error.REASON_DECODING, "Failed to decode region(" + rect + ").");
+		}
+		return bitmap;
+	}
+
+	/**
+	 * Specifies a pooled bitmap as {@link BitmapFactory.Options#inBitmap} for decoding of the
+	 * specified <var>region</var>. Region decoding reuses bitmaps with a different size only since
+	 * {@link Build.VERSION_CODES#KITKAT KITKAT}, so pooled bitmaps are reconfigured to the exact
+	 * size of the decoded region. If the pool is empty, a new mutable bitmap is created instead, so
+	 * it may be returned to the pool and reused for decoding of the next regions.
+	 *
+	 * @param options The options with already specified sample size.
+	 * @param region  The region to be decoded.
+	 * @param pool    The pool from which to obtain the bitmap.
+	 * @return {@code True} if reusable bitmap has been specified, {@code false} if not supported
+	 * by the current platform.
+	 */
+	@TargetApi(Build.VERSION_CODES.KITKAT)
+	private static boolean applyInBitmap(BitmapFactory.Options options, Rect region, BitmapPool pool) {
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT) {
+			return false;
+		}
+		final int sampleSize = options.inSampleSize;
+		options.inBitmap = pool.getOrCreate(
+				(region.width() + sampleSize - 1) / sampleSize,
+				(region.height() + sampleSize - 1) / sampleSize,
+				Bitmap.Config.ARGB_8888
+		);
+		options.inMutable = true;
+		return true;
+	}
+
+	/**
+	 * Returns a boolean flag indicating whether this decoder has been recycled.
+	 *
+	 * @return {@code True} if recycled, {@code false} otherwise.
+	 */
+	boolean isRecycled() {
+		return mDecoder.isRecycled();
+	}
+
+	/**
+	 * Recycles this decoder, so its native memory is released. Decoding of regions currently in
+	 * progress is finished first.
+	 */
+	void recycle() {
+		mDecoder.recycle();
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
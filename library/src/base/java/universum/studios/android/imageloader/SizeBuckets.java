@@ -0,0 +1,196 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bookkeeping of entries grouped into buckets by theirs byte size, used by {@link BitmapPool} to
+ * find a reusable bitmap of a sufficient size and to evict the least recently added bitmaps.
+ * <p>
+ * The buckets do not depend on any framework classes, so they may be exercised without a device.
+ * This class is not thread-safe, access to it needs to be synchronized by its owner.
+ *
+ * @param <T> Type of the entries stored in the buckets.
+ * @author Martin Albedinsky
+ */
+final class SizeBuckets<T> {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "SizeBuckets";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Matcher that determines whether an entry found in a bucket may be removed for reuse.
+	 *
+	 * @param <T> Type of the matched entries.
+	 */
+	interface Matcher<T> {
+
+		/**
+		 * Checks whether the specified <var>entry</var> matches the requested one.
+		 *
+		 * @param entry The entry to be checked.
+		 * @return {@code True} if the entry matches, {@code false} otherwise.
+		 */
+		boolean matches(T entry);
+	}
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Buckets of entries keyed by theirs byte size.
+	 */
+	private final TreeMap<Integer, List<T>> mBuckets = new TreeMap<>();
+
+	/**
+	 * Byte sizes of all entries in the order in which they have been added.
+	 */
+	private final LinkedHashMap<T, Integer> mEntries = new LinkedHashMap<>();
+
+	/**
+	 * Total byte size of all entries.
+	 */
+	private int mSize;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the total byte size of all entries.
+	 *
+	 * @return Size in bytes.
+	 */
+	int size() {
+		return mSize;
+	}
+
+	/**
+	 * Returns a flag indicating whether there are no entries.
+	 *
+	 * @return {@code True} if empty, {@code false} otherwise.
+	 */
+	boolean isEmpty() {
+		return mEntries.isEmpty();
+	}
+
+	/**
+	 * Checks whether the specified <var>entry</var> has been added.
+	 *
+	 * @param entry The entry to check.
+	 * @return {@code True} if the entry is stored, {@code false} otherwise.
+	 */
+	boolean contains(T entry) {
+		return mEntries.containsKey(entry);
+	}
+
+	/**
+	 * Adds the specified <var>entry</var> into bucket for the given <var>byteCount</var>.
+	 *
+	 * @param entry     The entry to add. Must not be already added.
+	 * @param byteCount Byte size of the entry.
+	 */
+	void add(T entry, int byteCount) {
+		List<T> bucket = mBuckets.get(byteCount);
+		if (bucket == null) mBuckets.put(byteCount, bucket = new ArrayList<>(2));
+		bucket.add(entry);
+		mEntries.put(entry, byteCount);
+		this.mSize += byteCount;
+	}
+
+	/**
+	 * Removes the most recently added entry from the smallest bucket of which byte size is within
+	 * the specified range and which contains an entry accepted by the <var>matcher</var>.
+	 *
+	 * @param minByteCount The minimum byte size of the entry.
+	 * @param maxByteCount The maximum byte size of the entry.
+	 * @param matcher      Matcher of the entry. May be {@code null} to accept any entry within the range.
+	 * @return The removed entry or {@code null} if there is no suitable one.
+	 */
+	T remove(int minByteCount, int maxByteCount, Matcher<? super T> matcher) {
+		Map.Entry<Integer, List<T>> bucketEntry = mBuckets.ceilingEntry(minByteCount);
+		while (bucketEntry != null && bucketEntry.getKey() <= maxByteCount) {
+			final List<T> bucket = bucketEntry.getValue();
+			for (int i = bucket.size() - 1; i >= 0; i--) {
+				final T entry = bucket.get(i);
+				if (matcher != null && !matcher.matches(entry)) {
+					continue;
+				}
+				bucket.remove(i);
+				if (bucket.isEmpty()) mBuckets.remove(bucketEntry.getKey());
+				mEntries.remove(entry);
+				this.mSize -= bucketEntry.getKey();
+				return entry;
+			}
+			bucketEntry = mBuckets.higherEntry(bucketEntry.getKey());
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the least recently added entry.
+	 *
+	 * @return The removed entry or {@code null} if there are no entries.
+	 */
+	T removeEldest() {
+		final Iterator<Map.Entry<T, Integer>> iterator = mEntries.entrySet().iterator();
+		if (!iterator.hasNext()) {
+			return null;
+		}
+		final Map.Entry<T, Integer> eldest = iterator.next();
+		iterator.remove();
+		final T entry = eldest.getKey();
+		final int byteCount = eldest.getValue();
+		final List<T> bucket = mBuckets.get(byteCount);
+		if (bucket != null && bucket.remove(entry) && bucket.isEmpty()) {
+			mBuckets.remove(byteCount);
+		}
+		this.mSize -= byteCount;
+		return entry;
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,714 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalescer used by {@link BaseImageLoader} to track in-flight loads of tasks and to de-duplicate
+ * loads of tasks with equal {@link BaseImageTask#key() keys}.
+ * <p>
+ * The first task loaded for a specific key is dispatched to the wrapped loader and becomes a leader
+ * of an in-flight load. Tasks with the same key loaded while the leader is still in flight only
+ * join that load and receive its result once it finishes. If image view of the leader is rebound
+ * to another task or the leader is cancelled, one of the joined tasks is dispatched instead.
+ * <p>
+ * All in-flight loads are tracked regardless whether coalescing is enabled, so they may be
+ * cancelled by task, by image view or all at once.
+ *
+ * @author Martin Albedinsky
+ */
+final class TaskCoalescer {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "TaskCoalescer";
+
+	/**
+	 * Time in milliseconds after which is an in-flight load considered stale and new tasks do not
+	 * join it anymore.
+	 */
+	static final long STALE_TIMEOUT = 20000;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Loader used to dispatch and cancel leading tasks.
+	 */
+	private final BaseImageLoader<?> mLoader;
+
+	/**
+	 * Map of the current in-flight loads that may be joined keyed by cache keys of theirs tasks.
+	 */
+	private final Map<TaskKey, InFlightLoad> mLoads = new HashMap<>();
+
+	/**
+	 * Set of all current in-flight loads.
+	 */
+	private final Set<InFlightLoad> mRunningLoads = new LinkedHashSet<>();
+
+	/**
+	 * Map of the in-flight loads in which participate tasks of the mapped image views.
+	 */
+	private final Map<ImageView, InFlightLoad> mViewLoads = new WeakHashMap<>();
+
+	/**
+	 * Time in milliseconds after which is an in-flight load considered stale.
+	 */
+	private long mStaleTimeout = STALE_TIMEOUT;
+
+	/**
+	 * Flag indicating whether tasks with equal cache keys should be coalesced.
+	 */
+	private boolean mCoalescingEnabled = true;
+
+	/**
+	 * Count of tasks that have joined another in-flight load.
+	 */
+	private long mCoalescedCount;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of TaskCoalescer for the specified <var>loader</var>.
+	 *
+	 * @param loader The loader used to dispatch and cancel leading tasks.
+	 */
+	TaskCoalescer(@NonNull BaseImageLoader<?> loader) {
+		this.mLoader = loader;
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Sets a flag indicating whether tasks with equal cache keys should be coalesced into a single
+	 * load or each of them should be dispatched separately.
+	 *
+	 * @param enabled {@code True} to enable coalescing, {@code false} to disable it.
+	 */
+	synchronized void setCoalescingEnabled(boolean enabled) {
+		this.mCoalescingEnabled = enabled;
+		if (!enabled) mLoads.clear();
+	}
+
+	/**
+	 * Sets the time after which is an in-flight load considered stale, so new tasks do not join it.
+	 *
+	 * @param timeout The desired timeout in milliseconds. Default is {@link #STALE_TIMEOUT}.
+	 */
+	synchronized void setStaleTimeout(long timeout) {
+		this.mStaleTimeout = timeout;
+	}
+
+	/**
+	 * Returns a flag indicating whether coalescing of tasks is enabled.
+	 *
+	 * @return {@code True} if enabled, {@code false} otherwise.
+	 */
+	synchronized boolean isCoalescingEnabled() {
+		return mCoalescingEnabled;
+	}
+
+	/**
+	 * Loads the specified <var>task</var> either by joining an in-flight load with the same cache
+	 * key or by dispatching it to the loader.
+	 *
+	 * @param task     The task to be loaded.
+	 * @param callback The callback to be invoked once the load finishes. May be {@code null}.
+	 * @return {@code True} if the task has joined an in-flight load or has been dispatched successfully,
+	 * {@code false} otherwise.
+	 */
+	boolean load(@NonNull BaseImageTask task, @Nullable ImageLoader.Callback callback) {
+		final TaskKey key = task.key();
+		final ImageView view = task.mView;
+		InFlightLoad load, promoted = null, rebound = null;
+		synchronized (this) {
+			if (view != null) {
+				final InFlightLoad viewLoad = mViewLoads.remove(view);
+				if (viewLoad != null) {
+					if (viewLoad.key.equals(key) && !viewLoad.isStale()) {
+						// The view is rebound to the same image, so only replace its participant.
+						viewLoad.replace(view, task, callback);
+						mViewLoads.put(view, viewLoad);
+						return true;
+					}
+					if (viewLoad.leader.mView == view) rebound = viewLoad;
+					promoted = detach(viewLoad, view, task);
+				}
+			}
+			load = mCoalescingEnabled ? mLoads.get(key) : null;
+			if (load != null && !load.isStale()) {
+				load.join(task, callback);
+				if (view != null) mViewLoads.put(view, load);
+				this.mCoalescedCount++;
+				mLoader.getMetrics().onTaskCoalesced();
+				load = null;
+			} else {
+				load = new InFlightLoad(key, task, callback);
+				register(load);
+			}
+		}
+		if (rebound != null) {
+			// The wrapped loader replaces the previous request of the view on its own only if
+			// the task is dispatched into the same view.
+			if (load == null) mLoader.cancelDispatched(rebound.dispatched);
+			rebound.retire(task);
+		}
+		if (promoted != null) dispatch(promoted);
+		if (load == null) {
+			task.attachPlaceholder();
+			return true;
+		}
+		return dispatch(load);
+	}
+
+	/**
+	 * Cancels in-flight load of the specified <var>task</var>. If the task is a leader of its load,
+	 * its loading is cancelled by the loader and one of joined tasks, if any, is dispatched instead.
+	 *
+	 * @param task The task of which load to cancel.
+	 * @return {@code True} if the task has been in flight, {@code false} otherwise.
+	 */
+	boolean cancel(@NonNull BaseImageTask task) {
+		final InFlightLoad load;
+		final BaseImageTask dispatched;
+		InFlightLoad promoted;
+		synchronized (this) {
+			load = findLoad(task);
+			if (load == null) {
+				return false;
+			}
+			if (load.leader != task) {
+				load.leave(task);
+				if (task.mView != null && mViewLoads.get(task.mView) == load) mViewLoads.remove(task.mView);
+				return true;
+			}
+			dispatched = load.dispatched;
+			promoted = detach(load, null, null);
+		}
+		mLoader.cancelDispatched(dispatched);
+		load.retire();
+		if (promoted != null) dispatch(promoted);
+		return true;
+	}
+
+	/**
+	 * Cancels in-flight load of a task bound to the specified <var>view</var>.
+	 *
+	 * @param view The view of which load to cancel.
+	 * @return {@code True} if there has been a task in flight for the view, {@code false} otherwise.
+	 */
+	boolean cancel(@NonNull ImageView view) {
+		final BaseImageTask task;
+		synchronized (this) {
+			final InFlightLoad load = mViewLoads.get(view);
+			if (load == null) {
+				return false;
+			}
+			task = load.leader.mView == view ? load.leader : load.participantOf(view);
+		}
+		return task != null && cancel(task);
+	}
+
+	/**
+	 * Cancels all in-flight loads.
+	 *
+	 * @return Count of cancelled tasks.
+	 */
+	int cancelAll() {
+		final List<InFlightLoad> loads;
+		int count = 0;
+		synchronized (this) {
+			loads = new ArrayList<>(mRunningLoads);
+			mRunningLoads.clear();
+			mLoads.clear();
+			mViewLoads.clear();
+			for (final InFlightLoad load : loads) {
+				load.abandon();
+				count += 1 + load.joined.size();
+			}
+		}
+		for (final InFlightLoad load : loads) {
+			mLoader.cancelDispatched(load.dispatched);
+			load.retire();
+			load.retireJoined();
+		}
+		return count;
+	}
+
+	/**
+	 * Finds an in-flight load in which participates the specified <var>task</var>.
+	 *
+	 * @param task The task for which to find its load.
+	 * @return The found load or {@code null} if the task is not in flight.
+	 */
+	private InFlightLoad findLoad(BaseImageTask task) {
+		if (task.mView != null) {
+			final InFlightLoad load = mViewLoads.get(task.mView);
+			return load != null && load.contains(task) ? load : null;
+		}
+		for (final InFlightLoad load : mRunningLoads) {
+			if (load.contains(task)) return load;
+		}
+		return null;
+	}
+
+	/**
+	 * Registers the specified <var>load</var> as running.
+	 *
+	 * @param load The load to be registered.
+	 */
+	private void register(InFlightLoad load) {
+		mRunningLoads.add(load);
+		if (mCoalescingEnabled) mLoads.put(load.key, load);
+		if (load.leader.mView != null) mViewLoads.put(load.leader.mView, load);
+		for (final Participant participant : load.joined) {
+			if (participant.task.mView != null) mViewLoads.put(participant.task.mView, load);
+		}
+	}
+
+	/**
+	 * Detaches the specified <var>view</var> or the leading task from the given in-flight <var>load</var>.
+	 * If the leading task is detached, the load is abandoned and a new load led by one of its joined
+	 * tasks is registered instead. The abandoned load is not retired, so its dispatched task may be
+	 * cancelled by the caller before that.
+	 *
+	 * @param load The load from which to detach.
+	 * @param view The view to be detached. May be {@code null} to detach the leading task.
+	 * @param keep Task that is being loaded into the view, so it must not be recycled by its old
+	 *             load. May be {@code null}.
+	 * @return New load that should be dispatched or {@code null} if there is no load to be dispatched.
+	 */
+	private InFlightLoad detach(InFlightLoad load, ImageView view, BaseImageTask keep) {
+		if (view != null && load.leader.mView != view) {
+			load.leave(view, keep);
+			return null;
+		}
+		forget(load);
+		load.abandon();
+		if (load.joined.isEmpty()) {
+			return null;
+		}
+		final InFlightLoad promoted = load.promote();
+		register(promoted);
+		return promoted;
+	}
+
+	/**
+	 * Dispatches leading task of the specified <var>load</var> to the loader.
+	 *
+	 * @param load The load to be dispatched.
+	 * @return {@code True} if dispatching has been successful, {@code false} otherwise.
+	 */
+	private boolean dispatch(InFlightLoad load) {
+		final boolean dispatched = mLoader.dispatch(load.leader, load);
+		if (!dispatched) {
+			synchronized (this) {
+				forget(load);
+			}
+		}
+		return dispatched;
+	}
+
+	/**
+	 * Removes all references to the specified <var>load</var> from this coalescer.
+	 *
+	 * @param load The load to be forgotten.
+	 */
+	private void forget(InFlightLoad load) {
+		mRunningLoads.remove(load);
+		if (mLoads.get(load.key) == load) mLoads.remove(load.key);
+		if (load.leader.mView != null && mViewLoads.get(load.leader.mView) == load) {
+			mViewLoads.remove(load.leader.mView);
+		}
+		for (final Participant participant : load.joined) {
+			final ImageView view = participant.task.mView;
+			if (view != null && mViewLoads.get(view) == load) mViewLoads.remove(view);
+		}
+	}
+
+	/**
+	 * Recycles the specified <var>task</var> if it has been obtained from a {@link TaskPool} and has
+	 * been loaded without a callback, so it is owned by the loader. Tasks loaded along with theirs
+	 * thumbnails are retired by theirs {@link ThumbnailLoad} and tasks loaded as part of a batch are
+	 * reported to theirs {@link BatchLoad}, so the batch finishes even if some of its tasks do not.
+	 *
+	 * @param task     The task that no longer participates in any load.
+	 * @param callback The callback with which has been the task loaded. May be {@code null}.
+	 */
+	static void retire(BaseImageTask task, ImageLoader.Callback callback) {
+		if (callback instanceof ThumbnailLoad) ((ThumbnailLoad) callback).retire(task);
+		else if (callback instanceof BatchLoad) ((BatchLoad) callback).retire(task);
+		else if (callback == null) task.recycleIfPooled();
+	}
+
+	/**
+	 * Returns the count of tasks that have joined another in-flight load instead of being dispatched
+	 * to the loader.
+	 *
+	 * @return Count of coalesced tasks.
+	 */
+	synchronized long getCoalescedCount() {
+		return mCoalescedCount;
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+
+	/**
+	 * Holder for a task and its callback participating in an in-flight load.
+	 */
+	static final class Participant {
+
+		/**
+		 * Participating task.
+		 */
+		final BaseImageTask task;
+
+		/**
+		 * Callback of the participating task. May be {@code null}.
+		 */
+		final ImageLoader.Callback callback;
+
+		/**
+		 * Creates a new instance of Participant with the specified <var>task</var> and <var>callback</var>.
+		 *
+		 * @param task     The participating task.
+		 * @param callback The callback of the participating task.
+		 */
+		Participant(BaseImageTask task, ImageLoader.Callback callback) {
+			this.task = task;
+			this.callback = callback;
+		}
+	}
+
+	/**
+	 * In-flight load of a single leading task joined by tasks with the same cache key. Serves also
+	 * as callback for the leading task dispatched to the loader.
+	 */
+	final class InFlightLoad implements ImageLoader.ProgressCallback {
+
+		/**
+		 * Cache key of the tasks participating in this load.
+		 */
+		final TaskKey key;
+
+		/**
+		 * Time in nanoseconds when this load has been started.
+		 */
+		final long startNanos = System.nanoTime();
+
+		/**
+		 * Leading task of this load. Differs from {@link #dispatched} if image view of the dispatched
+		 * task has been rebound to an equal task.
+		 */
+		BaseImageTask leader;
+
+		/**
+		 * Callback of the leading task. May be {@code null}.
+		 */
+		ImageLoader.Callback leaderCallback;
+
+		/**
+		 * Task dispatched to the loader. It is referenced by the loader until this load finishes.
+		 */
+		final BaseImageTask dispatched;
+
+		/**
+		 * Callback of the dispatched task. May be {@code null}.
+		 */
+		final ImageLoader.Callback dispatchedCallback;
+
+		/**
+		 * List of tasks that have joined this load.
+		 */
+		final List<Participant> joined = new ArrayList<>(2);
+
+		/**
+		 * Flag indicating whether this load has been abandoned, so its result should not be delivered.
+		 */
+		boolean abandoned;
+
+		/**
+		 * Creates a new instance of InFlightLoad for the specified leading <var>task</var>.
+		 *
+		 * @param key      The cache key of the task.
+		 * @param task     The leading task.
+		 * @param callback The callback of the leading task.
+		 */
+		InFlightLoad(TaskKey key, BaseImageTask task, ImageLoader.Callback callback) {
+			this.key = key;
+			this.leader = task;
+			this.leaderCallback = callback;
+			this.dispatched = task;
+			this.dispatchedCallback = callback;
+		}
+
+		/**
+		 * Checks whether this load is running for too long to be joined by new tasks.
+		 *
+		 * @return {@code True} if stale, {@code false} otherwise.
+		 */
+		boolean isStale() {
+			return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) > mStaleTimeout;
+		}
+
+		/**
+		 * Checks whether the specified <var>task</var> participates in this load.
+		 *
+		 * @param task The task to check.
+		 * @return {@code True} if the task is leader or joined task of this load, {@code false} otherwise.
+		 */
+		boolean contains(BaseImageTask task) {
+			if (leader == task) {
+				return true;
+			}
+			for (final Participant participant : joined) {
+				if (participant.task == task) return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Returns the joined task bound to the specified <var>view</var>.
+		 *
+		 * @param view The view of which task to return.
+		 * @return The joined task or {@code null} if there is none bound to the view.
+		 */
+		BaseImageTask participantOf(ImageView view) {
+			for (final Participant participant : joined) {
+				if (participant.task.mView == view) return participant.task;
+			}
+			return null;
+		}
+
+		/**
+		 * Adds the specified <var>task</var> into the joined ones.
+		 *
+		 * @param task     The task to join.
+		 * @param callback The callback of the task.
+		 */
+		void join(BaseImageTask task, ImageLoader.Callback callback) {
+			joined.add(new Participant(task, callback));
+		}
+
+		/**
+		 * Replaces participant bound to the specified <var>view</var> with the given <var>task</var>.
+		 *
+		 * @param view     The view of which participant to replace.
+		 * @param task     The new task for the view.
+		 * @param callback The callback of the new task.
+		 */
+		void replace(ImageView view, BaseImageTask task, ImageLoader.Callback callback) {
+			if (leader.mView == view) {
+				final BaseImageTask previous = leader;
+				final ImageLoader.Callback previousCallback = leaderCallback;
+				this.leader = task;
+				this.leaderCallback = callback;
+				// The dispatched task is still referenced by the loader, so it is retired once this
+				// load finishes.
+				if (previous != dispatched && previous != task) retire(previous, previousCallback);
+				return;
+			}
+			leave(view, task);
+			join(task, callback);
+		}
+
+		/**
+		 * Removes participant bound to the specified <var>view</var> from the joined ones.
+		 *
+		 * @param view The view of which participant to remove.
+		 * @param keep Task that is being loaded into the view, so it must not be recycled. May be {@code null}.
+		 */
+		void leave(ImageView view, BaseImageTask keep) {
+			for (int i = joined.size() - 1; i >= 0; i--) {
+				final Participant participant = joined.get(i);
+				if (participant.task.mView == view) {
+					joined.remove(i);
+					if (participant.task != keep) retire(participant.task, participant.callback);
+				}
+			}
+		}
+
+		/**
+		 * Removes the specified joined <var>task</var> from this load.
+		 *
+		 * @param task The task to remove.
+		 */
+		void leave(BaseImageTask task) {
+			for (int i = joined.size() - 1; i >= 0; i--) {
+				final Participant participant = joined.get(i);
+				if (participant.task == task) {
+					joined.remove(i);
+					retire(participant.task, participant.callback);
+				}
+			}
+		}
+
+		/**
+		 * Same as {@link #retire(BaseImageTask)} with no task to be kept.
+		 */
+		void retire() {
+			retire((BaseImageTask) null);
+		}
+
+		/**
+		 * Retires the leading and the dispatched task of this load.
+		 *
+		 * @param keep Task that must not be recycled. May be {@code null}.
+		 * @see TaskCoalescer#retire(BaseImageTask, ImageLoader.Callback)
+		 */
+		void retire(BaseImageTask keep) {
+			if (leader != keep) retire(leader, leaderCallback);
+			if (dispatched != leader && dispatched != keep) retire(dispatched, dispatchedCallback);
+		}
+
+		/**
+		 * Retires all tasks that have joined this load.
+		 *
+		 * @see TaskCoalescer#retire(BaseImageTask, ImageLoader.Callback)
+		 */
+		void retireJoined() {
+			for (final Participant participant : joined) {
+				retire(participant.task, participant.callback);
+			}
+		}
+
+		/**
+		 * Marks this load as abandoned.
+		 */
+		void abandon() {
+			this.abandoned = true;
+		}
+
+		/**
+		 * Creates a new load led by the first of joined tasks and joined by the rest of them.
+		 *
+		 * @return The new load to be dispatched.
+		 */
+		InFlightLoad promote() {
+			final Participant first = joined.get(0);
+			final InFlightLoad load = new InFlightLoad(key, first.task, first.callback);
+			load.joined.addAll(joined.subList(1, joined.size()));
+			return load;
+		}
+
+		/**
+		 */
+		@Override
+		public void onImageLoadFinished(@NonNull ImageLoader.Task task, @NonNull Bitmap bitmap) {
+			if (!finish()) {
+				return;
+			}
+			mLoader.getMetrics().onStageTime(ImageLoader.Metrics.STAGE_TOTAL, System.nanoTime() - startNanos);
+			if (leaderCallback != null) leaderCallback.onImageLoadFinished(leader, bitmap);
+			for (final Participant participant : joined) {
+				participant.task.attachBitmap(bitmap);
+				if (participant.callback != null) participant.callback.onImageLoadFinished(participant.task, bitmap);
+			}
+			retire();
+			retireJoined();
+		}
+
+		/**
+		 */
+		@Override
+		public void onImageLoadProgress(@NonNull ImageLoader.Task task, @NonNull Bitmap bitmap, int pass) {
+			synchronized (TaskCoalescer.this) {
+				if (abandoned) return;
+			}
+			if (leaderCallback instanceof ImageLoader.ProgressCallback) {
+				((ImageLoader.ProgressCallback) leaderCallback).onImageLoadProgress(leader, bitmap, pass);
+			}
+			for (final Participant participant : joined) {
+				if (!participant.task.hasRequest(BaseImageTask.REQUEST_PROGRESSIVE)) continue;
+				participant.task.attachBitmap(bitmap);
+				if (participant.callback instanceof ImageLoader.ProgressCallback) {
+					((ImageLoader.ProgressCallback) participant.callback).onImageLoadProgress(participant.task, bitmap, pass);
+				}
+			}
+		}
+
+		/**
+		 */
+		@Override
+		public void onImageLoadFailed(@NonNull ImageLoader.Task task, @NonNull ImageLoader.Error error) {
+			if (!finish()) {
+				return;
+			}
+			mLoader.getMetrics().onTaskFailed(error.reason);
+			if (leaderCallback != null) leaderCallback.onImageLoadFailed(leader, error);
+			for (final Participant participant : joined) {
+				participant.task.attachError();
+				if (participant.callback != null) participant.callback.onImageLoadFailed(participant.task, error);
+			}
+			retire();
+			retireJoined();
+		}
+
+		/**
+		 * Finishes this load by removing it from the coalescer.
+		 *
+		 * @return {@code True} if result of this load should be delivered, {@code false} if it has
+		 * been abandoned or already delivered.
+		 */
+		private boolean finish() {
+			synchronized (TaskCoalescer.this) {
+				if (abandoned) {
+					return false;
+				}
+				this.abandoned = true;
+				forget(this);
+				return true;
+			}
+		}
+	}
+}
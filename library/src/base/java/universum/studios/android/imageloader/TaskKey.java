@@ -0,0 +1,322 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Immutable key identifying an image loaded by a {@link BaseImageTask}. The key is composed of
+ * a 64-bit hash of the task's target, requested size with scale type, bitmap config and keys of the transformations,
+ * so tasks with equal keys load the same image and {@link BaseImageLoader} may satisfy all of them
+ * by a single load.
+ * <p>
+ * A key is computed only once for a specific configuration of a task (see {@link BaseImageTask#key()})
+ * and its comparison is cheap, as it first compares the precomputed hashes and only for keys with
+ * equal hashes compares also the targets, so keys may be used in hash based collections on the
+ * main thread without building any strings.
+ *
+ * @author Martin Albedinsky
+ */
+public final class TaskKey {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "TaskKey";
+
+	/**
+	 * Scale type used by keys of tasks without requested size.
+	 */
+	static final int SCALE_NONE = 0;
+
+	/**
+	 * Scale type used by keys of tasks with requested size that should be center cropped.
+	 */
+	static final int SCALE_CENTER_CROP = 1;
+
+	/**
+	 * Scale type used by keys of tasks with requested size that should be center inside.
+	 */
+	static final int SCALE_CENTER_INSIDE = 2;
+
+	/**
+	 * Config used by keys of tasks decoded in the default config of the loader.
+	 */
+	static final int CONFIG_DEFAULT = 0;
+
+	/**
+	 * Config used by keys of tasks decoded in {@link android.graphics.Bitmap.Config#RGB_565 RGB_565}
+	 * if theirs images are opaque. Keys of tasks with explicitly specified config use ordinal of
+	 * that config increased by {@code 1}.
+	 */
+	static final int CONFIG_PREFER_RGB_565 = -1;
+
+	/**
+	 * Offset basis of the 64-bit FNV-1a hash.
+	 */
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	/**
+	 * Prime of the 64-bit FNV-1a hash.
+	 */
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Target of the task for which has been this key created.
+	 */
+	private final Object mTarget;
+
+	/**
+	 * 64-bit hash of {@link #mTarget}.
+	 */
+	private final long mTargetHash;
+
+	/**
+	 * Requested width in pixels. {@code 0} if not specified.
+	 */
+	private final int mWidth;
+
+	/**
+	 * Requested height in pixels. {@code 0} if not specified.
+	 */
+	private final int mHeight;
+
+	/**
+	 * Scale type with which should be the image resized to the requested size.
+	 */
+	private final int mScale;
+
+	/**
+	 * Bitmap config in which should be the image decoded.
+	 */
+	private final int mConfig;
+
+	/**
+	 * Key of the transformation applied to the loaded image. May be {@code null}.
+	 */
+	private final Object mTransformation;
+
+	/**
+	 * Key of the {@link ImageTransformation} applied to the loaded image. May be {@code null}.
+	 */
+	private final String mImageTransformation;
+
+	/**
+	 * Hash code of this key combined from all its components.
+	 */
+	private final int mHashCode;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of TaskKey with the specified components.
+	 *
+	 * @param target              The target of the task.
+	 * @param width               The requested width. {@code 0} if not specified.
+	 * @param height              The requested height. {@code 0} if not specified.
+	 * @param scale               The scale type. One of {@link #SCALE_NONE}, {@link #SCALE_CENTER_CROP},
+	 *                            {@link #SCALE_CENTER_INSIDE}.
+	 * @param config              The bitmap config. One of {@link #CONFIG_DEFAULT}, {@link #CONFIG_PREFER_RGB_565}
+	 *                            or ordinal of an explicit config increased by {@code 1}.
+	 * @param transformation      The key of the transformation. May be {@code null}.
+	 * @param imageTransformation The key of the image transformation. May be {@code null}.
+	 */
+	TaskKey(@Nullable Object target, int width, int height, int scale, int config, @Nullable Object transformation, @Nullable String imageTransformation) {
+		this.mTarget = target;
+		this.mTargetHash = hash64(target);
+		this.mWidth = width;
+		this.mHeight = height;
+		this.mScale = scale;
+		this.mConfig = config;
+		this.mTransformation = transformation;
+		this.mImageTransformation = imageTransformation;
+		long hash = mTargetHash;
+		hash = 31 * hash + width;
+		hash = 31 * hash + height;
+		hash = 31 * hash + scale;
+		hash = 31 * hash + config;
+		hash = 31 * hash + (transformation == null ? 0 : transformation.hashCode());
+		hash = 31 * hash + (imageTransformation == null ? 0 : imageTransformation.hashCode());
+		this.mHashCode = (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Computes a 64-bit hash of the specified <var>target</var>. Hash of char sequences (urls, paths)
+	 * is computed via FNV-1a over theirs chars, hash of other targets is spread from theirs
+	 * {@link Object#hashCode()}.
+	 *
+	 * @param target The target of which hash to compute. May be {@code null}.
+	 * @return Computed hash.
+	 */
+	static long hash64(@Nullable Object target) {
+		if (target == null) {
+			return 0;
+		}
+		if (target instanceof CharSequence) {
+			final CharSequence sequence = (CharSequence) target;
+			long hash = FNV_OFFSET_BASIS;
+			for (int i = 0; i < sequence.length(); i++) {
+				final char c = sequence.charAt(i);
+				hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+				hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+			}
+			return hash;
+		}
+		// Spread the 32-bit hash code via the finalizer of MurmurHash3.
+		long hash = target.hashCode() ^ FNV_OFFSET_BASIS;
+		hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+		hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return hash ^ (hash >>> 33);
+	}
+
+	/**
+	 * Returns the target of the task for which has been this key created.
+	 *
+	 * @return Task's target. May be {@code null}.
+	 */
+	@Nullable
+	public Object target() {
+		return mTarget;
+	}
+
+	/**
+	 * Returns the 64-bit hash of the target of this key.
+	 *
+	 * @return Target's hash.
+	 */
+	public long targetHash() {
+		return mTargetHash;
+	}
+
+	/**
+	 * Returns the requested width of this key.
+	 *
+	 * @return Width in pixels or {@code 0} if not specified.
+	 */
+	public int width() {
+		return mWidth;
+	}
+
+	/**
+	 * Returns the requested height of this key.
+	 *
+	 * @return Height in pixels or {@code 0} if not specified.
+	 */
+	public int height() {
+		return mHeight;
+	}
+
+	/**
+	 * Returns the key of the transformation of this key.
+	 *
+	 * @return Transformation key or {@code null} if there is no transformation.
+	 * @see BaseImageTask#transformationKey(Object)
+	 */
+	@Nullable
+	public Object transformation() {
+		return mTransformation;
+	}
+
+	/**
+	 * Returns the key of the image transformation of this key.
+	 *
+	 * @return Image transformation key or {@code null} if there is no image transformation.
+	 * @see ImageTransformation#getKey()
+	 */
+	@Nullable
+	public String imageTransformation() {
+		return mImageTransformation;
+	}
+
+	/**
+	 * Checks whether this key has been created for the specified <var>target</var>.
+	 *
+	 * @param target The target to check.
+	 * @return {@code True} if the target of this key equals to the specified one, {@code false}
+	 * otherwise.
+	 */
+	public boolean hasTarget(@Nullable Object target) {
+		return mTarget == target || (mTarget != null && mTarget.equals(target));
+	}
+
+	/**
+	 */
+	@Override
+	public int hashCode() {
+		return mHashCode;
+	}
+
+	/**
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (other == this) return true;
+		if (!(other instanceof TaskKey)) return false;
+		final TaskKey key = (TaskKey) other;
+		return mTargetHash == key.mTargetHash &&
+				mWidth == key.mWidth &&
+				mHeight == key.mHeight &&
+				mScale == key.mScale &&
+				mConfig == key.mConfig &&
+				(mTransformation == null ? key.mTransformation == null : mTransformation.equals(key.mTransformation)) &&
+				(mImageTransformation == null ? key.mImageTransformation == null : mImageTransformation.equals(key.mImageTransformation)) &&
+				(mTarget == null ? key.mTarget == null : mTarget == key.mTarget || mTarget.equals(key.mTarget));
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	public String toString() {
+		return "TaskKey{target: " + mTarget +
+				", width: " + mWidth +
+				", height: " + mHeight +
+				", scale: " + mScale +
+				", config: " + mConfig +
+				", transformation: " + mTransformation +
+				", imageTransformation: " + mImageTransformation + "}";
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,167 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Pool of recycled {@link BaseImageTask BaseImageTasks} of a specific type that allows to reuse
+ * task instances instead of allocating a new one for each image load, for example while binding
+ * images into items of a fast scrolled list.
+ * <p>
+ * Tasks are obtained from the pool via {@link #obtain()} and returned back via {@link BaseImageTask#recycle()}.
+ * If the pool is empty, a new task is created via {@link #onCreateTask()}. If the pool is already
+ * full, recycled tasks are dropped.
+ * <p>
+ * Note that pooling removes only allocation of the task instances themselves. Loading of a pooled
+ * task still allocates per-load bookkeeping, like the record of its in-flight load, and whatever
+ * the wrapped loader allocates for its own requests.
+ *
+ * @param <T> Type of the tasks pooled by this pool.
+ * @author Martin Albedinsky
+ * @see BaseImageTask#recycle()
+ */
+public abstract class TaskPool<T extends BaseImageTask> {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "TaskPool";
+
+	/**
+	 * Default maximum count of recycled tasks kept by a pool.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 32;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Array of recycled tasks ready to be obtained.
+	 */
+	private final BaseImageTask[] mTasks;
+
+	/**
+	 * Count of recycled tasks in {@link #mTasks}.
+	 */
+	private int mSize;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Same as {@link #TaskPool(int)} with {@link #DEFAULT_MAX_SIZE}.
+	 */
+	protected TaskPool() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Creates a new instance of TaskPool with the specified <var>maxSize</var>.
+	 *
+	 * @param maxSize The maximum count of recycled tasks to be kept by the pool.
+	 */
+	protected TaskPool(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Max size(" + maxSize + ") must be positive.");
+		}
+		this.mTasks = new BaseImageTask[maxSize];
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Obtains a task from this pool. The returned task has all its parameters reset to defaults.
+	 *
+	 * @return Recycled task or a new one if there is no recycled task available.
+	 */
+	@NonNull
+	@SuppressWarnings("unchecked")
+	public final T obtain() {
+		BaseImageTask task = null;
+		synchronized (this) {
+			if (mSize > 0) {
+				task = mTasks[--mSize];
+				mTasks[mSize] = null;
+			}
+		}
+		if (task == null) task = onCreateTask();
+		task.mPool = this;
+		task.mRecycled = false;
+		return (T) task;
+	}
+
+	/**
+	 * Called to create a new task whenever there is no recycled task available in this pool.
+	 *
+	 * @return New task instance.
+	 */
+	@NonNull
+	protected abstract T onCreateTask();
+
+	/**
+	 * Returns the specified recycled <var>task</var> back to this pool.
+	 *
+	 * @param task The recycled task.
+	 */
+	final void release(@NonNull BaseImageTask task) {
+		synchronized (this) {
+			if (mSize < mTasks.length) mTasks[mSize++] = task;
+		}
+	}
+
+	/**
+	 * Returns the count of recycled tasks currently available in this pool.
+	 *
+	 * @return Count of recycled tasks.
+	 */
+	public synchronized int size() {
+		return mSize;
+	}
+
+	/**
+	 * Drops all recycled tasks from this pool.
+	 */
+	public synchronized void clear() {
+		for (int i = 0; i < mSize; i++) {
+			mTasks[i] = null;
+		}
+		this.mSize = 0;
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,211 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Load of a task along with its thumbnail used by {@link BaseImageLoader} for tasks that do not
+ * load theirs thumbnails on their own.
+ * <p>
+ * Serves as callback for both tasks. The thumbnail is attached to the image view of the task only
+ * if it is loaded before the task finishes. Once the task finishes or is cancelled, loading of the
+ * thumbnail is cancelled.
+ *
+ * @author Martin Albedinsky
+ * @see BaseImageTask#loadsThumbnail()
+ */
+final class ThumbnailLoad implements ImageLoader.ProgressCallback {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "ThumbnailLoad";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Coalescer used to load and cancel both tasks.
+	 */
+	private final TaskCoalescer mCoalescer;
+
+	/**
+	 * Task loading the full image.
+	 */
+	private final BaseImageTask mTask;
+
+	/**
+	 * Task loading the thumbnail.
+	 */
+	private final BaseImageTask mThumbnail;
+
+	/**
+	 * Callback of the task. May be {@code null}.
+	 */
+	private final ImageLoader.Callback mCallback;
+
+	/**
+	 * Flag indicating whether the thumbnail is being loaded.
+	 */
+	private boolean mThumbnailLoading;
+
+	/**
+	 * Flag indicating whether the task has finished, so the thumbnail should not be attached anymore.
+	 */
+	private boolean mFinished;
+
+	/**
+	 * Flag indicating whether the task no longer participates in any load.
+	 */
+	private boolean mRetired;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of ThumbnailLoad for the specified <var>task</var> and its <var>thumbnail</var>.
+	 *
+	 * @param coalescer The coalescer used to load and cancel both tasks.
+	 * @param task      The task loading the full image.
+	 * @param thumbnail The task loading the thumbnail.
+	 * @param callback  The callback of the task. May be {@code null}.
+	 */
+	ThumbnailLoad(@NonNull TaskCoalescer coalescer, @NonNull BaseImageTask task, @NonNull BaseImageTask thumbnail, @Nullable ImageLoader.Callback callback) {
+		this.mCoalescer = coalescer;
+		this.mTask = task;
+		this.mThumbnail = thumbnail;
+		this.mCallback = callback;
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Starts loading of the task and then of its thumbnail, so the placeholder attached for the task
+	 * does not replace an already loaded thumbnail.
+	 *
+	 * @return {@code True} if loading of the task has been started, {@code false} otherwise.
+	 */
+	boolean start() {
+		if (!mCoalescer.load(mTask, this)) {
+			return false;
+		}
+		synchronized (this) {
+			if (mFinished || mRetired) {
+				return true;
+			}
+			this.mThumbnailLoading = true;
+		}
+		mCoalescer.load(mThumbnail, this);
+		synchronized (this) {
+			// The task might have been retired while the thumbnail was being started.
+			if (!mRetired) {
+				return true;
+			}
+		}
+		mCoalescer.cancel(mThumbnail);
+		return true;
+	}
+
+	/**
+	 * Invoked by {@link TaskCoalescer} whenever the specified <var>task</var> loaded with this
+	 * callback no longer participates in any load. If it is the full image task, loading of the
+	 * thumbnail is cancelled and the task is retired along with the wrapped callback.
+	 *
+	 * @param task The retired task.
+	 */
+	void retire(@NonNull BaseImageTask task) {
+		final boolean cancel;
+		synchronized (this) {
+			if (task == mThumbnail) {
+				this.mThumbnailLoading = false;
+				return;
+			}
+			if (mRetired) {
+				return;
+			}
+			this.mRetired = true;
+			cancel = mThumbnailLoading;
+		}
+		if (cancel) mCoalescer.cancel(mThumbnail);
+		TaskCoalescer.retire(task, mCallback);
+	}
+
+	/**
+	 */
+	@Override
+	public void onImageLoadFinished(@NonNull ImageLoader.Task task, @NonNull Bitmap bitmap) {
+		if (task == mThumbnail) {
+			synchronized (this) {
+				if (mFinished || mRetired) return;
+			}
+			mTask.attachBitmap(bitmap);
+			return;
+		}
+		synchronized (this) {
+			this.mFinished = true;
+		}
+		if (mCallback != null) mCallback.onImageLoadFinished(task, bitmap);
+	}
+
+	/**
+	 */
+	@Override
+	public void onImageLoadProgress(@NonNull ImageLoader.Task task, @NonNull Bitmap bitmap, int pass) {
+		if (task != mThumbnail && mCallback instanceof ImageLoader.ProgressCallback) {
+			((ImageLoader.ProgressCallback) mCallback).onImageLoadProgress(task, bitmap, pass);
+		}
+	}
+
+	/**
+	 */
+	@Override
+	public void onImageLoadFailed(@NonNull ImageLoader.Task task, @NonNull ImageLoader.Error error) {
+		if (task == mThumbnail) {
+			// Failed thumbnail is not an error of the task.
+			return;
+		}
+		synchronized (this) {
+			this.mFinished = true;
+		}
+		if (mCallback != null) mCallback.onImageLoadFailed(task, error);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
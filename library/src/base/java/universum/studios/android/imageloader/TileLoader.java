@@ -0,0 +1,566 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loader of tiles of a single large image, like a map or a scanned document, that decodes only
+ * tiles covering the currently visible part of the image at the current zoom level via
+ * {@link ImageLoader#loadRegion(ImageLoader.Task, Rect, int)}.
+ * <p>
+ * Whenever the visible part of the image changes, it should be passed to {@link #setViewport(Rect, float)}.
+ * Tiles that are not loaded yet are decoded on a background thread and delivered to the {@link Callback}
+ * on the main thread, while loading of tiles that have left the viewport is cancelled. Loaded tiles
+ * are kept in a cache of limited size, so the image may be scrolled back without decoding them
+ * again, and bitmaps of tiles evicted from the cache are reused for decoding of new tiles.
+ * <p>
+ * All methods of this class are expected to be called on the main thread.
+ *
+ * @author Martin Albedinsky
+ */
+public final class TileLoader {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "TileLoader";
+
+	/**
+	 * Default size of tiles in pixels of decoded bitmaps.
+	 */
+	public static final int DEFAULT_TILE_SIZE = 256;
+
+	/**
+	 * Time in seconds for which is the decoding thread kept alive while idle.
+	 */
+	private static final long KEEP_ALIVE_TIME = 10;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Callback to be notified about loaded tiles.
+	 *
+	 * @author Martin Albedinsky
+	 */
+	public interface Callback {
+
+		/**
+		 * Invoked on the main thread whenever bitmap of the specified <var>tile</var> has been loaded.
+		 *
+		 * @param loader The loader that has loaded the tile.
+		 * @param tile   The loaded tile. Its bitmap is available via {@link Tile#bitmap()}.
+		 */
+		void onTileLoaded(@NonNull TileLoader loader, @NonNull Tile tile);
+
+		/**
+		 * Invoked on the main thread whenever loading of the specified <var>tile</var> has failed.
+		 * Such tile is loaded again once it becomes visible again.
+		 *
+		 * @param loader The loader that has failed to load the tile.
+		 * @param tile   The failed tile.
+		 * @param error  The error due to which the loading has failed.
+		 */
+		void onTileLoadFailed(@NonNull TileLoader loader, @NonNull Tile tile, @NonNull ImageLoader.Error error);
+	}
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Image loader used to decode regions of the image.
+	 */
+	private final ImageLoader mLoader;
+
+	/**
+	 * Task specifying target of the image.
+	 */
+	private final ImageLoader.Task mTask;
+
+	/**
+	 * Callback to be notified about loaded tiles.
+	 */
+	private final Callback mCallback;
+
+	/**
+	 * Handler used to deliver loaded tiles on the main thread.
+	 */
+	private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+	/**
+	 * Pool of bitmaps of evicted tiles to be reused for decoding of new tiles.
+	 */
+	private final BitmapPool mBitmapPool;
+
+	/**
+	 * Maximum size of the cache of loaded tiles in bytes.
+	 */
+	private final int mMaxCacheSize;
+
+	/**
+	 * Current size of the cache of loaded tiles in bytes.
+	 */
+	private int mCacheSize;
+
+	/**
+	 * Size of tiles in pixels of decoded bitmaps.
+	 */
+	private int mTileSize = DEFAULT_TILE_SIZE;
+
+	/**
+	 * Access ordered map of loaded and loading tiles keyed by theirs keys.
+	 */
+	private final Map<Long, Tile> mTiles = new LinkedHashMap<>(32, 0.75f, true);
+
+	/**
+	 * List of tiles covering the current viewport.
+	 */
+	private final List<Tile> mVisibleTiles = new ArrayList<>();
+
+	/**
+	 * Generation of the current viewport. Tiles that are visible have this generation.
+	 */
+	private int mGeneration;
+
+	/**
+	 * Executor used to decode tiles. Created lazily.
+	 */
+	private ExecutorService mExecutor;
+
+	/**
+	 * Flag indicating whether this loader has been released.
+	 */
+	private boolean mReleased;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Same as {@link #TileLoader(ImageLoader, ImageLoader.Task, Callback, int)} with cache size of
+	 * <b>1/8</b> of the maximum memory available to the current process.
+	 */
+	public TileLoader(@NonNull ImageLoader loader, @NonNull ImageLoader.Task task, @NonNull Callback callback) {
+		this(loader, task, callback, (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8));
+	}
+
+	/**
+	 * Creates a new instance of TileLoader for image of the specified <var>task</var>.
+	 *
+	 * @param loader    The image loader used to decode regions of the image.
+	 * @param task      The task specifying target of the image. Its other parameters are ignored.
+	 * @param callback  The callback to be notified about loaded tiles.
+	 * @param cacheSize The maximum size of the cache of loaded tiles in bytes. Tiles that are visible
+	 *                  are never evicted from the cache.
+	 */
+	public TileLoader(@NonNull ImageLoader loader, @NonNull ImageLoader.Task task, @NonNull Callback callback, int cacheSize) {
+		if (cacheSize < 0) throw new IllegalArgumentException("Cache size must not be negative.");
+		this.mLoader = loader;
+		this.mTask = task;
+		this.mCallback = callback;
+		this.mMaxCacheSize = cacheSize;
+		this.mBitmapPool = new BitmapPool(cacheSize / 4);
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Computes sample size for the specified <var>scale</var> at which is the image displayed as
+	 * the largest power of 2 that does not make the decoded tiles smaller than theirs displayed size.
+	 *
+	 * @param scale The scale at which is the image displayed. {@code 1} if one pixel of the image
+	 *              is displayed as one pixel of the screen.
+	 * @return Sample size for tiles decoded for the scale.
+	 */
+	public static int sampleSizeFor(float scale) {
+		int sampleSize = 1;
+		if (scale > 0) {
+			while (sampleSize * 2 * scale <= 1) {
+				sampleSize *= 2;
+			}
+		}
+		return sampleSize;
+	}
+
+	/**
+	 * Specifies a size of tiles to be decoded. Changing of the size drops all tiles loaded so far.
+	 * <p>
+	 * Default value: <b>{@link #DEFAULT_TILE_SIZE}</b>
+	 *
+	 * @param tileSize The desired size in pixels of decoded bitmaps.
+	 * @throws IllegalArgumentException If the size is not positive.
+	 */
+	public void setTileSize(int tileSize) {
+		if (tileSize <= 0) throw new IllegalArgumentException("Tile size must be positive.");
+		if (mTileSize != tileSize) {
+			this.mTileSize = tileSize;
+			clearTiles();
+		}
+	}
+
+	/**
+	 * Returns the size of decoded tiles.
+	 *
+	 * @return Tile size in pixels of decoded bitmaps.
+	 */
+	public int getTileSize() {
+		return mTileSize;
+	}
+
+	/**
+	 * Specifies the currently visible part of the image along with the scale at which it is
+	 * displayed. Tiles covering the viewport that are not loaded yet start loading, while loading
+	 * of tiles that are no longer visible is cancelled.
+	 *
+	 * @param viewport The visible part of the image in the image's coordinates.
+	 * @param scale    The scale at which is the image displayed.
+	 * @see #getVisibleTiles()
+	 * @see #sampleSizeFor(float)
+	 */
+	public void setViewport(@NonNull Rect viewport, float scale) {
+		if (mReleased) {
+			return;
+		}
+		final int generation = ++mGeneration;
+		mVisibleTiles.clear();
+		final int sampleSize = sampleSizeFor(scale);
+		final int span = mTileSize * sampleSize;
+		final int left = Math.max(0, viewport.left);
+		final int top = Math.max(0, viewport.top);
+		if (viewport.right > left && viewport.bottom > top) {
+			for (int row = top / span; row <= (viewport.bottom - 1) / span; row++) {
+				for (int col = left / span; col <= (viewport.right - 1) / span; col++) {
+					final long key = keyOf(sampleSize, col, row);
+					Tile tile = mTiles.get(key);
+					if (tile == null) {
+						tile = new Tile(key, new Rect(col * span, row * span, (col + 1) * span, (row + 1) * span), sampleSize);
+						mTiles.put(key, tile);
+						load(tile);
+					}
+					tile.generation = generation;
+					mVisibleTiles.add(tile);
+				}
+			}
+		}
+		cancelInvisibleTiles();
+		trimCache();
+	}
+
+	/**
+	 * Creates a key for a tile with the specified parameters.
+	 *
+	 * @param sampleSize The sample size of the tile.
+	 * @param col        The column of the tile.
+	 * @param row        The row of the tile.
+	 * @return Key identifying the tile.
+	 */
+	private static long keyOf(int sampleSize, int col, int row) {
+		return ((long) sampleSize << 48) | ((long) row << 24) | col;
+	}
+
+	/**
+	 * Returns the tiles covering the viewport specified via {@link #setViewport(Rect, float)}.
+	 * Tiles of which bitmaps have not been loaded yet have theirs {@link Tile#bitmap()} {@code null}.
+	 *
+	 * @return List of visible tiles.
+	 */
+	@NonNull
+	public List<Tile> getVisibleTiles() {
+		return Collections.unmodifiableList(mVisibleTiles);
+	}
+
+	/**
+	 * Starts loading of the specified <var>tile</var> on the decoding thread.
+	 *
+	 * @param tile The tile to be loaded.
+	 */
+	private void load(final Tile tile) {
+		tile.future = executor().submit(new Runnable() {
+
+			/**
+			 */
+			@Override
+			public void run() {
+				Bitmap bitmap = null;
+				ImageLoader.Error error = null;
+				try {
+					bitmap = decode(tile);
+				} catch (ImageLoader.Error e) {
+					error = e;
+				}
+				final Bitmap result = bitmap;
+				final ImageLoader.Error resultError = error;
+				mHandler.post(new Runnable() {
+
+					/**
+					 */
+					@Override
+					public void run() {
+						onTileDecoded(tile, result, resultError);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Decodes bitmap of the specified <var>tile</var>, reusing bitmaps of evicted tiles if supported
+	 * by the image loader.
+	 *
+	 * @param tile The tile to decode.
+	 * @return Decoded bitmap or {@code null} if the tile is outside of the image.
+	 */
+	@Nullable
+	private Bitmap decode(Tile tile) {
+		if (mLoader instanceof BaseImageLoader) {
+			return ((BaseImageLoader) mLoader).loadRegion(mTask, tile.region, tile.sampleSize, mBitmapPool);
+		}
+		return mLoader.loadRegion(mTask, tile.region, tile.sampleSize);
+	}
+
+	/**
+	 * Invoked on the main thread whenever decoding of the specified <var>tile</var> has finished.
+	 *
+	 * @param tile   The decoded tile.
+	 * @param bitmap The decoded bitmap. May be {@code null} if decoding has failed or the tile is
+	 *               outside of the image.
+	 * @param error  The error due to which decoding has failed. May be {@code null}.
+	 */
+	private void onTileDecoded(Tile tile, Bitmap bitmap, ImageLoader.Error error) {
+		tile.future = null;
+		if (tile.cancelled) {
+			if (bitmap != null && !mReleased) mBitmapPool.put(bitmap);
+			return;
+		}
+		if (error != null) {
+			mTiles.remove(tile.key);
+			mCallback.onTileLoadFailed(this, tile, error);
+			return;
+		}
+		if (bitmap == null) {
+			// The tile is outside of the image, so it is kept as loaded without any bitmap.
+			return;
+		}
+		tile.bitmap = bitmap;
+		this.mCacheSize += BitmapPool.byteCountOf(bitmap);
+		trimCache();
+		mCallback.onTileLoaded(this, tile);
+	}
+
+	/**
+	 * Cancels loading of all tiles that are not visible.
+	 */
+	private void cancelInvisibleTiles() {
+		final Iterator<Tile> iterator = mTiles.values().iterator();
+		while (iterator.hasNext()) {
+			final Tile tile = iterator.next();
+			if (tile.future != null && tile.generation != mGeneration) {
+				cancel(tile);
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Evicts the least recently visible tiles until size of the cache is not greater than its
+	 * maximum size. Bitmaps of the evicted tiles are pooled for reuse.
+	 */
+	private void trimCache() {
+		final Iterator<Tile> iterator = mTiles.values().iterator();
+		while (mCacheSize > mMaxCacheSize && iterator.hasNext()) {
+			final Tile tile = iterator.next();
+			if (tile.bitmap != null && tile.generation != mGeneration) {
+				iterator.remove();
+				this.mCacheSize -= BitmapPool.byteCountOf(tile.bitmap);
+				if (!mBitmapPool.put(tile.bitmap)) tile.bitmap.recycle();
+				tile.bitmap = null;
+			}
+		}
+	}
+
+	/**
+	 * Cancels loading of the specified <var>tile</var>. If the tile is already being decoded, its
+	 * bitmap is pooled once decoded.
+	 *
+	 * @param tile The tile of which loading to cancel.
+	 */
+	private static void cancel(Tile tile) {
+		tile.cancelled = true;
+		tile.future.cancel(false);
+	}
+
+	/**
+	 * Drops all tiles loaded so far and cancels loading of the loading ones.
+	 */
+	private void clearTiles() {
+		for (final Tile tile : mTiles.values()) {
+			if (tile.future != null) cancel(tile);
+			tile.bitmap = null;
+		}
+		mTiles.clear();
+		mVisibleTiles.clear();
+		this.mCacheSize = 0;
+	}
+
+	/**
+	 * Returns the executor used to decode tiles, creating it if needed. The executor runs a single
+	 * thread that terminates when idle, as the regions of one image are decoded sequentially anyway.
+	 *
+	 * @return Decoding executor.
+	 */
+	private ExecutorService executor() {
+		if (mExecutor == null) {
+			this.mExecutor = new ThreadPoolExecutor(
+					0,
+					1,
+					KEEP_ALIVE_TIME,
+					TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactory() {
+
+						/**
+						 */
+						@Override
+						public Thread newThread(@NonNull Runnable runnable) {
+							return new Thread(runnable, "ImageLoader-Tiles");
+						}
+					}
+			);
+		}
+		return mExecutor;
+	}
+
+	/**
+	 * Releases this loader by cancelling loading of all tiles and dropping all loaded ones. The
+	 * loader should not be used anymore after this call.
+	 */
+	public void release() {
+		if (mReleased) {
+			return;
+		}
+		this.mReleased = true;
+		clearTiles();
+		mBitmapPool.clear();
+		if (mExecutor != null) mExecutor.shutdown();
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+
+	/**
+	 * A single tile of the image loaded via {@link TileLoader}.
+	 *
+	 * @author Martin Albedinsky
+	 */
+	public static final class Tile {
+
+		/**
+		 * Key identifying this tile.
+		 */
+		final long key;
+
+		/**
+		 * Region of the image covered by this tile in the image's coordinates. The region may exceed
+		 * bounds of the image for tiles at its right and bottom edges, in which case the bitmap
+		 * covers only the part within the image.
+		 */
+		@NonNull
+		public final Rect region;
+
+		/**
+		 * Sample size with which is this tile decoded.
+		 */
+		public final int sampleSize;
+
+		/**
+		 * Decoded bitmap of this tile. May be {@code null} if not loaded yet.
+		 */
+		Bitmap bitmap;
+
+		/**
+		 * Future of the loading of this tile. May be {@code null} if not loading.
+		 */
+		Future<?> future;
+
+		/**
+		 * Flag indicating whether loading of this tile has been cancelled.
+		 */
+		boolean cancelled;
+
+		/**
+		 * Generation of the last viewport in which has been this tile visible.
+		 */
+		int generation;
+
+		/**
+		 * Creates a new instance of Tile with the specified parameters.
+		 *
+		 * @param key        The key identifying the tile.
+		 * @param region     The region of the image covered by the tile.
+		 * @param sampleSize The sample size with which to decode the tile.
+		 */
+		Tile(long key, Rect region, int sampleSize) {
+			this.key = key;
+			this.region = region;
+			this.sampleSize = sampleSize;
+		}
+
+		/**
+		 * Returns the decoded bitmap of this tile.
+		 *
+		 * @return Tile bitmap or {@code null} if not loaded yet or if the tile is outside of the image.
+		 */
+		@Nullable
+		public Bitmap bitmap() {
+			return bitmap;
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+/**
+ * An {@link ImageTransformation} implementation that applies a sequence of transformations one
+ * after another.
+ * <p>
+ * Each intermediate bitmap is put back into the pool as soon as the next transformation has been
+ * applied, so a chain of any length allocates at most the bitmaps that the pool cannot provide.
+ * Key of the chain is composed of keys of all its transformations in the order in which they are
+ * applied.
+ *
+ * @author Martin Albedinsky
+ */
+public final class TransformationChain implements ImageTransformation {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "TransformationChain";
+
+	/**
+	 * Separator of keys of the chained transformations.
+	 */
+	private static final char KEY_SEPARATOR = '|';
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Transformations applied by this chain.
+	 */
+	private final ImageTransformation[] mTransformations;
+
+	/**
+	 * Key composed of keys of {@link #mTransformations}.
+	 */
+	private final String mKey;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of TransformationChain with the specified <var>transformations</var>.
+	 *
+	 * @param transformations The transformations to be applied in the specified order.
+	 * @throws IllegalArgumentException If there are no transformations specified.
+	 */
+	public TransformationChain(@NonNull ImageTransformation... transformations) {
+		if (transformations.length == 0) {
+			throw new IllegalArgumentException("At least one transformation must be specified.");
+		}
+		this.mTransformations = transformations.clone();
+		final StringBuilder key = new StringBuilder();
+		for (final ImageTransformation transformation : mTransformations) {
+			if (key.length() > 0) key.append(KEY_SEPARATOR);
+			key.append(transformation.getKey());
+		}
+		this.mKey = key.toString();
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 */
+	@NonNull
+	@Override
+	public String getKey() {
+		return mKey;
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	public Bitmap transform(@NonNull Bitmap source, @NonNull BitmapPool pool) {
+		Bitmap bitmap = source;
+		for (final ImageTransformation transformation : mTransformations) {
+			final Bitmap transformed = transformation.transform(bitmap, pool);
+			if (transformed != bitmap && bitmap != source && !pool.put(bitmap)) {
+				bitmap.recycle();
+			}
+			bitmap = transformed;
+		}
+		return bitmap;
+	}
+
+	/**
+	 */
+	@Override
+	public String toString() {
+		return "TransformationChain{" + mKey + "}";
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+/**
+ * Interface for transformations that may be applied to bitmaps loaded via core {@link ImageTask}.
+ *
+ * @author Martin Albedinsky
+ */
+public interface BitmapTransformation {
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the key that uniquely identifies this transformation. The key is used as part of the
+	 * cache key under which are transformed bitmaps stored in memory cache.
+	 *
+	 * @return This transformation's key.
+	 */
+	@NonNull
+	String getKey();
+
+	/**
+	 * Transforms the specified <var>source</var> bitmap.
+	 * <p>
+	 * If the returned bitmap is not the same as the source one, the source bitmap is no longer used
+	 * by the loader.
+	 *
+	 * @param source The bitmap to be transformed.
+	 * @return Transformed bitmap. May be the same as the source one if it has been transformed in place.
+	 */
+	@NonNull
+	Bitmap transform(@NonNull Bitmap source);
+}
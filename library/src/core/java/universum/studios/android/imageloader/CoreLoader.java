@@ -0,0 +1,515 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Image loader that performs the whole <b>fetch &rarr; decode &rarr; transform &rarr; deliver</b>
+ * pipeline on its own without any third-party loader library.
+ * <p>
+ * Fetching is performed on a dedicated IO executor while decoding and transforming is performed on
+ * a separate decode executor bounded by the count of available processors. Decoded bitmaps are
+ * stored in {@link MemoryCache} and fetched remote data in {@link DiskCache}. Results are delivered
+ * on the main thread.
+ *
+ * @author Martin Albedinsky
+ */
+public final class CoreLoader {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "CoreLoader";
+
+	/**
+	 * Count of threads used to fetch image data.
+	 */
+	static final int FETCH_THREAD_COUNT = 4;
+
+	/**
+	 * Maximum count of threads used to decode and transform bitmaps.
+	 */
+	static final int MAX_DECODE_THREAD_COUNT = 4;
+
+	/**
+	 * Time in seconds for which may be idle executor threads kept alive.
+	 */
+	private static final int THREAD_KEEP_ALIVE_TIME = 30;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Cache used to store decoded bitmaps.
+	 */
+	private final MemoryCache mMemoryCache;
+
+	/**
+	 * Cache used to store fetched remote data.
+	 */
+	private final DiskCache mDiskCache;
+
+	/**
+	 * Pool of bitmaps reused for decoding.
+	 */
+	private final BitmapPool mBitmapPool;
+
+	/**
+	 * Fetcher used to obtain image sources.
+	 */
+	private final Fetcher mFetcher;
+
+	/**
+	 * Decoder used to decode bitmaps from image sources.
+	 */
+	private final Decoder mDecoder;
+
+	/**
+	 * Executor used to fetch image data.
+	 */
+	final PriorityExecutor mFetchExecutor;
+
+	/**
+	 * Executor used to decode and transform bitmaps.
+	 */
+	final PriorityExecutor mDecodeExecutor;
+
+	/**
+	 * Handler used to deliver results on the main thread.
+	 */
+	private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+	/**
+	 * Map of requests that are currently bound to theirs image views. Accessed only from the main thread.
+	 */
+	private final Map<ImageView, LoadRequest> mViewRequests = new WeakHashMap<>();
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Same as {@link #CoreLoader(Context, MemoryCache, DiskCache, BitmapPool)} with default caches
+	 * and bitmap pool.
+	 *
+	 * @see MemoryCache#defaultSize()
+	 * @see DiskCache#defaultDirectory(Context)
+	 * @see DiskCache#DEFAULT_SIZE
+	 * @see BitmapPool#defaultSize()
+	 */
+	public CoreLoader(@NonNull Context context) {
+		this(
+				context,
+				new MemoryCache(),
+				new DiskCache(DiskCache.defaultDirectory(context), DiskCache.DEFAULT_SIZE),
+				new BitmapPool()
+		);
+	}
+
+	/**
+	 * Creates a new instance of CoreLoader with the specified caches.
+	 * <p>
+	 * Bitmaps evicted or removed from the memory cache are released into the specified bitmap pool
+	 * unless they are still displayed or retained by a client.
+	 *
+	 * @param context     Context used to access local content.
+	 * @param memoryCache The cache where to store decoded bitmaps.
+	 * @param diskCache   The cache where to store fetched remote data.
+	 * @param bitmapPool  The pool of bitmaps to be reused for decoding. May be {@code null} to not
+	 *                    reuse bitmaps.
+	 */
+	public CoreLoader(@NonNull Context context, @NonNull MemoryCache memoryCache, @NonNull DiskCache diskCache, @Nullable BitmapPool bitmapPool) {
+		this.mMemoryCache = memoryCache;
+		this.mDiskCache = diskCache;
+		this.mBitmapPool = bitmapPool;
+		this.mMemoryCache.setBitmapPool(bitmapPool);
+		this.mFetcher = new Fetcher(context.getApplicationContext().getContentResolver(), diskCache);
+		this.mDecoder = new Decoder(bitmapPool);
+		this.mFetchExecutor = createExecutor(FETCH_THREAD_COUNT, "Fetch");
+		this.mDecodeExecutor = createExecutor(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, MAX_DECODE_THREAD_COUNT)), "Decode");
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Creates a new executor with the specified count of background threads that executes requests
+	 * ordered by theirs priorities.
+	 *
+	 * @param threadCount Count of threads for the executor.
+	 * @param name        Name used for the executor's threads.
+	 * @return New executor.
+	 */
+	private static PriorityExecutor createExecutor(int threadCount, final String name) {
+		return new PriorityExecutor(
+				threadCount,
+				new ThreadFactory() {
+
+					/**
+					 * Counter used to number created threads.
+					 */
+					private final AtomicInteger counter = new AtomicInteger();
+
+					/**
+					 */
+					@Override
+					public Thread newThread(@NonNull final Runnable runnable) {
+						return new Thread(new Runnable() {
+
+							/**
+							 */
+							@Override
+							public void run() {
+								Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+								runnable.run();
+							}
+						}, "ImageLoader-" + name + "-" + counter.incrementAndGet());
+					}
+				}
+		);
+	}
+
+	/**
+	 * Specifies a mode determining in which order should be executed requests with the same priority.
+	 * {@link PriorityExecutor#SCHEDULING_LIFO} may be used to load images of the most recently bound
+	 * views first, for example while scrolling a list.
+	 *
+	 * @param mode The desired mode. One of {@link PriorityExecutor#SCHEDULING_FIFO} or
+	 *             {@link PriorityExecutor#SCHEDULING_LIFO}.
+	 * @see #getSchedulingMode()
+	 */
+	public void setSchedulingMode(@PriorityExecutor.SchedulingMode int mode) {
+		mFetchExecutor.setSchedulingMode(mode);
+		mDecodeExecutor.setSchedulingMode(mode);
+	}
+
+	/**
+	 * Returns the current scheduling mode of this loader.
+	 *
+	 * @return Scheduling mode. One of {@link PriorityExecutor#SCHEDULING_FIFO} or
+	 * {@link PriorityExecutor#SCHEDULING_LIFO}.
+	 * @see #setSchedulingMode(int)
+	 */
+	@PriorityExecutor.SchedulingMode
+	public int getSchedulingMode() {
+		return mFetchExecutor.getSchedulingMode();
+	}
+
+	/**
+	 * Returns the memory cache used by this loader.
+	 *
+	 * @return This loader's memory cache.
+	 */
+	@NonNull
+	public MemoryCache getMemoryCache() {
+		return mMemoryCache;
+	}
+
+	/**
+	 * Returns the disk cache used by this loader.
+	 *
+	 * @return This loader's disk cache.
+	 */
+	@NonNull
+	public DiskCache getDiskCache() {
+		return mDiskCache;
+	}
+
+	/**
+	 * Returns the bitmap pool used by this loader.
+	 *
+	 * @return This loader's bitmap pool or {@code null} if this loader does not reuse bitmaps.
+	 */
+	@Nullable
+	public BitmapPool getBitmapPool() {
+		return mBitmapPool;
+	}
+
+	/**
+	 * Enqueues the specified <var>request</var> to be executed by this loader. If there is already
+	 * bitmap for the request stored in the memory cache, it is delivered immediately.
+	 * <p>
+	 * This method should be called only from the main thread.
+	 *
+	 * @param request The request to be executed.
+	 */
+	void enqueue(@NonNull LoadRequest request) {
+		final ImageView view = request.view;
+		if (view != null) {
+			final LoadRequest current = mViewRequests.remove(view);
+			if (current != null) cancelQueued(current);
+			if (mBitmapPool != null) mBitmapPool.detach(view);
+		}
+		final Bitmap bitmap = mMemoryCache.get(request.key);
+		request.task.recordCacheLookup(ImageLoader.Metrics.CACHE_MEMORY, bitmap != null);
+		if (bitmap != null) {
+			request.deliver(bitmap, true);
+			return;
+		}
+		if (view != null) mViewRequests.put(view, request);
+		mFetchExecutor.execute(request);
+	}
+
+	/**
+	 * Enqueues the specified preload <var>request</var> to be executed by this loader. Requests that
+	 * should be decoded are skipped if there is already bitmap for them stored in the memory cache.
+	 *
+	 * @param request The preload request to be executed.
+	 * @see LoadRequest#forPreload(CoreLoader, ImageTask, int)
+	 */
+	void preload(@NonNull LoadRequest request) {
+		if (!request.fetchOnly && mMemoryCache.get(request.key) != null) {
+			return;
+		}
+		mFetchExecutor.execute(request);
+	}
+
+	/**
+	 * Cancels the specified <var>request</var> and interrupts its fetching or decoding if it is
+	 * currently running.
+	 * <p>
+	 * This method should be called only from the main thread.
+	 *
+	 * @param request The request to be cancelled.
+	 * @return {@code True} if the request has been cancelled, {@code false} if it has been already
+	 * finished or cancelled before.
+	 */
+	boolean cancel(@NonNull LoadRequest request) {
+		if (request.view != null) unbindView(request.view, request);
+		return cancelQueued(request);
+	}
+
+	/**
+	 * Cancels the specified <var>request</var> and removes it from queues of the executors, so it
+	 * does not stay queued until it would be taken by a thread only to find out it has been cancelled.
+	 *
+	 * @param request The request to be cancelled.
+	 * @return {@code True} if the request has been cancelled, {@code false} otherwise.
+	 */
+	private boolean cancelQueued(LoadRequest request) {
+		if (!request.cancel()) {
+			return false;
+		}
+		mFetchExecutor.remove(request);
+		mDecodeExecutor.remove(request);
+		return true;
+	}
+
+	/**
+	 * Unbinds the specified <var>request</var> from the given image <var>view</var>.
+	 *
+	 * @param view    The view from which to unbind the request.
+	 * @param request The request to be unbound.
+	 * @return {@code True} if the request has been bound to the view, {@code false} if the view has
+	 * been in the meantime bound to another request.
+	 */
+	boolean unbindView(@NonNull ImageView view, @NonNull LoadRequest request) {
+		if (mViewRequests.get(view) == request) {
+			mViewRequests.remove(view);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the specified <var>request</var> is currently bound to the given image <var>view</var>.
+	 *
+	 * @param view    The view to check.
+	 * @param request The request to check.
+	 * @return {@code True} if the request is bound to the view, {@code false} otherwise.
+	 */
+	boolean isViewBound(@NonNull ImageView view, @NonNull LoadRequest request) {
+		return mViewRequests.get(view) == request;
+	}
+
+	/**
+	 * Posts the specified <var>runnable</var> to be run on the main thread.
+	 *
+	 * @param runnable The runnable to be posted.
+	 */
+	void postToMain(@NonNull Runnable runnable) {
+		mMainHandler.post(runnable);
+	}
+
+	/**
+	 * Fetches source of the image data for target of the specified <var>request</var>.
+	 *
+	 * @param request The request for which to fetch the image source.
+	 * @return Image source ready to be decoded.
+	 * @throws ImageLoader.Error If fetching fails.
+	 */
+	@NonNull
+	ImageSource fetch(@NonNull LoadRequest request) {
+		return mFetcher.fetch(request.target, request);
+	}
+
+	/**
+	 * Fetches file with the image data of the specified <var>target</var>, downloading it into the
+	 * disk cache if needed.
+	 *
+	 * @param target The target of which file to fetch.
+	 * @return File with the image data or {@code null} if the target is not backed by a file.
+	 * @throws ImageLoader.Error If fetching fails.
+	 */
+	@Nullable
+	File fetchFile(@NonNull String target) {
+		final ImageSource source = mFetcher.fetch(target, null);
+		return source instanceof ImageSource.FileSource ? ((ImageSource.FileSource) source).file : null;
+	}
+
+	/**
+	 * Decodes bitmap from the specified <var>source</var> for the specified <var>request</var>,
+	 * applies the requested transformations to it and stores the result in memory cache.
+	 *
+	 * @param source  The source from which to decode the bitmap.
+	 * @param request The request for which to decode the bitmap.
+	 * @return Decoded and transformed bitmap.
+	 * @throws ImageLoader.Error If decoding fails.
+	 */
+	@NonNull
+	Bitmap decode(@NonNull ImageSource source, @NonNull LoadRequest request) {
+		Bitmap bitmap = mDecoder.decode(source, request.newDecodeOptions(mBitmapPool != null), request.width, request.height, request.centerCrop, request.preferRgb565);
+		request.task.recordBitmapDecoded(bitmap);
+		final BitmapTransformation transformation = request.transformation;
+		if (transformation != null) {
+			final Bitmap transformed = transformation.transform(bitmap);
+			if (transformed != bitmap && (mBitmapPool == null || !mBitmapPool.put(bitmap))) {
+				bitmap.recycle();
+			}
+			bitmap = transformed;
+		}
+		final ImageTransformation imageTransformation = request.imageTransformation;
+		if (imageTransformation != null) {
+			final BitmapPool pool = mBitmapPool == null ? BaseImageTask.transformationPool() : mBitmapPool;
+			final Bitmap transformed = imageTransformation.transform(bitmap, pool);
+			if (transformed != bitmap && !pool.put(bitmap)) {
+				bitmap.recycle();
+			}
+			bitmap = transformed;
+		}
+		mMemoryCache.put(request.key, bitmap);
+		return bitmap;
+	}
+
+	/**
+	 * Performs the whole loading pipeline for the specified <var>request</var> <b>synchronously</b>
+	 * on the current thread.
+	 *
+	 * @param request The request to be executed.
+	 * @return Loaded bitmap.
+	 * @throws ImageLoader.Error If loading fails.
+	 */
+	@NonNull
+	Bitmap execute(@NonNull LoadRequest request) {
+		if (Looper.myLooper() == Looper.getMainLooper()) {
+			throw new IllegalStateException("Synchronous loading cannot be performed on the main thread.");
+		}
+		Bitmap bitmap = mMemoryCache.get(request.key);
+		request.task.recordCacheLookup(ImageLoader.Metrics.CACHE_MEMORY, bitmap != null);
+		if (bitmap == null) bitmap = decode(fetch(request), request);
+		onBitmapRetained(bitmap);
+		return bitmap;
+	}
+
+	/**
+	 * Called whenever the specified <var>bitmap</var> has been attached to the given image <var>view</var>.
+	 *
+	 * @param view   The view to which has been the bitmap attached.
+	 * @param bitmap The attached bitmap.
+	 */
+	void onBitmapAttached(@NonNull ImageView view, @NonNull Bitmap bitmap) {
+		if (mBitmapPool != null) mBitmapPool.attach(view, bitmap);
+	}
+
+	/**
+	 * Called whenever the specified <var>bitmap</var> has been handed out to a client, so it must
+	 * not be ever reused.
+	 *
+	 * @param bitmap The retained bitmap.
+	 */
+	void onBitmapRetained(@NonNull Bitmap bitmap) {
+		if (mBitmapPool != null) mBitmapPool.retain(bitmap);
+	}
+
+	/**
+	 * Pauses fetching and decoding of images. Requests for which there are bitmaps stored in the
+	 * memory cache are still delivered.
+	 *
+	 * @see #resume()
+	 */
+	void pause() {
+		mFetchExecutor.pause();
+		mDecodeExecutor.pause();
+	}
+
+	/**
+	 * Resumes fetching and decoding of images paused via {@link #pause()}.
+	 */
+	void resume() {
+		mFetchExecutor.resume();
+		mDecodeExecutor.resume();
+	}
+
+	/**
+	 * Shuts down executors of this loader. Already running requests are finished, but theirs
+	 * results are not delivered.
+	 */
+	void shutdown() {
+		for (final LoadRequest request : mViewRequests.values()) {
+			request.cancel();
+		}
+		mViewRequests.clear();
+		mFetchExecutor.shutdownNow();
+		mDecodeExecutor.shutdownNow();
+		mMemoryCache.evictAll();
+		if (mBitmapPool != null) mBitmapPool.clear();
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
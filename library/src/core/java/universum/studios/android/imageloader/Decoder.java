@@ -0,0 +1,221 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Decoder used by {@link CoreLoader} to decode bitmaps from {@link ImageSource ImageSources}.
+ *
+ * @author Martin Albedinsky
+ */
+final class Decoder {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "Decoder";
+
+	/**
+	 * Mime type of the image format that cannot contain transparency.
+	 */
+	private static final String OPAQUE_MIME_TYPE = "image/jpeg";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Pool from which to obtain bitmaps to be reused for decoding. May be {@code null}.
+	 */
+	private final BitmapPool mBitmapPool;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of Decoder with the specified <var>bitmapPool</var>.
+	 *
+	 * @param bitmapPool The pool from which to obtain bitmaps to be reused for decoding. May be
+	 *                   {@code null} to always decode into a newly allocated bitmap.
+	 */
+	Decoder(@Nullable BitmapPool bitmapPool) {
+		this.mBitmapPool = bitmapPool;
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Decodes bitmap from the specified <var>source</var>.
+	 * <p>
+	 * If the requested size is specified, the image is decoded with the largest sub-sampling that
+	 * still preserves the requested size and then scaled down exactly, so the decoded bitmap is
+	 * never larger than the requested size. If there is a suitable bitmap in the bitmap pool, it is
+	 * reused for the decoding.
+	 * <p>
+	 * The image is decoded in config specified by the <var>options</var>, unless <var>preferRgb565</var>
+	 * is requested and the image is a JPEG, in which case it is decoded in {@link Bitmap.Config#RGB_565}.
+	 *
+	 * @param source       The source from which to decode the bitmap.
+	 * @param options      The options to be used for decoding. May be used to cancel the decoding.
+	 * @param width        The requested width. May be {@code 0} to not resize.
+	 * @param height       The requested height. May be {@code 0} to not resize.
+	 * @param centerCrop   {@code True} to scale the image so it fills the requested size and then
+	 *                     crop it, {@code false} to scale the image so it fits inside the requested size.
+	 * @param preferRgb565 {@code True} to decode an opaque image in {@link Bitmap.Config#RGB_565},
+	 *                     {@code false} otherwise.
+	 * @return Decoded bitmap.
+	 * @throws ImageLoader.Error If decoding fails.
+	 */
+	@NonNull
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	Bitmap decode(@NonNull ImageSource source, @NonNull BitmapFactory.Options options, int width, int height, boolean centerCrop, boolean preferRgb565) {
+		final boolean resize = width > 0 && height > 0;
+		final boolean reuse = mBitmapPool != null && BitmapPool.isSupported();
+		Bitmap bitmap;
+		try {
+			if (resize || reuse || preferRgb565) {
+				options.inJustDecodeBounds = true;
+				source.decode(options);
+				options.inJustDecodeBounds = false;
+				if (resize) {
+					options.inSampleSize = computeSampleSize(options.outWidth, options.outHeight, width, height, centerCrop);
+				}
+				if (preferRgb565 && OPAQUE_MIME_TYPE.equals(options.outMimeType)) {
+					options.inPreferredConfig = Bitmap.Config.RGB_565;
+				}
+			}
+			if (reuse && mBitmapPool.applyInBitmap(options)) {
+				try {
+					bitmap = source.decode(options);
+				} catch (IllegalArgumentException e) {
+					// Pooled bitmap could not be reused for this image.
+					mBitmapPool.put(options.inBitmap);
+					options.inBitmap = null;
+					bitmap = source.decode(options);
+				}
+			} else {
+				bitmap = source.decode(options);
+			}
+			if (bitmap != null && resize) {
+				bitmap = scale(bitmap, width, height, centerCrop);
+			}
+		} catch (IOException e) {
+			throw new ImageLoader.Error(ImageLoader.Error.REASON_IO, "Failed to decode image.", e);
+		} catch (OutOfMemoryError e) {
+			throw new ImageLoader.Error(ImageLoader.Error.REASON_MEMORY, "Failed to decode image.", e);
+		}
+		if (bitmap == null) {
+			throw new ImageLoader.Error(ImageLoader.Error.REASON_DECODING, "Failed to decode image.");
+		}
+		return bitmap;
+	}
+
+	/**
+	 * Computes the largest power of 2 sample size for an image with the specified source dimensions
+	 * that still preserves the requested dimensions.
+	 *
+	 * @param sourceWidth  Width of the source image.
+	 * @param sourceHeight Height of the source image.
+	 * @param width        The requested width.
+	 * @param height       The requested height.
+	 * @param centerCrop   {@code True} if both requested dimensions need to be preserved, {@code false}
+	 *                     if the image will be scaled to fit inside the requested dimensions.
+	 * @return Sample size to be used as {@link BitmapFactory.Options#inSampleSize}.
+	 */
+	static int computeSampleSize(int sourceWidth, int sourceHeight, int width, int height, boolean centerCrop) {
+		int sampleSize = 1;
+		if (centerCrop) {
+			while (sourceWidth / (sampleSize * 2) >= width && sourceHeight / (sampleSize * 2) >= height) {
+				sampleSize *= 2;
+			}
+		} else {
+			while (sourceWidth / (sampleSize * 2) >= width || sourceHeight / (sampleSize * 2) >= height) {
+				sampleSize *= 2;
+			}
+		}
+		return sampleSize;
+	}
+
+	/**
+	 * Scales down the specified <var>source</var> bitmap to the requested dimensions. Bitmaps
+	 * smaller than the requested dimensions are never scaled up.
+	 *
+	 * @param source     The bitmap to be scaled.
+	 * @param width      The requested width.
+	 * @param height     The requested height.
+	 * @param centerCrop {@code True} to scale the bitmap so it fills the requested dimensions and
+	 *                   crop it, {@code false} to scale it so it fits inside the requested dimensions.
+	 * @return Scaled bitmap or the source one if no scaling was necessary.
+	 */
+	@NonNull
+	private Bitmap scale(Bitmap source, int width, int height, boolean centerCrop) {
+		final int sourceWidth = source.getWidth();
+		final int sourceHeight = source.getHeight();
+		final float scale = Math.min(1f, centerCrop ?
+				Math.max((float) width / sourceWidth, (float) height / sourceHeight) :
+				Math.min((float) width / sourceWidth, (float) height / sourceHeight)
+		);
+		final int scaledWidth = Math.max(1, Math.round(sourceWidth * scale));
+		final int scaledHeight = Math.max(1, Math.round(sourceHeight * scale));
+		final int outputWidth = centerCrop ? Math.min(width, scaledWidth) : scaledWidth;
+		final int outputHeight = centerCrop ? Math.min(height, scaledHeight) : scaledHeight;
+		if (outputWidth == sourceWidth && outputHeight == sourceHeight) {
+			return source;
+		}
+		final Bitmap.Config config = source.getConfig() == null ? Bitmap.Config.ARGB_8888 : source.getConfig();
+		Bitmap output = mBitmapPool == null ? null : mBitmapPool.get(outputWidth, outputHeight, config);
+		if (output == null) output = Bitmap.createBitmap(outputWidth, outputHeight, config);
+		final Matrix matrix = new Matrix();
+		matrix.setScale(scale, scale);
+		matrix.postTranslate((outputWidth - scaledWidth) / 2f, (outputHeight - scaledHeight) / 2f);
+		new Canvas(output).drawBitmap(source, matrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+		if (mBitmapPool == null || !mBitmapPool.put(source)) source.recycle();
+		return output;
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,482 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simple disk cache that is bounded by a total <b>byte</b> size of the stored files and evicts the
+ * least recently used files first. Used by {@link CoreLoader} to store fetched image data.
+ * <p>
+ * Files are stored under names computed as <b>MD5</b> hash of theirs keys. Access order of the
+ * files is persisted via theirs last modified time, so it survives restarts of the process. Keys
+ * of the stored files are persisted in a journal file, so they may be listed via {@link #keys()}.
+ *
+ * @author Martin Albedinsky
+ */
+public final class DiskCache {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "DiskCache";
+
+	/**
+	 * Default maximum size of the disk cache in bytes.
+	 */
+	public static final long DEFAULT_SIZE = 50 * 1024 * 1024;
+
+	/**
+	 * Name of the default cache directory.
+	 */
+	private static final String DEFAULT_DIRECTORY_NAME = "image-loader";
+
+	/**
+	 * Suffix for files into which are data written before they are committed into the cache.
+	 */
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	/**
+	 * Name of the file into which are written keys of the stored files.
+	 */
+	private static final String JOURNAL_FILE_NAME = "journal";
+
+	/**
+	 * Separator of the file name and the key within a single line of the journal.
+	 */
+	private static final char JOURNAL_SEPARATOR = '\t';
+
+	/**
+	 * Count of redundant lines in the journal above which is the journal rewritten.
+	 */
+	private static final int JOURNAL_MAX_REDUNDANT_LINES = 1000;
+
+	/**
+	 * Size of the buffer used to copy data into the cache files.
+	 */
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	/**
+	 * Array with hexadecimal digits used to build file names.
+	 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Directory where are the cache files stored.
+	 */
+	private final File mDirectory;
+
+	/**
+	 * Maximum size of this cache in bytes.
+	 */
+	private final long mMaxSize;
+
+	/**
+	 * Map of the cached file names along with theirs lengths in access order.
+	 */
+	private final LinkedHashMap<String, Long> mEntries = new LinkedHashMap<>(0, 0.75f, true);
+
+	/**
+	 * Map of keys of the cached files keyed by the file names.
+	 */
+	private final Map<String, String> mKeys = new HashMap<>();
+
+	/**
+	 * File into which are written keys of the stored files.
+	 */
+	private final File mJournalFile;
+
+	/**
+	 * Count of lines written in the journal file.
+	 */
+	private int mJournalLineCount;
+
+	/**
+	 * Current size of this cache in bytes.
+	 */
+	private long mSize;
+
+	/**
+	 * Flag indicating whether the entries of this cache has been already read from its directory.
+	 */
+	private boolean mInitialized;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of DiskCache for the specified <var>directory</var>.
+	 *
+	 * @param directory The directory where to store the cache files.
+	 * @param maxSize   The maximum size of the cache in bytes.
+	 */
+	public DiskCache(@NonNull File directory, long maxSize) {
+		if (maxSize <= 0) throw new IllegalArgumentException("Max size must be greater than 0.");
+		this.mDirectory = directory;
+		this.mMaxSize = maxSize;
+		this.mJournalFile = new File(directory, JOURNAL_FILE_NAME);
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the default directory for the disk cache within the cache directory of the specified
+	 * <var>context</var>.
+	 *
+	 * @param context The context used to access the application's cache directory.
+	 * @return Default cache directory.
+	 */
+	@NonNull
+	public static File defaultDirectory(@NonNull Context context) {
+		return new File(context.getCacheDir(), DEFAULT_DIRECTORY_NAME);
+	}
+
+	/**
+	 * Returns the maximum size of this cache.
+	 *
+	 * @return Maximum size in bytes.
+	 */
+	public long maxSize() {
+		return mMaxSize;
+	}
+
+	/**
+	 * Returns the current size of this cache.
+	 *
+	 * @return Current size in bytes.
+	 */
+	public synchronized long size() {
+		ensureInitialized();
+		return mSize;
+	}
+
+	/**
+	 * Returns keys of all files stored in this cache. Files stored by a version of this cache
+	 * without journal are not listed.
+	 *
+	 * @return List of keys.
+	 */
+	@NonNull
+	public synchronized List<String> keys() {
+		ensureInitialized();
+		return new ArrayList<>(mKeys.values());
+	}
+
+	/**
+	 * Returns the file stored in this cache for the specified <var>key</var>.
+	 *
+	 * @param key The key for which to return the cached file.
+	 * @return Cached file or {@code null} if there is no file stored for the key.
+	 */
+	@Nullable
+	public synchronized File get(@NonNull String key) {
+		ensureInitialized();
+		final String name = fileNameFor(key);
+		if (!mEntries.containsKey(name)) {
+			return null;
+		}
+		final File file = new File(mDirectory, name);
+		if (!file.exists()) {
+			this.mSize -= mEntries.remove(name);
+			mKeys.remove(name);
+			return null;
+		}
+		// Persist access order so it survives the process restart.
+		file.setLastModified(System.currentTimeMillis());
+		return file;
+	}
+
+	/**
+	 * Stores the whole content of the specified <var>stream</var> into this cache under the
+	 * specified <var>key</var>. The stream is not closed by this method.
+	 *
+	 * @param key    The key under which to store the data.
+	 * @param stream The stream with data to be stored.
+	 * @return The cached file.
+	 * @throws IOException If some IO error occurs while writing the data.
+	 */
+	@NonNull
+	public File put(@NonNull String key, @NonNull InputStream stream) throws IOException {
+		final String name = fileNameFor(key);
+		final File tempFile = new File(mDirectory, name + "." + Thread.currentThread().getId() + TEMP_FILE_SUFFIX);
+		synchronized (this) {
+			ensureInitialized();
+		}
+		final OutputStream output = new FileOutputStream(tempFile);
+		try {
+			final byte[] buffer = new byte[BUFFER_SIZE];
+			int count;
+			while ((count = stream.read(buffer)) != -1) {
+				output.write(buffer, 0, count);
+			}
+		} catch (IOException e) {
+			output.close();
+			tempFile.delete();
+			throw e;
+		}
+		output.close();
+		final File file = new File(mDirectory, name);
+		synchronized (this) {
+			if (!tempFile.renameTo(file)) {
+				tempFile.delete();
+				throw new IOException("Failed to commit cache file(" + file + ").");
+			}
+			final Long previousLength = mEntries.put(name, file.length());
+			if (previousLength != null) this.mSize -= previousLength;
+			this.mSize += file.length();
+			if (!key.equals(mKeys.put(name, key))) writeToJournal(name, key);
+			trimToSize(mMaxSize);
+		}
+		return file;
+	}
+
+	/**
+	 * Removes the file stored in this cache for the specified <var>key</var>.
+	 *
+	 * @param key The key for which to remove the cached file.
+	 * @return {@code True} if file has been removed, {@code false} if there was no file to remove.
+	 */
+	public synchronized boolean remove(@NonNull String key) {
+		ensureInitialized();
+		final String name = fileNameFor(key);
+		final Long length = mEntries.remove(name);
+		if (length == null) {
+			return false;
+		}
+		mKeys.remove(name);
+		this.mSize -= length;
+		return new File(mDirectory, name).delete();
+	}
+
+	/**
+	 * Removes all files stored in this cache.
+	 */
+	public synchronized void clear() {
+		ensureInitialized();
+		trimToSize(0);
+		rewriteJournal();
+	}
+
+	/**
+	 * Removes the least recently used files from this cache until its size is not greater than the
+	 * requested one.
+	 *
+	 * @param maxSize The requested maximum size in bytes.
+	 */
+	private void trimToSize(long maxSize) {
+		final Iterator<Map.Entry<String, Long>> iterator = mEntries.entrySet().iterator();
+		while (mSize > maxSize && iterator.hasNext()) {
+			final Map.Entry<String, Long> entry = iterator.next();
+			new File(mDirectory, entry.getKey()).delete();
+			mKeys.remove(entry.getKey());
+			this.mSize -= entry.getValue();
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Appends the specified <var>key</var> of a file with the given <var>name</var> to the journal.
+	 * The journal is rewritten instead if it contains too many lines of already removed files.
+	 * Keys that cannot be written in a single line are not journaled.
+	 *
+	 * @param name The name of the stored file.
+	 * @param key  The key of the stored file.
+	 */
+	private void writeToJournal(String name, String key) {
+		if (key.indexOf('\n') != -1 || key.indexOf('\r') != -1) {
+			return;
+		}
+		if (mJournalLineCount - mKeys.size() > JOURNAL_MAX_REDUNDANT_LINES) {
+			rewriteJournal();
+			return;
+		}
+		try {
+			final Writer writer = new OutputStreamWriter(new FileOutputStream(mJournalFile, true), "UTF-8");
+			try {
+				writer.write(name + JOURNAL_SEPARATOR + key + "\n");
+			} finally {
+				writer.close();
+			}
+			this.mJournalLineCount++;
+		} catch (IOException e) {
+			// Journal is used only to list the keys, so the file remains cached without its key.
+		}
+	}
+
+	/**
+	 * Reads keys of the stored files from the journal. Lines of files that are no longer stored
+	 * are skipped.
+	 */
+	private void readJournal() {
+		if (!mJournalFile.exists()) {
+			return;
+		}
+		try {
+			final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(mJournalFile), "UTF-8"));
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					this.mJournalLineCount++;
+					final int separatorIndex = line.indexOf(JOURNAL_SEPARATOR);
+					if (separatorIndex == -1) continue;
+					final String name = line.substring(0, separatorIndex);
+					if (mEntries.containsKey(name)) mKeys.put(name, line.substring(separatorIndex + 1));
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			// Keys that could not be read are just not listed.
+		}
+	}
+
+	/**
+	 * Rewrites the journal so it contains only keys of the currently stored files.
+	 */
+	private void rewriteJournal() {
+		final File tempFile = new File(mDirectory, JOURNAL_FILE_NAME + TEMP_FILE_SUFFIX);
+		try {
+			final Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), "UTF-8");
+			try {
+				for (final Map.Entry<String, String> entry : mKeys.entrySet()) {
+					writer.write(entry.getKey() + JOURNAL_SEPARATOR + entry.getValue() + "\n");
+				}
+			} finally {
+				writer.close();
+			}
+			if (tempFile.renameTo(mJournalFile)) {
+				this.mJournalLineCount = mKeys.size();
+				return;
+			}
+		} catch (IOException e) {
+			// Handled below.
+		}
+		tempFile.delete();
+	}
+
+	/**
+	 * Ensures that the entries of this cache are read from its directory. The directory is created
+	 * if it does not exist yet.
+	 */
+	private void ensureInitialized() {
+		if (mInitialized) {
+			return;
+		}
+		this.mInitialized = true;
+		if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+			return;
+		}
+		final File[] files = mDirectory.listFiles();
+		if (files == null) {
+			return;
+		}
+		Arrays.sort(files, new Comparator<File>() {
+
+			/**
+			 */
+			@Override
+			public int compare(File first, File second) {
+				final long firstModified = first.lastModified();
+				final long secondModified = second.lastModified();
+				return firstModified < secondModified ? -1 : (firstModified == secondModified ? 0 : 1);
+			}
+		});
+		for (final File file : files) {
+			if (file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+				file.delete();
+				continue;
+			}
+			if (file.equals(mJournalFile)) {
+				continue;
+			}
+			final long length = file.length();
+			mEntries.put(file.getName(), length);
+			this.mSize += length;
+		}
+		readJournal();
+		trimToSize(mMaxSize);
+		if (mJournalLineCount - mKeys.size() > JOURNAL_MAX_REDUNDANT_LINES) rewriteJournal();
+	}
+
+	/**
+	 * Computes name of the cache file for the specified <var>key</var>.
+	 *
+	 * @param key The key for which to compute the file name.
+	 * @return File name.
+	 */
+	static String fileNameFor(String key) {
+		try {
+			final byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes("UTF-8"));
+			final char[] name = new char[digest.length * 2];
+			for (int i = 0; i < digest.length; i++) {
+				name[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0x0f];
+				name[i * 2 + 1] = HEX_DIGITS[digest[i] & 0x0f];
+			}
+			return new String(name);
+		} catch (NoSuchAlgorithmException | IOException e) {
+			return Integer.toHexString(key.hashCode());
+		}
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
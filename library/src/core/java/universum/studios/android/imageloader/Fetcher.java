@@ -0,0 +1,183 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Fetcher used by {@link CoreLoader} to obtain {@link ImageSource ImageSources} for image targets.
+ * <p>
+ * Remote targets (<b>http</b>, <b>https</b>) are downloaded into {@link DiskCache} and served from
+ * there, local targets (<b>file</b>, <b>content</b>, <b>android.resource</b>) are accessed directly.
+ *
+ * @author Martin Albedinsky
+ */
+final class Fetcher {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "Fetcher";
+
+	/**
+	 * Timeout in milliseconds for connecting to a remote server.
+	 */
+	static final int CONNECT_TIMEOUT = 15000;
+
+	/**
+	 * Timeout in milliseconds for reading data from a remote server.
+	 */
+	static final int READ_TIMEOUT = 20000;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Resolver used to access local content.
+	 */
+	private final ContentResolver mContentResolver;
+
+	/**
+	 * Cache where to store downloaded data.
+	 */
+	private final DiskCache mDiskCache;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of Fetcher with the specified <var>contentResolver</var> and <var>diskCache</var>.
+	 *
+	 * @param contentResolver The resolver used to access local content.
+	 * @param diskCache       The cache where to store downloaded data.
+	 */
+	Fetcher(ContentResolver contentResolver, DiskCache diskCache) {
+		this.mContentResolver = contentResolver;
+		this.mDiskCache = diskCache;
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Fetches source of the image data for the specified <var>target</var>.
+	 *
+	 * @param target  The target for which to fetch the image source.
+	 * @param request The request for which is the source fetched. It is notified about opened
+	 *                connections, so it may close them when cancelled. May be {@code null}.
+	 * @return Image source ready to be decoded.
+	 * @throws ImageLoader.Error If the target is not supported or fetching fails.
+	 */
+	@NonNull
+	ImageSource fetch(@NonNull String target, @Nullable LoadRequest request) {
+		final Uri uri = Uri.parse(target);
+		final String scheme = uri.getScheme();
+		if (scheme == null) {
+			return ImageSource.forFile(new File(target));
+		}
+		switch (scheme) {
+			case "http":
+			case "https":
+				File file = mDiskCache.get(target);
+				if (request != null) request.task.recordCacheLookup(ImageLoader.Metrics.CACHE_DISK, file != null);
+				if (file == null) file = download(target, request);
+				return ImageSource.forFile(file);
+			case ContentResolver.SCHEME_FILE:
+				return ImageSource.forFile(new File(uri.getPath()));
+			case ContentResolver.SCHEME_CONTENT:
+			case ContentResolver.SCHEME_ANDROID_RESOURCE:
+				return ImageSource.forUri(mContentResolver, uri);
+			default:
+				throw new ImageLoader.Error(
+						ImageLoader.Error.REASON_UNKNOWN,
+						"Unsupported scheme of target(" + target + ")."
+				);
+		}
+	}
+
+	/**
+	 * Downloads data for the specified remote <var>target</var> into the disk cache.
+	 *
+	 * @param target  The remote target to download.
+	 * @param request The request for which are the data downloaded. May be {@code null}.
+	 * @return The cache file with downloaded data.
+	 * @throws ImageLoader.Error If downloading fails.
+	 */
+	private File download(String target, LoadRequest request) {
+		HttpURLConnection connection = null;
+		try {
+			connection = (HttpURLConnection) new URL(target).openConnection();
+			if (request != null) request.onConnection(connection);
+			connection.setConnectTimeout(CONNECT_TIMEOUT);
+			connection.setReadTimeout(READ_TIMEOUT);
+			final int responseCode = connection.getResponseCode();
+			if (responseCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
+				throw new ImageLoader.Error(
+						ImageLoader.Error.REASON_NETWORK,
+						"Failed to download image. Server responded with code(" + responseCode + ")."
+				);
+			}
+			InputStream stream = new BufferedInputStream(connection.getInputStream(), ImageSource.BUFFER_SIZE);
+			if (request != null && request.progressive) stream = new ProgressiveStream(stream, request);
+			try {
+				return mDiskCache.put(target, stream);
+			} finally {
+				stream.close();
+			}
+		} catch (IOException e) {
+			throw new ImageLoader.Error(
+					ImageLoader.Error.REASON_NETWORK,
+					"Failed to download image.",
+					e
+			);
+		} finally {
+			if (request != null) request.onConnection(null);
+			if (connection != null) connection.disconnect();
+		}
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
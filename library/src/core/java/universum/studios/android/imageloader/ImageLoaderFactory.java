@@ -0,0 +1,97 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+/**
+ * Factory providing instances of {@link ImageLoader} implementations.
+ *
+ * @author Martin Albedinsky
+ */
+public abstract class ImageLoaderFactory {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "ImageLoaderFactory";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new empty instance of ImageLoaderFactory. Inheritance hierarchies should declare
+	 * theirs constructors private in order to became a standard utility classes.
+	 */
+	protected ImageLoaderFactory() {
+		// We allow to override this class only so it may be used as base for image loader factory.
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of {@link ImageLoader} implementation for the given <var>context</var>
+	 * with default memory and disk caches.
+	 *
+	 * @param context The context for which to create the loader.
+	 * @return New image loader implementation ready to be used.
+	 * @see #createLoader(CoreLoader)
+	 */
+	@NonNull
+	public static ImageLoader createLoader(@NonNull Context context) {
+		MemoryBudget.getInstance().initialize(context);
+		return new ImageLoaderImpl(new CoreLoader(context));
+	}
+
+	/**
+	 * Creates a new instance of {@link ImageLoader} implementation that wraps the given <var>loader</var>.
+	 *
+	 * @param loader The loader to be used to perform images loading.
+	 * @return New image loader implementation ready to be used.
+	 * @see #createLoader(Context)
+	 */
+	@NonNull
+	public static ImageLoader createLoader(@NonNull CoreLoader loader) {
+		return new ImageLoaderImpl(loader);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
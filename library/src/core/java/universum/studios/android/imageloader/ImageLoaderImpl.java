@@ -0,0 +1,163 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A {@link BaseImageLoader} implementation that wraps instance of {@link CoreLoader} loader used
+ * to perform loading for {@link ImageTask ImageTasks}.
+ *
+ * @author Martin Albedinsky
+ */
+final class ImageLoaderImpl extends BaseImageLoader<CoreLoader> {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "ImageLoader#Core";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of ImageLoaderImpl to wrap the given <var>loader</var>.
+	 *
+	 * @param loader The loader to be used to perform images loading.
+	 */
+	protected ImageLoaderImpl(@NonNull CoreLoader loader) {
+		super(loader);
+		setBitmapPool(loader.getBitmapPool());
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 */
+	@Override
+	public void start() {
+		// Ignored.
+	}
+
+	/**
+	 */
+	@Override
+	public void resume() {
+		mLoader.resume();
+	}
+
+	/**
+	 */
+	@Override
+	public void pause() {
+		mLoader.pause();
+	}
+
+	/**
+	 */
+	@Override
+	public void stop() {
+		// Ignored.
+	}
+
+	/**
+	 */
+	@Override
+	public void destroy() {
+		mLoader.shutdown();
+	}
+
+	/**
+	 */
+	@Override
+	protected long onMeasureMemoryCache() {
+		return mLoader.getMemoryCache().size();
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected Object onIdentifyMemoryCache() {
+		return mLoader.getMemoryCache();
+	}
+
+	/**
+	 */
+	@Override
+	protected long onTrimMemoryCache(float fraction) {
+		return mLoader.getMemoryCache().trimToFraction(fraction);
+	}
+
+	/**
+	 */
+	@Override
+	protected long onEvictDetachedBitmaps(@NonNull Set<Bitmap> attachedBitmaps) {
+		return mLoader.getMemoryCache().evictAllExcept(attachedBitmaps);
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected ImageTask onObtainTask() {
+		return ImageTask.obtain();
+	}
+
+	/**
+	 * <p>
+	 * This implementation collects targets of bitmaps stored in the memory cache and keys of files
+	 * stored in the disk cache, which are the targets of the fetched images.
+	 */
+	@Override
+	protected void onCollectCachedTargets(@NonNull Collection<Object> targets) {
+		for (final TaskKey key : mLoader.getMemoryCache().snapshot().keySet()) {
+			final Object target = key.target();
+			if (target != null) targets.add(target);
+		}
+		targets.addAll(mLoader.getDiskCache().keys());
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,199 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Source of encoded image data that may be decoded by {@link Decoder}. A single source may be
+ * decoded multiple times, for example to first obtain only bounds of the image.
+ *
+ * @author Martin Albedinsky
+ */
+abstract class ImageSource {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "ImageSource";
+
+	/**
+	 * Size of the buffer used to read data from streams.
+	 */
+	static final int BUFFER_SIZE = 16 * 1024;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Creates a new source for the specified <var>file</var>.
+	 *
+	 * @param file The file with encoded image data.
+	 * @return New image source.
+	 */
+	@NonNull
+	static ImageSource forFile(@NonNull File file) {
+		return new FileSource(file);
+	}
+
+	/**
+	 * Creates a new source for the specified content <var>uri</var>.
+	 *
+	 * @param resolver Content resolver used to open the uri.
+	 * @param uri      The uri with encoded image data.
+	 * @return New image source.
+	 */
+	@NonNull
+	static ImageSource forUri(@NonNull ContentResolver resolver, @NonNull Uri uri) {
+		return new UriSource(resolver, uri);
+	}
+
+	/**
+	 * Decodes the image data of this source using the specified <var>options</var>.
+	 *
+	 * @param options The options to be used for decoding.
+	 * @return Decoded bitmap or {@code null} if the data could not be decoded or only bounds has
+	 * been requested.
+	 * @throws IOException If some IO error occurs while reading the data.
+	 */
+	@Nullable
+	abstract Bitmap decode(@NonNull BitmapFactory.Options options) throws IOException;
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+
+	/**
+	 * An {@link ImageSource} implementation for image data stored in a file.
+	 * <p>
+	 * Files with length of at least {@link MappedInputStream#MIN_LENGTH} are mapped into memory on the first
+	 * decode and decoded via {@link MappedInputStream}, so subsequent decodes of the same source
+	 * reuse the mapping.
+	 */
+	static final class FileSource extends ImageSource {
+
+		/**
+		 * File with the image data.
+		 */
+		final File file;
+
+		/**
+		 * Stream reading the mapped data of the file. Created lazily.
+		 */
+		private MappedInputStream mappedStream;
+
+		/**
+		 * Creates a new instance of FileSource for the specified <var>file</var>.
+		 *
+		 * @param file The file with image data.
+		 */
+		FileSource(File file) {
+			this.file = file;
+		}
+
+		/**
+		 */
+		@Nullable
+		@Override
+		Bitmap decode(@NonNull BitmapFactory.Options options) throws IOException {
+			if (mappedStream != null) {
+				mappedStream.rewind();
+				return BitmapFactory.decodeStream(mappedStream, null, options);
+			}
+			if (!file.exists()) throw new IOException("File(" + file + ") does not exist.");
+			if (file.length() < MappedInputStream.MIN_LENGTH) {
+				return BitmapFactory.decodeFile(file.getPath(), options);
+			}
+			this.mappedStream = MappedInputStream.open(file);
+			return BitmapFactory.decodeStream(mappedStream, null, options);
+		}
+	}
+
+	/**
+	 * An {@link ImageSource} implementation for image data provided by a {@link ContentResolver}.
+	 */
+	static final class UriSource extends ImageSource {
+
+		/**
+		 * Resolver used to open streams for {@link #uri}.
+		 */
+		final ContentResolver resolver;
+
+		/**
+		 * Uri of the image data.
+		 */
+		final Uri uri;
+
+		/**
+		 * Creates a new instance of UriSource for the specified <var>uri</var>.
+		 *
+		 * @param resolver The resolver used to open streams for the uri.
+		 * @param uri      The uri of image data.
+		 */
+		UriSource(ContentResolver resolver, Uri uri) {
+			this.resolver = resolver;
+			this.uri = uri;
+		}
+
+		/**
+		 */
+		@Nullable
+		@Override
+		Bitmap decode(@NonNull BitmapFactory.Options options) throws IOException {
+			final InputStream stream = resolver.openInputStream(uri);
+			if (stream == null) throw new IOException("Failed to open stream for uri(" + uri + ").");
+			try {
+				return BitmapFactory.decodeStream(new BufferedInputStream(stream, BUFFER_SIZE), null, options);
+			} finally {
+				stream.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+
+/**
+ * A {@link BaseImageTask} implementation that can be used to load image with <b>Url</b> or <b>Uri</b>
+ * target via {@link CoreLoader}.
+ * <p>
+ * Supported are remote targets (<b>http</b>, <b>https</b>) and also local targets (<b>file</b>,
+ * <b>content</b>, <b>android.resource</b> or a plain file path).
+ * <p>
+ * Requested size is mapped to {@link android.graphics.BitmapFactory.Options#inSampleSize} followed
+ * by exact scaling, so the decoded bitmap is never larger than the requested size. If neither
+ * {@link #centerCrop()} nor {@link #centerInside()} is requested, the image is scaled to fit inside.
+ *
+ * @author Martin Albedinsky
+ */
+public class ImageTask extends BaseImageTask<CoreLoader, String, BitmapTransformation> {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "ImageTask";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Pool of recycled tasks.
+	 */
+	private static final TaskPool<ImageTask> POOL = new TaskPool<ImageTask>() {
+
+		/**
+		 */
+		@NonNull
+		@Override
+		protected ImageTask onCreateTask() {
+			return new ImageTask();
+		}
+	};
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Request used to preload image of this task. May be {@code null}.
+	 */
+	private LoadRequest mPreloadRequest;
+
+	/**
+	 * Request used to asynchronously load image of this task. May be {@code null}.
+	 */
+	private LoadRequest mLoadRequest;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Obtains a task from the pool of recycled tasks or creates a new one if the pool is empty.
+	 * The obtained task should be recycled via {@link #recycle()} once it is no longer needed.
+	 *
+	 * @return Task ready to be configured.
+	 * @see TaskPool#obtain()
+	 */
+	@NonNull
+	public static ImageTask obtain() {
+		return POOL.obtain();
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected ImageTask onCreateTask() {
+		return new ImageTask();
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onLoad(@NonNull CoreLoader loader, @Nullable ImageLoader.Callback callback) {
+		ensureHasTargetOrThrow();
+		attachPlaceholder();
+		loader.enqueue(mLoadRequest = new LoadRequest(loader, this, callback));
+		return true;
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected Bitmap onLoad(@NonNull CoreLoader loader) {
+		ensureHasTargetOrThrow();
+		return loader.execute(new LoadRequest(loader, this, null));
+	}
+
+	/**
+	 */
+	@Nullable
+	@Override
+	protected File onLoadFile(@NonNull CoreLoader loader) {
+		ensureHasTargetOrThrow();
+		return loader.fetchFile(mTarget);
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onPreload(@NonNull CoreLoader loader, @ImageLoader.CacheLevel int cacheLevel) {
+		ensureHasTargetOrThrow();
+		onCancelPreload(loader);
+		loader.preload(mPreloadRequest = LoadRequest.forPreload(loader, this, cacheLevel));
+		return true;
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onCancelPreload(@NonNull CoreLoader loader) {
+		final LoadRequest request = mPreloadRequest;
+		this.mPreloadRequest = null;
+		return request != null && loader.cancel(request);
+	}
+
+	/**
+	 */
+	@Override
+	protected void onCancelLoad(@NonNull CoreLoader loader) {
+		final LoadRequest request = mLoadRequest;
+		this.mLoadRequest = null;
+		if (request != null) loader.cancel(request);
+	}
+
+	/**
+	 */
+	@Override
+	protected void onRecycle() {
+		super.onRecycle();
+		this.mPreloadRequest = null;
+		this.mLoadRequest = null;
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onRemove(@NonNull CoreLoader loader) {
+		ensureHasTargetOrThrow();
+		final boolean removedFromMemory = loader.getMemoryCache().removeBitmaps(mTarget);
+		final boolean removedFromDisk = loader.getDiskCache().remove(mTarget);
+		return removedFromMemory || removedFromDisk;
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected String transformationKey(@NonNull BitmapTransformation transformation) {
+		return transformation.getKey();
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
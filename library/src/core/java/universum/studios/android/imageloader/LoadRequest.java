@@ -0,0 +1,478 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.TransitionDrawable;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Request that carries a single {@link ImageTask} through the pipeline of {@link CoreLoader}.
+ * <p>
+ * The request is first run on the fetch executor to obtain {@link ImageSource}, then it is run on
+ * the decode executor to decode and transform the bitmap and finally its result is delivered on the
+ * main thread.
+ *
+ * @author Martin Albedinsky
+ */
+final class LoadRequest implements PriorityExecutor.Prioritized {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "LoadRequest";
+
+	/**
+	 * Duration of the fade-in animation used when attaching loaded bitmap to the associated view.
+	 */
+	private static final int FADE_IN_DURATION = 200;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Loader that executes this request.
+	 */
+	final CoreLoader loader;
+
+	/**
+	 * Task for which is this request executed.
+	 */
+	final ImageTask task;
+
+	/**
+	 * Target to be loaded.
+	 */
+	final String target;
+
+	/**
+	 * Transformation to be applied to the loaded bitmap. May be {@code null}.
+	 */
+	final BitmapTransformation transformation;
+
+	/**
+	 * Loader independent transformation to be applied to the loaded bitmap after {@link #transformation}.
+	 * May be {@code null}.
+	 */
+	final ImageTransformation imageTransformation;
+
+	/**
+	 * Size to which should be the loaded bitmap resized. {@code 0} if not specified.
+	 */
+	final int width, height;
+
+	/**
+	 * Flag indicating whether the loaded bitmap should be center cropped to the requested size
+	 * instead of center inside.
+	 */
+	final boolean centerCrop;
+
+	/**
+	 * Config in which should be the bitmap decoded. May be {@code null} to use the default one.
+	 */
+	final Bitmap.Config config;
+
+	/**
+	 * Flag indicating whether an opaque image should be decoded in {@link Bitmap.Config#RGB_565}
+	 * when no config has been specified.
+	 */
+	final boolean preferRgb565;
+
+	/**
+	 * Priority with which is this request executed.
+	 */
+	final int priority;
+
+	/**
+	 * Key under which is the loaded bitmap stored in memory cache.
+	 */
+	final TaskKey key;
+
+	/**
+	 * View to which to attach the loaded bitmap. May be {@code null}.
+	 */
+	final ImageView view;
+
+	/**
+	 * Callback to be invoked when loading finishes. May be {@code null}.
+	 */
+	final ImageLoader.Callback callback;
+
+	/**
+	 * Flag indicating whether this request should only fetch the image data into the disk cache
+	 * without decoding it.
+	 */
+	final boolean fetchOnly;
+
+	/**
+	 * Flag indicating whether the image should be decoded progressively while its data are being
+	 * downloaded.
+	 */
+	final boolean progressive;
+
+	/**
+	 * Source fetched for the target. Set on the fetch executor before the request is run on the
+	 * decode executor.
+	 */
+	private volatile ImageSource mSource;
+
+	/**
+	 * Flag indicating whether this request has been cancelled.
+	 */
+	private volatile boolean mCancelled;
+
+	/**
+	 * Flag indicating whether this request has finished, successfully or not.
+	 */
+	private volatile boolean mFinished;
+
+	/**
+	 * Connection through which are currently downloaded data for this request. May be {@code null}.
+	 */
+	private volatile HttpURLConnection mConnection;
+
+	/**
+	 * Options used to currently decode bitmap for this request. May be {@code null}.
+	 */
+	private volatile BitmapFactory.Options mDecodeOptions;
+
+	/**
+	 * Flag indicating whether a progressive pass has been posted but not delivered yet.
+	 */
+	private volatile boolean mProgressPending;
+
+	/**
+	 * Time in nanoseconds when this request has entered its current stage, used to report stage
+	 * times to the metrics of the associated task.
+	 */
+	private long mStageStartTime;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of LoadRequest for the specified <var>task</var>.
+	 *
+	 * @param loader   The loader that will execute the request.
+	 * @param task     The task for which to create the request.
+	 * @param callback The callback to be invoked when loading finishes. May be {@code null}.
+	 */
+	LoadRequest(@NonNull CoreLoader loader, @NonNull ImageTask task, @Nullable ImageLoader.Callback callback) {
+		this(loader, task, task.mView, callback, false);
+	}
+
+	/**
+	 * Creates a new instance of LoadRequest with the specified parameters.
+	 *
+	 * @param loader    The loader that will execute the request.
+	 * @param task      The task for which to create the request.
+	 * @param view      The view to which to attach the loaded bitmap. May be {@code null}.
+	 * @param callback  The callback to be invoked when loading finishes. May be {@code null}.
+	 * @param fetchOnly {@code True} to only fetch the image data, {@code false} to also decode it.
+	 */
+	private LoadRequest(CoreLoader loader, ImageTask task, ImageView view, ImageLoader.Callback callback, boolean fetchOnly) {
+		this.loader = loader;
+		this.task = task;
+		this.target = task.mTarget;
+		this.transformation = task.mTransformation;
+		this.imageTransformation = task.mImageTransformation;
+		this.width = task.mWidth;
+		this.height = task.mHeight;
+		this.centerCrop = task.hasRequest(BaseImageTask.REQUEST_CENTER_CROP);
+		this.config = task.mBitmapConfig;
+		this.preferRgb565 = config == null && task.hasRequest(BaseImageTask.REQUEST_PREFER_RGB_565);
+		this.priority = task.mPriority;
+		this.key = task.key();
+		this.view = view;
+		this.callback = callback;
+		this.fetchOnly = fetchOnly;
+		this.progressive = !fetchOnly && task.hasRequest(BaseImageTask.REQUEST_PROGRESSIVE) && (view != null || callback != null);
+		this.mStageStartTime = System.nanoTime();
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Creates a new request that preloads image of the specified <var>task</var> up to the given
+	 * cache level regardless of the task's image view.
+	 *
+	 * @param loader     The loader that will execute the request.
+	 * @param task       The task for which to create the request.
+	 * @param cacheLevel The level up to which to preload the image.
+	 * @return New preload request.
+	 */
+	@NonNull
+	static LoadRequest forPreload(@NonNull CoreLoader loader, @NonNull ImageTask task, @ImageLoader.CacheLevel int cacheLevel) {
+		return new LoadRequest(loader, task, null, null, cacheLevel == ImageLoader.CACHE_LEVEL_DISK_ONLY);
+	}
+
+	/**
+	 */
+	@Override
+	public int priority() {
+		return priority;
+	}
+
+	/**
+	 * Cancels this request. Result of a cancelled request is not delivered.
+	 * <p>
+	 * If data for this request are being currently downloaded, the connection is closed. If bitmap
+	 * for this request is being currently decoded, the decoding is requested to be cancelled.
+	 *
+	 * @return {@code True} if this request has been cancelled, {@code false} if it has been already
+	 * finished or cancelled before.
+	 */
+	boolean cancel() {
+		if (mCancelled || mFinished) {
+			return false;
+		}
+		this.mCancelled = true;
+		final HttpURLConnection connection = mConnection;
+		if (connection != null) connection.disconnect();
+		final BitmapFactory.Options options = mDecodeOptions;
+		if (options != null) options.requestCancelDecode();
+		return true;
+	}
+
+	/**
+	 * Called by {@link Fetcher} whenever it opens the specified <var>connection</var> to download data
+	 * for this request. If this request has been already cancelled, the connection is closed immediately.
+	 *
+	 * @param connection The opened connection. May be {@code null} if the previous connection has
+	 *                   been closed.
+	 */
+	void onConnection(@Nullable HttpURLConnection connection) {
+		this.mConnection = connection;
+		if (connection != null && mCancelled) connection.disconnect();
+	}
+
+	/**
+	 * Creates new options to be used to decode bitmap for this request, which may be used to cancel
+	 * the decoding via {@link #cancel()}.
+	 *
+	 * @param mutable {@code True} to request a mutable bitmap, so it may be later put into a
+	 *                {@link BitmapPool} and reused, {@code false} otherwise.
+	 * @return New decoding options.
+	 */
+	@NonNull
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	BitmapFactory.Options newDecodeOptions(boolean mutable) {
+		final BitmapFactory.Options options = new BitmapFactory.Options();
+		if (config != null) options.inPreferredConfig = config;
+		if (mutable && BitmapPool.isSupported()) options.inMutable = true;
+		this.mDecodeOptions = options;
+		if (mCancelled) options.requestCancelDecode();
+		return options;
+	}
+
+	/**
+	 * Returns a boolean flag indicating whether this request has been cancelled.
+	 *
+	 * @return {@code True} if cancelled, {@code false} otherwise.
+	 */
+	boolean isCancelled() {
+		return mCancelled;
+	}
+
+	/**
+	 */
+	@Override
+	public void run() {
+		if (mCancelled) {
+			return;
+		}
+		onStageFinished(ImageLoader.Metrics.STAGE_QUEUE);
+		try {
+			if (mSource == null) {
+				this.mSource = loader.fetch(this);
+				onStageFinished(ImageLoader.Metrics.STAGE_FETCH);
+				if (fetchOnly) this.mFinished = true;
+				else if (!mCancelled) loader.mDecodeExecutor.execute(this);
+			} else {
+				final Bitmap bitmap = loader.decode(mSource, this);
+				onStageFinished(ImageLoader.Metrics.STAGE_DECODE);
+				postResult(bitmap, null);
+			}
+		} catch (ImageLoader.Error error) {
+			postResult(null, error);
+		} catch (RejectedExecutionException e) {
+			// Loader has been shut down.
+		}
+	}
+
+	/**
+	 * Reports time elapsed since this request has entered its current stage as time of the specified
+	 * finished <var>stage</var> and starts measuring of the next stage.
+	 *
+	 * @param stage The finished stage. One of stages defined by {@link ImageLoader.Metrics}.
+	 */
+	private void onStageFinished(@ImageLoader.Metrics.Stage int stage) {
+		final long time = System.nanoTime();
+		task.recordStageTime(stage, time - mStageStartTime);
+		this.mStageStartTime = time;
+	}
+
+	/**
+	 * Posts the specified result of this request to be delivered on the main thread.
+	 *
+	 * @param bitmap The loaded bitmap. May be {@code null} if loading has failed.
+	 * @param error  The error due to which has loading failed. May be {@code null} if loading has
+	 *               finished successfully.
+	 */
+	private void postResult(final Bitmap bitmap, final ImageLoader.Error error) {
+		this.mDecodeOptions = null;
+		this.mFinished = true;
+		loader.postToMain(new Runnable() {
+
+			/**
+			 */
+			@Override
+			public void run() {
+				onStageFinished(ImageLoader.Metrics.STAGE_DELIVER);
+				if (bitmap == null) fail(error);
+				else deliver(bitmap, false);
+			}
+		});
+	}
+
+	/**
+	 * Checks whether a previously posted progressive pass has not been delivered yet. A new pass
+	 * should not be decoded into the shared buffer until the previous one is delivered.
+	 *
+	 * @return {@code True} if a pass is pending, {@code false} otherwise.
+	 */
+	boolean isProgressPending() {
+		return mProgressPending;
+	}
+
+	/**
+	 * Posts the specified progressive <var>pass</var> to be delivered on the main thread.
+	 *
+	 * @param bitmap The bitmap with the decoded pass.
+	 * @param pass   Number of the pass.
+	 */
+	void postProgress(@NonNull final Bitmap bitmap, final int pass) {
+		this.mProgressPending = true;
+		loader.postToMain(new Runnable() {
+
+			/**
+			 */
+			@Override
+			public void run() {
+				mProgressPending = false;
+				if (!mCancelled && !mFinished) deliverProgress(bitmap, pass);
+			}
+		});
+	}
+
+	/**
+	 * Delivers the specified progressive <var>pass</var> to the view and callback of this request.
+	 * <p>
+	 * This method should be called only from the main thread.
+	 *
+	 * @param bitmap The bitmap with the decoded pass.
+	 * @param pass   Number of the pass.
+	 */
+	private void deliverProgress(Bitmap bitmap, int pass) {
+		if (view != null && loader.isViewBound(view, this)) view.setImageBitmap(bitmap);
+		if (callback instanceof ImageLoader.ProgressCallback) {
+			((ImageLoader.ProgressCallback) callback).onImageLoadProgress(task, bitmap, pass);
+		}
+	}
+
+	/**
+	 * Delivers the specified loaded <var>bitmap</var> to the view and callback of this request.
+	 * <p>
+	 * This method should be called only from the main thread.
+	 *
+	 * @param bitmap    The loaded bitmap.
+	 * @param immediate {@code True} if the bitmap has been obtained from memory cache without any
+	 *                  asynchronous processing, {@code false} otherwise.
+	 */
+	void deliver(@NonNull Bitmap bitmap, boolean immediate) {
+		if (mCancelled) {
+			return;
+		}
+		if (view != null && (immediate || loader.unbindView(view, this))) {
+			loader.onBitmapAttached(view, bitmap);
+			if (immediate || task.hasRequest(BaseImageTask.REQUEST_DO_NOT_ANIMATE)) {
+				view.setImageBitmap(bitmap);
+			} else {
+				final Drawable current = view.getDrawable();
+				final TransitionDrawable transition = new TransitionDrawable(new Drawable[]{
+						current == null ? new ColorDrawable(0) : current,
+						new BitmapDrawable(view.getResources(), bitmap)
+				});
+				transition.setCrossFadeEnabled(true);
+				view.setImageDrawable(transition);
+				transition.startTransition(FADE_IN_DURATION);
+			}
+		}
+		if (callback != null) {
+			loader.onBitmapRetained(bitmap);
+			callback.onImageLoadFinished(task, bitmap);
+		}
+	}
+
+	/**
+	 * Delivers the specified <var>error</var> to the view and callback of this request.
+	 * <p>
+	 * This method should be called only from the main thread.
+	 *
+	 * @param error The error due to which has loading failed.
+	 */
+	void fail(@NonNull ImageLoader.Error error) {
+		if (mCancelled) {
+			return;
+		}
+		if (view != null && loader.unbindView(view, this)) task.attachError();
+		if (callback != null) callback.onImageLoadFailed(task, error);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,193 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LruCache;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link LruCache} implementation that is bounded by a total <b>byte</b> size of the stored bitmaps
+ * and is used by {@link CoreLoader} to store decoded (and transformed) bitmaps in memory.
+ *
+ * @author Martin Albedinsky
+ */
+public final class MemoryCache extends LruCache<TaskKey, Bitmap> {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "MemoryCache";
+
+	/**
+	 * Divider used to compute the default size of the cache from the maximum memory available to
+	 * the current process.
+	 */
+	private static final int DEFAULT_SIZE_DIVIDER = 8;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Pool into which are released bitmaps removed from this cache. May be {@code null}.
+	 */
+	private volatile BitmapPool mBitmapPool;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Same as {@link #MemoryCache(int)} with size computed via {@link #defaultSize()}.
+	 */
+	public MemoryCache() {
+		this(defaultSize());
+	}
+
+	/**
+	 * Creates a new instance of MemoryCache with the specified maximum <var>size</var>.
+	 *
+	 * @param maxSize The maximum size of the cache in bytes.
+	 */
+	public MemoryCache(int maxSize) {
+		super(maxSize);
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the default size for the memory cache computed as <b>1/8</b> of the maximum memory
+	 * available to the current process.
+	 *
+	 * @return Default cache size in bytes.
+	 */
+	public static int defaultSize() {
+		return (int) (Runtime.getRuntime().maxMemory() / DEFAULT_SIZE_DIVIDER);
+	}
+
+	/**
+	 * Specifies a pool into which should be released bitmaps that are evicted or removed from this
+	 * cache, so they may be reused for subsequent decoding.
+	 *
+	 * @param pool The desired bitmap pool. May be {@code null} to not release bitmaps anywhere.
+	 */
+	void setBitmapPool(@Nullable BitmapPool pool) {
+		this.mBitmapPool = pool;
+	}
+
+	/**
+	 */
+	@Override
+	protected void entryRemoved(boolean evicted, TaskKey key, Bitmap oldValue, Bitmap newValue) {
+		final BitmapPool pool = mBitmapPool;
+		if (pool != null && oldValue != newValue) pool.release(oldValue);
+	}
+
+	/**
+	 */
+	@Override
+	protected int sizeOf(TaskKey key, Bitmap bitmap) {
+		return byteCountOf(bitmap);
+	}
+
+	/**
+	 * Returns count of bytes occupied by pixels of the specified <var>bitmap</var>.
+	 *
+	 * @param bitmap The bitmap of which byte count to return.
+	 * @return Bitmap's byte count.
+	 */
+	static int byteCountOf(Bitmap bitmap) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB_MR1) {
+			return bitmap.getByteCount();
+		}
+		return bitmap.getRowBytes() * bitmap.getHeight();
+	}
+
+	/**
+	 * Removes all bitmaps loaded for the specified <var>target</var> regardless theirs size and
+	 * transformation.
+	 *
+	 * @param target The target of which bitmaps to remove.
+	 * @return {@code True} if some bitmap has been removed, {@code false} otherwise.
+	 */
+	public boolean removeBitmaps(@NonNull Object target) {
+		boolean removed = false;
+		for (final TaskKey key : snapshot().keySet()) {
+			if (key.hasTarget(target)) {
+				removed |= remove(key) != null;
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Trims this cache to the specified <var>fraction</var> of its current size by evicting the
+	 * least recently used bitmaps.
+	 *
+	 * @param fraction The fraction of the current size to which to trim the cache. {@code 0} to
+	 *                 evict all bitmaps.
+	 * @return Count of bytes freed by the trim.
+	 */
+	public int trimToFraction(float fraction) {
+		final int initialSize = size();
+		if (fraction <= 0) evictAll();
+		else trimToSize(Math.round(initialSize * fraction));
+		return initialSize - size();
+	}
+
+	/**
+	 * Evicts all bitmaps from this cache except the specified <var>retainedBitmaps</var>.
+	 *
+	 * @param retainedBitmaps The bitmaps that should remain in the cache.
+	 * @return Count of bytes freed by the eviction.
+	 */
+	public int evictAllExcept(@NonNull Set<Bitmap> retainedBitmaps) {
+		int byteCount = 0;
+		for (final Map.Entry<TaskKey, Bitmap> entry : snapshot().entrySet()) {
+			if (!retainedBitmaps.contains(entry.getValue()) && remove(entry.getKey()) != null) {
+				byteCount += byteCountOf(entry.getValue());
+			}
+		}
+		return byteCount;
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,302 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link FilterInputStream} used by {@link Fetcher} to decode intermediate passes of a progressive
+ * JPEG image while the image is still being downloaded.
+ * <p>
+ * All bytes read through this stream are also collected into an internal buffer. Whenever a start
+ * of a new scan is encountered, the bytes received so far are decoded into a single reused bitmap
+ * which is then delivered via {@link LoadRequest#postProgress(Bitmap, int)}. A new pass is decoded
+ * only after the previous one has been delivered, so a slow main thread never causes passes to pile
+ * up. Images that are not JPEG are passed through without any buffering.
+ *
+ * @author Martin Albedinsky
+ */
+final class ProgressiveStream extends FilterInputStream {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "ProgressiveStream";
+
+	/**
+	 * Initial size of the buffer for the received bytes.
+	 */
+	private static final int INITIAL_CAPACITY = 64 * 1024;
+
+	/**
+	 * Minimum time in milliseconds between two decoded passes.
+	 */
+	private static final long MIN_PASS_INTERVAL = 100;
+
+	/**
+	 * Second byte of the JPEG start of image marker.
+	 */
+	private static final int MARKER_SOI = 0xD8;
+
+	/**
+	 * Second byte of the JPEG start of scan marker.
+	 */
+	private static final int MARKER_SOS = 0xDA;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Request for which are the passes decoded.
+	 */
+	private final LoadRequest mRequest;
+
+	/**
+	 * Bytes received so far. Becomes {@code null} once it is known that the image is not a JPEG.
+	 */
+	private byte[] mData = new byte[INITIAL_CAPACITY];
+
+	/**
+	 * Count of the valid bytes in {@link #mData}.
+	 */
+	private int mLength;
+
+	/**
+	 * Flag indicating whether the last received byte was a marker prefix ({@code 0xFF}).
+	 */
+	private boolean mMarkerPending;
+
+	/**
+	 * Count of the scans encountered so far.
+	 */
+	private int mScanCount;
+
+	/**
+	 * Options used to decode the passes. Initialized with the first decoded pass.
+	 */
+	private BitmapFactory.Options mOptions;
+
+	/**
+	 * Bitmap into which are the passes decoded.
+	 */
+	private Bitmap mBuffer;
+
+	/**
+	 * Count of the passes delivered so far.
+	 */
+	private int mPass;
+
+	/**
+	 * Time when the last pass has been decoded.
+	 */
+	private long mLastPassTime;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of ProgressiveStream for the specified <var>request</var>.
+	 *
+	 * @param in      The stream with the image data.
+	 * @param request The request for which to decode the passes.
+	 */
+	ProgressiveStream(@NonNull InputStream in, @NonNull LoadRequest request) {
+		super(in);
+		this.mRequest = request;
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 */
+	@Override
+	public int read() throws IOException {
+		final int value = in.read();
+		if (value != -1 && mData != null) {
+			final byte[] single = {(byte) value};
+			onReceived(single, 0, 1);
+		}
+		return value;
+	}
+
+	/**
+	 */
+	@Override
+	public int read(@NonNull byte[] buffer, int offset, int count) throws IOException {
+		final int read = in.read(buffer, offset, count);
+		if (read > 0 && mData != null) {
+			onReceived(buffer, offset, read);
+		}
+		return read;
+	}
+
+	/**
+	 * Collects the specified received bytes and decodes a new pass for each start of scan marker
+	 * found among them, except for the first one.
+	 *
+	 * @param buffer The buffer with the received bytes.
+	 * @param offset Offset of the received bytes in the buffer.
+	 * @param count  Count of the received bytes.
+	 */
+	private void onReceived(byte[] buffer, int offset, int count) {
+		if (mLength + count > mData.length) {
+			final byte[] data = new byte[Math.max(mData.length * 2, mLength + count)];
+			System.arraycopy(mData, 0, data, 0, mLength);
+			this.mData = data;
+		}
+		System.arraycopy(buffer, offset, mData, mLength, count);
+		final int start = mLength;
+		this.mLength += count;
+		if (start < 2 && mLength >= 2 && ((mData[0] & 0xFF) != 0xFF || (mData[1] & 0xFF) != MARKER_SOI)) {
+			// Not a JPEG, there is nothing to decode progressively.
+			this.mData = null;
+			return;
+		}
+		for (int i = start; i < mLength; i++) {
+			final int value = mData[i] & 0xFF;
+			if (mMarkerPending && value == MARKER_SOS && ++mScanCount > 1) {
+				// Bytes preceding the marker make up all the scans received so far.
+				decodePass(i - 1);
+				if (mData == null) return;
+			}
+			this.mMarkerPending = value == 0xFF;
+		}
+	}
+
+	/**
+	 * Decodes a new pass from the specified count of received bytes, unless the request has been
+	 * cancelled or the previous pass has not been delivered yet.
+	 *
+	 * @param length Count of the received bytes from which to decode the pass.
+	 */
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	private void decodePass(int length) {
+		if (mRequest.isCancelled() || mRequest.isProgressPending()) {
+			return;
+		}
+		final long time = SystemClock.uptimeMillis();
+		if (time - mLastPassTime < MIN_PASS_INTERVAL) {
+			return;
+		}
+		if (mOptions == null) {
+			final BitmapFactory.Options options = new BitmapFactory.Options();
+			options.inJustDecodeBounds = true;
+			BitmapFactory.decodeByteArray(mData, 0, length, options);
+			if (options.outWidth <= 0 || options.outHeight <= 0) {
+				this.mData = null;
+				return;
+			}
+			options.inJustDecodeBounds = false;
+			if (mRequest.width > 0 && mRequest.height > 0) {
+				options.inSampleSize = Decoder.computeSampleSize(
+						options.outWidth,
+						options.outHeight,
+						mRequest.width,
+						mRequest.height,
+						mRequest.centerCrop
+				);
+			}
+			if (mRequest.config != null) {
+				options.inPreferredConfig = mRequest.config;
+			} else if (mRequest.preferRgb565) {
+				// Only JPEG images are decoded progressively.
+				options.inPreferredConfig = Bitmap.Config.RGB_565;
+			}
+			if (BitmapPool.isSupported()) {
+				options.inMutable = true;
+			}
+			this.mOptions = options;
+		}
+		Bitmap bitmap;
+		try {
+			if (mBuffer != null && canReuseBuffer()) {
+				mOptions.inBitmap = mBuffer;
+				try {
+					bitmap = BitmapFactory.decodeByteArray(mData, 0, length, mOptions);
+				} catch (IllegalArgumentException e) {
+					// Buffer could not be reused, decode into a new bitmap and keep that one.
+					mOptions.inBitmap = null;
+					bitmap = BitmapFactory.decodeByteArray(mData, 0, length, mOptions);
+				}
+			} else {
+				bitmap = BitmapFactory.decodeByteArray(mData, 0, length, mOptions);
+			}
+		} catch (OutOfMemoryError e) {
+			// Intermediate passes are optional, give up on them and let the final decoding proceed.
+			this.mData = null;
+			this.mBuffer = null;
+			return;
+		}
+		this.mLastPassTime = time;
+		if (bitmap != null) {
+			this.mBuffer = bitmap;
+			mRequest.postProgress(bitmap, ++mPass);
+		}
+	}
+
+	/**
+	 * Returns a boolean flag indicating whether the buffer bitmap may be reused for decoding of the
+	 * next pass with the current options.
+	 *
+	 * @return {@code True} if the buffer may be reused, {@code false} otherwise.
+	 */
+	private boolean canReuseBuffer() {
+		// Prior to KITKAT bitmaps may be reused only when decoding without sub-sampling.
+		return Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT ||
+				(BitmapPool.isSupported() && mOptions.inSampleSize <= 1);
+	}
+
+	/**
+	 */
+	@Override
+	public void close() throws IOException {
+		super.close();
+		this.mData = null;
+		this.mBuffer = null;
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -25,9 +25,13 @@ import android.support.annotation.NonNull;
 import android.support.v4.app.FragmentActivity;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
 
 /**
  * Factory providing instances of {@link ImageLoader} implementations.
+ * <p>
+ * Whenever a loader is created, the factory registers {@link MappedUriLoader} into Glide, so local
+ * image files are read from memory mappings.
  *
  * @author Martin Albedinsky
  */
@@ -82,7 +86,9 @@ public abstract class ImageLoaderFactory {
 	 */
 	@NonNull
 	public static ImageLoader createLoader(@NonNull Activity context) {
-		return new ImageLoaderImpl(Glide.with(context));
+		MemoryBudget.getInstance().initialize(context);
+		MappedUriLoader.register(context);
+		return new ImageLoaderImpl(Glide.with(context), context);
 	}
 
 	/**
@@ -98,7 +104,9 @@ public abstract class ImageLoaderFactory {
 	 */
 	@NonNull
 	public static ImageLoader createLoader(@NonNull FragmentActivity context) {
-		return new ImageLoaderImpl(Glide.with(context));
+		MemoryBudget.getInstance().initialize(context);
+		MappedUriLoader.register(context);
+		return new ImageLoaderImpl(Glide.with(context), context);
 	}
 
 	/**
@@ -113,7 +121,10 @@ public abstract class ImageLoaderFactory {
 	 */
 	@NonNull
 	public static ImageLoader createLoader(@NonNull Fragment context) {
-		return new ImageLoaderImpl(Glide.with(context));
+		final RequestManager manager = Glide.with(context);
+		MemoryBudget.getInstance().initialize(context.getActivity());
+		MappedUriLoader.register(context.getActivity());
+		return new ImageLoaderImpl(manager, context.getActivity());
 	}
 
 	/**
@@ -129,7 +140,10 @@ public abstract class ImageLoaderFactory {
 	 */
 	@NonNull
 	public static ImageLoader createLoader(@NonNull android.support.v4.app.Fragment context) {
-		return new ImageLoaderImpl(Glide.with(context));
+		final RequestManager manager = Glide.with(context);
+		MemoryBudget.getInstance().initialize(context.getActivity());
+		MappedUriLoader.register(context.getActivity());
+		return new ImageLoaderImpl(manager, context.getActivity());
 	}
 
 	/**
@@ -144,7 +158,9 @@ public abstract class ImageLoaderFactory {
 	 */
 	@NonNull
 	public static ImageLoader createLoader(@NonNull Context context) {
-		return new ImageLoaderImpl(Glide.with(context));
+		MemoryBudget.getInstance().initialize(context);
+		MappedUriLoader.register(context);
+		return new ImageLoaderImpl(Glide.with(context), context);
 	}
 
 	/**
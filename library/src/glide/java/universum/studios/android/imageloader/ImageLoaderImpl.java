@@ -18,9 +18,17 @@
  */
 package universum.studios.android.imageloader;
 
+import android.content.ComponentCallbacks2;
+import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
 
+import com.bumptech.glide.Glide;
 import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.engine.cache.MemoryCache;
+
+import java.lang.reflect.Field;
 
 /**
  * A {@link BaseImageLoader} implementation that wraps instance of {@link RequestManager} loader used
@@ -37,7 +45,7 @@ final class ImageLoaderImpl extends BaseImageLoader<RequestManager> {
 	/**
 	 * Log TAG.
 	 */
-	// private static final String TAG = "ImageLoader#Glide";
+	private static final String TAG = "ImageLoader#Glide";
 
 	/**
 	 * Interface ===================================================================================
@@ -47,10 +55,27 @@ final class ImageLoaderImpl extends BaseImageLoader<RequestManager> {
 	 * Static members ==============================================================================
 	 */
 
+	/**
+	 * Memory cache of the Glide singleton, resolved only once. Glide 3 does not provide any public
+	 * access to its memory cache, so it is obtained from its private field.
+	 */
+	private static MemoryCache sMemoryCache;
+
+	/**
+	 * Flag indicating whether there has been already attempt to resolve {@link #sMemoryCache}.
+	 */
+	private static boolean sMemoryCacheResolved;
+
 	/**
 	 * Members =====================================================================================
 	 */
 
+	/**
+	 * Memory cache shared by all Glide request managers. May be {@code null} if it could not be
+	 * resolved, in which case this loader is not accounted by the {@link MemoryBudget}.
+	 */
+	private final MemoryCache mMemoryCache;
+
 	/**
 	 * Constructors ================================================================================
 	 */
@@ -58,16 +83,40 @@ final class ImageLoaderImpl extends BaseImageLoader<RequestManager> {
 	/**
 	 * Creates a new instance of ImageLoaderImpl to wrap the given <var>loader</var>.
 	 *
-	 * @param loader The loader to be used to perform images loading.
+	 * @param loader  The loader to be used to perform images loading.
+	 * @param context Context used to access the Glide singleton of which memory cache to measure.
 	 */
-	protected ImageLoaderImpl(@NonNull RequestManager loader) {
+	protected ImageLoaderImpl(@NonNull RequestManager loader, @NonNull Context context) {
 		super(loader);
+		this.mMemoryCache = resolveMemoryCache(Glide.get(context));
 	}
 
 	/**
 	 * Methods =====================================================================================
 	 */
 
+	/**
+	 * Resolves memory cache of the specified <var>glide</var> singleton.
+	 *
+	 * @param glide The Glide instance of which memory cache to resolve.
+	 * @return Memory cache of the Glide or {@code null} if it could not be accessed, for example
+	 * due to obfuscation.
+	 */
+	@Nullable
+	private static synchronized MemoryCache resolveMemoryCache(Glide glide) {
+		if (!sMemoryCacheResolved) {
+			sMemoryCacheResolved = true;
+			try {
+				final Field field = Glide.class.getDeclaredField("memoryCache");
+				field.setAccessible(true);
+				sMemoryCache = (MemoryCache) field.get(glide);
+			} catch (Exception e) {
+				Log.w(TAG, "Failed to access memory cache of Glide. Its size will not be accounted by MemoryBudget.", e);
+			}
+		}
+		return sMemoryCache;
+	}
+
 	/**
 	 */
 	@Override
@@ -83,6 +132,10 @@ final class ImageLoaderImpl extends BaseImageLoader<RequestManager> {
 	}
 
 	/**
+	 * <p>
+	 * <b>Note</b>, that Glide queues all requests made while its request manager is paused, including
+	 * ones that could be served from its memory cache, so no image is delivered until this loader
+	 * is resumed.
 	 */
 	@Override
 	public void pause() {
@@ -107,6 +160,7 @@ final class ImageLoaderImpl extends BaseImageLoader<RequestManager> {
 	 */
 	@Override
 	public void onTrimMemory(int level) {
+		super.onTrimMemory(level);
 		mLoader.onTrimMemory(level);
 	}
 
@@ -114,9 +168,54 @@ final class ImageLoaderImpl extends BaseImageLoader<RequestManager> {
 	 */
 	@Override
 	public void onLowMemory() {
+		super.onLowMemory();
 		mLoader.onLowMemory();
 	}
 
+	/**
+	 */
+	@Override
+	protected long onMeasureMemoryCache() {
+		return mMemoryCache == null ? 0 : mMemoryCache.getCurrentSize();
+	}
+
+	/**
+	 */
+	@Nullable
+	@Override
+	protected Object onIdentifyMemoryCache() {
+		return mMemoryCache;
+	}
+
+	/**
+	 * <p>
+	 * Glide's memory cache may be only cleared or trimmed to a half of its maximum size, so the
+	 * cache is trimmed to that half if it is not smaller than the requested size, otherwise the
+	 * cache is cleared.
+	 */
+	@Override
+	protected long onTrimMemoryCache(float fraction) {
+		if (mMemoryCache == null) {
+			return 0;
+		}
+		final int sizeBefore = mMemoryCache.getCurrentSize();
+		final float size = sizeBefore * fraction;
+		if (size < mMemoryCache.getMaxSize() / 2) {
+			mMemoryCache.clearMemory();
+		} else {
+			mMemoryCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+		}
+		return Math.max(0, sizeBefore - mMemoryCache.getCurrentSize());
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected ImageTask onObtainTask() {
+		return ImageTask.obtain();
+	}
+
 	/**
 	 * Inner classes ===============================================================================
 	 */
@@ -22,20 +22,38 @@ import android.graphics.Bitmap;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.bumptech.glide.BitmapTypeRequest;
 import com.bumptech.glide.DrawableTypeRequest;
+import com.bumptech.glide.Glide;
 import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolAdapter;
 import com.bumptech.glide.load.resource.bitmap.BitmapTransformation;
+import com.bumptech.glide.load.resource.bitmap.CenterCrop;
+import com.bumptech.glide.load.resource.bitmap.FitCenter;
 import com.bumptech.glide.load.resource.bitmap.GlideBitmapDrawable;
 import com.bumptech.glide.load.resource.drawable.GlideDrawable;
+import com.bumptech.glide.request.FutureTarget;
+import com.bumptech.glide.request.Request;
 import com.bumptech.glide.request.RequestListener;
 import com.bumptech.glide.request.animation.GlideAnimation;
 import com.bumptech.glide.request.target.SimpleTarget;
 import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.signature.StringSignature;
 
+import java.io.File;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A {@link BaseImageTask} implementation that can be used to load remote image with <b>Url</b> target.
+ * <p>
+ * Requested size is mapped to {@link DrawableTypeRequest#override(int, int)}, so Glide decodes the
+ * image already down-sampled. <b>Note</b>, that if a transformation is specified for the task, it
+ * takes precedence over {@link #centerCrop()} and {@link #centerInside()}.
  *
  * @author Martin Albedinsky
  */
@@ -59,15 +77,36 @@ public class ImageTask extends BaseImageTask<RequestManager, String, BitmapTrans
 	 */
 
 	/**
-	 * Target implementation used for asynchronous loading without image view provided.
+	 * Count of buckets into which are targets hashed to share theirs signatures, so the count of
+	 * signatures kept for removed targets is bounded.
 	 */
-	private static final Target<GlideDrawable> ASYNC_TARGET = new SimpleTarget<GlideDrawable>() {
+	private static final int SIGNATURE_BUCKET_COUNT = 256;
+
+	/**
+	 * Signatures of buckets with targets of which images have been removed via {@link #onRemove(RequestManager)}.
+	 * Glide does not allow to remove a specific image from its caches, so images of such targets
+	 * are loaded with a new signature that makes the previously cached ones unreachable. Other
+	 * targets of the same bucket thus only miss theirs cached images once.
+	 */
+	private static final AtomicReferenceArray<Key> SIGNATURES = new AtomicReferenceArray<>(SIGNATURE_BUCKET_COUNT);
+
+	/**
+	 * Flags indicating which buckets have been requested with theirs current signature, so theirs
+	 * images may be cached.
+	 */
+	private static final AtomicIntegerArray SIGNATURES_REQUESTED = new AtomicIntegerArray(SIGNATURE_BUCKET_COUNT);
+
+	/**
+	 * Pool of recycled tasks.
+	 */
+	private static final TaskPool<ImageTask> POOL = new TaskPool<ImageTask>() {
 
 		/**
 		 */
+		@NonNull
 		@Override
-		public void onResourceReady(GlideDrawable resource, GlideAnimation glideAnimation) {
-			// Ignored.
+		protected ImageTask onCreateTask() {
+			return new ImageTask();
 		}
 	};
 
@@ -75,6 +114,23 @@ public class ImageTask extends BaseImageTask<RequestManager, String, BitmapTrans
 	 * Members =====================================================================================
 	 */
 
+	/**
+	 * Target into which is image of this task asynchronously loaded. Glide binds request to its
+	 * target and clears any previous request of the same target, so each view-less load needs its
+	 * own target instance. May be {@code null}.
+	 */
+	private Target<?> mLoadTarget;
+
+	/**
+	 * Target used to preload image of this task. May be {@code null}.
+	 */
+	private Target<?> mPreloadTarget;
+
+	/**
+	 * Listener reused for asynchronous loads of this task. May be {@code null}.
+	 */
+	private Listener mListener;
+
 	/**
 	 * Constructors ================================================================================
 	 */
@@ -83,27 +139,74 @@ public class ImageTask extends BaseImageTask<RequestManager, String, BitmapTrans
 	 * Methods =====================================================================================
 	 */
 
+	/**
+	 * Obtains a task from the pool of recycled tasks or creates a new one if the pool is empty.
+	 * The obtained task should be recycled via {@link #recycle()} once it is no longer needed.
+	 *
+	 * @return Task ready to be configured.
+	 * @see TaskPool#obtain()
+	 */
+	@NonNull
+	public static ImageTask obtain() {
+		return POOL.obtain();
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected ImageTask onCreateTask() {
+		return new ImageTask();
+	}
+
 	/**
 	 */
 	@Override
 	protected boolean onLoad(@NonNull RequestManager loader, @Nullable ImageLoader.Callback callback) {
 		ensureHasTargetOrThrow();
 		final DrawableTypeRequest<String> request = onPrepareRequest(loader);
-		if (callback != null) request.listener(new Listener(this, callback));
-		if (mView != null) request.into(mView);
-		else request.into(ASYNC_TARGET);
+		// Thumbnail requests are built without the listener, as Glide would otherwise notify it also
+		// about the thumbnail and the callback would be finished with the low resolution bitmap.
+		if (mThumbnail instanceof ImageTask) request.thumbnail(((ImageTask) mThumbnail).onPrepareRequest(loader));
+		else if (mThumbnailMultiplier > 0) request.thumbnail(onPrepareRequest(loader).sizeMultiplier(mThumbnailMultiplier));
+		if (callback != null) request.listener(obtainListener(callback));
+		final Target<?> target = mView != null ? request.into(mView) : request.into(new AsyncTarget());
+		// Images from memory cache are delivered synchronously and the task may be already recycled.
+		if (!mRecycled) this.mLoadTarget = target;
 		return true;
 	}
 
+	/**
+	 * <p>
+	 * Thumbnails are loaded via Glide's thumbnail requests, unless the thumbnail task is not a Glide
+	 * task.
+	 */
+	@Override
+	protected boolean loadsThumbnail() {
+		return mThumbnail == null || mThumbnail instanceof ImageTask;
+	}
+
+	/**
+	 * Returns listener for a new asynchronous load of this task. The current listener is reused
+	 * unless its load is still in flight.
+	 *
+	 * @param callback The callback to be notified by the listener.
+	 * @return Listener ready to be attached to the load request.
+	 */
+	private Listener obtainListener(ImageLoader.Callback callback) {
+		Listener listener = mListener;
+		if (listener == null || listener.callback != null) this.mListener = listener = new Listener(this);
+		listener.callback = callback;
+		return listener;
+	}
+
 	/**
 	 */
 	@Nullable
 	@Override
 	protected Bitmap onLoad(@NonNull RequestManager loader) {
-		ensureHasTargetOrThrow();
-		final DrawableTypeRequest<String> request = onPrepareRequest(loader);
 		try {
-			return request.asBitmap().into(-1, -1).get();
+			return onLoadAsync(loader).get();
 		} catch (InterruptedException | ExecutionException e) {
 			throw new ImageLoader.Error(
 					ImageLoader.Error.REASON_UNKNOWN,
@@ -113,6 +216,25 @@ public class ImageTask extends BaseImageTask<RequestManager, String, BitmapTrans
 		}
 	}
 
+	/**
+	 * <p>
+	 * Glide's {@link FutureTarget} is returned, so cancelling of the future clears the Glide request.
+	 */
+	@NonNull
+	@Override
+	protected FutureTarget<Bitmap> onLoadAsync(@NonNull RequestManager loader) {
+		ensureHasTargetOrThrow();
+		final BitmapTypeRequest<String> request = onPrepareRequest(loader).asBitmap();
+		if (mImageTransformation != null) request.transform(glideTransformations());
+		else if (mTransformation != null) request.transform(mTransformation);
+		else if (hasRequest(REQUEST_CENTER_CROP)) request.centerCrop();
+		else if (hasRequest(REQUEST_CENTER_INSIDE)) request.fitCenter();
+		final DecodeFormat format = glideFormat();
+		if (format != null) request.format(format);
+		request.priority(glidePriority(mPriority));
+		return hasSize() ? request.into(mWidth, mHeight) : request.into(-1, -1);
+	}
+
 	/**
 	 * Prepares loading request with configuration based on this task's parameters.
 	 *
@@ -122,26 +244,286 @@ public class ImageTask extends BaseImageTask<RequestManager, String, BitmapTrans
 	@NonNull
 	protected DrawableTypeRequest<String> onPrepareRequest(@NonNull RequestManager requestManager) {
 		final DrawableTypeRequest<String> request = requestManager.load(mTarget);
+		final Key signature = signatureOf(mTarget);
+		if (signature != null) request.signature(signature);
 		if (mPlaceholderRes != NO_RESOURCE_ID) request.error(mPlaceholderRes);
 		if (mPlaceholder != null) request.error(mPlaceholder);
 		if (mErrorRes != NO_RESOURCE_ID) request.placeholder(mErrorRes);
 		if (mError != null) request.placeholder(mError);
-		if (mTransformation != null) request.transform(mTransformation);
+		if (hasSize()) request.override(mWidth, mHeight);
+		if (mImageTransformation != null) request.transform(glideTransformations());
+		else if (mTransformation != null) request.transform(mTransformation);
+		else if (hasRequest(REQUEST_CENTER_CROP)) request.centerCrop();
+		else if (hasRequest(REQUEST_CENTER_INSIDE)) request.fitCenter();
 		if (hasRequest(REQUEST_DO_NOT_ANIMATE)) request.dontAnimate();
+		request.priority(glidePriority(mPriority));
 		return request;
 	}
 
+	/**
+	 * Returns transformations to be applied by Glide for this task with image transformation specified.
+	 * Glide applies only the last transformation specified for a request, so the transformation or
+	 * scale type of this task is returned along with the adapted image transformation.
+	 *
+	 * @return Glide transformations in the order in which they should be applied.
+	 */
+	private BitmapTransformation[] glideTransformations() {
+		BitmapTransformation transformation = mTransformation;
+		if (transformation == null) {
+			if (hasRequest(REQUEST_CENTER_CROP)) transformation = new CenterCrop(TransformationAdapter.GLIDE_POOL);
+			else if (hasRequest(REQUEST_CENTER_INSIDE)) transformation = new FitCenter(TransformationAdapter.GLIDE_POOL);
+		}
+		final BitmapTransformation imageTransformation = new TransformationAdapter(mImageTransformation);
+		return transformation == null ?
+				new BitmapTransformation[]{imageTransformation} :
+				new BitmapTransformation[]{transformation, imageTransformation};
+	}
+
+	/**
+	 * Maps the bitmap config requested for this task to the corresponding {@link DecodeFormat}.
+	 * Glide itself decodes images with alpha in {@link Bitmap.Config#ARGB_8888} even if
+	 * {@link DecodeFormat#PREFER_RGB_565} is requested, so the RGB_565 preference maps directly to it.
+	 *
+	 * @return Glide decode format or {@code null} if Glide's default format should be used.
+	 */
+	@Nullable
+	DecodeFormat glideFormat() {
+		if (mBitmapConfig == null) {
+			return hasRequest(REQUEST_PREFER_RGB_565) ? DecodeFormat.PREFER_RGB_565 : null;
+		}
+		switch (mBitmapConfig) {
+			case RGB_565:
+				return DecodeFormat.PREFER_RGB_565;
+			case ARGB_8888:
+				return DecodeFormat.PREFER_ARGB_8888;
+			default:
+				// Glide does not support any other configs.
+				return null;
+		}
+	}
+
+	/**
+	 * Maps the specified task <var>priority</var> to the corresponding {@link com.bumptech.glide.Priority}.
+	 * <p>
+	 * Glide executes requests with the same priority in the order in which they have been made and
+	 * does not allow to change this order, so LIFO scheduling is not supported by this module.
+	 *
+	 * @param priority The task priority to map.
+	 * @return Glide priority.
+	 */
+	static com.bumptech.glide.Priority glidePriority(@Priority int priority) {
+		switch (priority) {
+			case PRIORITY_IMMEDIATE:
+				return com.bumptech.glide.Priority.IMMEDIATE;
+			case PRIORITY_HIGH:
+				return com.bumptech.glide.Priority.HIGH;
+			case PRIORITY_LOW:
+			case PRIORITY_PREFETCH:
+				return com.bumptech.glide.Priority.LOW;
+			case PRIORITY_NORMAL:
+			default:
+				return com.bumptech.glide.Priority.NORMAL;
+		}
+	}
+
+	/**
+	 * <p>
+	 * The image is downloaded into Glide's disk cache via {@link DrawableTypeRequest#downloadOnly(int, int)},
+	 * so a local file with its original data is available for any target.
+	 */
+	@NonNull
+	@Override
+	protected File onLoadFile(@NonNull RequestManager loader) {
+		ensureHasTargetOrThrow();
+		final DrawableTypeRequest<String> request = loader.load(mTarget);
+		final Key signature = signatureOf(mTarget);
+		if (signature != null) request.signature(signature);
+		try {
+			return request.downloadOnly(Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL).get();
+		} catch (InterruptedException | ExecutionException e) {
+			throw new ImageLoader.Error(
+					ImageLoader.Error.REASON_UNKNOWN,
+					"Failed to download image.",
+					e
+			);
+		}
+	}
+
 	/**
 	 */
 	@Override
+	protected boolean onPreload(@NonNull RequestManager loader, @ImageLoader.CacheLevel int cacheLevel) {
+		ensureHasTargetOrThrow();
+		onCancelPreload(loader);
+		if (cacheLevel == ImageLoader.CACHE_LEVEL_DISK_ONLY) {
+			final DrawableTypeRequest<String> request = loader.load(mTarget);
+			final Key signature = signatureOf(mTarget);
+			if (signature != null) request.signature(signature);
+			this.mPreloadTarget = request.downloadOnly(Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL);
+		} else {
+			final DrawableTypeRequest<String> request = onPrepareRequest(loader);
+			this.mPreloadTarget = hasSize() ? request.preload(mWidth, mHeight) : request.preload();
+		}
+		return true;
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onCancelPreload(@NonNull RequestManager loader) {
+		final Target<?> target = mPreloadTarget;
+		this.mPreloadTarget = null;
+		return target != null && clearTarget(target);
+	}
+
+	/**
+	 */
+	@Override
+	protected void onCancelLoad(@NonNull RequestManager loader) {
+		final Target<?> target = mLoadTarget;
+		this.mLoadTarget = null;
+		if (mListener != null) mListener.callback = null;
+		if (target != null) clearTarget(target);
+	}
+
+	/**
+	 */
+	@Override
+	protected void onRecycle() {
+		super.onRecycle();
+		this.mLoadTarget = null;
+		this.mPreloadTarget = null;
+		if (mListener != null) mListener.callback = null;
+	}
+
+	/**
+	 * Clears request of the specified <var>target</var> if it is still running.
+	 *
+	 * @param target The target of which request to clear.
+	 * @return {@code True} if the request has been cleared, {@code false} if there is no running
+	 * request for the target.
+	 */
+	private static boolean clearTarget(Target<?> target) {
+		final Request request = target.getRequest();
+		if (request == null || request.isComplete() || request.isCancelled()) {
+			return false;
+		}
+		Glide.clear(target);
+		return true;
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected String transformationKey(@NonNull BitmapTransformation transformation) {
+		return transformation.getId();
+	}
+
+	/**
+	 * Returns the signature with which should be requested images of the specified <var>target</var>
+	 * and marks its bucket as requested.
+	 *
+	 * @param target The target of which signature to return.
+	 * @return The signature or {@code null} if no images of the target have been removed.
+	 */
+	private static Key signatureOf(String target) {
+		final int bucket = signatureBucketOf(target);
+		if (SIGNATURES_REQUESTED.get(bucket) == 0) SIGNATURES_REQUESTED.set(bucket, 1);
+		return SIGNATURES.get(bucket);
+	}
+
+	/**
+	 * Returns index of the signature bucket of the specified <var>target</var>.
+	 *
+	 * @param target The target of which bucket to return.
+	 * @return Bucket index.
+	 */
+	private static int signatureBucketOf(String target) {
+		return (target.hashCode() & Integer.MAX_VALUE) % SIGNATURE_BUCKET_COUNT;
+	}
+
+	/**
+	 * <p>
+	 * Glide does not allow to remove a specific image from its caches, so this implementation
+	 * assigns a new signature to the bucket of the target of this task. Subsequent loads of the
+	 * target thus miss the previously cached images, which are evicted from the caches eventually.
+	 * The signatures are kept only for the lifetime of the current process.
+	 *
+	 * @return {@code True} if images of the target may have been cached with the previous signature
+	 * during the current process and are now unreachable, {@code false} if nothing has been requested
+	 * with it, so nothing has been evicted.
+	 */
+	@Override
 	protected boolean onRemove(@NonNull RequestManager loader) {
-		throw new UnsupportedOperationException("Glide image loader does not support removing of loaded images.");
+		ensureHasTargetOrThrow();
+		final int bucket = signatureBucketOf(mTarget);
+		final boolean requested = SIGNATURES_REQUESTED.getAndSet(bucket, 0) != 0;
+		SIGNATURES.set(bucket, new StringSignature(UUID.randomUUID().toString()));
+		return requested;
 	}
 
 	/**
 	 * Inner classes ===============================================================================
 	 */
 
+	/**
+	 * Glide transformation that applies an {@link ImageTransformation} with bitmaps obtained from
+	 * the shared transformation pool.
+	 * <p>
+	 * Glide releases the source bitmap itself, while the transformed bitmap is recycled once Glide
+	 * releases it from its caches.
+	 */
+	private static final class TransformationAdapter extends BitmapTransformation {
+
+		/**
+		 * Glide bitmap pool that recycles all bitmaps put into it.
+		 */
+		static final com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool GLIDE_POOL = new BitmapPoolAdapter();
+
+		/**
+		 * Adapted image transformation.
+		 */
+		final ImageTransformation transformation;
+
+		/**
+		 * Creates a new TransformationAdapter for the given image <var>transformation</var>.
+		 *
+		 * @param transformation The transformation to be adapted.
+		 */
+		TransformationAdapter(ImageTransformation transformation) {
+			super(GLIDE_POOL);
+			this.transformation = transformation;
+		}
+
+		/**
+		 */
+		@Override
+		protected Bitmap transform(com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool pool, Bitmap toTransform, int outWidth, int outHeight) {
+			return transformation.transform(toTransform, transformationPool());
+		}
+
+		/**
+		 */
+		@Override
+		public String getId() {
+			return transformation.getKey();
+		}
+	}
+
+	/**
+	 * Target used for asynchronous loading without image view provided.
+	 */
+	private static final class AsyncTarget extends SimpleTarget<GlideDrawable> {
+
+		/**
+		 */
+		@Override
+		public void onResourceReady(GlideDrawable resource, GlideAnimation<? super GlideDrawable> glideAnimation) {
+			// Result is delivered via Listener, if any.
+		}
+	}
+
 	/**
 	 * Listener that wraps implementation of {@link RequestListener} for a specific {@link ImageLoader.Task}
 	 * and {@link ImageLoader.Callback}.
@@ -151,29 +533,36 @@ public class ImageTask extends BaseImageTask<RequestManager, String, BitmapTrans
 		/**
 		 * Task for which has been loading performed.
 		 */
-		final ImageLoader.Task task;
+		final ImageTask task;
 
 		/**
-		 * Loader callback to be invoked in case of finished loading or failed loading.
+		 * Loader callback to be invoked in case of finished loading or failed loading. Cleared once
+		 * the loading finishes, so this listener may be reused. May be {@code null}.
 		 */
-		final ImageLoader.Callback callback;
+		ImageLoader.Callback callback;
 
 		/**
-		 * Creates a new Listener wrapper for the given <var>task</var> and <var>callback</var>.
+		 * Creates a new Listener wrapper for the given <var>task</var>.
 		 *
-		 * @param task     The task for which has been loading performed.
-		 * @param callback The loader callback to be invoked in case of finished loading or failed loading.
+		 * @param task The task for which is loading performed.
 		 */
-		Listener(ImageLoader.Task task, ImageLoader.Callback callback) {
+		Listener(ImageTask task) {
 			this.task = task;
-			this.callback = callback;
 		}
 
 		/**
 		 */
 		@Override
 		public boolean onResourceReady(GlideDrawable resource, String model, Target<GlideDrawable> target, boolean isFromMemoryCache, boolean isFirstResource) {
-			callback.onImageLoadFinished(task, ((GlideBitmapDrawable) resource).getBitmap());
+			final ImageLoader.Callback callback = this.callback;
+			if (callback == null) {
+				return false;
+			}
+			this.callback = null;
+			final Bitmap bitmap = ((GlideBitmapDrawable) resource).getBitmap();
+			task.recordCacheLookup(ImageLoader.Metrics.CACHE_MEMORY, isFromMemoryCache);
+			if (!isFromMemoryCache) task.recordBitmapDecoded(bitmap);
+			callback.onImageLoadFinished(task, bitmap);
 			return false;
 		}
 
@@ -181,6 +570,11 @@ public class ImageTask extends BaseImageTask<RequestManager, String, BitmapTrans
 		 */
 		@Override
 		public boolean onException(Exception exception, String model, Target<GlideDrawable> target, boolean isFirstResource) {
+			final ImageLoader.Callback callback = this.callback;
+			if (callback == null) {
+				return false;
+			}
+			this.callback = null;
 			callback.onImageLoadFailed(task, errorFromException(exception));
 			return false;
 		}
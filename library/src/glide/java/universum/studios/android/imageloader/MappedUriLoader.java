@@ -0,0 +1,219 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.content.Context;
+import android.net.Uri;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.model.GenericLoaderFactory;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.stream.StreamModelLoader;
+import com.bumptech.glide.load.model.stream.StreamUriLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link StreamModelLoader} implementation for {@link Uri Uris} that reads data of local image
+ * files with length of at least {@link MappedInputStream#MIN_LENGTH} from theirs memory mappings
+ * via {@link MappedInputStream}. All other uris are loaded via the default {@link StreamUriLoader}.
+ * <p>
+ * Glide resolves string targets, including absolute paths, into uris, so this loader handles all
+ * {@code file} targets of {@link ImageTask ImageTasks}. <b>Note</b>, that Glide buffers every decoded
+ * stream on its own, so the mapping saves only system calls of the file reads. Glide also reads its
+ * disk cache via its own file streams that are not pluggable, so disk cache hits are not mapped.
+ *
+ * @author Martin Albedinsky
+ * @see ImageLoaderFactory
+ */
+final class MappedUriLoader implements StreamModelLoader<Uri> {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "MappedUriLoader";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Flag indicating whether the factory of this loader has been already registered into Glide.
+	 */
+	private static boolean sRegistered;
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Loader used to load uris that do not refer to mappable files.
+	 */
+	private final ModelLoader<Uri, InputStream> mDelegate;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of MappedUriLoader with the specified <var>delegate</var> loader.
+	 *
+	 * @param delegate The loader to be used to load uris that do not refer to mappable files.
+	 */
+	MappedUriLoader(ModelLoader<Uri, InputStream> delegate) {
+		this.mDelegate = delegate;
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Registers factory of this loader into Glide instance for the specified <var>context</var>, if
+	 * it has not been registered yet.
+	 *
+	 * @param context The context used to access the Glide instance.
+	 */
+	static synchronized void register(Context context) {
+		if (!sRegistered) {
+			Glide.get(context).register(Uri.class, InputStream.class, new Factory());
+			sRegistered = true;
+		}
+	}
+
+	/**
+	 */
+	@Override
+	public DataFetcher<InputStream> getResourceFetcher(Uri model, int width, int height) {
+		if (CompositeImageLoader.SCHEME_FILE.equals(model.getScheme()) && model.getPath() != null) {
+			final File file = new File(model.getPath());
+			final long length = file.length();
+			if (length >= MappedInputStream.MIN_LENGTH && length <= Integer.MAX_VALUE) {
+				return new MappedFileFetcher(model, file);
+			}
+		}
+		return mDelegate.getResourceFetcher(model, width, height);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+
+	/**
+	 * Factory creating instances of {@link MappedUriLoader}.
+	 */
+	static final class Factory implements ModelLoaderFactory<Uri, InputStream> {
+
+		/**
+		 */
+		@Override
+		public ModelLoader<Uri, InputStream> build(Context context, GenericLoaderFactory factories) {
+			return new MappedUriLoader(new StreamUriLoader(context, factories.buildModelLoader(GlideUrl.class, InputStream.class)));
+		}
+
+		/**
+		 */
+		@Override
+		public void teardown() {
+			// Nothing to tear down.
+		}
+	}
+
+	/**
+	 * A {@link DataFetcher} implementation that opens a {@link MappedInputStream} for a local file.
+	 */
+	private static final class MappedFileFetcher implements DataFetcher<InputStream> {
+
+		/**
+		 * Uri of the file, used as identifier of the fetched data.
+		 */
+		private final Uri uri;
+
+		/**
+		 * The file to be mapped.
+		 */
+		private final File file;
+
+		/**
+		 * Stream opened for the file. May be {@code null}.
+		 */
+		private InputStream stream;
+
+		/**
+		 * Creates a new instance of MappedFileFetcher for the specified <var>file</var>.
+		 *
+		 * @param uri  The uri of the file.
+		 * @param file The file to be mapped.
+		 */
+		MappedFileFetcher(Uri uri, File file) {
+			this.uri = uri;
+			this.file = file;
+		}
+
+		/**
+		 */
+		@Override
+		public InputStream loadData(Priority priority) throws IOException {
+			return stream = MappedInputStream.open(file);
+		}
+
+		/**
+		 */
+		@Override
+		public void cleanup() {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					// Ignored.
+				}
+			}
+		}
+
+		/**
+		 * <p>
+		 * Same identifier as used by the default uri loader, so the data are cached under the same key.
+		 */
+		@Override
+		public String getId() {
+			return uri.toString();
+		}
+
+		/**
+		 */
+		@Override
+		public void cancel() {
+			// Mapping of a file cannot be cancelled.
+		}
+	}
+}
@@ -22,12 +22,23 @@ import android.app.Activity;
 import android.app.Fragment;
 import android.content.ComponentCallbacks2;
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.support.annotation.DrawableRes;
+import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.annotation.Px;
 import android.widget.ImageView;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Unified image loader interface.
  *
@@ -35,6 +46,34 @@ import android.widget.ImageView;
  */
 public interface ImageLoader {
 
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Cache level determining that a preloaded image should be only fetched into the disk cache
+	 * without being decoded.
+	 *
+	 * @see #preload(Task, int)
+	 */
+	int CACHE_LEVEL_DISK_ONLY = 0x01;
+
+	/**
+	 * Cache level determining that a preloaded image should be decoded and stored in the memory cache,
+	 * so its subsequent load is served from memory.
+	 *
+	 * @see #preload(Task, int)
+	 */
+	int CACHE_LEVEL_MEMORY = 0x02;
+
+	/**
+	 * Defines an annotation for determining set of allowed cache levels for {@link #preload(Task, int)}.
+	 */
+	@IntDef({CACHE_LEVEL_DISK_ONLY, CACHE_LEVEL_MEMORY})
+	@Retention(RetentionPolicy.SOURCE)
+	@interface CacheLevel {
+	}
+
 	/**
 	 * Interface ===================================================================================
 	 */
@@ -68,6 +107,184 @@ public interface ImageLoader {
 		void onImageLoadFailed(@NonNull Task task, @NonNull Error error);
 	}
 
+	/**
+	 * A {@link Callback} extension that receives also partial results of tasks loaded
+	 * {@link Task#progressive(boolean) progressively}.
+	 *
+	 * @author Martin Albedinsky
+	 */
+	interface ProgressCallback extends Callback {
+
+		/**
+		 * Invoked whenever a better pass of the image has been decoded for the specified progressively
+		 * loaded <var>task</var> while its data are still being received.
+		 * <p>
+		 * The <var>bitmap</var> is a buffer reused for all passes of the task, so it should not be
+		 * retained nor recycled after this call returns.
+		 *
+		 * @param task   The task for which has been the pass decoded.
+		 * @param bitmap Bitmap with the decoded pass.
+		 * @param pass   Number of the decoded pass starting from {@code 1}.
+		 */
+		void onImageLoadProgress(@NonNull Task task, @NonNull Bitmap bitmap, int pass);
+	}
+
+	/**
+	 * Listener callback that can be used to listen for results of tasks loaded in a batch.
+	 * <p>
+	 * Results of the individual tasks are delivered on the main thread grouped into chunks, at most
+	 * one chunk per display frame, so a batch of many tasks does not flood the main thread with
+	 * separate callbacks.
+	 *
+	 * @author Martin Albedinsky
+	 * @see #load(Collection, BatchCallback)
+	 */
+	interface BatchCallback {
+
+		/**
+		 * Invoked whenever there are results of tasks from the batch that have finished since the
+		 * last call to this method.
+		 *
+		 * @param items Results of the finished tasks.
+		 */
+		void onBatchItemsFinished(@NonNull List<BatchItem> items);
+
+		/**
+		 * Invoked after results of all tasks from the batch have been delivered via {@link #onBatchItemsFinished(List)}.
+		 *
+		 * @param stats Aggregate statistics of the finished batch.
+		 */
+		void onBatchFinished(@NonNull BatchStats stats);
+	}
+
+	/**
+	 * Listener that receives measurements of image loading processes performed by an {@link ImageLoader}
+	 * implementation. Implementations may aggregate the measurements or forward them to a custom
+	 * telemetry.
+	 * <p>
+	 * Methods of this interface may be invoked from any thread and very frequently, so implementations
+	 * should be thread-safe and should avoid any allocations and blocking.
+	 *
+	 * @author Martin Albedinsky
+	 */
+	interface Metrics {
+
+		/**
+		 * Stage covering the whole loading process of a task, from its dispatching until delivery
+		 * of its result.
+		 */
+		int STAGE_TOTAL = 0;
+
+		/**
+		 * Stage for which waits a task in a queue before it is fetched or decoded.
+		 */
+		int STAGE_QUEUE = 1;
+
+		/**
+		 * Stage in which are fetched data of an image, either from a disk cache or from a network.
+		 */
+		int STAGE_FETCH = 2;
+
+		/**
+		 * Stage in which is decoded and transformed bitmap of an image.
+		 */
+		int STAGE_DECODE = 3;
+
+		/**
+		 * Stage in which is a loaded bitmap being delivered to the main thread.
+		 */
+		int STAGE_DELIVER = 4;
+
+		/**
+		 * Count of all stages.
+		 */
+		int STAGE_COUNT = 5;
+
+		/**
+		 * Defines an annotation for determining set of allowed stages for {@link #onStageTime(int, long)}.
+		 */
+		@IntDef({STAGE_TOTAL, STAGE_QUEUE, STAGE_FETCH, STAGE_DECODE, STAGE_DELIVER})
+		@Retention(RetentionPolicy.SOURCE)
+		@interface Stage {
+		}
+
+		/**
+		 * Cache of decoded bitmaps stored in memory.
+		 */
+		int CACHE_MEMORY = 0;
+
+		/**
+		 * Cache of fetched image data stored on disk.
+		 */
+		int CACHE_DISK = 1;
+
+		/**
+		 * Count of all caches.
+		 */
+		int CACHE_COUNT = 2;
+
+		/**
+		 * Defines an annotation for determining set of allowed caches for {@link #onCacheLookup(int, boolean)}.
+		 */
+		@IntDef({CACHE_MEMORY, CACHE_DISK})
+		@Retention(RetentionPolicy.SOURCE)
+		@interface Cache {
+		}
+
+		/**
+		 * Invoked whenever a task has finished the specified <var>stage</var> of its loading process.
+		 *
+		 * @param stage     The finished stage. One of {@link #STAGE_TOTAL}, {@link #STAGE_QUEUE},
+		 *                  {@link #STAGE_FETCH}, {@link #STAGE_DECODE}, {@link #STAGE_DELIVER}.
+		 * @param timeNanos Time in nanoseconds the stage has taken.
+		 */
+		void onStageTime(@Stage int stage, long timeNanos);
+
+		/**
+		 * Invoked whenever image of a task has been looked up in the specified <var>cache</var>.
+		 *
+		 * @param cache The cache in which has been the image looked up. One of {@link #CACHE_MEMORY}
+		 *              or {@link #CACHE_DISK}.
+		 * @param hit   {@code True} if the image has been found in the cache, {@code false} otherwise.
+		 */
+		void onCacheLookup(@Cache int cache, boolean hit);
+
+		/**
+		 * Invoked whenever a new bitmap has been decoded for a task.
+		 *
+		 * @param byteCount Count of bytes occupied by the decoded bitmap.
+		 */
+		void onBitmapDecoded(long byteCount);
+
+		/**
+		 * Invoked whenever loading of a task has failed.
+		 *
+		 * @param reason Reason of the failure. One of reasons defined by {@link Error}.
+		 */
+		void onTaskFailed(int reason);
+
+		/**
+		 * Invoked whenever loading of tasks has been cancelled before it has finished.
+		 *
+		 * @param count Count of the cancelled tasks.
+		 */
+		void onTasksCancelled(int count);
+
+		/**
+		 * Invoked whenever a task has joined an in-flight loading of an equal task instead of being
+		 * loaded separately.
+		 */
+		void onTaskCoalesced();
+
+		/**
+		 * Invoked whenever the loader has trimmed its memory in response to a trim request.
+		 *
+		 * @param level     The trim level for which has been the memory trimmed.
+		 * @param byteCount Count of bytes freed by the trim.
+		 */
+		void onMemoryTrimmed(int level, long byteCount);
+	}
+
 	/**
 	 * Task used to specify set of desired parameters necessary for image loading process.
 	 *
@@ -85,6 +302,47 @@ public interface ImageLoader {
 		 */
 		int NO_RESOURCE_ID = 0;
 
+		/**
+		 * Priority for tasks of which images should be loaded before all other ones, like images that
+		 * are currently being displayed in a focused content.
+		 */
+		int PRIORITY_IMMEDIATE = 2;
+
+		/**
+		 * Priority for tasks of which images should be loaded before tasks with {@link #PRIORITY_NORMAL}.
+		 */
+		int PRIORITY_HIGH = 1;
+
+		/**
+		 * Default priority of tasks.
+		 */
+		int PRIORITY_NORMAL = 0;
+
+		/**
+		 * Priority for tasks of which images may be loaded after tasks with {@link #PRIORITY_NORMAL}.
+		 */
+		int PRIORITY_LOW = -1;
+
+		/**
+		 * Priority for tasks of which images are loaded only in advance, like images of items that are
+		 * not visible yet. Such tasks are loaded after all other ones.
+		 */
+		int PRIORITY_PREFETCH = -2;
+
+		/**
+		 * Defines an annotation for determining set of allowed priorities for {@link #priority(int)}.
+		 */
+		@IntDef({
+				PRIORITY_IMMEDIATE,
+				PRIORITY_HIGH,
+				PRIORITY_NORMAL,
+				PRIORITY_LOW,
+				PRIORITY_PREFETCH
+		})
+		@Retention(RetentionPolicy.SOURCE)
+		@interface Priority {
+		}
+
 		/**
 		 * Specifies a target that refers to the image bitmap stored whether <b>online</b> on a remote
 		 * server or <b>offline</b> within this Android device's cache (memory, disk) to be loaded via
@@ -154,6 +412,54 @@ public interface ImageLoader {
 		 */
 		Task<Target, Transformation> transform(@Nullable Transformation transformation);
 
+		/**
+		 * Specifies a transformation independent of the underlying loader to be applied to the loaded
+		 * bitmap after the one specified via {@link #transform(Object)}. Multiple transformations
+		 * may be applied via {@link TransformationChain}.
+		 * <p>
+		 * Key of the transformation is part of the key under which is the transformed bitmap cached,
+		 * so the transformation is not applied again to an image that is already cached in its
+		 * transformed form.
+		 *
+		 * @param transformation The desired transformation. May be {@code null} to not use any.
+		 * @return This task to allow methods chaining.
+		 */
+		Task<Target, Transformation> bitmapTransform(@Nullable ImageTransformation transformation);
+
+		/**
+		 * Specifies a size in pixels to which should be the loaded image resized.
+		 * <p>
+		 * The image is decoded with the cheapest sub-sampling supported by the underlying loader,
+		 * so its bitmap is never unnecessarily larger than the requested size. How the image fits
+		 * into the requested size may be specified via {@link #centerCrop()} or {@link #centerInside()}.
+		 * If none of them is requested, the image is scaled down preserving its aspect ratio.
+		 *
+		 * @param width  The desired width in pixels. May be {@code 0} to not resize.
+		 * @param height The desired height in pixels. May be {@code 0} to not resize.
+		 * @return This task to allow methods chaining.
+		 * @throws IllegalArgumentException If the width or height is negative.
+		 * @see #centerCrop()
+		 * @see #centerInside()
+		 */
+		Task<Target, Transformation> resize(@Px int width, @Px int height);
+
+		/**
+		 * Requests the loaded image to be scaled so it fills the whole size specified via {@link #resize(int, int)}
+		 * and then cropped to that size.
+		 *
+		 * @return This task to allow methods chaining.
+		 * @see #centerInside()
+		 */
+		Task<Target, Transformation> centerCrop();
+
+		/**
+		 * Requests the loaded image to be scaled so it fits inside the size specified via {@link #resize(int, int)}.
+		 *
+		 * @return This task to allow methods chaining.
+		 * @see #centerCrop()
+		 */
+		Task<Target, Transformation> centerInside();
+
 		/**
 		 * Specifies a boolean flag determining whether to animate attaching of image bitmap to the
 		 * associated image view or not.
@@ -163,6 +469,100 @@ public interface ImageLoader {
 		 */
 		Task<Target, Transformation> doNotAnimate(boolean animate);
 
+		/**
+		 * Specifies a config in which should be the loaded image decoded. For example, opaque images
+		 * decoded in {@link Bitmap.Config#RGB_565} take only half of the memory of the default
+		 * {@link Bitmap.Config#ARGB_8888}, so twice as many of them fit into the memory cache.
+		 * <p>
+		 * Implementations that do not support the specified config decode the image in theirs
+		 * default config.
+		 *
+		 * @param config The desired config. May be {@code null} to use the default config of the
+		 *               loader or the one resolved via {@link #preferRgb565(boolean)}.
+		 * @return This task to allow methods chaining.
+		 * @see #preferRgb565(boolean)
+		 */
+		Task<Target, Transformation> bitmapConfig(@Nullable Bitmap.Config config);
+
+		/**
+		 * Specifies a boolean flag determining whether the image should be decoded in {@link Bitmap.Config#RGB_565}
+		 * if it is in a format that cannot contain transparency, like JPEG, and in the default config
+		 * otherwise. Ignored if a config has been specified via {@link #bitmapConfig(Bitmap.Config)}.
+		 * <p>
+		 * Implementations that cannot inspect the image before decoding it resolve its format from
+		 * extension of the target.
+		 *
+		 * @param prefer {@code True} to decode opaque images in {@link Bitmap.Config#RGB_565},
+		 *               {@code false} otherwise.
+		 * @return This task to allow methods chaining.
+		 */
+		Task<Target, Transformation> preferRgb565(boolean prefer);
+
+		/**
+		 * Specifies a boolean flag determining whether the image should be decoded progressively
+		 * while its data are being received, so a progressive JPEG is shown in increasingly better
+		 * passes instead of only the placeholder until its last byte arrives.
+		 * <p>
+		 * Each pass is attached to the associated image view and delivered to the callback, if it
+		 * is a {@link ProgressCallback}. Passes are not transformed. Implementations that do not
+		 * support progressive decoding ignore this flag.
+		 *
+		 * @param progressive {@code True} to decode the image progressively, {@code false} otherwise.
+		 * @return This task to allow methods chaining.
+		 */
+		Task<Target, Transformation> progressive(boolean progressive);
+
+		/**
+		 * Specifies a task loading a smaller variant of this task's image, like the one already
+		 * cached for a list, to be shown in the associated image view until the full image of this
+		 * task is loaded.
+		 * <p>
+		 * The thumbnail is loaded along with this task and it is attached only if it is loaded
+		 * before the full image. Once the full image is loaded or this task is cancelled, the loading
+		 * of the thumbnail is cancelled. Image view and callback of the thumbnail task are ignored.
+		 *
+		 * @param thumbnail The desired thumbnail task. May be {@code null} to not load any.
+		 * @return This task to allow methods chaining.
+		 * @see #thumbnail(float)
+		 */
+		Task<Target, Transformation> thumbnail(@Nullable Task<Target, Transformation> thumbnail);
+
+		/**
+		 * Same as {@link #thumbnail(Task)} for a thumbnail task loading the same image as this task
+		 * with its size multiplied by the specified <var>sizeMultiplier</var>.
+		 * <p>
+		 * If no size has been specified via {@link #resize(int, int)}, the current size of the
+		 * associated image view is multiplied instead. If neither is known, no thumbnail is loaded.
+		 *
+		 * @param sizeMultiplier The desired multiplier from the range {@code (0, 1]}. May be {@code 0}
+		 *                       to not load any thumbnail.
+		 * @return This task to allow methods chaining.
+		 * @throws IllegalArgumentException If the multiplier is not from the range {@code [0, 1]}.
+		 */
+		Task<Target, Transformation> thumbnail(float sizeMultiplier);
+
+		/**
+		 * Specifies a priority with which should be this task loaded in relation to other tasks that
+		 * are waiting to be loaded.
+		 * <p>
+		 * Default priority is {@link #PRIORITY_NORMAL}.
+		 *
+		 * @param priority The desired priority. One of {@link #PRIORITY_IMMEDIATE}, {@link #PRIORITY_HIGH},
+		 *                 {@link #PRIORITY_NORMAL}, {@link #PRIORITY_LOW}, {@link #PRIORITY_PREFETCH}.
+		 * @return This task to allow methods chaining.
+		 * @see #priority()
+		 */
+		Task<Target, Transformation> priority(@Priority int priority);
+
+		/**
+		 * Returns the priority specified for this task.
+		 *
+		 * @return This task's priority.
+		 * @see #priority(int)
+		 */
+		@Priority
+		int priority();
+
 		/**
 		 * Specifies an image view to which should be attached image bitmap loaded via this task.
 		 *
@@ -183,6 +583,142 @@ public interface ImageLoader {
 		ImageView view();
 	}
 
+	/**
+	 * Predicate used to match targets of images to be invalidated via {@link #invalidate(TargetPredicate)}.
+	 *
+	 * @author Martin Albedinsky
+	 */
+	interface TargetPredicate {
+
+		/**
+		 * Tests whether images of the specified <var>target</var> should be invalidated.
+		 * <p>
+		 * This method may be invoked from a background thread.
+		 *
+		 * @param target The target to test.
+		 * @return {@code True} to invalidate the target's images, {@code false} otherwise.
+		 */
+		boolean test(@NonNull Object target);
+	}
+
+	/**
+	 * Result of a single task loaded in a batch.
+	 *
+	 * @author Martin Albedinsky
+	 * @see BatchCallback#onBatchItemsFinished(List)
+	 */
+	final class BatchItem {
+
+		/**
+		 * Task of which result is this item.
+		 */
+		@NonNull
+		public final Task task;
+
+		/**
+		 * Bitmap loaded for the task or {@code null} if the loading has failed.
+		 */
+		@Nullable
+		public final Bitmap bitmap;
+
+		/**
+		 * Error due to which the loading has failed or {@code null} if it has finished successfully.
+		 */
+		@Nullable
+		public final Error error;
+
+		/**
+		 * Time in milliseconds it took to load the task.
+		 */
+		public final long loadTime;
+
+		/**
+		 * Creates a new instance of BatchItem with the specified parameters.
+		 *
+		 * @param task     The task of which result is the item.
+		 * @param bitmap   The loaded bitmap. May be {@code null} if loading has failed.
+		 * @param error    The loading error. May be {@code null} if loading has been successful.
+		 * @param loadTime The time in milliseconds it took to load the task.
+		 */
+		public BatchItem(@NonNull Task task, @Nullable Bitmap bitmap, @Nullable Error error, long loadTime) {
+			this.task = task;
+			this.bitmap = bitmap;
+			this.error = error;
+			this.loadTime = loadTime;
+		}
+
+		/**
+		 * Checks whether the task of this item has been loaded successfully.
+		 *
+		 * @return {@code True} if the bitmap has been loaded, {@code false} otherwise.
+		 */
+		public boolean isSuccessful() {
+			return bitmap != null;
+		}
+	}
+
+	/**
+	 * Aggregate statistics of a finished batch of tasks.
+	 *
+	 * @author Martin Albedinsky
+	 * @see BatchCallback#onBatchFinished(BatchStats)
+	 */
+	final class BatchStats {
+
+		/**
+		 * Count of tasks in the batch.
+		 */
+		public final int taskCount;
+
+		/**
+		 * Count of tasks that have failed to load.
+		 */
+		public final int failedCount;
+
+		/**
+		 * Time in milliseconds from the start of the batch until its last task has finished.
+		 */
+		public final long totalTime;
+
+		/**
+		 * Average time in milliseconds it took to load a single task.
+		 */
+		public final long averageLoadTime;
+
+		/**
+		 * The longest time in milliseconds it took to load a single task.
+		 */
+		public final long maxLoadTime;
+
+		/**
+		 * Creates a new instance of BatchStats with the specified parameters.
+		 *
+		 * @param taskCount       The count of tasks in the batch.
+		 * @param failedCount     The count of failed tasks.
+		 * @param totalTime       The total time of the batch in milliseconds.
+		 * @param averageLoadTime The average load time of a single task in milliseconds.
+		 * @param maxLoadTime     The longest load time of a single task in milliseconds.
+		 */
+		public BatchStats(int taskCount, int failedCount, long totalTime, long averageLoadTime, long maxLoadTime) {
+			this.taskCount = taskCount;
+			this.failedCount = failedCount;
+			this.totalTime = totalTime;
+			this.averageLoadTime = averageLoadTime;
+			this.maxLoadTime = maxLoadTime;
+		}
+
+		/**
+		 */
+		@Override
+		public String toString() {
+			return "BatchStats{taskCount=" + taskCount +
+					", failedCount=" + failedCount +
+					", totalTime=" + totalTime +
+					", averageLoadTime=" + averageLoadTime +
+					", maxLoadTime=" + maxLoadTime + "}";
+		}
+	}
+
 	/**
 	 * Error exception that will be dispatched by {@link ImageLoader} if some error occurs during
 	 * loading process.
@@ -218,6 +754,18 @@ public interface ImageLoader {
 		 */
 		public static final int REASON_MEMORY = 0x04;
 
+		/**
+		 * Reason indicating that an {@link Error} has occurred because the loading has not finished
+		 * within the specified <b>timeout</b>.
+		 */
+		public static final int REASON_TIMEOUT = 0x05;
+
+		/**
+		 * Reason indicating that an {@link Error} has been dispatched because the loading has been
+		 * <b>cancelled</b> before it could finish.
+		 */
+		public static final int REASON_CANCELLED = 0x06;
+
 		/**
 		 * Reason due to which has been this error dispatched.
 		 */
@@ -266,6 +814,11 @@ public interface ImageLoader {
 	 * <p>
 	 * Depending on implementation, this should pause all currently running image tasks in a way where
 	 * they may be resumed via call to {@link #resume()}.
+	 * <p>
+	 * Whether images stored in the memory cache are delivered while paused depends on the wrapped
+	 * loader. Picasso, Universal, Volley and the core loader serve them synchronously before any
+	 * request is queued, whereas <b>Glide</b> queues all requests while paused, including memory
+	 * cache hits, and delivers them only after it is resumed.
 	 *
 	 * @see #resume()
 	 */
@@ -298,6 +851,20 @@ public interface ImageLoader {
 	 */
 	boolean load(@NonNull Task task, @Nullable Callback callback);
 
+	/**
+	 * Performs <b>asynchronous</b> loading of desired image bitmaps using the specified <var>tasks</var>.
+	 * <p>
+	 * All tasks are handed to this image loader at once and their results are delivered to the
+	 * specified <var>callback</var> grouped into chunks aligned with display frames, followed by
+	 * aggregate statistics once all tasks have finished.
+	 *
+	 * @param tasks    The tasks that specify necessary parameters for the loading process.
+	 * @param callback Callback to be invoked with results of the finished tasks.
+	 * @return {@code True} if loading process has been initiated for all tasks, {@code false} if it
+	 * has failed for some of them. Such tasks are reported as failed via the callback.
+	 */
+	boolean load(@NonNull Collection<? extends Task> tasks, @NonNull BatchCallback callback);
+
 	/**
 	 * Performs <b>synchronous</b> loading of a desired image bitmap using the specified <var>task</var>.
 	 *
@@ -308,6 +875,97 @@ public interface ImageLoader {
 	@Nullable
 	Bitmap load(@NonNull Task task);
 
+	/**
+	 * Performs <b>synchronous</b> decoding of the specified <var>region</var> of an image loaded
+	 * via the specified <var>task</var>, so parts of images too large to be decoded whole, like
+	 * maps or scanned documents, may be displayed.
+	 * <p>
+	 * The image data are obtained in the same way as for {@link #load(Task)}, but only the requested
+	 * region is decoded. Size, transformation and image view of the task are ignored. To display
+	 * only the visible tiles of a large image, {@link TileLoader} may be used.
+	 *
+	 * @param task       The task that specifies target of the image.
+	 * @param region     The region of the image to decode in the image's coordinates. Parts of
+	 *                   the region outside of the image are ignored.
+	 * @param sampleSize The sample size with which to decode the region. Values smaller than
+	 *                   {@code 1} are treated as {@code 1}.
+	 * @return Bitmap of the decoded region or {@code null} if the region is outside of the image.
+	 * @throws ImageLoader.Error If region decoding is not supported for the task or some loader
+	 *                           related error occurs during the decoding process.
+	 * @see TileLoader
+	 */
+	@Nullable
+	Bitmap loadRegion(@NonNull Task task, @NonNull Rect region, int sampleSize);
+
+	/**
+	 * Performs <b>asynchronous</b> loading of a desired image bitmap using the specified <var>task</var>
+	 * that may be awaited via the returned future.
+	 * <p>
+	 * The loading may be cancelled via {@link Future#cancel(boolean)} and its result awaited with
+	 * a timeout via {@link Future#get(long, TimeUnit)}. If the loading fails, the future throws
+	 * {@link ExecutionException} caused by {@link Error}. The future should not be awaited on the
+	 * main thread.
+	 *
+	 * @param task The task that specifies necessary parameters for the loading process.
+	 * @return Future of the loading process.
+	 */
+	@NonNull
+	Future<Bitmap> loadAsync(@NonNull Task task);
+
+	/**
+	 * Performs <b>asynchronous</b> preloading of a desired image bitmap using the specified <var>task</var>
+	 * into the specified cache level without attaching it to any view, so a subsequent load of the
+	 * same image is served from the cache.
+	 * <p>
+	 * Tasks with {@link Task#PRIORITY_NORMAL default} priority are preloaded with {@link Task#PRIORITY_PREFETCH}.
+	 * The priority is applied to a copy of the task, so the specified task remains unchanged.
+	 *
+	 * @param task       The task that specifies necessary parameters for the preloading process.
+	 * @param cacheLevel The level up to which to preload the image. One of {@link #CACHE_LEVEL_DISK_ONLY}
+	 *                   or {@link #CACHE_LEVEL_MEMORY}.
+	 * @return {@code True} if preloading process has been initiated, {@code false} if some error has
+	 * occurred.
+	 * @see #cancel(Task)
+	 */
+	boolean preload(@NonNull Task task, @CacheLevel int cacheLevel);
+
+	/**
+	 * Cancels loading or preloading process initiated for the specified <var>task</var>, if it is
+	 * still running. Neither the bitmap nor the error drawable is attached to the task's view and
+	 * callback of the cancelled task is not invoked.
+	 * <p>
+	 * This method should be called only from the main thread.
+	 *
+	 * @param task The task of which loading to cancel.
+	 * @return {@code True} if there has been a running loading or preloading process for the task
+	 * that has been cancelled, {@code false} otherwise.
+	 * @see #cancel(ImageView)
+	 * @see #cancelAll()
+	 */
+	boolean cancel(@NonNull Task task);
+
+	/**
+	 * Cancels loading process of a task that has been loaded for the specified image <var>view</var>,
+	 * if it is still running. Useful when the view is recycled and its image will never be shown.
+	 * <p>
+	 * This method should be called only from the main thread.
+	 *
+	 * @param view The view of which loading process to cancel.
+	 * @return {@code True} if there has been a running loading process for the view that has been
+	 * cancelled, {@code false} otherwise.
+	 * @see #cancel(Task)
+	 */
+	boolean cancel(@NonNull ImageView view);
+
+	/**
+	 * Cancels all currently running loading and preloading processes initiated via this image loader.
+	 * <p>
+	 * This method should be called only from the main thread.
+	 *
+	 * @see #cancel(Task)
+	 */
+	void cancelAll();
+
 	/**
 	 * Performs <b>synchronous</b> removing of a desired image bitmap using the specified <var>task</var>.
 	 *
@@ -317,6 +975,36 @@ public interface ImageLoader {
 	 */
 	boolean remove(@NonNull Task task);
 
+	/**
+	 * Same as {@link #invalidate(TargetPredicate)} with predicate matching all targets that start
+	 * with the specified <var>prefix</var>, like all images of a single user.
+	 *
+	 * @param prefix The prefix of targets of which images to invalidate.
+	 * @return Future of the invalidation process.
+	 */
+	@NonNull
+	Future<Integer> invalidate(@NonNull String prefix);
+
+	/**
+	 * Performs <b>asynchronous</b> removing of images of all targets matching the specified
+	 * <var>predicate</var> from both memory and disk caches, in all sizes and with all transformations.
+	 * <p>
+	 * The invalidation is performed off the main thread in a single pass.
+	 * <p>
+	 * <b>Note</b> that disk caches of most loaders store images under hashed names, so targets
+	 * of cached images cannot be listed. Such loaders match the predicate only against the most
+	 * recently loaded or preloaded targets (at most {@code 2048} of them) and images of other targets
+	 * remain cached. The core loader matches the predicate also against all entries of its memory
+	 * and disk cache.
+	 *
+	 * @param predicate The predicate matching targets of which images to invalidate.
+	 * @return Future of the invalidation process that resolves to the count of targets of which
+	 * images have been removed.
+	 * @see #remove(Task)
+	 */
+	@NonNull
+	Future<Integer> invalidate(@NonNull TargetPredicate predicate);
+
 	/**
 	 * Called due to call to {@link Activity#onLowMemory()} or {@link Fragment#onLowMemory()} of the
 	 * activity or fragment that uses this image loader.
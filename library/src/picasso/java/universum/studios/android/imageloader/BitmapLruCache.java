@@ -0,0 +1,212 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.v4.util.LruCache;
+
+import com.squareup.picasso.Cache;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link Cache} implementation that is bounded by a total <b>byte</b> size of the stored bitmaps
+ * and, unlike the default cache of {@link com.squareup.picasso.Picasso}, may be trimmed to a fraction
+ * of its current size.
+ *
+ * @author Martin Albedinsky
+ */
+public final class BitmapLruCache implements Cache {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "BitmapLruCache";
+
+	/**
+	 * Divider used to compute the default size of the cache from the maximum memory available to
+	 * the current process.
+	 */
+	private static final int DEFAULT_SIZE_DIVIDER = 8;
+
+	/**
+	 * Separator used by Picasso to separate uri from the rest of a cache key.
+	 */
+	private static final char KEY_SEPARATOR = '\n';
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Lru cache in which are the bitmaps stored.
+	 */
+	private final LruCache<String, Bitmap> mCache;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Same as {@link #BitmapLruCache(int)} with size computed via {@link #defaultSize()}.
+	 */
+	public BitmapLruCache() {
+		this(defaultSize());
+	}
+
+	/**
+	 * Creates a new instance of BitmapLruCache with the specified maximum <var>size</var>.
+	 *
+	 * @param maxSize The maximum size of the cache in bytes.
+	 */
+	public BitmapLruCache(int maxSize) {
+		this.mCache = new LruCache<String, Bitmap>(maxSize) {
+
+			/**
+			 */
+			@Override
+			protected int sizeOf(String key, Bitmap bitmap) {
+				return BitmapPool.byteCountOf(bitmap);
+			}
+		};
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the default size for the bitmap cache computed as <b>1/8</b> of the maximum memory
+	 * available to the current process.
+	 *
+	 * @return Default cache size in bytes.
+	 */
+	public static int defaultSize() {
+		return (int) (Runtime.getRuntime().maxMemory() / DEFAULT_SIZE_DIVIDER);
+	}
+
+	/**
+	 */
+	@Override
+	public Bitmap get(String key) {
+		return mCache.get(key);
+	}
+
+	/**
+	 */
+	@Override
+	public void set(String key, Bitmap bitmap) {
+		mCache.put(key, bitmap);
+	}
+
+	/**
+	 */
+	@Override
+	public int size() {
+		return mCache.size();
+	}
+
+	/**
+	 */
+	@Override
+	public int maxSize() {
+		return mCache.maxSize();
+	}
+
+	/**
+	 */
+	@Override
+	public void clear() {
+		mCache.evictAll();
+	}
+
+	/**
+	 */
+	@Override
+	public void clearKeyUri(String uri) {
+		removeKeyUri(uri);
+	}
+
+	/**
+	 * Removes all bitmaps stored for the specified <var>uri</var> regardless theirs size and
+	 * transformation.
+	 *
+	 * @param uri The uri of which bitmaps to remove.
+	 * @return {@code True} if some bitmap has been removed, {@code false} otherwise.
+	 */
+	public boolean removeKeyUri(@NonNull String uri) {
+		final int length = uri.length();
+		boolean removed = false;
+		for (final String key : mCache.snapshot().keySet()) {
+			if (key.startsWith(uri) && key.indexOf(KEY_SEPARATOR) == length) {
+				removed |= mCache.remove(key) != null;
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Trims this cache to the specified <var>fraction</var> of its current size by evicting the
+	 * least recently used bitmaps.
+	 *
+	 * @param fraction The fraction of the current size to which to trim the cache. {@code 0} to
+	 *                 evict all bitmaps.
+	 * @return Count of bytes freed by the trim.
+	 */
+	public int trimToFraction(float fraction) {
+		final int initialSize = mCache.size();
+		if (fraction <= 0) mCache.evictAll();
+		else mCache.trimToSize(Math.round(initialSize * fraction));
+		return initialSize - mCache.size();
+	}
+
+	/**
+	 * Evicts all bitmaps from this cache except the specified <var>retainedBitmaps</var>.
+	 *
+	 * @param retainedBitmaps The bitmaps that should remain in the cache.
+	 * @return Count of bytes freed by the eviction.
+	 */
+	public int evictAllExcept(@NonNull Set<Bitmap> retainedBitmaps) {
+		int byteCount = 0;
+		for (final Map.Entry<String, Bitmap> entry : mCache.snapshot().entrySet()) {
+			if (!retainedBitmaps.contains(entry.getValue()) && mCache.remove(entry.getKey()) != null) {
+				byteCount += BitmapPool.byteCountOf(entry.getValue());
+			}
+		}
+		return byteCount;
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
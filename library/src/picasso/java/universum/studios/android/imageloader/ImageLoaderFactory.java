@@ -67,15 +67,40 @@ public abstract class ImageLoaderFactory {
 	 * Methods =====================================================================================
 	 */
 
+	/**
+	 * Same as {@link #createLoader(Context, int)} with cache size computed via {@link BitmapLruCache#defaultSize()}.
+	 */
+	@NonNull
+	public static ImageLoader createLoader(@NonNull Context context) {
+		return createLoader(context, BitmapLruCache.defaultSize());
+	}
+
 	/**
 	 * Creates a new instance of {@link ImageLoader} implementation for the given <var>context</var>.
+	 * <p>
+	 * The created loader wraps its own {@link Picasso} instance that stores loaded bitmaps in a
+	 * {@link BitmapLruCache} bounded by the specified <var>cacheSize</var>, so the cache may be
+	 * trimmed according to memory trim levels.
+	 * <p>
+	 * <b>Note</b>, that Picasso decodes images on its own and does not allow to reuse bitmaps for
+	 * decoding, so bitmaps of this loader are not reused via {@link BitmapPool}. Only bitmaps created
+	 * by {@link ImageTransformation ImageTransformations} are obtained from the shared transformation pool.
+	 * <p>
+	 * Local image files are read from memory mappings via {@link MappedFileRequestHandler}.
 	 *
-	 * @param context The context for which to create the loader.
+	 * @param context   The context for which to create the loader.
+	 * @param cacheSize The maximum size of the memory cache in bytes.
 	 * @return New image loader implementation ready to be used.
 	 */
 	@NonNull
-	public static ImageLoader createLoader(@NonNull Context context) {
-		return new ImageLoaderImpl(Picasso.with(context));
+	public static ImageLoader createLoader(@NonNull Context context, int cacheSize) {
+		MemoryBudget.getInstance().initialize(context);
+		final BitmapLruCache cache = new BitmapLruCache(cacheSize);
+		final Picasso picasso = new Picasso.Builder(context)
+				.memoryCache(cache)
+				.addRequestHandler(new MappedFileRequestHandler())
+				.build();
+		return new ImageLoaderImpl(picasso, cache);
 	}
 
 	/**
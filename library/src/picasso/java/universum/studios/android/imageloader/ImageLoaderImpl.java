@@ -18,14 +18,19 @@
  */
 package universum.studios.android.imageloader;
 
+import android.graphics.Bitmap;
 import android.support.annotation.NonNull;
-import android.util.Log;
 
 import com.squareup.picasso.Picasso;
 
+import java.util.Set;
+
 /**
  * A {@link BaseImageLoader} implementation that wraps instance of {@link Picasso} loader used to
  * perform loading for {@link ImageTask ImageTasks}.
+ * <p>
+ * <b>Note</b>, that preloading with {@link #CACHE_LEVEL_DISK_ONLY} is not supported by this loader
+ * and such {@link #preload(Task, int)} request returns {@code false}.
  *
  * @author Martin Albedinsky
  */
@@ -38,7 +43,7 @@ final class ImageLoaderImpl extends BaseImageLoader<Picasso> {
 	/**
 	 * Log TAG.
 	 */
-	private static final String TAG = "ImageLoader#Picasso";
+	// private static final String TAG = "ImageLoader#Picasso";
 
 	/**
 	 * Interface ===================================================================================
@@ -52,6 +57,11 @@ final class ImageLoaderImpl extends BaseImageLoader<Picasso> {
 	 * Members =====================================================================================
 	 */
 
+	/**
+	 * Memory cache used by the wrapped Picasso instance.
+	 */
+	private final BitmapLruCache mCache;
+
 	/**
 	 * Constructors ================================================================================
 	 */
@@ -60,9 +70,12 @@ final class ImageLoaderImpl extends BaseImageLoader<Picasso> {
 	 * Creates a new instance of ImageLoaderImpl to wrap the given <var>loader</var>.
 	 *
 	 * @param loader The loader to be used to perform images loading.
+	 * @param cache  The memory cache used by the given loader.
 	 */
-	protected ImageLoaderImpl(@NonNull Picasso loader) {
+	protected ImageLoaderImpl(@NonNull Picasso loader, @NonNull BitmapLruCache cache) {
 		super(loader);
+		this.mCache = cache;
+		ImageTask.registerCache(loader, cache);
 	}
 
 	/**
@@ -80,14 +93,14 @@ final class ImageLoaderImpl extends BaseImageLoader<Picasso> {
 	 */
 	@Override
 	public void resume() {
-		// Ignored.
+		ImageTask.resume(mLoader);
 	}
 
 	/**
 	 */
 	@Override
 	public void pause() {
-		// Ignored.
+		ImageTask.pause(mLoader);
 	}
 
 	/**
@@ -101,21 +114,44 @@ final class ImageLoaderImpl extends BaseImageLoader<Picasso> {
 	 */
 	@Override
 	public void destroy() {
-		// Ignored.
+		mLoader.shutdown();
+	}
+
+	/**
+	 */
+	@Override
+	protected long onMeasureMemoryCache() {
+		return mCache.size();
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected Object onIdentifyMemoryCache() {
+		return mCache;
+	}
+
+	/**
+	 */
+	@Override
+	protected long onTrimMemoryCache(float fraction) {
+		return mCache.trimToFraction(fraction);
 	}
 
 	/**
 	 */
 	@Override
-	public void onTrimMemory(int level) {
-		Log.w(TAG, "Should trim memory for level(" + level + ").");
+	protected long onEvictDetachedBitmaps(@NonNull Set<Bitmap> attachedBitmaps) {
+		return mCache.evictAllExcept(attachedBitmaps);
 	}
 
 	/**
 	 */
+	@NonNull
 	@Override
-	public void onLowMemory() {
-		Log.w(TAG, "Running low on memory.");
+	protected ImageTask onObtainTask() {
+		return ImageTask.obtain();
 	}
 
 	/**
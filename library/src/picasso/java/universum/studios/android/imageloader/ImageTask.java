@@ -21,20 +21,32 @@ package universum.studios.android.imageloader;
 import android.graphics.Bitmap;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
+import android.net.Uri;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
 
 import com.squareup.picasso.Callback;
+import com.squareup.picasso.NetworkPolicy;
 import com.squareup.picasso.Picasso;
 import com.squareup.picasso.RequestCreator;
 import com.squareup.picasso.Target;
 import com.squareup.picasso.Transformation;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  * A {@link BaseImageTask} implementation that can be used to load remote image with <b>Url</b> target.
+ * <p>
+ * Requested size is mapped to {@link RequestCreator#resize(int, int)} so Picasso decodes the image
+ * already down-sampled and never scales it up.
  *
  * @author Martin Albedinsky
  */
@@ -49,6 +61,12 @@ public class ImageTask extends BaseImageTask<Picasso, String, Transformation> {
 	 */
 	private static final String TAG = "ImageTask";
 
+	/**
+	 * Tag of all asynchronous load requests, so they may be paused and resumed via
+	 * {@link Picasso#pauseTag(Object)} and {@link Picasso#resumeTag(Object)}.
+	 */
+	static final Object LOAD_TAG = new Object();
+
 	/**
 	 * Interface ===================================================================================
 	 */
@@ -58,29 +76,42 @@ public class ImageTask extends BaseImageTask<Picasso, String, Transformation> {
 	 */
 
 	/**
-	 * Target implementation used for asynchronous loading without image view provided.
+	 * Set of targets of which images have been removed via {@link #onRemove(Picasso)} but may be
+	 * still stored in the disk cache. Picasso does not allow to remove images from its disk cache,
+	 * so the next load of such a target bypasses the disk cache and thus refreshes it.
 	 */
-	private static final Target ASYNC_TARGET = new Target() {
+	private static final Set<String> STALE_TARGETS = Collections.synchronizedSet(new HashSet<String>());
 
-		/**
-		 */
-		@Override
-		public void onBitmapLoaded(Bitmap bitmap, Picasso.LoadedFrom from) {
-			// Ignored.
-		}
+	/**
+	 * Memory caches of Picasso instances created by {@link ImageLoaderFactory}, so images may be
+	 * removed from them with a result via {@link #onRemove(Picasso)}.
+	 */
+	private static final Map<Picasso, BitmapLruCache> CACHES = Collections.synchronizedMap(new WeakHashMap<Picasso, BitmapLruCache>());
 
-		/**
-		 */
-		@Override
-		public void onBitmapFailed(Drawable errorDrawable) {
-			// Ignored.
-		}
+	/**
+	 * Tags of preloading requests that have not finished nor been cancelled yet. Each preloading
+	 * request has its own tag, so it may be cancelled, thus these tags are paused along with the
+	 * {@link #LOAD_TAG}.
+	 */
+	private static final Set<PreloadTag> PRELOAD_TAGS = new HashSet<>();
+
+	/**
+	 * Paused loaders mapped to tags of preloading requests paused along with them, so they may be
+	 * resumed. Guards also {@link #PRELOAD_TAGS}.
+	 */
+	private static final Map<Picasso, List<PreloadTag>> PAUSED_PRELOAD_TAGS = new WeakHashMap<>();
+
+	/**
+	 * Pool of recycled tasks.
+	 */
+	private static final TaskPool<ImageTask> POOL = new TaskPool<ImageTask>() {
 
 		/**
 		 */
+		@NonNull
 		@Override
-		public void onPrepareLoad(Drawable placeHolderDrawable) {
-			// Ignored.
+		protected ImageTask onCreateTask() {
+			return new ImageTask();
 		}
 	};
 
@@ -88,6 +119,22 @@ public class ImageTask extends BaseImageTask<Picasso, String, Transformation> {
 	 * Members =====================================================================================
 	 */
 
+	/**
+	 * Tag of the request used to preload image of this task. May be {@code null}.
+	 */
+	private PreloadTag mPreloadTag;
+
+	/**
+	 * Target into which is image of this task asynchronously loaded if there is no image view
+	 * specified. May be {@code null}.
+	 */
+	private AsyncTarget mAsyncTarget;
+
+	/**
+	 * Listener reused for asynchronous loads of this task into its image view. May be {@code null}.
+	 */
+	private Listener mListener;
+
 	/**
 	 * Constructors ================================================================================
 	 */
@@ -96,43 +143,70 @@ public class ImageTask extends BaseImageTask<Picasso, String, Transformation> {
 	 * Methods =====================================================================================
 	 */
 
+	/**
+	 * Obtains a task from the pool of recycled tasks or creates a new one if the pool is empty.
+	 * The obtained task should be recycled via {@link #recycle()} once it is no longer needed.
+	 *
+	 * @return Task ready to be configured.
+	 * @see TaskPool#obtain()
+	 */
+	@NonNull
+	public static ImageTask obtain() {
+		return POOL.obtain();
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected ImageTask onCreateTask() {
+		return new ImageTask();
+	}
+
 	/**
 	 */
 	@Override
 	protected boolean onLoad(@NonNull Picasso loader, @Nullable final ImageLoader.Callback callback) {
 		ensureHasTargetOrThrow();
-		final RequestCreator requestCreator = onPrepareRequestCreator(loader);
-		if (mView != null) requestCreator.into(mView, callback != null ? new Listener(this, callback) : null);
-		else requestCreator.into(new Target() {
-
-			/**
-			 */
-			@Override
-			public void onBitmapLoaded(Bitmap bitmap, Picasso.LoadedFrom from) {
-				if (callback != null) callback.onImageLoadFinished(ImageTask.this, bitmap);
-			}
+		final RequestCreator requestCreator = onPrepareRequestCreator(loader).tag(LOAD_TAG);
+		if (mView != null) {
+			final Listener listener = callback != null ? obtainListener(callback) : null;
+			if (listener != null) listener.dispatching = true;
+			requestCreator.into(mView, listener);
+			if (listener != null) listener.dispatching = false;
+		} else {
+			requestCreator.into(mAsyncTarget = new AsyncTarget(this, callback).hold());
+		}
+		return true;
+	}
 
-			/**
-			 */
-			@Override
-			public void onBitmapFailed(Drawable errorDrawable) {
-				if (callback != null) callback.onImageLoadFailed(
-						ImageTask.this,
-						new ImageLoader.Error(
-								ImageLoader.Error.REASON_UNKNOWN,
-								"Failed to load image."
-						)
-				);
-			}
+	/**
+	 * Returns listener for a new asynchronous load of this task. The current listener is reused
+	 * unless its load is still in flight.
+	 *
+	 * @param callback The callback to be notified by the listener.
+	 * @return Listener ready to be attached to the load request.
+	 */
+	private Listener obtainListener(ImageLoader.Callback callback) {
+		Listener listener = mListener;
+		if (listener == null || listener.callback != null) this.mListener = listener = new Listener(this);
+		listener.callback = callback;
+		return listener;
+	}
 
-			/**
-			 */
-			@Override
-			public void onPrepareLoad(Drawable placeHolderDrawable) {
-				// Ignored.
-			}
-		});
-		return true;
+	/**
+	 * Reports source from which has been the specified <var>bitmap</var> loaded for this task to
+	 * the metrics of the loader that loads this task, if any.
+	 *
+	 * @param bitmap The loaded bitmap.
+	 * @param from   The source from which has been the bitmap loaded.
+	 */
+	void recordLoadedFrom(Bitmap bitmap, Picasso.LoadedFrom from) {
+		recordCacheLookup(ImageLoader.Metrics.CACHE_MEMORY, from == Picasso.LoadedFrom.MEMORY);
+		if (from != Picasso.LoadedFrom.MEMORY) {
+			recordCacheLookup(ImageLoader.Metrics.CACHE_DISK, from == Picasso.LoadedFrom.DISK);
+			recordBitmapDecoded(bitmap);
+		}
 	}
 
 	/**
@@ -152,6 +226,73 @@ public class ImageTask extends BaseImageTask<Picasso, String, Transformation> {
 		}
 	}
 
+	/**
+	 * <p>
+	 * Preloading with {@link ImageLoader#CACHE_LEVEL_DISK_ONLY} is <b>not supported</b>, because
+	 * Picasso does not expose its downloader and always decodes fetched images, so this
+	 * implementation returns {@code false} for such cache level without fetching anything.
+	 */
+	@Override
+	protected boolean onPreload(@NonNull Picasso loader, @ImageLoader.CacheLevel int cacheLevel) {
+		ensureHasTargetOrThrow();
+		onCancelPreload(loader);
+		if (cacheLevel == ImageLoader.CACHE_LEVEL_DISK_ONLY) {
+			return false;
+		}
+		final PreloadTag tag = new PreloadTag(loader);
+		synchronized (PAUSED_PRELOAD_TAGS) {
+			PRELOAD_TAGS.add(tag);
+			final List<PreloadTag> pausedTags = PAUSED_PRELOAD_TAGS.get(loader);
+			if (pausedTags != null) {
+				// Picasso holds requests with a paused tag once they are submitted.
+				pausedTags.add(tag);
+				loader.pauseTag(tag);
+			}
+		}
+		this.mPreloadTag = tag;
+		onPrepareRequestCreator(loader).tag(tag).fetch(tag);
+		return true;
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onCancelPreload(@NonNull Picasso loader) {
+		final PreloadTag tag = mPreloadTag;
+		this.mPreloadTag = null;
+		if (tag == null || tag.finished) {
+			return false;
+		}
+		tag.release();
+		loader.cancelTag(tag);
+		return true;
+	}
+
+	/**
+	 */
+	@Override
+	protected void onCancelLoad(@NonNull Picasso loader) {
+		final AsyncTarget target = mAsyncTarget;
+		this.mAsyncTarget = null;
+		if (mListener != null) mListener.callback = null;
+		if (mView != null) {
+			loader.cancelRequest(mView);
+		} else if (target != null) {
+			loader.cancelRequest(target);
+			target.release();
+		}
+	}
+
+	/**
+	 */
+	@Override
+	protected void onRecycle() {
+		super.onRecycle();
+		this.mPreloadTag = null;
+		this.mAsyncTarget = null;
+		if (mListener != null) mListener.callback = null;
+	}
+
 	/**
 	 * Prepares loading request creator with configuration based on this task's parameters.
 	 *
@@ -161,20 +302,139 @@ public class ImageTask extends BaseImageTask<Picasso, String, Transformation> {
 	@NonNull
 	protected RequestCreator onPrepareRequestCreator(@NonNull Picasso loader) {
 		final RequestCreator creator = loader.load(mTarget);
+		if (STALE_TARGETS.remove(mTarget)) creator.networkPolicy(NetworkPolicy.NO_CACHE);
 		if (mPlaceholderRes != NO_RESOURCE_ID) creator.error(mPlaceholderRes);
 		if (mPlaceholder != null) creator.error(mPlaceholder);
 		if (mErrorRes != NO_RESOURCE_ID) creator.placeholder(mErrorRes);
 		if (mError != null) creator.placeholder(mError);
+		if (hasSize()) {
+			creator.resize(mWidth, mHeight).onlyScaleDown();
+			if (hasRequest(REQUEST_CENTER_CROP)) creator.centerCrop();
+			else creator.centerInside();
+		}
 		if (mTransformation != null) creator.transform(mTransformation);
+		if (mImageTransformation != null) creator.transform(new TransformationAdapter(mImageTransformation));
+		final Bitmap.Config config = resolveBitmapConfig(null);
+		if (config != null) {
+			// Picasso does not include the config in its memory cache keys. The config is separated
+			// from the target as Picasso separates the other parameters, so invalidation of the
+			// target still matches the key.
+			creator.config(config).stableKey(mTarget + '\n' + config.name());
+		}
 		if (hasRequest(REQUEST_DO_NOT_ANIMATE)) creator.noFade();
+		creator.priority(picassoPriority(mPriority));
 		return creator;
 	}
 
 	/**
+	 * Maps the specified task <var>priority</var> to the corresponding {@link Picasso.Priority}.
+	 * Picasso does not distinguish immediate priority, so it is mapped to {@link Picasso.Priority#HIGH}.
+	 * <p>
+	 * Picasso executes requests with the same priority in the order in which they have been made.
+	 * A custom executor would lose the priorities of its requests, so LIFO scheduling is not supported
+	 * by this module.
+	 *
+	 * @param priority The task priority to map.
+	 * @return Picasso priority.
+	 */
+	static Picasso.Priority picassoPriority(@Priority int priority) {
+		switch (priority) {
+			case PRIORITY_IMMEDIATE:
+			case PRIORITY_HIGH:
+				return Picasso.Priority.HIGH;
+			case PRIORITY_LOW:
+			case PRIORITY_PREFETCH:
+				return Picasso.Priority.LOW;
+			case PRIORITY_NORMAL:
+			default:
+				return Picasso.Priority.NORMAL;
+		}
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected String transformationKey(@NonNull Transformation transformation) {
+		return transformation.key();
+	}
+
+	/**
+	 * Pauses all asynchronous load and preload requests of image tasks made via the specified
+	 * <var>loader</var>. Preload requests made while the loader is paused are paused as well.
+	 *
+	 * @param loader The loader of which requests to pause.
+	 * @see #resume(Picasso)
+	 */
+	static void pause(@NonNull Picasso loader) {
+		loader.pauseTag(LOAD_TAG);
+		synchronized (PAUSED_PRELOAD_TAGS) {
+			if (PAUSED_PRELOAD_TAGS.containsKey(loader)) {
+				return;
+			}
+			final List<PreloadTag> tags = new ArrayList<>();
+			for (final PreloadTag tag : PRELOAD_TAGS) {
+				if (tag.loader == loader) tags.add(tag);
+			}
+			PAUSED_PRELOAD_TAGS.put(loader, tags);
+			for (final PreloadTag tag : tags) {
+				loader.pauseTag(tag);
+			}
+		}
+	}
+
+	/**
+	 * Resumes all requests paused via {@link #pause(Picasso)} for the specified <var>loader</var>.
+	 *
+	 * @param loader The loader of which requests to resume.
+	 */
+	static void resume(@NonNull Picasso loader) {
+		final List<PreloadTag> tags;
+		synchronized (PAUSED_PRELOAD_TAGS) {
+			tags = PAUSED_PRELOAD_TAGS.remove(loader);
+		}
+		loader.resumeTag(LOAD_TAG);
+		if (tags != null) {
+			for (final PreloadTag tag : tags) {
+				loader.resumeTag(tag);
+			}
+		}
+	}
+
+	/**
+	 * Registers the specified memory <var>cache</var> of the given Picasso <var>loader</var>, so
+	 * images may be removed from it via {@link #onRemove(Picasso)}.
+	 *
+	 * @param loader The Picasso loader using the cache.
+	 * @param cache  The memory cache of the loader.
+	 */
+	static void registerCache(@NonNull Picasso loader, @NonNull BitmapLruCache cache) {
+		CACHES.put(loader, cache);
+	}
+
+	/**
+	 * <p>
+	 * Images of the target of this task are removed from the Picasso's memory cache in all sizes.
+	 * Picasso does not allow to remove images from its disk cache, so the next load of the target
+	 * bypasses the disk cache and stores the freshly loaded image in it.
+	 *
+	 * @return {@code True} if some image has been removed from the memory cache, {@code false}
+	 * otherwise or if the memory cache of the loader is not known.
 	 */
 	@Override
 	protected boolean onRemove(@NonNull Picasso loader) {
-		throw new UnsupportedOperationException("Picasso image loader does not support removing of loaded images.");
+		ensureHasTargetOrThrow();
+		final BitmapLruCache cache = CACHES.get(loader);
+		final boolean removed;
+		if (cache == null) {
+			loader.invalidate(mTarget);
+			removed = false;
+		} else {
+			// Picasso keys its cache by the parsed uri, the same as in Picasso#invalidate(String).
+			removed = cache.removeKeyUri(Uri.parse(mTarget).toString());
+		}
+		STALE_TARGETS.add(mTarget);
+		return removed;
 	}
 
 	/**
@@ -182,42 +442,229 @@ public class ImageTask extends BaseImageTask<Picasso, String, Transformation> {
 	 */
 
 	/**
-	 * Listener that wraps implementation of {@link Callback} for a specific {@link ImageLoader.Task}
-	 * and {@link ImageLoader.Callback}.
+	 * Target used for asynchronous loading without image view provided.
+	 * <p>
+	 * Picasso references targets only weakly, so each target is strongly held by this class until
+	 * its loading finishes.
 	 */
-	private static final class Listener implements Callback {
+	private static final class AsyncTarget implements Target {
+
+		/**
+		 * Set of targets of which loading is in progress.
+		 */
+		static final Set<AsyncTarget> HELD_TARGETS = Collections.synchronizedSet(new HashSet<AsyncTarget>());
 
 		/**
 		 * Task for which has been loading performed.
 		 */
-		final ImageLoader.Task task;
+		final ImageTask task;
 
 		/**
-		 * Loader callback to be invoked in case of finished loading or failed loading.
+		 * Loader callback to be invoked in case of finished loading or failed loading. May be {@code null}.
 		 */
 		final ImageLoader.Callback callback;
 
 		/**
-		 * Creates a new Listener wrapper for the given <var>task</var> and <var>callback</var>.
+		 * Creates a new AsyncTarget for the given <var>task</var> and <var>callback</var>.
 		 *
 		 * @param task     The task for which has been loading performed.
 		 * @param callback The loader callback to be invoked in case of finished loading or failed loading.
 		 */
-		Listener(ImageLoader.Task task, ImageLoader.Callback callback) {
+		AsyncTarget(ImageTask task, ImageLoader.Callback callback) {
 			this.task = task;
 			this.callback = callback;
 		}
 
+		/**
+		 * Holds this target until its loading finishes.
+		 *
+		 * @return This target.
+		 */
+		AsyncTarget hold() {
+			HELD_TARGETS.add(this);
+			return this;
+		}
+
+		/**
+		 * Releases this target, so it is no longer strongly held.
+		 */
+		void release() {
+			HELD_TARGETS.remove(this);
+		}
+
+		/**
+		 */
+		@Override
+		public void onBitmapLoaded(Bitmap bitmap, Picasso.LoadedFrom from) {
+			release();
+			task.recordLoadedFrom(bitmap, from);
+			if (callback != null) callback.onImageLoadFinished(task, bitmap);
+		}
+
+		/**
+		 */
+		@Override
+		public void onBitmapFailed(Drawable errorDrawable) {
+			release();
+			if (callback != null) callback.onImageLoadFailed(
+					task,
+					new ImageLoader.Error(
+							ImageLoader.Error.REASON_UNKNOWN,
+							"Failed to load image."
+					)
+			);
+		}
+
+		/**
+		 */
+		@Override
+		public void onPrepareLoad(Drawable placeHolderDrawable) {
+			// Ignored.
+		}
+	}
+
+	/**
+	 * Picasso transformation that applies an {@link ImageTransformation} with bitmaps obtained from
+	 * the shared transformation pool.
+	 */
+	private static final class TransformationAdapter implements Transformation {
+
+		/**
+		 * Adapted image transformation.
+		 */
+		final ImageTransformation transformation;
+
+		/**
+		 * Creates a new TransformationAdapter for the given image <var>transformation</var>.
+		 *
+		 * @param transformation The transformation to be adapted.
+		 */
+		TransformationAdapter(ImageTransformation transformation) {
+			this.transformation = transformation;
+		}
+
+		/**
+		 */
+		@Override
+		public Bitmap transform(Bitmap source) {
+			final BitmapPool pool = transformationPool();
+			final Bitmap transformed = transformation.transform(source, pool);
+			// Picasso requires the source bitmap to be recycled if it is not returned.
+			if (transformed != source && !pool.put(source)) {
+				source.recycle();
+			}
+			return transformed;
+		}
+
+		/**
+		 */
+		@Override
+		public String key() {
+			return transformation.getKey();
+		}
+	}
+
+	/**
+	 * Tag of a preloading request that also serves as its callback to track whether the request
+	 * has finished.
+	 */
+	private static final class PreloadTag implements Callback {
+
+		/**
+		 * Loader that executes the tagged request.
+		 */
+		final Picasso loader;
+
+		/**
+		 * Flag indicating whether the tagged request has finished.
+		 */
+		volatile boolean finished;
+
+		/**
+		 * Creates a new instance of PreloadTag for a request executed by the specified <var>loader</var>.
+		 *
+		 * @param loader The loader executing the request.
+		 */
+		PreloadTag(Picasso loader) {
+			this.loader = loader;
+		}
+
+		/**
+		 */
+		@Override
+		public void onSuccess() {
+			this.finished = true;
+			release();
+		}
+
+		/**
+		 */
+		@Override
+		public void onError() {
+			this.finished = true;
+			release();
+		}
+
+		/**
+		 * Stops tracking of this tag as the tagged request has finished or has been cancelled.
+		 */
+		void release() {
+			synchronized (PAUSED_PRELOAD_TAGS) {
+				PRELOAD_TAGS.remove(this);
+			}
+		}
+	}
+
+	/**
+	 * Listener that wraps implementation of {@link Callback} for a specific {@link ImageLoader.Task}
+	 * and {@link ImageLoader.Callback}.
+	 */
+	private static final class Listener implements Callback {
+
+		/**
+		 * Task for which has been loading performed.
+		 */
+		final ImageTask task;
+
+		/**
+		 * Loader callback to be invoked in case of finished loading or failed loading. Cleared once
+		 * the loading finishes, so this listener may be reused. May be {@code null}.
+		 */
+		ImageLoader.Callback callback;
+
+		/**
+		 * Flag indicating whether the request is being currently dispatched into the image view.
+		 * Picasso delivers images found in its memory cache synchronously, so success received
+		 * during dispatching means a memory cache hit.
+		 */
+		boolean dispatching;
+
+		/**
+		 * Creates a new Listener wrapper for the given <var>task</var>.
+		 *
+		 * @param task The task for which is loading performed.
+		 */
+		Listener(ImageTask task) {
+			this.task = task;
+		}
+
 		/**
 		 */
 		@Override
 		@SuppressWarnings("ConstantConditions")
 		public void onSuccess() {
+			final ImageLoader.Callback callback = this.callback;
+			if (callback == null) {
+				return;
+			}
+			this.callback = null;
 			final Drawable image = task.view().getDrawable();
 			final Bitmap bitmap = image instanceof BitmapDrawable ? ((BitmapDrawable) image).getBitmap() : null;
 			if (bitmap == null) {
 				Log.w(TAG, "Failed to retrieve loaded bitmap from ImageView. Image drawable(" + image + ") is not instance of BitmapDrawable.");
 			}
+			task.recordCacheLookup(ImageLoader.Metrics.CACHE_MEMORY, dispatching);
+			if (!dispatching && bitmap != null) task.recordBitmapDecoded(bitmap);
 			callback.onImageLoadFinished(task, bitmap);
 		}
 
@@ -225,6 +672,11 @@ public class ImageTask extends BaseImageTask<Picasso, String, Transformation> {
 		 */
 		@Override
 		public void onError() {
+			final ImageLoader.Callback callback = this.callback;
+			if (callback == null) {
+				return;
+			}
+			this.callback = null;
 			callback.onImageLoadFailed(
 					task,
 					new ImageLoader.Error(
@@ -0,0 +1,120 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.media.ExifInterface;
+import android.support.annotation.NonNull;
+
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.Request;
+import com.squareup.picasso.RequestHandler;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A {@link RequestHandler} implementation that reads data of local image files with length of at
+ * least {@link MappedInputStream#MIN_LENGTH} from theirs memory mappings via {@link MappedInputStream}
+ * instead of via a file stream. Picasso decodes the mapped stream directly, as the stream supports
+ * marking, so the data are not copied into any intermediate buffer.
+ * <p>
+ * Picasso does not allow custom handlers to specify EXIF orientation of the loaded image, so JPEG
+ * files that need to be rotated according to theirs EXIF data are left to the default file handler
+ * of Picasso. Picasso reads its disk cache within its HTTP client, so only {@code file} targets are
+ * read from mappings.
+ *
+ * @author Martin Albedinsky
+ * @see ImageLoaderFactory#createLoader(android.content.Context, int)
+ */
+final class MappedFileRequestHandler extends RequestHandler {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "MappedFileRequestHandler";
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * <p>
+	 * Picasso resolves handlers of requests off the main thread, so this check may access the file
+	 * to read its length and EXIF orientation.
+	 */
+	@Override
+	public boolean canHandleRequest(@NonNull Request data) {
+		if (data.uri == null || !CompositeImageLoader.SCHEME_FILE.equals(data.uri.getScheme())) {
+			return false;
+		}
+		final String path = data.uri.getPath();
+		if (path == null) {
+			return false;
+		}
+		final long length = new File(path).length();
+		return length >= MappedInputStream.MIN_LENGTH && length <= Integer.MAX_VALUE && !isRotated(path);
+	}
+
+	/**
+	 * Checks whether the image file at the specified <var>path</var> has EXIF orientation requiring
+	 * the image to be rotated or flipped.
+	 *
+	 * @param path The path of the image file.
+	 * @return {@code True} if the image needs to be rotated, {@code false} otherwise.
+	 */
+	private static boolean isRotated(String path) {
+		try {
+			final int orientation = new ExifInterface(path).getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+			return orientation != ExifInterface.ORIENTATION_NORMAL && orientation != ExifInterface.ORIENTATION_UNDEFINED;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 */
+	@Override
+	public Result load(@NonNull Request request, int networkPolicy) throws IOException {
+		return new Result(MappedInputStream.open(new File(request.uri.getPath())), Picasso.LoadedFrom.DISK);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
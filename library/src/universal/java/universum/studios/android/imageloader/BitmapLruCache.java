@@ -0,0 +1,232 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LruCache;
+
+import com.nostra13.universalimageloader.cache.memory.MemoryCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link MemoryCache} implementation that is bounded by a total <b>byte</b> size of the stored
+ * bitmaps and, unlike the memory caches of Universal Image Loader, evicts bitmaps in the order in
+ * which have been they accessed and may be trimmed to a fraction of its current size.
+ * <p>
+ * If created with a {@link BitmapPool}, bitmaps removed from the cache are released into that pool,
+ * so they may be reused by {@link PooledImageDecoder}.
+ *
+ * @author Martin Albedinsky
+ * @see ImageLoaderFactory#createConfigurationBuilder(android.content.Context)
+ */
+public final class BitmapLruCache implements MemoryCache {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "BitmapLruCache";
+
+	/**
+	 * Divider used to compute the default size of the cache from the maximum memory available to
+	 * the current process.
+	 */
+	private static final int DEFAULT_SIZE_DIVIDER = 8;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Lru cache in which are the bitmaps stored.
+	 */
+	private final LruCache<String, Bitmap> mCache;
+
+	/**
+	 * Pool into which are released bitmaps removed from this cache. May be {@code null}.
+	 */
+	private final BitmapPool mBitmapPool;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Same as {@link #BitmapLruCache(int, BitmapPool)} without bitmap pool.
+	 */
+	public BitmapLruCache(int maxSize) {
+		this(maxSize, null);
+	}
+
+	/**
+	 * Creates a new instance of BitmapLruCache with the specified maximum <var>size</var>.
+	 *
+	 * @param maxSize    The maximum size of the cache in bytes.
+	 * @param bitmapPool Pool into which to release bitmaps removed from the cache. May be {@code null}.
+	 */
+	public BitmapLruCache(int maxSize, @Nullable BitmapPool bitmapPool) {
+		this.mBitmapPool = bitmapPool;
+		this.mCache = new LruCache<String, Bitmap>(maxSize) {
+
+			/**
+			 */
+			@Override
+			protected int sizeOf(String key, Bitmap bitmap) {
+				return BitmapPool.byteCountOf(bitmap);
+			}
+
+			/**
+			 */
+			@Override
+			protected void entryRemoved(boolean evicted, String key, Bitmap oldBitmap, Bitmap newBitmap) {
+				if (mBitmapPool != null && oldBitmap != newBitmap) mBitmapPool.release(oldBitmap);
+			}
+		};
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the default size for the bitmap cache computed as <b>1/8</b> of the maximum memory
+	 * available to the current process.
+	 *
+	 * @return Default cache size in bytes.
+	 */
+	public static int defaultSize() {
+		return (int) (Runtime.getRuntime().maxMemory() / DEFAULT_SIZE_DIVIDER);
+	}
+
+	/**
+	 * Returns the pool into which are released bitmaps removed from this cache.
+	 *
+	 * @return The bitmap pool or {@code null} if this cache has been created without pool.
+	 */
+	@Nullable
+	public BitmapPool getBitmapPool() {
+		return mBitmapPool;
+	}
+
+	/**
+	 */
+	@Override
+	public boolean put(String key, Bitmap bitmap) {
+		mCache.put(key, bitmap);
+		return true;
+	}
+
+	/**
+	 */
+	@Override
+	public Bitmap get(String key) {
+		return mCache.get(key);
+	}
+
+	/**
+	 */
+	@Override
+	public Bitmap remove(String key) {
+		return mCache.remove(key);
+	}
+
+	/**
+	 */
+	@Override
+	public Collection<String> keys() {
+		return new ArrayList<>(mCache.snapshot().keySet());
+	}
+
+	/**
+	 */
+	@Override
+	public void clear() {
+		mCache.evictAll();
+	}
+
+	/**
+	 * Returns the current size of this cache.
+	 *
+	 * @return Total byte size of the cached bitmaps.
+	 */
+	public int size() {
+		return mCache.size();
+	}
+
+	/**
+	 * Returns the maximum size of this cache.
+	 *
+	 * @return Maximum size in bytes.
+	 */
+	public int maxSize() {
+		return mCache.maxSize();
+	}
+
+	/**
+	 * Trims this cache to the specified <var>fraction</var> of its current size by evicting the
+	 * least recently used bitmaps.
+	 *
+	 * @param fraction The fraction of the current size to which to trim the cache. {@code 0} to
+	 *                 evict all bitmaps.
+	 * @return Count of bytes freed by the trim.
+	 */
+	public int trimToFraction(float fraction) {
+		final int initialSize = mCache.size();
+		if (fraction <= 0) mCache.evictAll();
+		else mCache.trimToSize(Math.round(initialSize * fraction));
+		return initialSize - mCache.size();
+	}
+
+	/**
+	 * Evicts all bitmaps from this cache except the specified <var>retainedBitmaps</var>.
+	 *
+	 * @param retainedBitmaps The bitmaps that should remain in the cache.
+	 * @return Count of bytes freed by the eviction.
+	 */
+	public int evictAllExcept(@NonNull Set<Bitmap> retainedBitmaps) {
+		int byteCount = 0;
+		for (final Map.Entry<String, Bitmap> entry : mCache.snapshot().entrySet()) {
+			if (!retainedBitmaps.contains(entry.getValue()) && mCache.remove(entry.getKey()) != null) {
+				byteCount += BitmapPool.byteCountOf(entry.getValue());
+			}
+		}
+		return byteCount;
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -18,8 +18,14 @@
  */
 package universum.studios.android.imageloader;
 
+import android.content.Context;
 import android.support.annotation.NonNull;
 
+import com.nostra13.universalimageloader.cache.disc.naming.FileNameGenerator;
+import com.nostra13.universalimageloader.cache.disc.naming.HashCodeFileNameGenerator;
+import com.nostra13.universalimageloader.core.ImageLoaderConfiguration;
+import com.nostra13.universalimageloader.core.assist.QueueProcessingType;
+
 /**
  * Factory providing instances of {@link ImageLoader} implementations.
  *
@@ -66,15 +72,76 @@ public abstract class ImageLoaderFactory {
 
 	/**
 	 * Provides an instance of {@link ImageLoader} implementation.
+	 * <p>
+	 * If the shared Universal loader has been already initialized with configuration created via
+	 * {@link #createConfigurationBuilder(Context)}, the provided loader shares its bitmap pool.
 	 *
+	 * @param context Context used to initialize the {@link MemoryBudget}.
 	 * @return Image loader implementation ready to be used.
 	 */
 	@NonNull
-	public static ImageLoader createLoader() {
+	public static ImageLoader createLoader(@NonNull Context context) {
+		MemoryBudget.getInstance().initialize(context);
 		return new ImageLoaderImpl(com.nostra13.universalimageloader.core.ImageLoader.getInstance());
 	}
 
+	/**
+	 * Creates a new builder of configuration for Universal Image Loader prepared to be used along
+	 * with loaders created via {@link #createLoader(Context)}.
+	 * <p>
+	 * The configuration caches bitmaps in memory within a {@link BitmapLruCache} bounded by
+	 * {@link BitmapLruCache#defaultSize()} which releases removed bitmaps into a new {@link BitmapPool}.
+	 * Images are decoded via {@link PooledImageDecoder} that reuses bitmaps from that pool. Local files
+	 * and disk cache hits are read via {@link MappedImageDownloader} from memory mappings. Display
+	 * tasks are processed in {@link QueueProcessingType#LIFO} order, so images of the most recently
+	 * bound views are loaded first, for example while scrolling a list.
+	 * <p>
+	 * Memory cache of the loader stores images only under theirs uri and size, so loaders with this
+	 * configuration decorate uris of images loaded in a specific bitmap config or with an image
+	 * transformation. The decoration is stripped by the downloader, decoder and disk cache file name
+	 * generator of the configuration, so a customized downloader should extend {@link MappedImageDownloader}.
+	 * <p>
+	 * The shared Universal loader should be initialized with the built configuration before any
+	 * loader is created via {@link #createLoader(Context)}, so the created loaders use the same pool.
+	 * Bitmaps are released into the pool only if they are not displayed by tasks of this library
+	 * anymore, so images should not be displayed via the Universal loader directly.
+	 *
+	 * @param context Context used to configure the loader.
+	 * @return Configuration builder which may be further customized.
+	 */
+	@NonNull
+	public static ImageLoaderConfiguration.Builder createConfigurationBuilder(@NonNull Context context) {
+		MemoryBudget.getInstance().initialize(context);
+		final BitmapPool bitmapPool = new BitmapPool();
+		return new ImageLoaderConfiguration.Builder(context)
+				.memoryCache(new BitmapLruCache(BitmapLruCache.defaultSize(), bitmapPool))
+				.imageDecoder(new PooledImageDecoder(bitmapPool, false))
+				.imageDownloader(new MappedImageDownloader(context))
+				.diskCacheFileNameGenerator(new UndecoratedFileNameGenerator())
+				.tasksProcessingOrder(QueueProcessingType.LIFO);
+	}
+
 	/**
 	 * Inner classes ===============================================================================
 	 */
+
+	/**
+	 * A {@link FileNameGenerator} that generates names of files in the disk cache from image uris
+	 * stripped of decoration appended by {@link ImageTask}, so images loaded in different bitmap
+	 * configs or with different image transformations share the same cached file.
+	 */
+	private static final class UndecoratedFileNameGenerator implements FileNameGenerator {
+
+		/**
+		 * Generator of names for the stripped uris.
+		 */
+		final FileNameGenerator generator = new HashCodeFileNameGenerator();
+
+		/**
+		 */
+		@Override
+		public String generate(String imageUri) {
+			return generator.generate(ImageTask.undecoratedUri(imageUri));
+		}
+	}
 }
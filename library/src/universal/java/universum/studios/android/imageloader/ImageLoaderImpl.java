@@ -18,11 +18,15 @@
  */
 package universum.studios.android.imageloader;
 
+import android.graphics.Bitmap;
 import android.support.annotation.NonNull;
-import android.util.Log;
+import android.support.annotation.Nullable;
 
+import com.nostra13.universalimageloader.cache.memory.MemoryCache;
 import com.nostra13.universalimageloader.core.ImageLoader;
 
+import java.util.Set;
+
 /**
  * A {@link BaseImageLoader} implementation that wraps instance of {@link com.nostra13.universalimageloader.core.ImageLoader}
  * loader used to perform loading for {@link ImageTask ImageTasks}.
@@ -42,7 +46,7 @@ final class ImageLoaderImpl extends BaseImageLoader<com.nostra13.universalimagel
 	/**
 	 * Log TAG.
 	 */
-	private static final String TAG = "ImageLoader#Universal";
+	// private static final String TAG = "ImageLoader#Universal";
 
 	/**
 	 * Static members ==============================================================================
@@ -63,6 +67,7 @@ final class ImageLoaderImpl extends BaseImageLoader<com.nostra13.universalimagel
 	 */
 	protected ImageLoaderImpl(@NonNull ImageLoader loader) {
 		super(loader);
+		setBitmapPool(ImageTask.bitmapPoolOf(loader));
 	}
 
 	/**
@@ -105,17 +110,80 @@ final class ImageLoaderImpl extends BaseImageLoader<com.nostra13.universalimagel
 	}
 
 	/**
+	 * <p>
+	 * <b>Note</b>, that only size of a {@link BitmapLruCache} may be measured. Other memory caches
+	 * of the Universal loader can be only iterated via {@link MemoryCache#get(String)} which would
+	 * change the order in which are theirs bitmaps evicted, so such caches are not accounted by the
+	 * {@link MemoryBudget}.
+	 */
+	@Override
+	protected long onMeasureMemoryCache() {
+		if (!mLoader.isInited()) return 0;
+		final MemoryCache cache = mLoader.getMemoryCache();
+		return cache instanceof BitmapLruCache ? ((BitmapLruCache) cache).size() : 0;
+	}
+
+	/**
+	 */
+	@Nullable
+	@Override
+	protected Object onIdentifyMemoryCache() {
+		return mLoader.isInited() ? mLoader.getMemoryCache() : null;
+	}
+
+	/**
+	 * <p>
+	 * <b>Note</b>, that only a {@link BitmapLruCache} may be trimmed partially by evicting its least
+	 * recently used bitmaps. Other memory caches of the Universal loader do not expose order in
+	 * which have been theirs bitmaps accessed, so they are only cleared when the requested fraction
+	 * is {@code 0} and left untouched otherwise.
+	 */
+	@Override
+	protected long onTrimMemoryCache(float fraction) {
+		if (!mLoader.isInited()) return 0;
+		final MemoryCache cache = mLoader.getMemoryCache();
+		if (cache instanceof BitmapLruCache) {
+			return ((BitmapLruCache) cache).trimToFraction(fraction);
+		}
+		if (fraction > 0) {
+			return 0;
+		}
+		long byteCount = 0;
+		for (final String key : cache.keys()) {
+			final Bitmap bitmap = cache.remove(key);
+			if (bitmap != null) byteCount += BitmapPool.byteCountOf(bitmap);
+		}
+		return byteCount;
+	}
+
+	/**
+	 * <p>
+	 * <b>Note</b>, that bitmaps of memory caches other than {@link BitmapLruCache} are accessed via
+	 * {@link MemoryCache#get(String)}, so the retained bitmaps may become the most recently used ones.
 	 */
 	@Override
-	public void onLowMemory() {
-		Log.w(TAG, "Running low on memory.");
+	protected long onEvictDetachedBitmaps(@NonNull Set<Bitmap> attachedBitmaps) {
+		if (!mLoader.isInited()) return 0;
+		final MemoryCache cache = mLoader.getMemoryCache();
+		if (cache instanceof BitmapLruCache) {
+			return ((BitmapLruCache) cache).evictAllExcept(attachedBitmaps);
+		}
+		long byteCount = 0;
+		for (final String key : cache.keys()) {
+			final Bitmap bitmap = cache.get(key);
+			if (bitmap != null && !attachedBitmaps.contains(bitmap) && cache.remove(key) != null) {
+				byteCount += BitmapPool.byteCountOf(bitmap);
+			}
+		}
+		return byteCount;
 	}
 
 	/**
 	 */
+	@NonNull
 	@Override
-	public void onTrimMemory(int level) {
-		Log.w(TAG, "Should trim memory for level(" + level + ").");
+	protected ImageTask onObtainTask() {
+		return ImageTask.obtain();
 	}
 
 	/**
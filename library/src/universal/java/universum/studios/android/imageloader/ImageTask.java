@@ -18,21 +18,46 @@
  */
 package universum.studios.android.imageloader;
 
+import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.util.DisplayMetrics;
 import android.view.View;
+import android.widget.ImageView;
 
 import com.nostra13.universalimageloader.cache.disc.DiskCache;
 import com.nostra13.universalimageloader.cache.memory.MemoryCache;
 import com.nostra13.universalimageloader.core.DisplayImageOptions;
 import com.nostra13.universalimageloader.core.assist.FailReason;
+import com.nostra13.universalimageloader.core.assist.ImageScaleType;
+import com.nostra13.universalimageloader.core.assist.ImageSize;
+import com.nostra13.universalimageloader.core.assist.LoadedFrom;
+import com.nostra13.universalimageloader.core.assist.ViewScaleType;
 import com.nostra13.universalimageloader.core.display.BitmapDisplayer;
 import com.nostra13.universalimageloader.core.display.FadeInBitmapDisplayer;
+import com.nostra13.universalimageloader.core.imageaware.ImageAware;
+import com.nostra13.universalimageloader.core.imageaware.ImageViewAware;
+import com.nostra13.universalimageloader.core.imageaware.NonViewAware;
 import com.nostra13.universalimageloader.core.listener.ImageLoadingListener;
+import com.nostra13.universalimageloader.core.process.BitmapProcessor;
+import com.nostra13.universalimageloader.utils.MemoryCacheUtils;
+
+import java.io.File;
 
 /**
  * A {@link BaseImageTask} implementation that can be used to load remote image with <b>Url</b> target.
+ * <p>
+ * Requested size is mapped to {@link ImageSize} of the loading request, so Universal Image Loader
+ * decodes the image already down-sampled, and requested scaling to {@link ImageScaleType#EXACTLY}
+ * along with the corresponding {@link ViewScaleType}.
+ * <p>
+ * An image transformation is applied via {@link DisplayImageOptions.Builder#preProcessor(BitmapProcessor)},
+ * so the memory cache stores already transformed image under the target decorated with key of the
+ * transformation. Universal Image Loader caches images in memory only by theirs target and size,
+ * so if the loader is not configured via {@link ImageLoaderFactory#createConfigurationBuilder(android.content.Context)},
+ * the target is not decorated and the transformation is applied via {@link DisplayImageOptions.Builder#postProcessor(BitmapProcessor)}
+ * to the cached image each time it is loaded, but never on the main thread.
  *
  * @author Martin Albedinsky
  */
@@ -51,14 +76,50 @@ public class ImageTask extends BaseImageTask<com.nostra13.universalimageloader.c
 	 */
 	// private static final String TAG = "ImageTask";
 
+	/**
+	 * Separator of decoration appended to targets of tasks that load images in a specific bitmap
+	 * config or with an image transformation. Uris cannot contain this character unencoded.
+	 */
+	private static final char DECORATION_SEPARATOR = '\n';
+
 	/**
 	 * Static members ==============================================================================
 	 */
 
+	/**
+	 * Pool of recycled tasks.
+	 */
+	private static final TaskPool<ImageTask> POOL = new TaskPool<ImageTask>() {
+
+		/**
+		 */
+		@NonNull
+		@Override
+		protected ImageTask onCreateTask() {
+			return new ImageTask();
+		}
+	};
+
 	/**
 	 * Members =====================================================================================
 	 */
 
+	/**
+	 * Image aware used to preload image of this task. May be {@code null}.
+	 */
+	private AsyncAware mPreloadAware;
+
+	/**
+	 * Image aware used to asynchronously load image of this task if there is no image view specified.
+	 * May be {@code null}.
+	 */
+	private AsyncAware mLoadAware;
+
+	/**
+	 * Listener reused for asynchronous loads of this task. May be {@code null}.
+	 */
+	private Listener mListener;
+
 	/**
 	 * Constructors ================================================================================
 	 */
@@ -67,18 +128,46 @@ public class ImageTask extends BaseImageTask<com.nostra13.universalimageloader.c
 	 * Methods =====================================================================================
 	 */
 
+	/**
+	 * Obtains a task from the pool of recycled tasks or creates a new one if the pool is empty.
+	 * The obtained task should be recycled via {@link #recycle()} once it is no longer needed.
+	 *
+	 * @return Task ready to be configured.
+	 * @see TaskPool#obtain()
+	 */
+	@NonNull
+	public static ImageTask obtain() {
+		return POOL.obtain();
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected ImageTask onCreateTask() {
+		return new ImageTask();
+	}
+
 	/**
 	 */
 	@Override
 	protected boolean onLoad(@NonNull com.nostra13.universalimageloader.core.ImageLoader loader, @Nullable ImageLoader.Callback callback) {
 		ensureHasTargetOrThrow();
-		final DisplayImageOptions displayOptions = onPrepareDisplayOptionsBuilder(new DisplayImageOptions.Builder()).build();
-		final Listener listener = callback == null ? null : new Listener(this, callback);
+		final DisplayImageOptions displayOptions = buildDisplayOptions(loader, onPrepareDisplayOptionsBuilder(new DisplayImageOptions.Builder()));
+		final Listener listener = callback == null ? null : obtainListener(callback);
+		final String uri = loadUri(loader);
+		if (listener != null) listener.dispatching = true;
 		if (mView == null) {
-			loader.loadImage(mTarget, displayOptions, listener);
+			this.mLoadAware = new AsyncAware(uri, asyncImageSize(), viewScaleType());
+			loader.displayImage(uri, mLoadAware, displayOptions, listener);
 		} else {
-			loader.displayImage(mTarget, mView, displayOptions, listener);
+			if (hasSize()) {
+				loader.displayImage(uri, new SizedImageViewAware(mView, mWidth, mHeight, viewScaleType()), displayOptions, listener);
+			} else {
+				loader.displayImage(uri, mView, displayOptions, listener);
+			}
 		}
+		if (listener != null) listener.dispatching = false;
 		return true;
 	}
 
@@ -88,8 +177,200 @@ public class ImageTask extends BaseImageTask<com.nostra13.universalimageloader.c
 	@Override
 	protected Bitmap onLoad(@NonNull com.nostra13.universalimageloader.core.ImageLoader loader) {
 		ensureHasTargetOrThrow();
-		final DisplayImageOptions displayOptions = onPrepareDisplayOptionsBuilder(new DisplayImageOptions.Builder()).build();
-		return loader.loadImageSync(mTarget, displayOptions);
+		final DisplayImageOptions displayOptions = buildDisplayOptions(loader, onPrepareDisplayOptionsBuilder(new DisplayImageOptions.Builder()));
+		return hasSize() ?
+				loader.loadImageSync(loadUri(loader), new ImageSize(mWidth, mHeight), displayOptions) :
+				loader.loadImageSync(loadUri(loader), displayOptions);
+	}
+
+	/**
+	 * Returns the uri under which should be image of this task loaded via the specified <var>loader</var>.
+	 * <p>
+	 * Universal Image Loader stores images in its memory cache under keys composed only of theirs
+	 * uri and size, so the target is decorated with the resolved bitmap config and key of the image
+	 * transformation, if any. The decoration is stripped via {@link #undecoratedUri(String)} only
+	 * by the components of configuration created via {@link ImageLoaderFactory#createConfigurationBuilder(android.content.Context)},
+	 * so the target is decorated only if the loader has been initialized with {@link BitmapLruCache}.
+	 *
+	 * @param loader The loader that will load the image.
+	 * @return The target of this task, decorated if needed.
+	 */
+	private String loadUri(com.nostra13.universalimageloader.core.ImageLoader loader) {
+		if (!decoratesUri(loader)) {
+			return mTarget;
+		}
+		final Bitmap.Config config = resolveBitmapConfig(null);
+		if (config == null && mImageTransformation == null) {
+			return mTarget;
+		}
+		final StringBuilder uri = new StringBuilder(mTarget);
+		if (config != null) uri.append(DECORATION_SEPARATOR).append("config:").append(config.name());
+		if (mImageTransformation != null) uri.append(DECORATION_SEPARATOR).append("transformation:").append(mImageTransformation.getKey());
+		return uri.toString();
+	}
+
+	/**
+	 * Checks whether targets of tasks loaded via the specified <var>loader</var> are decorated.
+	 *
+	 * @param loader The loader to check.
+	 * @return {@code True} if the loader is initialized with {@link BitmapLruCache}, {@code false} otherwise.
+	 * @see #loadUri(com.nostra13.universalimageloader.core.ImageLoader)
+	 */
+	private static boolean decoratesUri(com.nostra13.universalimageloader.core.ImageLoader loader) {
+		return loader.isInited() && loader.getMemoryCache() instanceof BitmapLruCache;
+	}
+
+	/**
+	 * Specifies the image transformation of this task, if any, for the given display options <var>builder</var>.
+	 * If the target is decorated with key of the transformation, the transformation is applied before
+	 * the image is stored in the memory cache, otherwise after it is obtained from the cache.
+	 *
+	 * @param loader  The loader that will display the image.
+	 * @param builder The builder of the display options.
+	 */
+	private void applyImageTransformation(com.nostra13.universalimageloader.core.ImageLoader loader, DisplayImageOptions.Builder builder) {
+		if (mImageTransformation == null) {
+			return;
+		}
+		if (decoratesUri(loader)) builder.preProcessor(new TransformationAdapter(mImageTransformation, true));
+		else builder.postProcessor(new TransformationAdapter(mImageTransformation, false));
+	}
+
+	/**
+	 * Strips decoration appended to the specified <var>uri</var> by a task that loads image in
+	 * a specific bitmap config or with an image transformation.
+	 *
+	 * @param uri The uri to strip. May be {@code null}.
+	 * @return The uri without decoration.
+	 */
+	static String undecoratedUri(String uri) {
+		final int index = uri == null ? -1 : uri.indexOf(DECORATION_SEPARATOR);
+		return index == -1 ? uri : uri.substring(0, index);
+	}
+
+	/**
+	 * Builds display options from the given <var>builder</var> along with the image transformation
+	 * of this task. If the specified <var>loader</var> releases its cached bitmaps into a {@link BitmapPool},
+	 * the displayer of the options is wrapped, so the displayed bitmaps are not reused while they
+	 * are still in use.
+	 *
+	 * @param loader  The loader that will display the image.
+	 * @param builder The prepared builder of the display options.
+	 * @return Display options to be used for loading.
+	 * @see #applyImageTransformation(com.nostra13.universalimageloader.core.ImageLoader, DisplayImageOptions.Builder)
+	 */
+	private DisplayImageOptions buildDisplayOptions(com.nostra13.universalimageloader.core.ImageLoader loader, DisplayImageOptions.Builder builder) {
+		applyImageTransformation(loader, builder);
+		final BitmapPool bitmapPool = bitmapPoolOf(loader);
+		if (bitmapPool == null) {
+			return builder.build();
+		}
+		return builder.displayer(new PoolDisplayer(builder.build().getDisplayer(), bitmapPool)).build();
+	}
+
+	/**
+	 * Returns the bitmap pool into which releases the memory cache of the specified <var>loader</var>
+	 * its bitmaps.
+	 *
+	 * @param loader The loader of which bitmap pool to return.
+	 * @return The bitmap pool or {@code null} if the loader is not initialized or its memory cache
+	 * is not a {@link BitmapLruCache} with pool.
+	 */
+	@Nullable
+	static BitmapPool bitmapPoolOf(@NonNull com.nostra13.universalimageloader.core.ImageLoader loader) {
+		if (!loader.isInited()) {
+			return null;
+		}
+		final MemoryCache cache = loader.getMemoryCache();
+		return cache instanceof BitmapLruCache ? ((BitmapLruCache) cache).getBitmapPool() : null;
+	}
+
+	/**
+	 * Returns the view scale type corresponding to the scaling requested for this task.
+	 *
+	 * @return {@link ViewScaleType#CROP} if center crop has been requested, {@link ViewScaleType#FIT_INSIDE}
+	 * otherwise.
+	 */
+	private ViewScaleType viewScaleType() {
+		return hasRequest(REQUEST_CENTER_CROP) ? ViewScaleType.CROP : ViewScaleType.FIT_INSIDE;
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onPreload(@NonNull com.nostra13.universalimageloader.core.ImageLoader loader, @ImageLoader.CacheLevel int cacheLevel) {
+		ensureHasTargetOrThrow();
+		onCancelPreload(loader);
+		final DisplayImageOptions.Builder builder = onPrepareDisplayOptionsBuilder(new DisplayImageOptions.Builder())
+				.cacheInMemory(cacheLevel == ImageLoader.CACHE_LEVEL_MEMORY)
+				.cacheOnDisk(true);
+		applyImageTransformation(loader, builder);
+		final DisplayImageOptions displayOptions = builder.build();
+		final String uri = loadUri(loader);
+		this.mPreloadAware = new AsyncAware(uri, asyncImageSize(), viewScaleType());
+		loader.displayImage(uri, mPreloadAware, displayOptions, mPreloadAware);
+		return true;
+	}
+
+	/**
+	 * Returns listener for a new asynchronous load of this task. The current listener is reused
+	 * unless its load is still in flight.
+	 *
+	 * @param callback The callback to be notified by the listener.
+	 * @return Listener ready to be passed to the loader.
+	 */
+	private Listener obtainListener(ImageLoader.Callback callback) {
+		Listener listener = mListener;
+		if (listener == null || listener.callback != null) this.mListener = listener = new Listener(this);
+		listener.callback = callback;
+		return listener;
+	}
+
+	/**
+	 * Returns size to which should be decoded image of this task loaded without image view.
+	 *
+	 * @return The requested size or size of the device's display if there is no size requested.
+	 */
+	private ImageSize asyncImageSize() {
+		if (hasSize()) {
+			return new ImageSize(mWidth, mHeight);
+		}
+		final DisplayMetrics metrics = Resources.getSystem().getDisplayMetrics();
+		return new ImageSize(metrics.widthPixels, metrics.heightPixels);
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onCancelPreload(@NonNull com.nostra13.universalimageloader.core.ImageLoader loader) {
+		final AsyncAware aware = mPreloadAware;
+		this.mPreloadAware = null;
+		if (aware == null || aware.finished) {
+			return false;
+		}
+		loader.cancelDisplayTask(aware);
+		return true;
+	}
+
+	/**
+	 */
+	@Override
+	protected void onCancelLoad(@NonNull com.nostra13.universalimageloader.core.ImageLoader loader) {
+		final AsyncAware aware = mLoadAware;
+		this.mLoadAware = null;
+		if (mListener != null) mListener.callback = null;
+		if (mView != null) loader.cancelDisplayTask(mView);
+		else if (aware != null) loader.cancelDisplayTask(aware);
+	}
+
+	/**
+	 */
+	@Override
+	protected void onRecycle() {
+		super.onRecycle();
+		this.mPreloadAware = null;
+		this.mLoadAware = null;
+		if (mListener != null) mListener.callback = null;
 	}
 
 	/**
@@ -104,6 +385,11 @@ public class ImageTask extends BaseImageTask<com.nostra13.universalimageloader.c
 		if (mPlaceholder != null) builder.showImageOnLoading(mPlaceholder);
 		if (mErrorRes != NO_RESOURCE_ID) builder.showImageOnFail(mErrorRes);
 		if (mError != null) builder.showImageOnFail(mError);
+		if (hasSize() && (hasRequest(REQUEST_CENTER_CROP) || hasRequest(REQUEST_CENTER_INSIDE))) {
+			builder.imageScaleType(ImageScaleType.EXACTLY);
+		}
+		final Bitmap.Config config = resolveBitmapConfig(null);
+		if (config != null) builder.bitmapConfig(config);
 		if (mTransformation != null) {
 			if (!(mTransformation instanceof FadeInBitmapDisplayer) || !hasRequest(REQUEST_DO_NOT_ANIMATE)) {
 				builder.displayer(mTransformation);
@@ -118,16 +404,225 @@ public class ImageTask extends BaseImageTask<com.nostra13.universalimageloader.c
 	protected boolean onRemove(@NonNull com.nostra13.universalimageloader.core.ImageLoader loader) {
 		ensureHasTargetOrThrow();
 		final MemoryCache memoryCache = loader.getMemoryCache();
-		final boolean removedFromMemory = memoryCache != null && memoryCache.remove(mTarget) != null;
+		// Memory cache stores images under keys composed of target, its decoration and size, so all
+		// of them are removed.
+		final boolean removedFromMemory = memoryCache != null && !MemoryCacheUtils.findCacheKeysForImageUri(mTarget, memoryCache).isEmpty();
+		if (removedFromMemory) MemoryCacheUtils.removeFromCache(mTarget, memoryCache);
 		final DiskCache diskCache = loader.getDiskCache();
 		final boolean removedFromDisk = diskCache != null && diskCache.remove(mTarget);
 		return removedFromMemory || removedFromDisk;
 	}
 
+	/**
+	 * <p>
+	 * Universal Image Loader does not allow to only download an image, so remote images are available
+	 * for region decoding only once they are stored in its disk cache by a previous load.
+	 */
+	@Nullable
+	@Override
+	protected File onLoadFile(@NonNull com.nostra13.universalimageloader.core.ImageLoader loader) {
+		ensureHasTargetOrThrow();
+		final DiskCache diskCache = loader.getDiskCache();
+		final File file = diskCache == null ? null : diskCache.get(mTarget);
+		return file != null && file.exists() ? file : super.onLoadFile(loader);
+	}
+
 	/**
 	 * Inner classes ===============================================================================
 	 */
 
+	/**
+	 * Bitmap processor that applies an {@link ImageTransformation} with bitmaps obtained from the
+	 * shared transformation pool. A bitmap processed after it has been obtained from the memory cache
+	 * is owned by the cache, so it is never recycled nor pooled by this processor.
+	 */
+	private static final class TransformationAdapter implements BitmapProcessor {
+
+		/**
+		 * Adapted image transformation.
+		 */
+		final ImageTransformation transformation;
+
+		/**
+		 * Flag indicating whether the processed bitmap may be released into the transformation pool
+		 * once it is transformed into another bitmap.
+		 */
+		final boolean releasesSource;
+
+		/**
+		 * Creates a new TransformationAdapter for the given image <var>transformation</var>.
+		 *
+		 * @param transformation The transformation to be adapted.
+		 * @param releasesSource {@code True} if the processed bitmaps are freshly decoded and not
+		 *                       used by anything else, {@code false} otherwise.
+		 */
+		TransformationAdapter(ImageTransformation transformation, boolean releasesSource) {
+			this.transformation = transformation;
+			this.releasesSource = releasesSource;
+		}
+
+		/**
+		 */
+		@Override
+		public Bitmap process(Bitmap bitmap) {
+			final BitmapPool pool = transformationPool();
+			final Bitmap transformed = transformation.transform(bitmap, pool);
+			if (releasesSource && transformed != bitmap) pool.put(bitmap);
+			return transformed;
+		}
+	}
+
+	/**
+	 * A {@link BitmapDisplayer} wrapper that records bitmaps displayed in image views as attached
+	 * to them and bitmaps delivered without image view as retained by the client, so the bitmap
+	 * pool does not accept them while they are in use.
+	 */
+	private static final class PoolDisplayer implements BitmapDisplayer {
+
+		/**
+		 * Wrapped displayer.
+		 */
+		final BitmapDisplayer displayer;
+
+		/**
+		 * Pool in which to record the displayed bitmaps.
+		 */
+		final BitmapPool bitmapPool;
+
+		/**
+		 * Creates a new instance of PoolDisplayer to wrap the given <var>displayer</var>.
+		 *
+		 * @param displayer  The displayer to be wrapped.
+		 * @param bitmapPool The pool in which to record the displayed bitmaps.
+		 */
+		PoolDisplayer(BitmapDisplayer displayer, BitmapPool bitmapPool) {
+			this.displayer = displayer;
+			this.bitmapPool = bitmapPool;
+		}
+
+		/**
+		 */
+		@Override
+		public void display(Bitmap bitmap, ImageAware imageAware, LoadedFrom loadedFrom) {
+			final View view = imageAware.getWrappedView();
+			if (view instanceof ImageView) bitmapPool.attach((ImageView) view, bitmap);
+			else if (!imageAware.isCollected()) bitmapPool.retain(bitmap);
+			displayer.display(bitmap, imageAware, loadedFrom);
+		}
+	}
+
+	/**
+	 * An {@link ImageViewAware} implementation that reports the size and scale type requested for
+	 * a task instead of the ones of the wrapped image view.
+	 */
+	private static final class SizedImageViewAware extends ImageViewAware {
+
+		/**
+		 * Requested size in pixels.
+		 */
+		final int width, height;
+
+		/**
+		 * Requested scale type.
+		 */
+		final ViewScaleType scaleType;
+
+		/**
+		 * Creates a new instance of SizedImageViewAware for the given <var>view</var>.
+		 *
+		 * @param view      The image view to be wrapped.
+		 * @param width     The requested width.
+		 * @param height    The requested height.
+		 * @param scaleType The requested scale type.
+		 */
+		SizedImageViewAware(ImageView view, int width, int height, ViewScaleType scaleType) {
+			super(view);
+			this.width = width;
+			this.height = height;
+			this.scaleType = scaleType;
+		}
+
+		/**
+		 */
+		@Override
+		public int getWidth() {
+			return width;
+		}
+
+		/**
+		 */
+		@Override
+		public int getHeight() {
+			return height;
+		}
+
+		/**
+		 */
+		@Override
+		public ViewScaleType getScaleType() {
+			return scaleType;
+		}
+	}
+
+	/**
+	 * A {@link NonViewAware} implementation used for loading without image view that is identified
+	 * by its instance rather than by its uri, so multiple loads of the same image do not cancel each
+	 * other. When used also as listener, it tracks whether its loading has finished.
+	 */
+	private static final class AsyncAware extends NonViewAware implements ImageLoadingListener {
+
+		/**
+		 * Flag indicating whether loading for this image aware has finished.
+		 */
+		volatile boolean finished;
+
+		/**
+		 * Creates a new instance of AsyncAware with the specified parameters.
+		 *
+		 * @param imageUri  The uri of the loaded image.
+		 * @param imageSize The size to which to decode the image.
+		 * @param scaleType The scale type used to decode the image.
+		 */
+		AsyncAware(String imageUri, ImageSize imageSize, ViewScaleType scaleType) {
+			super(imageUri, imageSize, scaleType);
+		}
+
+		/**
+		 */
+		@Override
+		public int getId() {
+			return System.identityHashCode(this);
+		}
+
+		/**
+		 */
+		@Override
+		public void onLoadingStarted(String imageUri, View view) {
+			// Ignored.
+		}
+
+		/**
+		 */
+		@Override
+		public void onLoadingFailed(String imageUri, View view, FailReason failReason) {
+			this.finished = true;
+		}
+
+		/**
+		 */
+		@Override
+		public void onLoadingComplete(String imageUri, View view, Bitmap loadedImage) {
+			this.finished = true;
+		}
+
+		/**
+		 */
+		@Override
+		public void onLoadingCancelled(String imageUri, View view) {
+			this.finished = true;
+		}
+	}
+
 	/**
 	 * Listener that wraps implementation of {@link ImageLoadingListener} for a specific {@link ImageLoader.Task}
 	 * and {@link ImageLoader.Callback}.
@@ -137,22 +632,28 @@ public class ImageTask extends BaseImageTask<com.nostra13.universalimageloader.c
 		/**
 		 * Task for which has been loading performed.
 		 */
-		final ImageLoader.Task task;
+		final ImageTask task;
 
 		/**
-		 * Loader callback to be invoked in case of finished loading or failed loading.
+		 * Loader callback to be invoked in case of finished loading or failed loading. Cleared once
+		 * the loading finishes, so this listener may be reused. May be {@code null}.
 		 */
-		final ImageLoader.Callback callback;
+		ImageLoader.Callback callback;
 
 		/**
-		 * Creates a new Listener wrapper for the given <var>task</var> and <var>callback</var>.
+		 * Flag indicating whether the request is being currently dispatched to the loader. Universal
+		 * Image Loader delivers images found in its memory cache synchronously, so completion received
+		 * during dispatching means a memory cache hit.
+		 */
+		boolean dispatching;
+
+		/**
+		 * Creates a new Listener wrapper for the given <var>task</var>.
 		 *
-		 * @param task     The task for which has been loading performed.
-		 * @param callback The loader callback to be invoked in case of finished loading or failed loading.
+		 * @param task The task for which is loading performed.
 		 */
-		Listener(ImageLoader.Task task, ImageLoader.Callback callback) {
+		Listener(ImageTask task) {
 			this.task = task;
-			this.callback = callback;
 		}
 
 		/**
@@ -173,6 +674,13 @@ public class ImageTask extends BaseImageTask<com.nostra13.universalimageloader.c
 		 */
 		@Override
 		public void onLoadingComplete(String uri, View view, Bitmap bitmap) {
+			final ImageLoader.Callback callback = this.callback;
+			if (callback == null) {
+				return;
+			}
+			this.callback = null;
+			task.recordCacheLookup(ImageLoader.Metrics.CACHE_MEMORY, dispatching);
+			if (!dispatching && bitmap != null) task.recordBitmapDecoded(bitmap);
 			callback.onImageLoadFinished(task, bitmap);
 		}
 
@@ -180,6 +688,11 @@ public class ImageTask extends BaseImageTask<com.nostra13.universalimageloader.c
 		 */
 		@Override
 		public void onLoadingFailed(String uri, View view, FailReason failReason) {
+			final ImageLoader.Callback callback = this.callback;
+			if (callback == null) {
+				return;
+			}
+			this.callback = null;
 			callback.onImageLoadFailed(task, errorFromFailReason(failReason));
 		}
 
@@ -0,0 +1,135 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.webkit.MimeTypeMap;
+
+import com.nostra13.universalimageloader.core.assist.ContentLengthInputStream;
+import com.nostra13.universalimageloader.core.download.BaseImageDownloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link BaseImageDownloader} implementation that reads data of local image files with length
+ * of at least {@link MappedInputStream#MIN_LENGTH} from theirs memory mappings via {@link MappedInputStream}
+ * instead of via a buffered file stream.
+ * <p>
+ * Universal Image Loader decodes also images stored in its disk cache from {@code file} uris
+ * obtained via its downloader, so both local files and disk cache hits are read from the mappings.
+ * The mapped stream supports {@link InputStream#reset()}, so the loader decodes the image from the
+ * same mapping in both its decoding passes. Video files are still handled by the base downloader.
+ * <p>
+ * Image uris decorated by {@link ImageTask} are stripped of theirs decoration, so a custom downloader
+ * used along with loaders created via {@link ImageLoaderFactory#createLoader(Context)} should extend this one.
+ *
+ * @author Martin Albedinsky
+ * @see ImageLoaderFactory#createConfigurationBuilder(Context)
+ */
+public class MappedImageDownloader extends BaseImageDownloader {
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "MappedImageDownloader";
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Same as {@link #MappedImageDownloader(Context, int, int)} with default timeouts.
+	 */
+	public MappedImageDownloader(@NonNull Context context) {
+		super(context);
+	}
+
+	/**
+	 * Creates a new instance of MappedImageDownloader with the specified timeouts for network
+	 * connections.
+	 *
+	 * @param context        Context used to access content and assets.
+	 * @param connectTimeout The connect timeout in milliseconds.
+	 * @param readTimeout    The read timeout in milliseconds.
+	 */
+	public MappedImageDownloader(@NonNull Context context, int connectTimeout, int readTimeout) {
+		super(context, connectTimeout, readTimeout);
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * <p>
+	 * Decoration appended to the uri by {@link ImageTask} for images loaded in a specific bitmap
+	 * config or with an image transformation is stripped before the stream is opened.
+	 */
+	@Override
+	public InputStream getStream(String imageUri, Object extra) throws IOException {
+		return super.getStream(ImageTask.undecoratedUri(imageUri), extra);
+	}
+
+	/**
+	 */
+	@Override
+	protected InputStream getStreamFromFile(String imageUri, Object extra) throws IOException {
+		final File file = new File(Scheme.FILE.crop(imageUri));
+		final long length = file.length();
+		if (length < MappedInputStream.MIN_LENGTH || length > Integer.MAX_VALUE || isVideoUri(imageUri)) {
+			return super.getStreamFromFile(imageUri, extra);
+		}
+		return new ContentLengthInputStream(MappedInputStream.open(file), (int) length);
+	}
+
+	/**
+	 * Checks whether the specified <var>uri</var> refers to a video file.
+	 *
+	 * @param uri The uri to check.
+	 * @return {@code True} if mime type of the file is a video type, {@code false} otherwise.
+	 */
+	private static boolean isVideoUri(String uri) {
+		final String extension = MimeTypeMap.getFileExtensionFromUrl(uri);
+		final String mimeType = MimeTypeMap.getSingleton().getMimeTypeFromExtension(extension);
+		return mimeType != null && mimeType.startsWith("video/");
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,171 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.support.annotation.NonNull;
+
+import com.nostra13.universalimageloader.core.assist.ImageSize;
+import com.nostra13.universalimageloader.core.decode.BaseImageDecoder;
+import com.nostra13.universalimageloader.core.decode.ImageDecodingInfo;
+
+import java.io.IOException;
+
+/**
+ * A {@link BaseImageDecoder} implementation that decodes mutable bitmaps and reuses bitmaps from
+ * a {@link BitmapPool} for decoding via {@link BitmapFactory.Options#inBitmap}.
+ * <p>
+ * Universal Image Loader does not provide mime type of the decoded image to its decoders, so bitmaps
+ * are reused only on {@link Build.VERSION_CODES#KITKAT KITKAT} and above where the reused bitmap
+ * is not required to match the decoded image exactly. If a pooled bitmap cannot be reused for an
+ * image, the image is decoded again into a new bitmap.
+ *
+ * @author Martin Albedinsky
+ * @see ImageLoaderFactory#createConfigurationBuilder(android.content.Context)
+ */
+public class PooledImageDecoder extends BaseImageDecoder {
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "PooledImageDecoder";
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Pool from which are obtained bitmaps to be reused for decoding.
+	 */
+	private final BitmapPool mBitmapPool;
+
+	/**
+	 * Options with bitmap obtained from the pool for the decoding performed on the current thread.
+	 * May be {@code null}.
+	 */
+	private final ThreadLocal<BitmapFactory.Options> mReuseOptions = new ThreadLocal<>();
+
+	/**
+	 * Flag indicating whether the decoding performed on the current thread should not reuse bitmaps.
+	 */
+	private final ThreadLocal<Boolean> mReuseDisabled = new ThreadLocal<>();
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of PooledImageDecoder for the given <var>bitmapPool</var>.
+	 *
+	 * @param bitmapPool     The pool from which to reuse bitmaps.
+	 * @param loggingEnabled {@code True} to enable logging of the decoding, {@code false} otherwise.
+	 */
+	public PooledImageDecoder(@NonNull BitmapPool bitmapPool, boolean loggingEnabled) {
+		super(loggingEnabled);
+		this.mBitmapPool = bitmapPool;
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the pool from which this decoder reuses bitmaps.
+	 *
+	 * @return The bitmap pool.
+	 */
+	@NonNull
+	public final BitmapPool getBitmapPool() {
+		return mBitmapPool;
+	}
+
+	/**
+	 */
+	@Override
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	public Bitmap decode(ImageDecodingInfo decodingInfo) throws IOException {
+		try {
+			return super.decode(decodingInfo);
+		} catch (IllegalArgumentException e) {
+			final BitmapFactory.Options options = mReuseOptions.get();
+			if (options == null || options.inBitmap == null) {
+				throw e;
+			}
+			// Pooled bitmap could not be reused for this image.
+			mBitmapPool.put(options.inBitmap);
+			options.inBitmap = null;
+			mReuseDisabled.set(Boolean.TRUE);
+			try {
+				return super.decode(decodingInfo);
+			} finally {
+				mReuseDisabled.remove();
+			}
+		} finally {
+			mReuseOptions.remove();
+		}
+	}
+
+	/**
+	 */
+	@Override
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	protected BitmapFactory.Options prepareDecodingOptions(ImageSize imageSize, ImageDecodingInfo decodingInfo) {
+		final BitmapFactory.Options options = super.prepareDecodingOptions(imageSize, decodingInfo);
+		if (BitmapPool.isSupported()) {
+			options.inMutable = true;
+			if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && mReuseDisabled.get() == null) {
+				// Size of the image may be swapped due to its orientation which does not matter
+				// for the byte size of the reused bitmap.
+				options.outWidth = imageSize.getWidth();
+				options.outHeight = imageSize.getHeight();
+				if (mBitmapPool.applyInBitmap(options)) mReuseOptions.set(options);
+			}
+		}
+		return options;
+	}
+
+	/**
+	 * <p>
+	 * Decoration appended to the uri by {@link ImageTask} is stripped, so orientation of decorated
+	 * local images is still resolved.
+	 */
+	@Override
+	protected ExifInfo defineExifOrientation(String imageUri) {
+		return super.defineExifOrientation(ImageTask.undecoratedUri(imageUri));
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
@@ -0,0 +1,188 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.v4.util.LruCache;
+
+import com.android.volley.toolbox.ImageLoader.ImageCache;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link LruCache} implementation that is bounded by a total <b>byte</b> size of the stored bitmaps
+ * and may be used as {@link ImageCache} for {@link com.android.volley.toolbox.ImageLoader}.
+ *
+ * @author Martin Albedinsky
+ */
+public final class BitmapLruCache extends LruCache<String, Bitmap> implements ImageCache {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "BitmapLruCache";
+
+	/**
+	 * Divider used to compute the default size of the cache from the maximum memory available to
+	 * the current process.
+	 */
+	private static final int DEFAULT_SIZE_DIVIDER = 8;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Same as {@link #BitmapLruCache(int)} with size computed via {@link #defaultSize()}.
+	 */
+	public BitmapLruCache() {
+		this(defaultSize());
+	}
+
+	/**
+	 * Creates a new instance of BitmapLruCache with the specified maximum <var>size</var>.
+	 *
+	 * @param maxSize The maximum size of the cache in bytes.
+	 */
+	public BitmapLruCache(int maxSize) {
+		super(maxSize);
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the default size for the bitmap cache computed as <b>1/8</b> of the maximum memory
+	 * available to the current process.
+	 *
+	 * @return Default cache size in bytes.
+	 */
+	public static int defaultSize() {
+		return (int) (Runtime.getRuntime().maxMemory() / DEFAULT_SIZE_DIVIDER);
+	}
+
+	/**
+	 */
+	@Override
+	protected int sizeOf(String key, Bitmap bitmap) {
+		return byteCountOf(bitmap);
+	}
+
+	/**
+	 * Returns count of bytes occupied by pixels of the specified <var>bitmap</var>.
+	 *
+	 * @param bitmap The bitmap of which byte count to return.
+	 * @return Bitmap's byte count.
+	 */
+	static int byteCountOf(Bitmap bitmap) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB_MR1) {
+			return bitmap.getByteCount();
+		}
+		return bitmap.getRowBytes() * bitmap.getHeight();
+	}
+
+	/**
+	 */
+	@Override
+	public Bitmap getBitmap(String url) {
+		return get(url);
+	}
+
+	/**
+	 */
+	@Override
+	public void putBitmap(String url, Bitmap bitmap) {
+		put(url, bitmap);
+	}
+
+	/**
+	 * Removes all bitmaps stored in this cache for the specified <var>url</var> regardless the size
+	 * for which they have been requested.
+	 * <p>
+	 * <b>Note</b>, that {@link com.android.volley.toolbox.ImageLoader} stores bitmaps under keys
+	 * that are prefixed with the requested size and end with the requested url.
+	 *
+	 * @param url The url for which to remove all cached bitmaps.
+	 * @return {@code True} if at least one bitmap has been removed, {@code false} otherwise.
+	 */
+	public boolean removeBitmaps(@NonNull String url) {
+		boolean removed = false;
+		for (final Map.Entry<String, Bitmap> entry : snapshot().entrySet()) {
+			if (entry.getKey().endsWith(url)) {
+				removed |= remove(entry.getKey()) != null;
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Trims this cache to the specified <var>fraction</var> of its current size by evicting the
+	 * least recently used bitmaps.
+	 *
+	 * @param fraction The fraction of the current size to which to trim the cache. {@code 0} to
+	 *                 evict all bitmaps.
+	 * @return Count of bytes freed by the trim.
+	 */
+	public int trimToFraction(float fraction) {
+		final int initialSize = size();
+		if (fraction <= 0) evictAll();
+		else trimToSize(Math.round(initialSize * fraction));
+		return initialSize - size();
+	}
+
+	/**
+	 * Evicts all bitmaps from this cache except the specified <var>retainedBitmaps</var>.
+	 *
+	 * @param retainedBitmaps The bitmaps that should remain in the cache.
+	 * @return Count of bytes freed by the eviction.
+	 */
+	public int evictAllExcept(@NonNull Set<Bitmap> retainedBitmaps) {
+		int byteCount = 0;
+		for (final Map.Entry<String, Bitmap> entry : snapshot().entrySet()) {
+			if (!retainedBitmaps.contains(entry.getValue()) && remove(entry.getKey()) != null) {
+				byteCount += byteCountOf(entry.getValue());
+			}
+		}
+		return byteCount;
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+}
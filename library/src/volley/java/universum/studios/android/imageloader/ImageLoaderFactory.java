@@ -18,7 +18,14 @@
  */
 package universum.studios.android.imageloader;
 
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import com.android.volley.RequestQueue;
+
 /**
+ * Factory providing instances of {@link ImageLoader} implementations.
+ *
  * @author Martin Albedinsky
  */
 public abstract class ImageLoaderFactory {
@@ -60,6 +67,48 @@ public abstract class ImageLoaderFactory {
 	 * Methods =====================================================================================
 	 */
 
+	/**
+	 * Same as {@link #createLoader(Context, RequestQueue, int)} with cache size computed via {@link BitmapLruCache#defaultSize()}.
+	 */
+	@NonNull
+	public static ImageLoader createLoader(@NonNull Context context, @NonNull RequestQueue requestQueue) {
+		return createLoader(context, requestQueue, BitmapLruCache.defaultSize());
+	}
+
+	/**
+	 * Creates a new instance of {@link ImageLoader} implementation for the given <var>requestQueue</var>.
+	 * <p>
+	 * The created loader stores loaded bitmaps in a {@link BitmapLruCache} bounded by the specified
+	 * <var>cacheSize</var> and shares the given queue for execution of its image requests.
+	 *
+	 * @param context      Context used to initialize the {@link MemoryBudget}.
+	 * @param requestQueue The queue used to execute image requests. The queue is owned by the caller,
+	 *                     so it should be also started and stopped by the caller.
+	 * @param cacheSize    The maximum size of the bitmap memory cache in bytes.
+	 * @return New image loader implementation ready to be used.
+	 */
+	@NonNull
+	public static ImageLoader createLoader(@NonNull Context context, @NonNull RequestQueue requestQueue, int cacheSize) {
+		MemoryBudget.getInstance().initialize(context);
+		return new ImageLoaderImpl(new VolleyImageLoader(requestQueue, new BitmapLruCache(cacheSize)));
+	}
+
+	/**
+	 * Creates a new instance of {@link ImageLoader} implementation that wraps the given <var>loader</var>.
+	 * This may be used to share a loader that has been further configured, for example with
+	 * {@link VolleyImageLoader#setSchedulingMode(int) LIFO scheduling}.
+	 *
+	 * @param context Context used to initialize the {@link MemoryBudget}.
+	 * @param loader  The loader to be used to perform images loading.
+	 * @return New image loader implementation ready to be used.
+	 * @see #createLoader(Context, RequestQueue, int)
+	 */
+	@NonNull
+	public static ImageLoader createLoader(@NonNull Context context, @NonNull VolleyImageLoader loader) {
+		MemoryBudget.getInstance().initialize(context);
+		return new ImageLoaderImpl(loader);
+	}
+
 	/**
 	 * Inner classes ===============================================================================
 	 */
@@ -18,13 +18,18 @@
  */
 package universum.studios.android.imageloader;
 
+import android.graphics.Bitmap;
 import android.support.annotation.NonNull;
-import android.util.Log;
+
+import java.util.Set;
 
 /**
+ * A {@link BaseImageLoader} implementation that wraps instance of {@link VolleyImageLoader} loader
+ * used to perform loading for {@link ImageTask ImageTasks}.
+ *
  * @author Martin Albedinsky
  */
-final class ImageLoaderImpl extends BaseImageLoader<Void> {
+final class ImageLoaderImpl extends BaseImageLoader<VolleyImageLoader> {
 
 	/**
 	 * Interface ===================================================================================
@@ -37,7 +42,7 @@ final class ImageLoaderImpl extends BaseImageLoader<Void> {
 	/**
 	 * Log TAG.
 	 */
-	private static final String TAG = "ImageLoader#Volley";
+	// private static final String TAG = "ImageLoader#Volley";
 
 	/**
 	 * Static members ==============================================================================
@@ -52,9 +57,11 @@ final class ImageLoaderImpl extends BaseImageLoader<Void> {
 	 */
 
 	/**
-	 * @param loader
+	 * Creates a new instance of ImageLoaderImpl to wrap the given <var>loader</var>.
+	 *
+	 * @param loader The loader to be used to perform images loading.
 	 */
-	protected ImageLoaderImpl(@NonNull Void loader) {
+	protected ImageLoaderImpl(@NonNull VolleyImageLoader loader) {
 		super(loader);
 	}
 
@@ -66,49 +73,72 @@ final class ImageLoaderImpl extends BaseImageLoader<Void> {
 	 */
 	@Override
 	public void start() {
-		// Ignored.
+		// Ignored. Request queue is owned and started by the client.
 	}
 
 	/**
 	 */
 	@Override
 	public void resume() {
-		// Ignored.
+		mLoader.resume();
 	}
 
 	/**
 	 */
 	@Override
 	public void pause() {
-		// Ignored.
+		mLoader.pause();
 	}
 
 	/**
 	 */
 	@Override
 	public void stop() {
-		// Ignored.
+		// Ignored. Request queue is owned and stopped by the client.
 	}
 
 	/**
 	 */
 	@Override
 	public void destroy() {
-		// Ignored.
+		mLoader.getCache().evictAll();
+	}
+
+	/**
+	 */
+	@Override
+	protected long onMeasureMemoryCache() {
+		return mLoader.getCache().size();
+	}
+
+	/**
+	 */
+	@NonNull
+	@Override
+	protected Object onIdentifyMemoryCache() {
+		return mLoader.getCache();
+	}
+
+	/**
+	 */
+	@Override
+	protected long onTrimMemoryCache(float fraction) {
+		return mLoader.getCache().trimToFraction(fraction);
 	}
 
 	/**
 	 */
 	@Override
-	public void onTrimMemory(int level) {
-		Log.w(TAG, "Should trim memory for level(" + level + ").");
+	protected long onEvictDetachedBitmaps(@NonNull Set<Bitmap> attachedBitmaps) {
+		return mLoader.getCache().evictAllExcept(attachedBitmaps);
 	}
 
 	/**
 	 */
+	@NonNull
 	@Override
-	public void onLowMemory() {
-		Log.w(TAG, "Running low on memory.");
+	protected ImageTask onObtainTask() {
+		return ImageTask.obtain();
 	}
 
 	/**
@@ -19,13 +19,50 @@
 package universum.studios.android.imageloader;
 
 import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.TransitionDrawable;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import com.android.volley.AuthFailureError;
+import com.android.volley.NetworkError;
+import com.android.volley.ParseError;
+import com.android.volley.Response;
+import com.android.volley.ServerError;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.ImageLoader.ImageContainer;
+import com.android.volley.toolbox.ImageLoader.ImageListener;
+import com.android.volley.toolbox.ImageRequest;
+import com.android.volley.toolbox.RequestFuture;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
+ * A {@link BaseImageTask} implementation that can be used to load remote image with <b>Url</b> target.
+ * <p>
+ * Requested size is passed to Volley as maximum size of the decoded bitmap, so Volley decodes the
+ * image already down-sampled to fit inside that size. Volley supports only such scaling, so
+ * {@link #centerCrop()} is handled the same as {@link #centerInside()}.
+ * <p>
+ * Images are decoded in {@link VolleyImageLoader#DEFAULT_BITMAP_CONFIG} unless a different config
+ * is resolved for the task, in which case the config is also part of the key under which is the
+ * bitmap stored in the memory cache. Volley does not expose format of the image before decoding
+ * it, so {@link #preferRgb565(boolean)} is honored only for targets with an extension of an opaque
+ * image format.
+ * <p>
+ * <b>Note</b>, that Volley does not support transformations of the loaded images, so any specified
+ * transformation, including {@link #bitmapTransform(ImageTransformation) image transformation},
+ * is ignored.
+ *
  * @author Martin Albedinsky
  */
-public final class ImageTask extends BaseImageTask<Void, String, Void> {
+public final class ImageTask extends BaseImageTask<VolleyImageLoader, String, Void> {
 
 	/**
 	 * Interface ===================================================================================
@@ -40,14 +77,54 @@ public final class ImageTask extends BaseImageTask<Void, String, Void> {
 	 */
 	// private static final String TAG = "ImageTask";
 
+	/**
+	 * Duration of the fade-in animation used when attaching loaded bitmap to the associated view.
+	 */
+	private static final int FADE_IN_DURATION = 200;
+
+
 	/**
 	 * Static members ==============================================================================
 	 */
 
+	/**
+	 * Pool of recycled tasks.
+	 */
+	private static final TaskPool<ImageTask> POOL = new TaskPool<ImageTask>() {
+
+		/**
+		 */
+		@NonNull
+		@Override
+		protected ImageTask onCreateTask() {
+			return new ImageTask();
+		}
+	};
+
 	/**
 	 * Members =====================================================================================
 	 */
 
+	/**
+	 * Request used to preload image of this task into the disk cache. May be {@code null}.
+	 */
+	private VolleyImageLoader.PrefetchRequest mPrefetchRequest;
+
+	/**
+	 * Listener of the request used to preload image of this task into the memory cache. May be {@code null}.
+	 */
+	private PreloadListener mPreloadListener;
+
+	/**
+	 * Container of the request used to asynchronously load image of this task. May be {@code null}.
+	 */
+	private ImageContainer mLoadContainer;
+
+	/**
+	 * Listener reused for asynchronous loads of this task. May be {@code null}.
+	 */
+	private Listener mListener;
+
 	/**
 	 * Constructors ================================================================================
 	 */
@@ -56,28 +133,375 @@ public final class ImageTask extends BaseImageTask<Void, String, Void> {
 	 * Methods =====================================================================================
 	 */
 
+	/**
+	 * Obtains a task from the pool of recycled tasks or creates a new one if the pool is empty.
+	 * The obtained task should be recycled via {@link #recycle()} once it is no longer needed.
+	 *
+	 * @return Task ready to be configured.
+	 * @see TaskPool#obtain()
+	 */
+	@NonNull
+	public static ImageTask obtain() {
+		return POOL.obtain();
+	}
+
 	/**
 	 */
+	@NonNull
 	@Override
-	protected boolean onLoad(@NonNull Void loader, @Nullable ImageLoader.Callback callback) {
-		return false;
+	protected ImageTask onCreateTask() {
+		return new ImageTask();
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onLoad(@NonNull VolleyImageLoader loader, @Nullable ImageLoader.Callback callback) {
+		ensureHasTargetOrThrow();
+		if (mView != null) {
+			loader.bindContainer(mView, null);
+			attachPlaceholder();
+		}
+		final Listener listener = obtainListener(loader, callback);
+		final ImageContainer container = loader.get(mTarget, listener, mWidth, mHeight, mPriority, resolveBitmapConfig(null));
+		if (container.getBitmap() == null) {
+			this.mLoadContainer = container;
+			if (mView != null) loader.bindContainer(mView, container);
+		}
+		return true;
+	}
+
+	/**
+	 */
+	@Nullable
+	@Override
+	protected Bitmap onLoad(@NonNull VolleyImageLoader loader) {
+		ensureHasTargetOrThrow();
+		if (Looper.myLooper() == Looper.getMainLooper()) {
+			throw new IllegalStateException("Synchronous loading cannot be performed on the main thread.");
+		}
+		try {
+			return onLoadAsync(loader).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ImageLoader.Error(
+					ImageLoader.Error.REASON_UNKNOWN,
+					"Failed to load image.",
+					e
+			);
+		} catch (ExecutionException e) {
+			throw errorFromVolleyError(e.getCause());
+		}
+	}
+
+	/**
+	 * <p>
+	 * Bitmap stored in the memory cache is returned via already finished future, otherwise Volley's
+	 * {@link RequestFuture} is returned, so cancelling of the future cancels the Volley request.
+	 * If the future fails, its cause is the {@link VolleyError}.
+	 */
+	@NonNull
+	@Override
+	protected Future<Bitmap> onLoadAsync(@NonNull VolleyImageLoader loader) {
+		ensureHasTargetOrThrow();
+		final Bitmap.Config config = resolveBitmapConfig(null);
+		final String cacheKey = "#W" + mWidth + "#H" + mHeight + VolleyImageLoader.cacheUrl(mTarget, config);
+		final Bitmap cachedBitmap = loader.getCache().getBitmap(cacheKey);
+		if (cachedBitmap != null) {
+			return LoadFuture.finished(cachedBitmap);
+		}
+		final RequestFuture<Bitmap> future = RequestFuture.newFuture();
+		final ImageRequest request = new VolleyImageLoader.PriorityImageRequest(
+				mTarget,
+				new CachingListener(loader.getCache(), cacheKey, future),
+				mWidth,
+				mHeight,
+				future,
+				config == null ? VolleyImageLoader.DEFAULT_BITMAP_CONFIG : config,
+				VolleyImageLoader.volleyPriority(mPriority),
+				loader.getSchedulingMode() == PriorityExecutor.SCHEDULING_LIFO
+		);
+		future.setRequest(loader.getRequestQueue().add(request));
+		return future;
+	}
+
+	/**
+	 */
+	@Override
+	protected boolean onRemove(@NonNull VolleyImageLoader loader) {
+		ensureHasTargetOrThrow();
+		final boolean removedFromMemory = loader.getCache().removeBitmaps(mTarget);
+		final com.android.volley.Cache diskCache = loader.getRequestQueue().getCache();
+		final boolean removedFromDisk = diskCache != null && diskCache.get(mTarget) != null;
+		if (removedFromDisk) diskCache.remove(mTarget);
+		return removedFromMemory || removedFromDisk;
 	}
 
 	/**
 	 */
 	@Override
-	protected Bitmap onLoad(@NonNull Void loader) {
-		return null;
+	protected boolean onPreload(@NonNull VolleyImageLoader loader, @ImageLoader.CacheLevel int cacheLevel) {
+		ensureHasTargetOrThrow();
+		onCancelPreload(loader);
+		if (cacheLevel == ImageLoader.CACHE_LEVEL_DISK_ONLY) {
+			this.mPrefetchRequest = new VolleyImageLoader.PrefetchRequest(mTarget, VolleyImageLoader.volleyPriority(mPriority));
+			loader.addRequest(mPrefetchRequest);
+		} else {
+			this.mPreloadListener = new PreloadListener();
+			mPreloadListener.container = loader.get(mTarget, mPreloadListener, mWidth, mHeight, mPriority, resolveBitmapConfig(null));
+		}
+		return true;
 	}
 
 	/**
 	 */
 	@Override
-	protected boolean onRemove(@NonNull Void loader) {
+	protected boolean onCancelPreload(@NonNull VolleyImageLoader loader) {
+		final VolleyImageLoader.PrefetchRequest request = mPrefetchRequest;
+		final PreloadListener listener = mPreloadListener;
+		this.mPrefetchRequest = null;
+		this.mPreloadListener = null;
+		if (request != null && !request.isCanceled() && !request.hasHadResponseDelivered()) {
+			request.cancel();
+			return true;
+		}
+		if (listener != null && !listener.finished && listener.container != null) {
+			listener.container.cancelRequest();
+			return true;
+		}
 		return false;
 	}
 
+	/**
+	 */
+	@Override
+	protected void onCancelLoad(@NonNull VolleyImageLoader loader) {
+		final ImageContainer container = mLoadContainer;
+		this.mLoadContainer = null;
+		if (mListener != null) mListener.release();
+		if (mView != null) loader.bindContainer(mView, null);
+		else if (container != null) container.cancelRequest();
+	}
+
+	/**
+	 */
+	@Override
+	protected void onRecycle() {
+		super.onRecycle();
+		this.mPrefetchRequest = null;
+		this.mPreloadListener = null;
+		this.mLoadContainer = null;
+		if (mListener != null) mListener.release();
+	}
+
+	/**
+	 * Returns listener for a new asynchronous load of this task. The current listener is reused
+	 * unless its load is still in flight.
+	 *
+	 * @param loader   The loader used to perform the loading.
+	 * @param callback The callback to be notified by the listener. May be {@code null}.
+	 * @return Listener ready to be passed to the loader.
+	 */
+	private Listener obtainListener(VolleyImageLoader loader, ImageLoader.Callback callback) {
+		Listener listener = mListener;
+		if (listener == null || listener.active) this.mListener = listener = new Listener(this);
+		listener.loader = loader;
+		listener.callback = callback;
+		listener.active = true;
+		return listener;
+	}
+
+	/**
+	 * Creates a new instance of Error from the given <var>volleyError</var>.
+	 *
+	 * @param volleyError The error from which to create the loader error.
+	 * @return New error instance.
+	 */
+	static ImageLoader.Error errorFromVolleyError(Throwable volleyError) {
+		final int reason;
+		if (volleyError instanceof ParseError) {
+			reason = volleyError.getCause() instanceof OutOfMemoryError ?
+					ImageLoader.Error.REASON_MEMORY :
+					ImageLoader.Error.REASON_DECODING;
+		} else if (volleyError instanceof TimeoutError ||
+				volleyError instanceof NetworkError ||
+				volleyError instanceof ServerError ||
+				volleyError instanceof AuthFailureError) {
+			reason = ImageLoader.Error.REASON_NETWORK;
+		} else {
+			reason = ImageLoader.Error.REASON_UNKNOWN;
+		}
+		return new ImageLoader.Error(reason, "Failed to load image.", volleyError);
+	}
+
 	/**
 	 * Inner classes ===============================================================================
 	 */
+
+	/**
+	 * Listener used for preloading that only tracks whether the preloading has finished.
+	 */
+	private static final class PreloadListener implements ImageListener {
+
+		/**
+		 * Container of the preloading request.
+		 */
+		ImageContainer container;
+
+		/**
+		 * Flag indicating whether the preloading has finished.
+		 */
+		boolean finished;
+
+		/**
+		 */
+		@Override
+		public void onResponse(ImageContainer response, boolean isImmediate) {
+			this.finished = response.getBitmap() != null;
+		}
+
+		/**
+		 */
+		@Override
+		public void onErrorResponse(VolleyError error) {
+			this.finished = true;
+		}
+	}
+
+	/**
+	 * Listener that stores the loaded bitmap in the memory cache before it is delivered to the future
+	 * of an asynchronous load.
+	 */
+	private static final class CachingListener implements Response.Listener<Bitmap> {
+
+		/**
+		 * Cache in which to store the loaded bitmap.
+		 */
+		final BitmapLruCache cache;
+
+		/**
+		 * Key under which to store the loaded bitmap.
+		 */
+		final String cacheKey;
+
+		/**
+		 * Future to which to deliver the loaded bitmap.
+		 */
+		final RequestFuture<Bitmap> future;
+
+		/**
+		 * Creates a new instance of CachingListener with the specified parameters.
+		 *
+		 * @param cache    The cache in which to store the loaded bitmap.
+		 * @param cacheKey The key under which to store the loaded bitmap.
+		 * @param future   The future to which to deliver the loaded bitmap.
+		 */
+		CachingListener(BitmapLruCache cache, String cacheKey, RequestFuture<Bitmap> future) {
+			this.cache = cache;
+			this.cacheKey = cacheKey;
+			this.future = future;
+		}
+
+		/**
+		 */
+		@Override
+		public void onResponse(Bitmap bitmap) {
+			cache.putBitmap(cacheKey, bitmap);
+			future.onResponse(bitmap);
+		}
+	}
+
+	/**
+	 * Listener that wraps implementation of {@link ImageListener} for a specific {@link ImageTask}
+	 * and {@link ImageLoader.Callback}.
+	 */
+	private static final class Listener implements ImageListener {
+
+		/**
+		 * Task for which has been loading performed.
+		 */
+		final ImageTask task;
+
+		/**
+		 * Loader used to perform the loading. May be {@code null}.
+		 */
+		VolleyImageLoader loader;
+
+		/**
+		 * Loader callback to be invoked in case of finished loading or failed loading. May be {@code null}.
+		 */
+		ImageLoader.Callback callback;
+
+		/**
+		 * Flag indicating whether a load delivering to this listener is in flight.
+		 */
+		boolean active;
+
+		/**
+		 * Creates a new Listener wrapper for the given <var>task</var>.
+		 *
+		 * @param task The task for which is loading performed.
+		 */
+		Listener(ImageTask task) {
+			this.task = task;
+		}
+
+		/**
+		 * Releases loader and callback of this listener so it may be reused for another load.
+		 */
+		void release() {
+			this.loader = null;
+			this.callback = null;
+			this.active = false;
+		}
+
+		/**
+		 */
+		@Override
+		public void onResponse(ImageContainer response, boolean isImmediate) {
+			final Bitmap bitmap = response.getBitmap();
+			if (bitmap == null) {
+				// Volley notifies listener immediately with no bitmap when the request is dispatched.
+				return;
+			}
+			if (!active) {
+				return;
+			}
+			final VolleyImageLoader loader = this.loader;
+			final ImageLoader.Callback callback = this.callback;
+			release();
+			task.recordCacheLookup(ImageLoader.Metrics.CACHE_MEMORY, isImmediate);
+			if (!isImmediate) task.recordBitmapDecoded(bitmap);
+			final ImageView view = task.mView;
+			if (view != null) {
+				loader.unbindContainer(view, response);
+				if (isImmediate || task.hasRequest(REQUEST_DO_NOT_ANIMATE)) {
+					view.setImageBitmap(bitmap);
+				} else {
+					final Drawable current = view.getDrawable();
+					final TransitionDrawable transition = new TransitionDrawable(new Drawable[]{
+							current == null ? new ColorDrawable(0) : current,
+							new BitmapDrawable(view.getResources(), bitmap)
+					});
+					transition.setCrossFadeEnabled(true);
+					view.setImageDrawable(transition);
+					transition.startTransition(FADE_IN_DURATION);
+				}
+			}
+			if (callback != null) callback.onImageLoadFinished(task, bitmap);
+		}
+
+		/**
+		 */
+		@Override
+		public void onErrorResponse(VolleyError error) {
+			if (!active) {
+				return;
+			}
+			final ImageLoader.Callback callback = this.callback;
+			release();
+			task.attachError();
+			if (callback != null) callback.onImageLoadFailed(task, errorFromVolleyError(error));
+		}
+	}
 }
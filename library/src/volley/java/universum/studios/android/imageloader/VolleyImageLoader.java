@@ -0,0 +1,556 @@
+/*
+ * =================================================================================================
+ *                             Copyright (C) 2016 Universum Studios
+ * =================================================================================================
+ *         Licensed under the Apache License, Version 2.0 or later (further "License" only).
+ * -------------------------------------------------------------------------------------------------
+ * You may use this file only in compliance with the License. More details and copy of this License
+ * you may obtain at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * You can redistribute, modify or publish any part of the code written within this file but as it
+ * is described in the License, the software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES or CONDITIONS OF ANY KIND.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ * =================================================================================================
+ */
+package universum.studios.android.imageloader;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import com.android.volley.Network;
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.HttpHeaderParser;
+import com.android.volley.toolbox.ImageLoader;
+import com.android.volley.toolbox.ImageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * An {@link ImageLoader} extension that keeps references to the {@link RequestQueue} and {@link BitmapLruCache}
+ * used by it, so they can be accessed by {@link ImageTask ImageTasks}, and that tracks requests
+ * bound to image views.
+ *
+ * @author Martin Albedinsky
+ */
+public final class VolleyImageLoader extends ImageLoader {
+
+	/**
+	 * Constants ===================================================================================
+	 */
+
+	/**
+	 * Log TAG.
+	 */
+	// private static final String TAG = "VolleyImageLoader";
+
+	/**
+	 * Delay in milliseconds for which are batched responses delivered to the main thread.
+	 */
+	public static final int BATCHED_RESPONSE_DELAY = 100;
+
+	/**
+	 * Config in which are bitmaps decoded if there is no other config requested. Preserves alpha
+	 * channel, so {@link Bitmap.Config#RGB_565} is used only for opaque images of tasks that prefer
+	 * it via {@link ImageTask#preferRgb565(boolean)}.
+	 */
+	public static final Bitmap.Config DEFAULT_BITMAP_CONFIG = Bitmap.Config.ARGB_8888;
+
+	/**
+	 * Interface ===================================================================================
+	 */
+
+	/**
+	 * Static members ==============================================================================
+	 */
+
+	/**
+	 * Members =====================================================================================
+	 */
+
+	/**
+	 * Queue used to execute image requests.
+	 */
+	private final RequestQueue mRequestQueue;
+
+	/**
+	 * Queue through which are image requests of this loader added into {@link #mRequestQueue}, so
+	 * they may be held while this loader is paused.
+	 */
+	private final PausableRequestQueue mPausableQueue;
+
+	/**
+	 * Cache used to store loaded bitmaps in memory.
+	 */
+	private final BitmapLruCache mCache;
+
+	/**
+	 * Map containing image containers of requests that are currently bound to theirs image views.
+	 */
+	private final Map<ImageView, ImageContainer> mViewContainers = new WeakHashMap<>();
+
+	/**
+	 * Priority for image request that is being currently made via {@link #get(String, ImageListener, int, int, int)}.
+	 */
+	private Request.Priority mRequestPriority = Request.Priority.NORMAL;
+
+	/**
+	 * Url of image request that is being currently made via {@link #get(String, ImageListener, int, int, int, Bitmap.Config)}
+	 * without the config prefix. May be {@code null}.
+	 */
+	private String mRequestUrl;
+
+	/**
+	 * Config for image request that is being currently made via {@link #get(String, ImageListener, int, int, int, Bitmap.Config)}.
+	 */
+	private Bitmap.Config mRequestConfig = DEFAULT_BITMAP_CONFIG;
+
+	/**
+	 * Mode determining in which order are executed image requests with the same priority.
+	 */
+	private volatile int mSchedulingMode = PriorityExecutor.SCHEDULING_FIFO;
+
+	/**
+	 * Constructors ================================================================================
+	 */
+
+	/**
+	 * Creates a new instance of VolleyImageLoader for the given <var>requestQueue</var> and <var>cache</var>.
+	 * <p>
+	 * Responses delivered by this loader are batched with {@link #BATCHED_RESPONSE_DELAY}.
+	 *
+	 * @param requestQueue The queue used to execute image requests.
+	 * @param cache        The cache used to store loaded bitmaps in memory.
+	 */
+	public VolleyImageLoader(@NonNull RequestQueue requestQueue, @NonNull BitmapLruCache cache) {
+		this(requestQueue, new PausableRequestQueue(requestQueue), cache);
+	}
+
+	/**
+	 * Creates a new instance of VolleyImageLoader that adds image requests through the specified
+	 * <var>pausableQueue</var>.
+	 *
+	 * @param requestQueue  The queue used to execute image requests.
+	 * @param pausableQueue The queue wrapping the request queue.
+	 * @param cache         The cache used to store loaded bitmaps in memory.
+	 */
+	private VolleyImageLoader(RequestQueue requestQueue, PausableRequestQueue pausableQueue, BitmapLruCache cache) {
+		super(pausableQueue, cache);
+		this.mRequestQueue = requestQueue;
+		this.mPausableQueue = pausableQueue;
+		this.mCache = cache;
+		setBatchedResponseDelay(BATCHED_RESPONSE_DELAY);
+	}
+
+	/**
+	 * Methods =====================================================================================
+	 */
+
+	/**
+	 * Returns the request queue used by this loader.
+	 *
+	 * @return This loader's request queue.
+	 */
+	@NonNull
+	public RequestQueue getRequestQueue() {
+		return mRequestQueue;
+	}
+
+	/**
+	 * Returns the bitmap cache used by this loader.
+	 *
+	 * @return This loader's bitmap cache.
+	 */
+	@NonNull
+	public BitmapLruCache getCache() {
+		return mCache;
+	}
+
+	/**
+	 * Pauses execution of image requests of this loader. Requests made meanwhile are held by this
+	 * loader and added into the request queue once {@link #resume()} is called. Requests that are
+	 * already in the queue are still executed and requests for which there are bitmaps stored in
+	 * the bitmap cache are still delivered.
+	 * <p>
+	 * The request queue itself is not stopped, so other requests of a shared queue are not affected.
+	 * <p>
+	 * This method should be called only from the main thread.
+	 *
+	 * @see #isPaused()
+	 */
+	public void pause() {
+		mPausableQueue.setPaused(true);
+	}
+
+	/**
+	 * Resumes execution of image requests paused via {@link #pause()} by adding the held requests,
+	 * that have not been cancelled meanwhile, into the request queue.
+	 * <p>
+	 * This method should be called only from the main thread.
+	 *
+	 * @see #isPaused()
+	 */
+	public void resume() {
+		mPausableQueue.setPaused(false);
+	}
+
+	/**
+	 * Checks whether execution of image requests of this loader is paused.
+	 *
+	 * @return {@code True} if paused, {@code false} otherwise.
+	 * @see #pause()
+	 */
+	public boolean isPaused() {
+		return mPausableQueue.isPaused();
+	}
+
+	/**
+	 * Adds the specified <var>request</var> made on behalf of an image task into the request queue,
+	 * or holds it until {@link #resume()} if this loader is paused.
+	 *
+	 * @param request The request to be added.
+	 */
+	void addRequest(@NonNull Request<?> request) {
+		mPausableQueue.add(request);
+	}
+
+	/**
+	 * Specifies a mode determining in which order should be executed image requests with the same
+	 * priority. {@link PriorityExecutor#SCHEDULING_LIFO} may be used to load images of the most
+	 * recently bound views first, for example while scrolling a list. The mode is applied to image
+	 * requests made after this call.
+	 * <p>
+	 * <b>Note</b>, that other requests of a shared request queue are still executed in order in
+	 * which have been they added to the queue.
+	 *
+	 * @param mode The desired mode. One of {@link PriorityExecutor#SCHEDULING_FIFO} or
+	 *             {@link PriorityExecutor#SCHEDULING_LIFO}.
+	 * @see #getSchedulingMode()
+	 */
+	public void setSchedulingMode(@PriorityExecutor.SchedulingMode int mode) {
+		this.mSchedulingMode = mode;
+	}
+
+	/**
+	 * Returns the current scheduling mode of this loader.
+	 *
+	 * @return Scheduling mode. One of {@link PriorityExecutor#SCHEDULING_FIFO} or
+	 * {@link PriorityExecutor#SCHEDULING_LIFO}.
+	 * @see #setSchedulingMode(int)
+	 */
+	@PriorityExecutor.SchedulingMode
+	public int getSchedulingMode() {
+		return mSchedulingMode;
+	}
+
+	/**
+	 * Same as {@link #get(String, ImageListener, int, int)} where request made for the specified
+	 * <var>requestUrl</var>, if not in flight yet, is executed with the specified <var>priority</var>
+	 * and decodes the bitmap in the specified <var>config</var>.
+	 *
+	 * @param priority The priority of the task for which is the image requested. One of priorities
+	 *                 defined by {@link universum.studios.android.imageloader.ImageLoader.Task}.
+	 * @param config   The config in which to decode the bitmap. May be {@code null} to use
+	 *                 {@link #DEFAULT_BITMAP_CONFIG}.
+	 * @see #cacheUrl(String, Bitmap.Config)
+	 */
+	@NonNull
+	ImageContainer get(@NonNull String requestUrl, @NonNull ImageListener listener, int maxWidth, int maxHeight, int priority, @Nullable Bitmap.Config config) {
+		this.mRequestPriority = volleyPriority(priority);
+		this.mRequestUrl = requestUrl;
+		this.mRequestConfig = config == null ? DEFAULT_BITMAP_CONFIG : config;
+		try {
+			return get(cacheUrl(requestUrl, config), listener, maxWidth, maxHeight);
+		} finally {
+			this.mRequestPriority = Request.Priority.NORMAL;
+			this.mRequestUrl = null;
+			this.mRequestConfig = DEFAULT_BITMAP_CONFIG;
+		}
+	}
+
+	/**
+	 * Returns the url under which should be bitmap of the specified <var>url</var> decoded in the
+	 * specified <var>config</var> stored in the bitmap cache.
+	 * <p>
+	 * Volley stores bitmaps under keys composed only of the requested size and url, so url of bitmap
+	 * decoded in other than {@link #DEFAULT_BITMAP_CONFIG} is prefixed with the config. Keys still
+	 * end with the url, so such bitmaps are removed via {@link BitmapLruCache#removeBitmaps(String)}.
+	 *
+	 * @param url    The url of the requested image.
+	 * @param config The config in which is the bitmap decoded. May be {@code null} for the default one.
+	 * @return Url to be used as part of the cache key.
+	 */
+	@NonNull
+	static String cacheUrl(@NonNull String url, @Nullable Bitmap.Config config) {
+		return config == null || config == DEFAULT_BITMAP_CONFIG ? url : "#C" + config.name() + url;
+	}
+
+	/**
+	 */
+	@Override
+	protected Request<Bitmap> makeImageRequest(String requestUrl, int maxWidth, int maxHeight, final String cacheKey) {
+		final String url = mRequestUrl == null ? requestUrl : mRequestUrl;
+		return new PriorityImageRequest(url, new Response.Listener<Bitmap>() {
+
+			/**
+			 */
+			@Override
+			public void onResponse(Bitmap response) {
+				onGetImageSuccess(cacheKey, response);
+			}
+		}, maxWidth, maxHeight, new Response.ErrorListener() {
+
+			/**
+			 */
+			@Override
+			public void onErrorResponse(VolleyError error) {
+				onGetImageError(cacheKey, error);
+			}
+		}, mRequestConfig, mRequestPriority, mSchedulingMode == PriorityExecutor.SCHEDULING_LIFO);
+	}
+
+	/**
+	 * Maps the specified task <var>priority</var> to the corresponding Volley's {@link Request.Priority}.
+	 *
+	 * @param priority The task priority to map.
+	 * @return Volley priority.
+	 */
+	@NonNull
+	static Request.Priority volleyPriority(int priority) {
+		switch (priority) {
+			case universum.studios.android.imageloader.ImageLoader.Task.PRIORITY_IMMEDIATE:
+				return Request.Priority.IMMEDIATE;
+			case universum.studios.android.imageloader.ImageLoader.Task.PRIORITY_HIGH:
+				return Request.Priority.HIGH;
+			case universum.studios.android.imageloader.ImageLoader.Task.PRIORITY_LOW:
+			case universum.studios.android.imageloader.ImageLoader.Task.PRIORITY_PREFETCH:
+				return Request.Priority.LOW;
+			default:
+				return Request.Priority.NORMAL;
+		}
+	}
+
+	/**
+	 * Binds the specified <var>container</var> to the given image <var>view</var>. If there is
+	 * already bound container for the view, request of such container is cancelled.
+	 *
+	 * @param view      The view to which to bind the container.
+	 * @param container The container to be bound. May be {@code null} to only cancel the current one.
+	 */
+	void bindContainer(@NonNull ImageView view, @Nullable ImageContainer container) {
+		final ImageContainer current = container == null ? mViewContainers.remove(view) : mViewContainers.put(view, container);
+		if (current != null && current != container) current.cancelRequest();
+	}
+
+	/**
+	 * Unbinds the specified <var>container</var> from the given image <var>view</var> if it is
+	 * currently bound to it.
+	 *
+	 * @param view      The view from which to unbind the container.
+	 * @param container The container to be unbound.
+	 */
+	void unbindContainer(@NonNull ImageView view, @NonNull ImageContainer container) {
+		if (mViewContainers.get(view) == container) mViewContainers.remove(view);
+	}
+
+	/**
+	 * Inner classes ===============================================================================
+	 */
+
+	/**
+	 * An {@link ImageRequest} implementation that is executed with a specific priority. Requests
+	 * created as LIFO are executed before other LIFO image requests with the same priority that
+	 * have been added to the queue earlier.
+	 */
+	static final class PriorityImageRequest extends ImageRequest {
+
+		/**
+		 * Priority of this request.
+		 */
+		private final Priority priority;
+
+		/**
+		 * Flag indicating whether this request should be executed before the earlier ones.
+		 */
+		private final boolean lifo;
+
+		/**
+		 * Creates a new instance of PriorityImageRequest that decodes bitmaps in the specified <var>config</var>.
+		 *
+		 * @param config   The config in which to decode bitmaps.
+		 * @param priority The priority with which should be the request executed.
+		 * @param lifo     {@code True} to execute the request before the earlier LIFO requests
+		 *                 with the same priority, {@code false} otherwise.
+		 * @see ImageRequest#ImageRequest(String, Response.Listener, int, int, Bitmap.Config, Response.ErrorListener)
+		 */
+		PriorityImageRequest(String url, Response.Listener<Bitmap> listener, int maxWidth, int maxHeight, Response.ErrorListener errorListener, Bitmap.Config config, Priority priority, boolean lifo) {
+			super(url, listener, maxWidth, maxHeight, config, errorListener);
+			this.priority = priority;
+			this.lifo = lifo;
+		}
+
+		/**
+		 */
+		@Override
+		public Priority getPriority() {
+			return priority;
+		}
+
+		/**
+		 */
+		@Override
+		public int compareTo(Request<Bitmap> other) {
+			if (lifo && other instanceof PriorityImageRequest && ((PriorityImageRequest) other).lifo && priority == other.getPriority()) {
+				return other.getSequence() - getSequence();
+			}
+			return super.compareTo(other);
+		}
+	}
+
+	/**
+	 * A {@link RequestQueue} implementation that adds requests into a wrapped queue unless it is
+	 * paused, in which case the requests are held until it is resumed. This queue is never started,
+	 * so it does not run any dispatchers of its own.
+	 */
+	static final class PausableRequestQueue extends RequestQueue {
+
+		/**
+		 * Network of the wrapped queue is used instead, so this one is never asked to perform requests.
+		 */
+		private static final Network NO_NETWORK = new Network() {
+
+			/**
+			 */
+			@Override
+			public NetworkResponse performRequest(Request<?> request) throws VolleyError {
+				throw new VolleyError("Requests are performed by the wrapped queue.");
+			}
+		};
+
+		/**
+		 * Queue into which are the requests added.
+		 */
+		private final RequestQueue queue;
+
+		/**
+		 * Requests added while this queue has been paused.
+		 */
+		private final List<Request<?>> heldRequests = new ArrayList<>();
+
+		/**
+		 * Flag indicating whether this queue is paused.
+		 */
+		private boolean paused;
+
+		/**
+		 * Creates a new instance of PausableRequestQueue that wraps the specified <var>queue</var>.
+		 *
+		 * @param queue The queue into which to add requests.
+		 */
+		PausableRequestQueue(RequestQueue queue) {
+			super(queue.getCache(), NO_NETWORK);
+			this.queue = queue;
+		}
+
+		/**
+		 */
+		@Override
+		public <T> Request<T> add(Request<T> request) {
+			synchronized (heldRequests) {
+				if (paused) {
+					heldRequests.add(request);
+					return request;
+				}
+			}
+			return queue.add(request);
+		}
+
+		/**
+		 * Pauses or resumes this queue. When resumed, all held requests that have not been cancelled
+		 * meanwhile are added into the wrapped queue.
+		 *
+		 * @param paused {@code True} to pause, {@code false} to resume.
+		 */
+		void setPaused(boolean paused) {
+			final List<Request<?>> requests;
+			synchronized (heldRequests) {
+				this.paused = paused;
+				if (paused || heldRequests.isEmpty()) {
+					return;
+				}
+				requests = new ArrayList<>(heldRequests);
+				heldRequests.clear();
+			}
+			for (final Request<?> request : requests) {
+				if (!request.isCanceled()) queue.add(request);
+			}
+		}
+
+		/**
+		 * Returns a flag indicating whether this queue is paused.
+		 *
+		 * @return {@code True} if paused, {@code false} otherwise.
+		 */
+		boolean isPaused() {
+			synchronized (heldRequests) {
+				return paused;
+			}
+		}
+	}
+
+	/**
+	 * A {@link Request} implementation that only fetches image data into the disk cache of the request
+	 * queue without decoding them.
+	 */
+	static final class PrefetchRequest extends Request<Void> {
+
+		/**
+		 * Priority of this request.
+		 */
+		private final Priority priority;
+
+		/**
+		 * Creates a new instance of PrefetchRequest for the specified <var>url</var>.
+		 *
+		 * @param url      The url of the image to be fetched.
+		 * @param priority The priority with which should be the request executed.
+		 */
+		PrefetchRequest(String url, Priority priority) {
+			super(Method.GET, url, null);
+			this.priority = priority;
+		}
+
+		/**
+		 */
+		@Override
+		public Priority getPriority() {
+			return priority;
+		}
+
+		/**
+		 */
+		@Override
+		protected Response<Void> parseNetworkResponse(NetworkResponse response) {
+			return Response.success(null, HttpHeaderParser.parseCacheHeaders(response));
+		}
+
+		/**
+		 */
+		@Override
+		protected void deliverResponse(Void response) {
+			// Data are only stored in the disk cache.
+		}
+	}
+}